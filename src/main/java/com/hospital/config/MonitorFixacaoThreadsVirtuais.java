@@ -0,0 +1,84 @@
+package com.hospital.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta threads virtuais fixadas (pinned) na thread portadora, que bloqueiam dentro de um bloco
+ * {@code synchronized} ou de código nativo e deixam de liberar a portadora para outras requisições.
+ * <p>
+ * Escuta o evento {@code jdk.VirtualThreadPinned} do JFR quando as threads virtuais estão ligadas
+ * ({@code quarkus.virtual-threads.enabled}), registra no log a pilha de cada fixação acima de
+ * {@code threads-virtuais.fixacao.limite} e conta as ocorrências em {@code threads_virtuais_fixadas_total}
+ * no {@code /q/metrics}.
+ */
+@ApplicationScoped
+public class MonitorFixacaoThreadsVirtuais {
+
+    private static final Logger LOG = Logger.getLogger(MonitorFixacaoThreadsVirtuais.class);
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int QUADROS_NO_LOG = 12;
+
+    @ConfigProperty(name = "threads-virtuais.fixacao.limite", defaultValue = "20ms")
+    Duration limite;
+
+    /** O valor em vigor, o mesmo que o Quarkus usa para os endpoints com {@code @RunOnVirtualThread}. */
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled")
+    boolean threadsVirtuais;
+
+    @Inject
+    MeterRegistry registry;
+
+    private RecordingStream gravacao;
+
+    void iniciar(@Observes StartupEvent evento) {
+        if (!threadsVirtuais) {
+            return;
+        }
+        Counter fixacoes = Counter.builder("threads.virtuais.fixadas")
+                .description("Threads virtuais que bloquearam presas à thread portadora")
+                .register(registry);
+        gravacao = new RecordingStream();
+        gravacao.enable(EVENTO).withThreshold(limite).withStackTrace();
+        gravacao.onEvent(EVENTO, fixacao -> {
+            fixacoes.increment();
+            LOG.warnf("Thread virtual fixada na portadora por %d ms:%n%s",
+                    fixacao.getDuration().toMillis(), pilha(fixacao));
+        });
+        gravacao.startAsync();
+    }
+
+    void encerrar(@Observes ShutdownEvent evento) {
+        if (gravacao != null) {
+            gravacao.close();
+        }
+    }
+
+    private static String pilha(RecordedEvent fixacao) {
+        if (fixacao.getStackTrace() == null) {
+            return "\t(pilha indisponível)";
+        }
+        return fixacao.getStackTrace().getFrames().stream()
+                .limit(QUADROS_NO_LOG)
+                .map(MonitorFixacaoThreadsVirtuais::quadro)
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static String quadro(RecordedFrame quadro) {
+        return "\tat " + quadro.getMethod().getType().getName() + "." + quadro.getMethod().getName()
+                + "(linha " + quadro.getLineNumber() + ")";
+    }
+}
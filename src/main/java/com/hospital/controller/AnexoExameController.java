@@ -0,0 +1,174 @@
+package com.hospital.controller;
+
+import com.hospital.dto.AnexoExameDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.service.AnexoExameService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.PathPart;
+import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+@Path("/api/v1/exames/{exameId}/anexos")
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Tag(name = "Anexo de exame", description = "Arquivos anexados aos exames (imagens, laudos, DICOM)")
+public class AnexoExameController {
+
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+    private static final String CONTENT_RANGE = "Content-Range";
+    private static final String IF_RANGE = "If-Range";
+
+    @Inject
+    AnexoExameService anexoExameService;
+
+    @GET
+    @Operation(summary = "Listar anexos do exame", description = "Retorna os metadados dos arquivos anexados ao exame")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Lista de anexos",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AnexoExameDTO.class)))
+    })
+    public Response listar(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("exameId") Long exameId) {
+        return Response.ok(anexoExameService.listarPorExame(exameId)).build();
+    }
+
+    @GET
+    @Path("/{id}")
+    @Operation(summary = "Buscar anexo", description = "Retorna os metadados de um arquivo anexado ao exame")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Anexo encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AnexoExameDTO.class))),
+            @APIResponse(responseCode = "404", description = "Anexo não encontrado")
+    })
+    public Response buscar(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("exameId") Long exameId,
+            @Parameter(description = "ID do anexo", required = true)
+            @PathParam("id") Long id) {
+        return Response.ok(anexoExameService.buscar(exameId, id)).build();
+    }
+
+    @GET
+    @Path("/{id}/conteudo")
+    @Produces(MediaType.WILDCARD)
+    @Operation(summary = "Baixar anexo",
+            description = "Envia o arquivo do disco em blocos, sem carregá-lo inteiro na memória e sem compressão. "
+                    + "Aceita Range (um intervalo por requisição) e If-Range; o ETag é o SHA-256 do conteúdo")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Arquivo completo"),
+            @APIResponse(responseCode = "206", description = "Intervalo pedido em Range"),
+            @APIResponse(responseCode = "304", description = "If-None-Match casa com o conteúdo atual"),
+            @APIResponse(responseCode = "404", description = "Anexo não encontrado"),
+            @APIResponse(responseCode = "416", description = "Range fora do arquivo")
+    })
+    public Response baixar(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("exameId") Long exameId,
+            @Parameter(description = "ID do anexo", required = true)
+            @PathParam("id") Long id,
+            @HeaderParam("Range") String range,
+            @HeaderParam(IF_RANGE) String ifRange,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        AnexoExameDTO anexo = anexoExameService.buscar(exameId, id);
+        // Conteúdo endereçado pelo SHA-256: o mesmo ETag é o mesmo conteúdo, byte a byte
+        String etag = "\"" + anexo.getSha256() + "\"";
+        if (EtagsVersao.casa(ifNoneMatch, etag)) {
+            return Response.notModified().tag(anexo.getSha256()).build();
+        }
+        java.nio.file.Path arquivo = anexoExameService.arquivo(anexo);
+        long tamanho = anexo.getTamanho();
+        Response.ResponseBuilder resposta;
+        try {
+            IntervaloBytes intervalo = ifRange == null || ifRange.strip().equals(etag)
+                    ? IntervaloBytes.ler(range, tamanho)
+                    : null;
+            resposta = intervalo == null
+                    ? Response.ok(new PathPart(arquivo, 0, tamanho))
+                    : Response.status(Response.Status.PARTIAL_CONTENT)
+                            .entity(new PathPart(arquivo, intervalo.getInicio(), intervalo.getTamanho()))
+                            .header(CONTENT_RANGE, intervalo.contentRange(tamanho));
+        } catch (IntervaloBytes.Insatisfazivel e) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, e.contentRange())
+                    .build();
+        }
+        // Sem compressão: o Content-Range conta bytes do arquivo, e um anexo em JSON ou CSV cairia em
+        // quarkus.http.compress-media-types
+        return resposta
+                .type(anexo.getTipoConteudo())
+                .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                .tag(anexo.getSha256())
+                .header(ACCEPT_RANGES, "bytes")
+                .header("Content-Disposition", "inline; filename*=UTF-8''"
+                        + URLEncoder.encode(anexo.getNome(), StandardCharsets.UTF_8).replace("+", "%20"))
+                .build();
+    }
+
+    @POST
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Operation(summary = "Anexar arquivo ao exame",
+            description = "Recebe o arquivo no campo multipart \"arquivo\". O upload é gravado em disco à medida que "
+                    + "chega; arquivos com o mesmo conteúdo são guardados uma vez só")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "201", description = "Arquivo anexado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AnexoExameDTO.class))),
+            @APIResponse(responseCode = "400", description = "Campo \"arquivo\" ausente"),
+            @APIResponse(responseCode = "404", description = "Exame não encontrado"),
+            @APIResponse(responseCode = "413", description = "Arquivo maior que quarkus.http.limits.max-body-size")
+    })
+    public Response anexar(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("exameId") Long exameId,
+            @RestForm("arquivo") FileUpload arquivo,
+            @Context UriInfo uriInfo) {
+        if (arquivo == null) {
+            throw new BusinessException("O arquivo é obrigatório (campo multipart \"arquivo\")");
+        }
+        String tipoConteudo = arquivo.contentType() == null || arquivo.contentType().isBlank()
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : arquivo.contentType();
+        String nome = arquivo.fileName() == null || arquivo.fileName().isBlank() ? "arquivo" : arquivo.fileName();
+        AnexoExameDTO anexo = anexoExameService.anexar(exameId, nome, tipoConteudo, arquivo.uploadedFile());
+        URI location = uriInfo.getAbsolutePathBuilder().path(anexo.getId().toString()).build();
+        return Response.created(location).entity(anexo).build();
+    }
+
+    @DELETE
+    @Path("/{id}")
+    @Operation(summary = "Excluir anexo", description = "Remove o arquivo anexado ao exame")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "204", description = "Anexo excluído com sucesso"),
+            @APIResponse(responseCode = "404", description = "Anexo não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
+    })
+    public Response excluir(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("exameId") Long exameId,
+            @Parameter(description = "ID do anexo", required = true)
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        anexoExameService.excluir(exameId, id, EtagsVersao.versaoEsperada(ifMatch, id));
+        return Response.noContent().build();
+    }
+}
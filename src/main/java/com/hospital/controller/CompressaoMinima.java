@@ -0,0 +1,106 @@
+package com.hospital.controller;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Dispensa a compressão de respostas menores que {@code compressao.tamanho-minimo} bytes: nelas o
+ * cabeçalho do gzip/brotli e a CPU gasta superam a economia.
+ * <p>
+ * O tamanho só é conhecido quando a resposta inteira é escrita de uma vez (com {@code Content-Length});
+ * respostas em streaming, como as exportações NDJSON, seguem a regra de {@code quarkus.http.compress-media-types}.
+ * <p>
+ * Como o formato (JSON ou CBOR) e a compressão dependem de {@code Accept} e {@code Accept-Encoding},
+ * toda resposta declara {@code Vary: Accept, Accept-Encoding}, inclusive os {@code 304}, para que caches
+ * intermediários guardem uma cópia por representação.
+ * <p>
+ * A codificação (gzip, deflate ou brotli) é escolhida pelo Vert.x depois dos filtros da aplicação, que por
+ * isso só sabem, por {@link #aceitaCompressao}, se a resposta pode sair comprimida.
+ */
+@ApplicationScoped
+public class CompressaoMinima {
+
+    private static final List<String> VARIA_COM = List.of("Accept", "Accept-Encoding");
+    /** As codificações de {@code quarkus.http.compressors}, e {@code *}. */
+    private static final Set<String> CODIFICACOES = Set.of("gzip", "deflate", "br", "*");
+
+    @ConfigProperty(name = "compressao.tamanho-minimo")
+    int tamanhoMinimo;
+
+    void registrar(@Observes Router router) {
+        router.route().order(Integer.MIN_VALUE).handler(contexto -> {
+            HttpServerResponse resposta = contexto.response();
+            contexto.addHeadersEndHandler(ignorado -> {
+                variar(resposta);
+                String tamanho = resposta.headers().get(HttpHeaders.CONTENT_LENGTH);
+                if (tamanho != null && !resposta.headers().contains(HttpHeaders.CONTENT_ENCODING)
+                        && Long.parseLong(tamanho) < tamanhoMinimo) {
+                    resposta.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+                }
+            });
+            contexto.next();
+        });
+    }
+
+    /**
+     * Se o {@code Accept-Encoding} aceita, com peso maior que zero, alguma codificação que o servidor usa:
+     * nesse caso uma resposta de tipo comprimível pode sair com bytes diferentes da representação sem
+     * compressão.
+     */
+    static boolean aceitaCompressao(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            if (CODIFICACOES.contains(partes[0].strip().toLowerCase(Locale.ROOT)) && peso(partes) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double peso(String[] partes) {
+        for (int i = 1; i < partes.length; i++) {
+            String parametro = partes[i].strip();
+            if (parametro.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parametro.substring(2).strip());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /** Junta Accept e Accept-Encoding ao {@code Vary}, preservando o que outro filtro (CORS, por exemplo) já pôs. */
+    private static void variar(HttpServerResponse resposta) {
+        Set<String> valores = new LinkedHashSet<>();
+        for (String vary : resposta.headers().getAll(HttpHeaders.VARY)) {
+            for (String valor : vary.split(",")) {
+                if (!valor.isBlank()) {
+                    valores.add(valor.strip());
+                }
+            }
+        }
+        if (valores.contains("*")) {
+            return;
+        }
+        for (String cabecalho : VARIA_COM) {
+            if (valores.stream().noneMatch(cabecalho::equalsIgnoreCase)) {
+                valores.add(cabecalho);
+            }
+        }
+        resposta.headers().set(HttpHeaders.VARY, String.join(", ", valores));
+    }
+}
@@ -1,13 +1,22 @@
 package com.hospital.controller;
 
+import com.hospital.dto.AgendamentoLoteDTO;
 import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.HorarioDisponivelDTO;
+import com.hospital.dto.HorarioLivreDTO;
+import com.hospital.dto.ResultadoAgendamentoLoteDTO;
+import com.hospital.exception.BusinessException;
 import com.hospital.model.Consulta;
 import com.hospital.model.enums.StatusConsulta;
 import com.hospital.service.ConsultaService;
+import com.hospital.util.Cursor;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -20,37 +29,51 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
-
-
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.format.DateTimeParseException;
 
 @Path("/api/v1/consultas")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Consulta", description = "Operações relacionadas às consultas médicas")
 public class ConsultaController {
 
     @Inject
     ConsultaService consultaService;
 
+    @Inject
+    NdjsonStreaming ndjson;
+
+    @Inject
+    LeiturasReativas leituras;
+
+    @RunOnVirtualThread
     @GET
+    @Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR, NdjsonStreaming.APPLICATION_NDJSON})
     @Operation(summary = "Listar todas as consultas", description = "Retorna uma lista de todas as consultas cadastradas no sistema")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de consultas",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ConsultaDTO.class)))
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ConsultaDTO.class)),
+                            @Content(mediaType = NdjsonStreaming.APPLICATION_NDJSON,
+                                    schema = @Schema(implementation = ConsultaDTO.class))})
     })
-    public Response listarTodas() {
-        List<Consulta> consultas = consultaService.listarTodas();
-        return Response.ok(consultas.stream()
-                .map(consultaService::toDTO)
-                .collect(Collectors.toList())).build();
+    public Response listarTodas(
+            @BeanParam PaginacaoParams paginacao,
+            @BeanParam ExportacaoParams exportacao) {
+        if (exportacao.isAtiva()) {
+            return ndjson.resposta(consultaService::exportarTodas);
+        }
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(consultaService.listarTodas(paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(consultaService.listarTodas()).build();
     }
 
+    @RunOnVirtualThread
     @GET
     @Path("/{id}")
     @Operation(summary = "Buscar consulta por ID", description = "Retorna uma consulta específica com base no ID fornecido")
@@ -63,8 +86,7 @@ public class ConsultaController {
     public Response buscarPorId(
             @Parameter(description = "ID da consulta", required = true)
             @PathParam("id") Long id) {
-        Consulta consulta = consultaService.buscarPorId(id);
-        return Response.ok(consultaService.toDTO(consulta)).build();
+        return Response.ok(consultaService.buscarDTOPorId(id)).build();
     }
 
     @GET
@@ -75,13 +97,16 @@ public class ConsultaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ConsultaDTO.class)))
     })
-    public Response listarPorMedico(
+    public Uni<Response> listarPorMedico(
             @Parameter(description = "ID do médico", required = true)
-            @PathParam("medicoId") Long medicoId) {
-        List<Consulta> consultas = consultaService.listarPorMedico(medicoId);
-        return Response.ok(consultas.stream()
-                .map(consultaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("medicoId") Long medicoId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            Cursor cursor = paginacao.getCursor();
+            int limite = paginacao.getLimite();
+            return leituras.ler(() -> consultaService.listarPorMedico(medicoId, cursor, limite)).map(paginacao::resposta);
+        }
+        return leituras.ler(() -> consultaService.listarPorMedico(medicoId)).map(consultas -> Response.ok(consultas).build());
     }
 
     @GET
@@ -92,15 +117,19 @@ public class ConsultaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ConsultaDTO.class)))
     })
-    public Response listarPorPaciente(
+    public Uni<Response> listarPorPaciente(
             @Parameter(description = "ID do paciente", required = true)
-            @PathParam("pacienteId") Long pacienteId) {
-        List<Consulta> consultas = consultaService.listarPorPaciente(pacienteId);
-        return Response.ok(consultas.stream()
-                .map(consultaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("pacienteId") Long pacienteId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            Cursor cursor = paginacao.getCursor();
+            int limite = paginacao.getLimite();
+            return leituras.ler(() -> consultaService.listarPorPaciente(pacienteId, cursor, limite)).map(paginacao::resposta);
+        }
+        return leituras.ler(() -> consultaService.listarPorPaciente(pacienteId)).map(consultas -> Response.ok(consultas).build());
     }
 
+    @RunOnVirtualThread
     @GET
     @Path("/status/{status}")
     @Operation(summary = "Listar consultas por status", description = "Retorna uma lista de consultas com o status especificado")
@@ -111,13 +140,15 @@ public class ConsultaController {
     })
     public Response listarPorStatus(
             @Parameter(description = "Status da consulta (AGENDADA, REALIZADA, CANCELADA)", required = true)
-            @PathParam("status") StatusConsulta status) {
-        List<Consulta> consultas = consultaService.listarPorStatus(status);
-        return Response.ok(consultas.stream()
-                .map(consultaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("status") StatusConsulta status,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(consultaService.listarPorStatus(status, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(consultaService.listarPorStatus(status)).build();
     }
 
+    @RunOnVirtualThread
     @GET
     @Path("/periodo")
     @Operation(summary = "Listar consultas por período", description = "Retorna uma lista de consultas dentro do período especificado")
@@ -131,23 +162,75 @@ public class ConsultaController {
             @Parameter(description = "Data e hora de início (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
             @QueryParam("inicio") String inicio,
             @Parameter(description = "Data e hora de fim (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
-            @QueryParam("fim") String fim) {
+            @QueryParam("fim") String fim,
+            @BeanParam PaginacaoParams paginacao) {
+
+        LocalDateTime dataInicio = dataHora(inicio);
+        LocalDateTime dataFim = dataHora(fim);
 
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-            LocalDateTime dataInicio = LocalDateTime.parse(inicio, formatter);
-            LocalDateTime dataFim = LocalDateTime.parse(fim, formatter);
-
-            List<Consulta> consultas = consultaService.listarPorIntervaloData(dataInicio, dataFim);
-            return Response.ok(consultas.stream()
-                    .map(consultaService::toDTO)
-                    .collect(Collectors.toList())).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Formato de data inválido. Use o formato ISO: yyyy-MM-dd'T'HH:mm:ss").build();
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(consultaService.listarPorIntervaloData(dataInicio, dataFim, paginacao.getCursor(), paginacao.getLimite()));
         }
+        return Response.ok(consultaService.listarPorIntervaloData(dataInicio, dataFim)).build();
+    }
+
+    @RunOnVirtualThread
+    @GET
+    @Path("/medico/{medicoId}/horarios-livres")
+    @Operation(summary = "Listar horários livres do médico",
+            description = "Retorna os horários de 30 minutos sem consulta agendada no período especificado (até 31 dias)")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Lista de horários livres",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HorarioLivreDTO.class))),
+            @APIResponse(responseCode = "400", description = "Parâmetros de data inválidos")
+    })
+    public Response listarHorariosLivres(
+            @Parameter(description = "ID do médico", required = true)
+            @PathParam("medicoId") Long medicoId,
+            @Parameter(description = "Data e hora de início (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @QueryParam("inicio") String inicio,
+            @Parameter(description = "Data e hora de fim (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @QueryParam("fim") String fim) {
+
+        LocalDateTime dataInicio = dataHora(inicio);
+        LocalDateTime dataFim = dataHora(fim);
+
+        return Response.ok(consultaService.listarHorariosLivres(medicoId, dataInicio, dataFim)).build();
+    }
+
+    @RunOnVirtualThread
+    @GET
+    @Path("/especialidade/{especialidadeId}/horarios-livres")
+    @Operation(summary = "Listar próximos horários livres da especialidade",
+            description = "Retorna os primeiros horários livres entre todos os médicos da especialidade no período (até 31 dias), em ordem de início")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Lista de horários livres",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HorarioDisponivelDTO.class))),
+            @APIResponse(responseCode = "400", description = "Parâmetros inválidos"),
+            @APIResponse(responseCode = "404", description = "Especialidade não encontrada")
+    })
+    public Response listarHorariosLivresPorEspecialidade(
+            @Parameter(description = "ID da especialidade", required = true)
+            @PathParam("especialidadeId") Long especialidadeId,
+            @Parameter(description = "Data e hora de início (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @QueryParam("inicio") String inicio,
+            @Parameter(description = "Data e hora de fim (formato ISO: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @QueryParam("fim") String fim,
+            @Parameter(description = "Duração em minutos, múltipla de 5 (padrão 30)")
+            @QueryParam("duracao") @DefaultValue("30") int duracao,
+            @Parameter(description = "Quantidade máxima de horários (padrão 10, máximo 100)")
+            @QueryParam("quantidade") @DefaultValue("10") int quantidade) {
+
+        LocalDateTime dataInicio = dataHora(inicio);
+        LocalDateTime dataFim = dataHora(fim);
+
+        return Response.ok(consultaService.listarHorariosLivresPorEspecialidade(
+                especialidadeId, dataInicio, dataFim, duracao, quantidade)).build();
     }
 
+    @RunOnVirtualThread
     @POST
     @Operation(summary = "Agendar consulta", description = "Agenda uma nova consulta com os dados fornecidos")
     @APIResponses(value = {
@@ -167,6 +250,27 @@ public class ConsultaController {
         return Response.created(location).entity(consultaService.toDTO(consulta)).build();
     }
 
+    @RunOnVirtualThread
+    @POST
+    @Path("/lote")
+    @Operation(summary = "Agendar consultas em lote",
+            description = "Agenda várias consultas numa única transação (por exemplo, as sessões de um plano de tratamento) "
+                    + "e informa o resultado de cada uma. No modo TUDO_OU_NADA qualquer recusa impede a gravação do lote; "
+                    + "no modo MELHOR_ESFORCO só as consultas recusadas ficam de fora")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Resultado de cada consulta do lote",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoAgendamentoLoteDTO.class))),
+            @APIResponse(responseCode = "400", description = "Modo não informado, lote vazio ou com mais de 50 consultas")
+    })
+    public Response agendarEmLote(
+            @RequestBody(description = "Modo do agendamento e consultas do lote", required = true,
+                    content = @Content(schema = @Schema(implementation = AgendamentoLoteDTO.class)))
+            @Valid AgendamentoLoteDTO lote) {
+        return Response.ok(consultaService.agendarEmLote(lote)).build();
+    }
+
+    @RunOnVirtualThread
     @PUT
     @Path("/{id}")
     @Operation(summary = "Atualizar consulta", description = "Atualiza os dados de uma consulta existente")
@@ -175,19 +279,23 @@ public class ConsultaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ConsultaDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos ou consulta já realizada/cancelada"),
-            @APIResponse(responseCode = "404", description = "Consulta não encontrada")
+            @APIResponse(responseCode = "404", description = "Consulta não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID da consulta", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados da consulta", required = true,
                     content = @Content(schema = @Schema(implementation = ConsultaDTO.class)))
             @Valid ConsultaDTO consultaDTO) {
 
-        Consulta consulta = consultaService.atualizar(id, consultaDTO);
+        Consulta consulta = consultaService.atualizar(id, consultaDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(consultaService.toDTO(consulta)).build();
     }
 
+    @RunOnVirtualThread
     @PUT
     @Path("/{id}/cancelar")
     @Operation(summary = "Cancelar consulta", description = "Cancela uma consulta existente")
@@ -196,16 +304,20 @@ public class ConsultaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ConsultaDTO.class))),
             @APIResponse(responseCode = "400", description = "Consulta já realizada ou já cancelada"),
-            @APIResponse(responseCode = "404", description = "Consulta não encontrada")
+            @APIResponse(responseCode = "404", description = "Consulta não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response cancelar(
             @Parameter(description = "ID da consulta", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        Consulta consulta = consultaService.cancelarConsulta(id);
+        Consulta consulta = consultaService.cancelarConsulta(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(consultaService.toDTO(consulta)).build();
     }
 
+    @RunOnVirtualThread
     @PUT
     @Path("/{id}/realizar")
     @Operation(summary = "Marcar consulta como realizada", description = "Marca uma consulta como realizada")
@@ -214,29 +326,48 @@ public class ConsultaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ConsultaDTO.class))),
             @APIResponse(responseCode = "400", description = "Consulta já realizada ou cancelada"),
-            @APIResponse(responseCode = "404", description = "Consulta não encontrada")
+            @APIResponse(responseCode = "404", description = "Consulta não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response realizar(
             @Parameter(description = "ID da consulta", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        Consulta consulta = consultaService.realizarConsulta(id);
+        Consulta consulta = consultaService.realizarConsulta(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(consultaService.toDTO(consulta)).build();
     }
 
+    @RunOnVirtualThread
     @DELETE
     @Path("/{id}")
     @Operation(summary = "Excluir consulta", description = "Exclui uma consulta existente")
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Consulta excluída com sucesso"),
             @APIResponse(responseCode = "404", description = "Consulta não encontrada"),
-            @APIResponse(responseCode = "400", description = "Não é possível excluir a consulta pois ela já foi realizada ou possui prontuário/receitas/exames associados")
+            @APIResponse(responseCode = "400", description = "Não é possível excluir a consulta pois ela já foi realizada ou possui prontuário/receitas/exames associados"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID da consulta", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        consultaService.excluir(id);
+        consultaService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
-}
\ No newline at end of file
+
+    /** Data e hora de um parâmetro de consulta no formato ISO; 400 se faltar ou estiver em outro formato. */
+    private static LocalDateTime dataHora(String valor) {
+        if (valor != null) {
+            try {
+                return LocalDateTime.parse(valor, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                // Mesmo erro do parâmetro ausente
+            }
+        }
+        throw new BusinessException("Formato de data inválido. Use o formato ISO: yyyy-MM-dd'T'HH:mm:ss");
+    }
+}
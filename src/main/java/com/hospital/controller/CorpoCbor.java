@@ -0,0 +1,75 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.hospital.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Lê e escreve os corpos em CBOR (RFC 8949), a alternativa binária ao JSON negociada por
+ * {@code Accept}/{@code Content-Type: application/cbor}.
+ * <p>
+ * Usa uma cópia do {@link ObjectMapper} da aplicação, então os DTOs têm os mesmos campos, datas e
+ * regras de serialização nos dois formatos; só a codificação muda (sem aspas, chaves e texto dos números).
+ */
+@Provider
+@Produces(CorpoCbor.APPLICATION_CBOR)
+@Consumes(CorpoCbor.APPLICATION_CBOR)
+public class CorpoCbor implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private ObjectMapper cbor;
+
+    @PostConstruct
+    void configurar() {
+        cbor = objectMapper.copyWith(new CBORFactory());
+        cbor.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> tipo, Type generico, Annotation[] anotacoes, MediaType midia) {
+        return midia.isCompatible(APPLICATION_CBOR_TYPE);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> tipo, Type generico, Annotation[] anotacoes, MediaType midia,
+                           MultivaluedMap<String, String> cabecalhos, InputStream corpo) throws IOException {
+        try {
+            return cbor.readValue(corpo, cbor.constructType(generico));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Corpo CBOR inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> tipo, Type generico, Annotation[] anotacoes, MediaType midia) {
+        return midia.isCompatible(APPLICATION_CBOR_TYPE);
+    }
+
+    @Override
+    public void writeTo(Object valor, Class<?> tipo, Type generico, Annotation[] anotacoes, MediaType midia,
+                        MultivaluedMap<String, Object> cabecalhos, OutputStream saida) throws IOException {
+        cbor.writeValue(saida, valor);
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -25,8 +26,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Path("/api/v1/especialidades")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Especialidade", description = "Endpoints para gerenciamento de especialidades médicas")
 public class EspecialidadeController {
 
@@ -40,7 +41,11 @@ public class EspecialidadeController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = EspecialidadeDTO.class)))
     })
-    public Response listarTodas() {
+    public Response listarTodas(@BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(especialidadeService.listarTodas(paginacao.getCursor(), paginacao.getLimite())
+                    .map(especialidadeService::toDTO));
+        }
         List<Especialidade> especialidades = especialidadeService.listarTodas();
         return Response.ok(especialidades.stream()
                 .map(especialidadeService::toDTO)
@@ -93,7 +98,12 @@ public class EspecialidadeController {
     })
     public Response listarPorMedico(
             @Parameter(description = "ID do médico", required = true)
-            @PathParam("medicoId") Long medicoId) {
+            @PathParam("medicoId") Long medicoId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(especialidadeService.listarPorMedico(medicoId, paginacao.getCursor(), paginacao.getLimite())
+                    .map(especialidadeService::toDTO));
+        }
         List<Especialidade> especialidades = especialidadeService.listarPorMedico(medicoId);
         return Response.ok(especialidades.stream()
                 .map(especialidadeService::toDTO)
@@ -127,16 +137,19 @@ public class EspecialidadeController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = EspecialidadeDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Especialidade não encontrada")
+            @APIResponse(responseCode = "404", description = "Especialidade não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID da especialidade", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados da especialidade", required = true,
                     content = @Content(schema = @Schema(implementation = EspecialidadeDTO.class)))
             @Valid EspecialidadeDTO especialidadeDTO) {
 
-        Especialidade especialidade = especialidadeService.atualizar(id, especialidadeDTO);
+        Especialidade especialidade = especialidadeService.atualizar(id, especialidadeDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(especialidadeService.toDTO(especialidade)).build();
     }
 
@@ -146,13 +159,16 @@ public class EspecialidadeController {
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Especialidade excluída com sucesso"),
             @APIResponse(responseCode = "404", description = "Especialidade não encontrada"),
-            @APIResponse(responseCode = "400", description = "Não é possível excluir a especialidade pois ela está associada a médicos")
+            @APIResponse(responseCode = "400", description = "Não é possível excluir a especialidade pois ela está associada a médicos"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID da especialidade", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        especialidadeService.excluir(id);
+        especialidadeService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 }
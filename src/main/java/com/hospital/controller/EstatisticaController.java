@@ -0,0 +1,44 @@
+package com.hospital.controller;
+
+import com.hospital.dto.EstatisticasDTO;
+import com.hospital.service.Estatisticas;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.time.LocalDate;
+
+@Path("/api/v1/estatisticas")
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Tag(name = "Estatística", description = "Contagens para os painéis de gestão")
+public class EstatisticaController {
+
+    @Inject
+    Estatisticas estatisticas;
+
+    @GET
+    @Operation(summary = "Consultar estatísticas",
+            description = "Retorna as consultas do dia por status, os exames sem resultado por tipo e as consultas não " +
+                    "canceladas por especialidade e por médico, lidas de contadores mantidos junto com os dados e conferidos " +
+                    "periodicamente com as tabelas")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Estatísticas atuais",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = EstatisticasDTO.class)))
+    })
+    public EstatisticasDTO consultar(
+            @Parameter(description = "Dia das consultas por status (padrão: hoje)", example = "2025-06-01")
+            @QueryParam("data") LocalDate data) {
+        return estatisticas.consultar(data == null ? LocalDate.now() : data);
+    }
+}
@@ -0,0 +1,174 @@
+package com.hospital.controller;
+
+import com.hospital.dto.PaginaDTO;
+import com.hospital.dto.Versionado;
+import com.hospital.exception.BusinessException;
+import com.hospital.exception.VersaoDivergenteException;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * ETags calculados pela versão das entidades, sem serializar o corpo.
+ * <p>
+ * Uma resposta com um único DTO {@link Versionado} recebe o ETag {@code "id.versao"}; uma lista ou
+ * página de DTOs versionados recebe um resumo dos pares {@code id.versao} na ordem (e do cursor da
+ * próxima página). Como o mesmo registro pode ser devolvido em JSON ou CBOR, o ETag das respostas CBOR
+ * leva o sufixo {@value #SUFIXO_CBOR}: cada representação tem o seu, e um cache não troca uma pela
+ * outra. JSON e CBOR estão em {@code quarkus.http.compress-media-types}: quando o {@code Accept-Encoding}
+ * permite comprimir, o ETag é fraco ({@code W/"id.versao"}), porque a versão comprimida e a sem compressão
+ * têm bytes diferentes e o filtro não sabe qual codificação o Vert.x vai escolher. Num GET cujo
+ * {@code If-None-Match} casa com o ETag, pela comparação fraca, a resposta vira {@code 304} sem corpo antes
+ * da serialização. Nas escritas, {@link #versaoEsperada} converte o {@code If-Match}, de qualquer das
+ * representações e fraco ou não, na versão que o serviço confere antes de gravar: o ETag fraco identifica
+ * a mesma versão que o forte.
+ */
+public class EtagsVersao {
+
+    static final String SUFIXO_CBOR = "-cbor";
+    private static final String FRACO = "W/";
+
+    @ServerResponseFilter
+    public void aplicar(ContainerRequestContext requisicao, ContainerResponseContext resposta) {
+        int status = resposta.getStatus();
+        if (status != Response.Status.OK.getStatusCode() && status != Response.Status.CREATED.getStatusCode()) {
+            return;
+        }
+        boolean leitura = HttpMethod.GET.equals(requisicao.getMethod()) || HttpMethod.HEAD.equals(requisicao.getMethod());
+        Object corpo = resposta.getEntity();
+        String etag = corpo instanceof Versionado versionado ? etag(versionado) : leitura ? etagDaLista(corpo) : null;
+        if (etag == null) {
+            return;
+        }
+        if (cbor(requisicao, resposta)) {
+            etag = etag.substring(0, etag.length() - 1) + SUFIXO_CBOR + "\"";
+        }
+        if (CompressaoMinima.aceitaCompressao(requisicao.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            etag = FRACO + etag;
+        }
+        resposta.getHeaders().putSingle(HttpHeaders.ETAG, etag);
+        if (leitura && casa(requisicao.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag)) {
+            resposta.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+            resposta.setEntity(null);
+        }
+    }
+
+    /**
+     * Versão exigida pelo {@code If-Match} de uma escrita no registro {@code id}, ou {@code null} se
+     * não há pré-condição (cabeçalho ausente ou {@code *}).
+     */
+    public static Long versaoEsperada(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String etag = semFraco(ifMatch.strip());
+        if (etag.endsWith(SUFIXO_CBOR + "\"")) {
+            etag = etag.substring(0, etag.length() - SUFIXO_CBOR.length() - 1) + "\"";
+        }
+        int ponto = etag.indexOf('.');
+        if (etag.length() < 5 || !etag.startsWith("\"") || !etag.endsWith("\"") || ponto < 0) {
+            throw new BusinessException("If-Match inválido: use o ETag devolvido pela API, no formato \"id.versao\"");
+        }
+        try {
+            long idDoEtag = Long.parseLong(etag.substring(1, ponto));
+            long versao = Long.parseLong(etag.substring(ponto + 1, etag.length() - 1));
+            if (idDoEtag != id) {
+                throw new VersaoDivergenteException("O ETag de If-Match é do registro com ID " + idDoEtag
+                        + ", não do registro com ID " + id);
+            }
+            return versao;
+        } catch (NumberFormatException e) {
+            throw new BusinessException("If-Match inválido: use o ETag devolvido pela API, no formato \"id.versao\"");
+        }
+    }
+
+    private static String etag(Versionado versionado) {
+        if (versionado.getId() == null || versionado.getVersao() == null) {
+            return null;
+        }
+        return "\"" + versionado.getId() + "." + versionado.getVersao() + "\"";
+    }
+
+    private static String etagDaLista(Object corpo) {
+        List<?> itens;
+        String proximoCursor = null;
+        if (corpo instanceof PaginaDTO<?> pagina) {
+            itens = pagina.getItens();
+            proximoCursor = pagina.getProximoCursor();
+        } else if (corpo instanceof List<?> lista) {
+            itens = lista;
+        } else {
+            return null;
+        }
+
+        MessageDigest resumo = sha256();
+        for (Object item : itens) {
+            if (!(item instanceof Versionado versionado) || versionado.getVersao() == null) {
+                return null;
+            }
+            resumo.update((versionado.getId() + "." + versionado.getVersao() + ";").getBytes(StandardCharsets.US_ASCII));
+        }
+        if (proximoCursor != null) {
+            resumo.update(proximoCursor.getBytes(StandardCharsets.US_ASCII));
+        }
+        byte[] bytes = Arrays.copyOf(resumo.digest(), 18);
+        return "\"l" + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes) + "\"";
+    }
+
+    /**
+     * Se o corpo vai em CBOR. O filtro pode rodar antes de o escritor do corpo ser escolhido; nesse caso
+     * vale o primeiro tipo do {@code Accept}, em ordem de preferência, que um dos formatos atende.
+     */
+    private static boolean cbor(ContainerRequestContext requisicao, ContainerResponseContext resposta) {
+        MediaType tipo = resposta.getMediaType();
+        if (tipo != null) {
+            return tipo.isCompatible(CorpoCbor.APPLICATION_CBOR_TYPE);
+        }
+        for (MediaType aceito : requisicao.getAcceptableMediaTypes()) {
+            if (aceito.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return false;
+            }
+            if (aceito.isCompatible(CorpoCbor.APPLICATION_CBOR_TYPE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Comparação fraca do {@code If-None-Match}, que pode trazer vários ETags ou {@code *}. */
+    static boolean casa(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = semFraco(candidato.strip());
+            if (valor.equals("*") || valor.equals(semFraco(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String semFraco(String etag) {
+        return etag.startsWith(FRACO) ? etag.substring(FRACO.length()) : etag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,14 +4,23 @@ import com.hospital.dto.ExameDTO;
 import com.hospital.model.Exame;
 import com.hospital.model.enums.TipoExame;
 import com.hospital.service.ExameService;
+import com.hospital.service.FeedResultadosExames;
+import com.hospital.service.FilaExames;
+import com.hospital.util.Cursor;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -22,30 +31,49 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Path("/api/v1/exames")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Exame", description = "Operações relacionadas aos exames médicos")
 public class ExameController {
 
     @Inject
     ExameService exameService;
 
+    @Inject
+    NdjsonStreaming ndjson;
+
+    @Inject
+    LeiturasReativas leituras;
+
+    @Inject
+    FeedResultadosExames feedResultados;
+
+    @Inject
+    FilaExames filaExames;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR, NdjsonStreaming.APPLICATION_NDJSON})
     @Operation(summary = "Listar todos os exames", description = "Retorna uma lista de todos os exames cadastrados no sistema")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de exames",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ExameDTO.class)))
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ExameDTO.class)),
+                            @Content(mediaType = NdjsonStreaming.APPLICATION_NDJSON,
+                                    schema = @Schema(implementation = ExameDTO.class))})
     })
-    public Response listarTodos() {
-        List<Exame> exames = exameService.listarTodos();
-        return Response.ok(exames.stream()
-                .map(exameService::toDTO)
-                .collect(Collectors.toList())).build();
+    public Response listarTodos(
+            @BeanParam PaginacaoParams paginacao,
+            @BeanParam ExportacaoParams exportacao) {
+        if (exportacao.isAtiva()) {
+            return ndjson.resposta(exameService::exportarTodos);
+        }
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(exameService.listarTodos(paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(exameService.listarTodos()).build();
     }
 
     @GET
@@ -60,8 +88,7 @@ public class ExameController {
     public Response buscarPorId(
             @Parameter(description = "ID do exame", required = true)
             @PathParam("id") Long id) {
-        Exame exame = exameService.buscarPorId(id);
-        return Response.ok(exameService.toDTO(exame)).build();
+        return Response.ok(exameService.buscarDTOPorId(id)).build();
     }
 
     @GET
@@ -74,11 +101,12 @@ public class ExameController {
     })
     public Response listarPorConsulta(
             @Parameter(description = "ID da consulta", required = true)
-            @PathParam("consultaId") Long consultaId) {
-        List<Exame> exames = exameService.listarPorConsulta(consultaId);
-        return Response.ok(exames.stream()
-                .map(exameService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("consultaId") Long consultaId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(exameService.listarPorConsulta(consultaId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(exameService.listarPorConsulta(consultaId)).build();
     }
 
     @GET
@@ -91,11 +119,12 @@ public class ExameController {
     })
     public Response listarPorPaciente(
             @Parameter(description = "ID do paciente", required = true)
-            @PathParam("pacienteId") Long pacienteId) {
-        List<Exame> exames = exameService.listarPorPaciente(pacienteId);
-        return Response.ok(exames.stream()
-                .map(exameService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("pacienteId") Long pacienteId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(exameService.listarPorPaciente(pacienteId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(exameService.listarPorPaciente(pacienteId)).build();
     }
 
     @GET
@@ -108,11 +137,12 @@ public class ExameController {
     })
     public Response listarPorTipo(
             @Parameter(description = "Tipo de exame (LABORATORIAL, IMAGEM, OUTROS)", required = true)
-            @PathParam("tipo") TipoExame tipo) {
-        List<Exame> exames = exameService.listarPorTipo(tipo);
-        return Response.ok(exames.stream()
-                .map(exameService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("tipo") TipoExame tipo,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(exameService.listarPorTipo(tipo, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(exameService.listarPorTipo(tipo)).build();
     }
 
     @GET
@@ -123,11 +153,49 @@ public class ExameController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExameDTO.class)))
     })
-    public Response listarSemResultado() {
-        List<Exame> exames = exameService.listarSemResultado();
-        return Response.ok(exames.stream()
-                .map(exameService::toDTO)
-                .collect(Collectors.toList())).build();
+    public Uni<Response> listarSemResultado(@BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            Cursor cursor = paginacao.getCursor();
+            int limite = paginacao.getLimite();
+            return leituras.ler(() -> exameService.listarSemResultado(cursor, limite)).map(paginacao::resposta);
+        }
+        return leituras.ler(exameService::listarSemResultado).map(exames -> Response.ok(exames).build());
+    }
+
+    @GET
+    @Path("/resultados/eventos")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Acompanhar resultados de exames",
+            description = "Envia um evento Server-Sent Events \"resultado\" com o exame a cada resultado gravado. "
+                    + "Ao reconectar com Last-Event-ID, reenvia os resultados perdidos ou, se não estiverem mais "
+                    + "guardados, um evento \"ressincronizar\": releia os exames e continue a partir do ID dele")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Fluxo de eventos",
+                    content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                            schema = @Schema(implementation = ExameDTO.class)))
+    })
+    public Multi<OutboundSseEvent> acompanharResultados(
+            @Parameter(description = "Só resultados dos exames deste paciente")
+            @QueryParam("pacienteId") Long pacienteId,
+            @Parameter(description = "Só resultados dos exames desta consulta")
+            @QueryParam("consultaId") Long consultaId,
+            @Parameter(description = "ID do último evento recebido, enviado pelo navegador ao reconectar")
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String ultimoId,
+            @Context Sse sse) {
+        return feedResultados.assinar(pacienteId, consultaId, ultimoId).map(entrega -> switch (entrega.getTipo()) {
+            case RESULTADO -> sse.newEventBuilder()
+                    .name("resultado")
+                    .id(entrega.getId())
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(ExameDTO.class, entrega.getExame())
+                    .build();
+            case RESSINCRONIZAR -> sse.newEventBuilder()
+                    .name("ressincronizar")
+                    .id(entrega.getId())
+                    .data("")
+                    .build();
+            case PULSO -> sse.newEventBuilder().comment("").build();
+        });
     }
 
     @POST
@@ -157,16 +225,19 @@ public class ExameController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExameDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+            @APIResponse(responseCode = "404", description = "Exame não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID do exame", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados do exame", required = true,
                     content = @Content(schema = @Schema(implementation = ExameDTO.class)))
             @Valid ExameDTO exameDTO) {
 
-        Exame exame = exameService.atualizar(id, exameDTO);
+        Exame exame = exameService.atualizar(id, exameDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(exameService.toDTO(exame)).build();
     }
 
@@ -178,30 +249,113 @@ public class ExameController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExameDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+            @APIResponse(responseCode = "404", description = "Exame não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response registrarResultado(
             @Parameter(description = "ID do exame", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @Parameter(description = "Resultado do exame", required = true)
             @QueryParam("resultado") @NotBlank String resultado) {
 
-        Exame exame = exameService.registrarResultado(id, resultado);
+        Exame exame = exameService.registrarResultado(id, resultado, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(exameService.toDTO(exame)).build();
     }
 
+    @POST
+    @Path("/fila/{tipo}/reservas")
+    @Consumes(MediaType.WILDCARD)
+    @Operation(summary = "Reservar o próximo exame da fila",
+            description = "Reserva para a bancada o próximo exame solicitado do tipo, do mais urgente para o menos "
+                    + "urgente; a reserva vale por fila-exames.reserva e pode ser renovada")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Exame reservado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExameDTO.class))),
+            @APIResponse(responseCode = "204", description = "Fila vazia")
+    })
+    public Response reservarProximo(
+            @Parameter(description = "Tipo de exame (LABORATORIAL, IMAGEM, OUTROS)", required = true)
+            @PathParam("tipo") TipoExame tipo,
+            @Parameter(description = "Bancada ou técnico que fica com o exame", required = true)
+            @QueryParam("responsavel") @NotBlank @Size(max = 100) String responsavel) {
+        return filaExames.reservar(tipo, responsavel)
+                .map(exame -> Response.ok(exame).build())
+                .orElseGet(() -> Response.noContent().build());
+    }
+
+    @PUT
+    @Path("/{id}/reserva")
+    @Operation(summary = "Renovar reserva", description = "Estende a reserva do exame por mais fila-exames.reserva")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Reserva renovada",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExameDTO.class))),
+            @APIResponse(responseCode = "400", description = "Exame não reservado para o responsável"),
+            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+    })
+    public Response renovarReserva(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("id") Long id,
+            @Parameter(description = "Bancada ou técnico que reservou o exame", required = true)
+            @QueryParam("responsavel") @NotBlank String responsavel) {
+        return Response.ok(filaExames.renovar(id, responsavel)).build();
+    }
+
+    @DELETE
+    @Path("/{id}/reserva")
+    @Operation(summary = "Liberar reserva", description = "Devolve o exame reservado à fila")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Exame devolvido à fila",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExameDTO.class))),
+            @APIResponse(responseCode = "400", description = "Exame não reservado para o responsável"),
+            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+    })
+    public Response liberarReserva(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("id") Long id,
+            @Parameter(description = "Bancada ou técnico que reservou o exame", required = true)
+            @QueryParam("responsavel") @NotBlank String responsavel) {
+        return Response.ok(filaExames.liberar(id, responsavel)).build();
+    }
+
+    @PUT
+    @Path("/{id}/realizado")
+    @Operation(summary = "Marcar exame como realizado",
+            description = "Encerra a reserva e marca o exame como realizado, aguardando resultado")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Exame realizado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExameDTO.class))),
+            @APIResponse(responseCode = "400", description = "Exame não reservado para o responsável"),
+            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+    })
+    public Response concluir(
+            @Parameter(description = "ID do exame", required = true)
+            @PathParam("id") Long id,
+            @Parameter(description = "Bancada ou técnico que reservou o exame", required = true)
+            @QueryParam("responsavel") @NotBlank String responsavel) {
+        return Response.ok(filaExames.concluir(id, responsavel)).build();
+    }
+
     @DELETE
     @Path("/{id}")
     @Operation(summary = "Excluir exame", description = "Exclui um exame existente")
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Exame excluído com sucesso"),
-            @APIResponse(responseCode = "404", description = "Exame não encontrado")
+            @APIResponse(responseCode = "404", description = "Exame não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID do exame", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        exameService.excluir(id);
+        exameService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 }
\ No newline at end of file
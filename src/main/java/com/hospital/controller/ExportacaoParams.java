@@ -0,0 +1,29 @@
+package com.hospital.controller;
+
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+
+/**
+ * Seleciona o modo de exportação em streaming de uma listagem, via {@code ?stream=true}
+ * ou pelo header {@code Accept: application/x-ndjson}.
+ */
+public class ExportacaoParams {
+
+    @QueryParam("stream")
+    @Parameter(description = "Transmite todos os registros em NDJSON (um objeto JSON por linha)")
+    boolean stream;
+
+    @Context
+    HttpHeaders headers;
+
+    public boolean isAtiva() {
+        if (stream) {
+            return true;
+        }
+        MediaType preferido = headers.getAcceptableMediaTypes().get(0);
+        return !preferido.isWildcardType() && preferido.isCompatible(NdjsonStreaming.APPLICATION_NDJSON_TYPE);
+    }
+}
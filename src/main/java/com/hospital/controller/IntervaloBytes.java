@@ -0,0 +1,99 @@
+package com.hospital.controller;
+
+/**
+ * Intervalo pedido no cabeçalho {@code Range} (RFC 9110, seção 14), já limitado ao tamanho do arquivo.
+ * Só um intervalo por requisição: pedidos com vários intervalos, ou malformados, são ignorados e o
+ * arquivo vai inteiro, como a RFC permite.
+ */
+final class IntervaloBytes {
+
+    private static final String UNIDADE = "bytes=";
+
+    private final long inicio;
+    private final long fim;
+
+    private IntervaloBytes(long inicio, long fim) {
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    /**
+     * Intervalo pedido em {@code range} para um arquivo de {@code tamanho} bytes, ou {@code null} se o
+     * cabeçalho deve ser ignorado.
+     *
+     * @throws Insatisfazivel se o intervalo começa depois do fim do arquivo
+     */
+    static IntervaloBytes ler(String range, long tamanho) {
+        if (range == null || !range.regionMatches(true, 0, UNIDADE, 0, UNIDADE.length())) {
+            return null;
+        }
+        String especificacao = range.substring(UNIDADE.length()).trim();
+        int hifen = especificacao.indexOf('-');
+        if (especificacao.indexOf(',') >= 0 || hifen < 0) {
+            return null;
+        }
+        try {
+            String primeiro = especificacao.substring(0, hifen).trim();
+            String ultimo = especificacao.substring(hifen + 1).trim();
+            if (primeiro.isEmpty()) {
+                // Sufixo: os últimos N bytes
+                long sufixo = numero(ultimo);
+                if (sufixo == 0 || tamanho == 0) {
+                    throw new Insatisfazivel(tamanho);
+                }
+                return new IntervaloBytes(Math.max(0, tamanho - sufixo), tamanho - 1);
+            }
+            long inicio = numero(primeiro);
+            long fim = ultimo.isEmpty() ? Long.MAX_VALUE : numero(ultimo);
+            if (fim < inicio) {
+                return null;
+            }
+            if (inicio >= tamanho) {
+                throw new Insatisfazivel(tamanho);
+            }
+            return new IntervaloBytes(inicio, Math.min(fim, tamanho - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Posição em bytes: só dígitos, como na gramática da RFC. {@link Long#parseLong} aceitaria um sinal,
+     * e {@code bytes=--5} viraria um sufixo negativo.
+     */
+    private static long numero(String digitos) {
+        if (digitos.isEmpty() || !digitos.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new NumberFormatException("Posição inválida no Range: " + digitos);
+        }
+        return Long.parseLong(digitos);
+    }
+
+    long getInicio() {
+        return inicio;
+    }
+
+    long getTamanho() {
+        return fim - inicio + 1;
+    }
+
+    /** Valor do cabeçalho {@code Content-Range} da resposta parcial. */
+    String contentRange(long tamanhoArquivo) {
+        return "bytes " + inicio + "-" + fim + "/" + tamanhoArquivo;
+    }
+
+    /** Nenhum byte do intervalo pedido existe no arquivo: a resposta é 416. */
+    static final class Insatisfazivel extends RuntimeException {
+
+        private final long tamanho;
+
+        Insatisfazivel(long tamanho) {
+            super("Intervalo fora do arquivo de " + tamanho + " bytes", null, false, false);
+            this.tamanho = tamanho;
+        }
+
+        /** Valor do cabeçalho {@code Content-Range} da resposta 416. */
+        String contentRange() {
+            return "bytes */" + tamanho;
+        }
+    }
+}
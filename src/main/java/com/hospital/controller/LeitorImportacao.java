@@ -0,0 +1,224 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hospital.exception.BusinessException;
+import com.hospital.service.LinhaImportacao;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lê o corpo de uma importação linha a linha, sem carregá-lo inteiro em memória.
+ * <p>
+ * NDJSON: um objeto JSON por linha, com os mesmos campos do DTO.
+ * CSV: a primeira linha é o cabeçalho com os nomes dos campos do DTO; campos podem vir entre aspas
+ * (com {@code ""} para aspas literais) e campos de lista, como {@code especialidadeIds}, separam os
+ * valores com {@code |}. Quebras de linha dentro de um campo não são suportadas.
+ */
+@ApplicationScoped
+public class LeitorImportacao {
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final MediaType TEXT_CSV_TYPE = MediaType.valueOf(TEXT_CSV);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public <T> Iterator<LinhaImportacao<T>> ler(InputStream corpo, MediaType tipo, Class<T> classe) {
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        if (tipo != null && tipo.isCompatible(TEXT_CSV_TYPE)) {
+            return new LinhasCsv<>(leitor, classe);
+        }
+        if (tipo != null && tipo.isCompatible(NdjsonStreaming.APPLICATION_NDJSON_TYPE)) {
+            return new LinhasNdjson<>(leitor, classe);
+        }
+        throw new BusinessException("Formato de importação não suportado: " + tipo
+                + ". Use " + TEXT_CSV + " ou " + NdjsonStreaming.APPLICATION_NDJSON);
+    }
+
+    private static String mensagem(JsonProcessingException e) {
+        if (e instanceof JsonMappingException mapeamento && !mapeamento.getPath().isEmpty()) {
+            String campo = mapeamento.getPath().get(mapeamento.getPath().size() - 1).getFieldName();
+            if (campo != null) {
+                return "Valor inválido para o campo " + campo;
+            }
+        }
+        return "Conteúdo inválido: " + e.getOriginalMessage();
+    }
+
+    /**
+     * Percorre as linhas não vazias do corpo guardando o número de cada uma no arquivo.
+     */
+    private abstract static class Linhas<T> implements Iterator<LinhaImportacao<T>> {
+
+        private final BufferedReader leitor;
+        private String proxima;
+        private int numero;
+
+        Linhas(BufferedReader leitor) {
+            this.leitor = leitor;
+        }
+
+        abstract LinhaImportacao<T> converter(int numero, String linha);
+
+        @Override
+        public boolean hasNext() {
+            if (proxima != null) {
+                return true;
+            }
+            try {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    numero++;
+                    if (!linha.isBlank()) {
+                        proxima = linha;
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public LinhaImportacao<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return converter(numero, consumir());
+        }
+
+        /** Devolve a linha já lida por {@link #hasNext()} sem convertê-la. */
+        String consumir() {
+            String linha = proxima;
+            proxima = null;
+            return linha;
+        }
+    }
+
+    private final class LinhasNdjson<T> extends Linhas<T> {
+
+        private final Class<T> classe;
+
+        LinhasNdjson(BufferedReader leitor, Class<T> classe) {
+            super(leitor);
+            this.classe = classe;
+        }
+
+        @Override
+        LinhaImportacao<T> converter(int numero, String linha) {
+            try {
+                return LinhaImportacao.valida(numero, objectMapper.readValue(linha, classe));
+            } catch (JsonProcessingException e) {
+                return LinhaImportacao.invalida(numero, mensagem(e));
+            }
+        }
+    }
+
+    private final class LinhasCsv<T> extends Linhas<T> {
+
+        private final Class<T> classe;
+        private List<String> cabecalho;
+        /** Quais colunas do cabeçalho são campos de lista, resolvido uma vez ao ler o cabeçalho. */
+        private boolean[] listas;
+
+        LinhasCsv(BufferedReader leitor, Class<T> classe) {
+            super(leitor);
+            this.classe = classe;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (cabecalho == null && super.hasNext()) {
+                cabecalho = dividir(consumir()).stream().map(String::trim).toList();
+                listas = new boolean[cabecalho.size()];
+                for (int i = 0; i < listas.length; i++) {
+                    listas[i] = isLista(cabecalho.get(i));
+                }
+            }
+            return super.hasNext();
+        }
+
+        @Override
+        LinhaImportacao<T> converter(int numero, String linha) {
+            List<String> campos = dividir(linha);
+            if (campos.size() != cabecalho.size()) {
+                return LinhaImportacao.invalida(numero, "A linha tem " + campos.size()
+                        + " colunas, mas o cabeçalho tem " + cabecalho.size());
+            }
+            ObjectNode objeto = objectMapper.createObjectNode();
+            for (int i = 0; i < campos.size(); i++) {
+                String valor = campos.get(i);
+                if (valor.isEmpty()) {
+                    continue;
+                }
+                if (listas[i]) {
+                    ArrayNode lista = objeto.putArray(cabecalho.get(i));
+                    for (String item : valor.split("\\|")) {
+                        lista.add(item.trim());
+                    }
+                } else {
+                    objeto.put(cabecalho.get(i), valor);
+                }
+            }
+            try {
+                return LinhaImportacao.valida(numero, objectMapper.treeToValue(objeto, classe));
+            } catch (JsonProcessingException e) {
+                return LinhaImportacao.invalida(numero, mensagem(e));
+            }
+        }
+
+        private boolean isLista(String campo) {
+            try {
+                return Collection.class.isAssignableFrom(classe.getDeclaredField(campo).getType());
+            } catch (NoSuchFieldException e) {
+                return false;
+            }
+        }
+
+        private List<String> dividir(String linha) {
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreAspas = false;
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        campo.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            campos.add(campo.toString());
+            return campos;
+        }
+    }
+}
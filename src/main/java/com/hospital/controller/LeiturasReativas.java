@@ -0,0 +1,103 @@
+package com.hospital.controller;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.ShutdownEvent;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Execução das leituras mais concorridas (consultas por médico/paciente, exames pendentes, paciente por
+ * ID) pelos endpoints que devolvem {@link Uni}: a conexão HTTP fica com o event loop e só a leitura JDBC
+ * ocupa uma thread.
+ * <p>
+ * No perfil {@code reativo} ({@code leituras-reativas.habilitadas=true}) as leituras rodam num pool fixo
+ * de {@code leituras-reativas.threads} threads, por padrão o tamanho do pool de conexões: milhares de
+ * requisições simultâneas esperam no event loop em vez de ocupar uma thread cada. Fora dele rodam no
+ * pool de workers, como os demais endpoints, o que permite comparar os dois modelos com a mesma carga.
+ * O H2 não tem cliente SQL reativo, então o acesso ao banco continua sendo JDBC.
+ * <p>
+ * Leituras independentes da mesma requisição (como as quatro da linha do tempo do paciente) podem ser
+ * combinadas com {@code Uni.combine()}: cada uma roda numa thread e num contexto próprios, em paralelo.
+ */
+@ApplicationScoped
+public class LeiturasReativas {
+
+    private static final Logger LOG = Logger.getLogger(LeiturasReativas.class);
+
+    @ConfigProperty(name = "leituras-reativas.habilitadas", defaultValue = "false")
+    boolean habilitadas;
+
+    @ConfigProperty(name = "leituras-reativas.threads")
+    int threads;
+
+    private ExecutorService poolFixo;
+    private Executor executor;
+
+    @PostConstruct
+    void configurar() {
+        if (habilitadas) {
+            AtomicInteger numero = new AtomicInteger();
+            poolFixo = Executors.newFixedThreadPool(threads,
+                    tarefa -> new Thread(tarefa, "leitura-reativa-" + numero.incrementAndGet()));
+            executor = poolFixo;
+            LOG.infof("Leituras reativas em %d threads", threads);
+        } else {
+            executor = Infrastructure.getDefaultWorkerPool();
+        }
+    }
+
+    void encerrar(@Observes ShutdownEvent evento) {
+        if (poolFixo != null) {
+            poolFixo.shutdown();
+        }
+    }
+
+    /**
+     * Executa a leitura fora do event loop, num contexto de requisição próprio (a sessão do Hibernate
+     * vive nele), e entrega o resultado de volta no contexto Vert.x da requisição.
+     * <p>
+     * A tarefa vai direto para o executor, sem a propagação de contexto do Mutiny: propagado, o contexto
+     * da requisição HTTP (e a sua sessão) seria compartilhado por leituras que rodam em paralelo.
+     */
+    public <T> Uni<T> ler(Supplier<T> leitura) {
+        Context contexto = Vertx.currentContext();
+        Uni<T> resultado = Uni.createFrom().emitter(emissor -> executor.execute(() -> {
+            T item;
+            try {
+                item = executarComContexto(leitura);
+            } catch (Throwable e) {
+                emissor.fail(e);
+                return;
+            }
+            emissor.complete(item);
+        }));
+        return contexto == null ? resultado : resultado.emitOn(tarefa -> contexto.runOnContext(ignorado -> tarefa.run()));
+    }
+
+    private static <T> T executarComContexto(Supplier<T> leitura) {
+        ManagedContext requisicao = Arc.container().requestContext();
+        if (requisicao.isActive()) {
+            return leitura.get();
+        }
+        requisicao.activate();
+        try {
+            return leitura.get();
+        } finally {
+            requisicao.terminate();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.hospital.controller;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Router;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+/**
+ * Limita o corpo das requisições a {@code http.limite-corpo}, exceto no upload de anexos de exames e nas
+ * importações em lote, que têm seu próprio limite ({@code http.limite-corpo-importacao}).
+ * <p>
+ * {@code quarkus.http.limits.max-body-size} vale para o servidor inteiro e precisa comportar o maior
+ * anexo; aqui as demais rotas voltam ao limite padrão. As importações são lidas linha a linha e gravadas
+ * em lotes, então um arquivo maior não fica inteiro na memória. Um {@code Content-Length} acima do limite é recusado
+ * com 413 antes de qualquer byte do corpo ser lido. Corpos sem tamanho declarado (chunked, como os das
+ * importações) são aceitos, e os bytes são contados à medida que a aplicação os lê: passado o limite, a
+ * leitura é interrompida com 413. O upload é multipart e não passa pelos leitores de corpo.
+ */
+@Provider
+public class LimiteCorpo implements ReaderInterceptor {
+
+    private static final Pattern UPLOAD_ANEXO = Pattern.compile("/api/v1/exames/[^/]+/anexos/?");
+    private static final Pattern IMPORTACAO = Pattern.compile("/api/v1/(pacientes|medicos)/importacao/?");
+
+    @ConfigProperty(name = "http.limite-corpo")
+    MemorySize limite;
+
+    @ConfigProperty(name = "http.limite-corpo-importacao")
+    MemorySize limiteImportacao;
+
+    @Context
+    UriInfo uriInfo;
+
+    void registrar(@Observes Router router) {
+        router.route().order(Integer.MIN_VALUE).handler(contexto -> {
+            HttpServerRequest requisicao = contexto.request();
+            if (requisicao.method() == HttpMethod.POST && UPLOAD_ANEXO.matcher(requisicao.path()).matches()) {
+                contexto.next();
+                return;
+            }
+            String tamanho = requisicao.getHeader(HttpHeaders.CONTENT_LENGTH);
+            if (tamanho != null && excede(tamanho, limite(requisicao.path()))) {
+                contexto.response().setStatusCode(413).putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE).end();
+                return;
+            }
+            contexto.next();
+        });
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext contexto) throws IOException {
+        contexto.setInputStream(new CorpoLimitado(contexto.getInputStream(),
+                limite(uriInfo.getRequestUri().getPath())));
+        return contexto.proceed();
+    }
+
+    private long limite(String caminho) {
+        return (IMPORTACAO.matcher(caminho).matches() ? limiteImportacao : limite).asLongValue();
+    }
+
+    private static boolean excede(String tamanho, long limite) {
+        try {
+            return Long.parseLong(tamanho.trim()) > limite;
+        } catch (NumberFormatException e) {
+            // Content-Length inválido: o servidor HTTP responde 400
+            return false;
+        }
+    }
+
+    /**
+     * Conta os bytes lidos do corpo e falha com 413 assim que passam do limite.
+     */
+    private static final class CorpoLimitado extends FilterInputStream {
+
+        private final long limite;
+        private long lidos;
+
+        CorpoLimitado(InputStream corpo, long limite) {
+            super(corpo);
+            this.limite = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                contar(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            int n = super.read(destino, inicio, tamanho);
+            if (n > 0) {
+                contar(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long pulados = super.skip(n);
+            contar(pulados);
+            return pulados;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void contar(long n) {
+            lidos += n;
+            if (lidos > limite) {
+                throw new WebApplicationException("Corpo da requisição maior que o limite de " + limite + " bytes",
+                        Response.Status.REQUEST_ENTITY_TOO_LARGE);
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.hospital.controller;
 
 import com.hospital.dto.MedicoDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
 import com.hospital.model.Medico;
 import com.hospital.service.MedicoService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -19,19 +22,22 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
+@RunOnVirtualThread
 @Path("/api/v1/medicos")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Medico", description = "Endpoints para gerenciamento de médicos")
 public class MedicoController {
 
     @Inject
     MedicoService medicoService;
 
+    @Inject
+    LeitorImportacao leitorImportacao;
+
     @GET
     @Operation(summary = "Listar todos os médicos", description = "Retorna uma lista de todos os médicos cadastrados")
     @APIResponses(value = {
@@ -39,10 +45,11 @@ public class MedicoController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = MedicoDTO.class)))
     })
-    public Response listarTodos() {
-        List<Medico> medicos = medicoService.listarTodos();
-        return Response.ok(medicos.stream().map(medicoService::toDTO).collect(Collectors.toList()))
-                .build();
+    public Response listarTodos(@BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(medicoService.listarTodos(paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(medicoService.listarTodos()).build();
 
     }
 
@@ -64,19 +71,39 @@ public class MedicoController {
 
     @GET
     @Path("/busca")
-    @Operation(summary = "Buscar médicos por nome", description = "Retorna uma lista de médicos cujo nome contenha o termo especificado")
+    @Operation(summary = "Buscar médicos por nome", description = "Retorna os médicos cujo nome contenha o termo especificado (sem diferenciar acentos e maiúsculas), dos mais relevantes aos menos relevantes, até 50 sem limit. Use limit para autocompletar")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de médicos",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = MedicoDTO.class)))
+                            schema = @Schema(implementation = MedicoDTO.class))),
+            @APIResponse(responseCode = "400", description = "Nome em branco")
     })
     public Response buscarPorNome(
             @Parameter(description = "Nome ou parte do nome do médico", required = true)
-            @QueryParam("nome") String nome) {
-        List<Medico> medicos = medicoService.buscarPorNome(nome);
-        return Response.ok(medicos.stream()
-                .map(medicoService::toDTO)
-                .collect(Collectors.toList())).build();
+            @QueryParam("nome") String nome,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(medicoService.buscarPorNome(nome, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(medicoService.buscarPorNome(nome, paginacao.getLimite())).build();
+    }
+
+    @GET
+    @Path("/crm/{crm}")
+    @Operation(summary = "Buscar médico por CRM", description = "Retorna um médico específico com base no CRM fornecido")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Médico encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = MedicoDTO.class))),
+            @APIResponse(responseCode = "404", description = "Médico não encontrado")
+    })
+    public Response buscarPorCrm(
+            @Parameter(description = "CRM do médico (apenas números)", required = true)
+            @PathParam("crm") String crm) {
+        return medicoService.buscarPorCrm(crm)
+                .map(medico -> Response.ok(medico).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity("Médico com CRM " + crm + " não encontrado").build());
     }
 
     @GET
@@ -89,11 +116,12 @@ public class MedicoController {
     })
     public Response listarPorEspecialidade(
             @Parameter(description = "ID da especialidade", required = true)
-            @PathParam("especialidadeId") Long especialidadeId) {
-        List<Medico> medicos = medicoService.listarPorEspecialidade(especialidadeId);
-        return Response.ok(medicos.stream()
-                .map(medicoService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("especialidadeId") Long especialidadeId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(medicoService.listarPorEspecialidade(especialidadeId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(medicoService.listarPorEspecialidade(especialidadeId)).build();
     }
 
     @POST
@@ -115,6 +143,26 @@ public class MedicoController {
         return Response.created(location).entity(medicoService.toDTO(medico)).build();
     }
 
+    @POST
+    @Path("/importacao")
+    @Consumes({LeitorImportacao.TEXT_CSV, NdjsonStreaming.APPLICATION_NDJSON})
+    @Operation(summary = "Importar médicos em lote",
+            description = "Importa médicos de um arquivo CSV (cabeçalho: nome,crm,telefone,email,especialidadeIds (ids separados por |)) ou NDJSON. "
+                    + "As linhas são gravadas em lotes; as rejeitadas são listadas no relatório com o motivo")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Relatório da importação",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RelatorioImportacaoDTO.class))),
+            @APIResponse(responseCode = "400", description = "Formato de arquivo não suportado")
+    })
+    public Response importar(
+            @RequestBody(description = "Arquivo CSV ou NDJSON com um medico por linha", required = true)
+            InputStream corpo,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType tipo) {
+
+        return Response.ok(medicoService.importar(leitorImportacao.ler(corpo, tipo, MedicoDTO.class))).build();
+    }
+
     @PUT
     @Path("/{id}")
     @Operation(summary = "Atualizar médico", description = "Atualiza os dados de um médico existente")
@@ -123,16 +171,19 @@ public class MedicoController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = MedicoDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Médico não encontrado")
+            @APIResponse(responseCode = "404", description = "Médico não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID do médico", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados do médico", required = true,
                     content = @Content(schema = @Schema(implementation = MedicoDTO.class)))
             @Valid MedicoDTO medicoDTO) {
 
-        Medico medico = medicoService.atualizar(id, medicoDTO);
+        Medico medico = medicoService.atualizar(id, medicoDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(medicoService.toDTO(medico)).build();
     }
 
@@ -142,13 +193,16 @@ public class MedicoController {
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Médico excluído com sucesso"),
             @APIResponse(responseCode = "404", description = "Médico não encontrado"),
-            @APIResponse(responseCode = "400", description = "Não é possível excluir o médico pois ele possui consultas associadas")
+            @APIResponse(responseCode = "400", description = "Não é possível excluir o médico pois ele possui consultas associadas"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID do médico", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        medicoService.excluir(id);
+        medicoService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 }
@@ -0,0 +1,53 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Escreve exportações em NDJSON à medida que os registros são lidos do banco,
+ * sem montar a lista completa em memória.
+ */
+@ApplicationScoped
+public class NdjsonStreaming {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+
+    private static final int ITENS_POR_FLUSH = 100;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public <T> Response resposta(Consumer<Consumer<T>> exportacao) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingOutput saida = output -> {
+            int[] escritos = {0};
+            try {
+                exportacao.accept(item -> {
+                    try {
+                        output.write(writer.writeValueAsBytes(item));
+                        output.write('\n');
+                        if (++escritos[0] % ITENS_POR_FLUSH == 0) {
+                            output.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            output.flush();
+        };
+        return Response.ok(saida, APPLICATION_NDJSON_TYPE).build();
+    }
+}
@@ -1,12 +1,19 @@
 package com.hospital.controller;
 
+import com.hospital.dto.ItemLinhaDoTempoDTO;
 import com.hospital.dto.PacienteDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
 import com.hospital.model.Paciente;
+import com.hospital.service.LinhaDoTempoService;
 import com.hospital.service.PacienteService;
+import com.hospital.util.Cursor;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -19,20 +26,31 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Path("/api/v1/pacientes")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Paciente", description = "Operações relacionadas aos pacientes")
 public class PacienteController {
 
     @Inject
     PacienteService pacienteService;
 
+    @Inject
+    LeitorImportacao leitorImportacao;
+
+    @Inject
+    LeiturasReativas leituras;
+
+    @Inject
+    LinhaDoTempoService linhaDoTempo;
+
+    @RunOnVirtualThread
     @GET
     @Operation(summary = "Listar todos os pacientes", description = "Retorna uma lista de todos os pacientes cadastrados no sistema")
     @APIResponses(value = {
@@ -40,7 +58,11 @@ public class PacienteController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = PacienteDTO.class)))
     })
-    public Response listarTodos() {
+    public Response listarTodos(@BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(pacienteService.listarTodos(paginacao.getCursor(), paginacao.getLimite())
+                    .map(pacienteService::toDTO));
+        }
         List<Paciente> pacientes = pacienteService.listarTodos();
         return Response.ok(pacientes.stream()
                 .map(pacienteService::toDTO)
@@ -56,31 +78,63 @@ public class PacienteController {
                             schema = @Schema(implementation = PacienteDTO.class))),
             @APIResponse(responseCode = "404", description = "Paciente não encontrado")
     })
-    public Response buscarPorId(@PathParam("id") Long id) {
-        Paciente paciente = pacienteService.buscarPorId(id);
-        if (paciente == null) {
-            return Response.status(Response.Status.NOT_FOUND).build();
-        }
-        return Response.ok(pacienteService.toDTO(paciente)).build();
+    public Uni<Response> buscarPorId(@PathParam("id") Long id) {
+        return leituras.ler(() -> pacienteService.toDTO(pacienteService.buscarPorId(id)))
+                .map(paciente -> Response.ok(paciente).build());
+    }
+
+    @GET
+    @Path("/{id}/timeline")
+    @Operation(summary = "Linha do tempo do paciente",
+            description = "Retorna consultas, prontuários, receitas e exames do paciente numa única lista, do mais recente "
+                    + "ao mais antigo, paginada por cursor (limit padrão 50). Os quatro tipos são lidos em paralelo")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Página da linha do tempo",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ItemLinhaDoTempoDTO.class))),
+            @APIResponse(responseCode = "404", description = "Paciente não encontrado")
+    })
+    public Uni<Response> linhaDoTempo(
+            @Parameter(description = "ID do paciente", required = true)
+            @PathParam("id") Long id,
+            @BeanParam PaginacaoParams paginacao) {
+        Cursor cursor = paginacao.getCursor();
+        int limite = paginacao.getLimite();
+        return Uni.combine().all().unis(
+                        leituras.ler(() -> {
+                            linhaDoTempo.verificarPaciente(id);
+                            return id;
+                        }),
+                        leituras.ler(() -> linhaDoTempo.listarConsultas(id, cursor, limite)),
+                        leituras.ler(() -> linhaDoTempo.listarProntuarios(id, cursor, limite)),
+                        leituras.ler(() -> linhaDoTempo.listarReceitas(id, cursor, limite)),
+                        leituras.ler(() -> linhaDoTempo.listarExames(id, cursor, limite)))
+                .asTuple()
+                .map(listas -> paginacao.resposta(linhaDoTempo.juntar(
+                        List.of(listas.getItem2(), listas.getItem3(), listas.getItem4(), listas.getItem5()), limite)));
     }
 
+    @RunOnVirtualThread
     @GET
     @Path("/busca")
-    @Operation(summary = "Buscar pacientes por nome", description = "Retorna uma lista de pacientes cujo nome contenha o termo especificado")
+    @Operation(summary = "Buscar pacientes por nome", description = "Retorna os pacientes cujo nome contenha o termo especificado (sem diferenciar acentos e maiúsculas), dos mais relevantes aos menos relevantes, até 50 sem limit. Use limit para autocompletar")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de pacientes",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = PacienteDTO.class)))
+                            schema = @Schema(implementation = PacienteDTO.class))),
+            @APIResponse(responseCode = "400", description = "Nome em branco")
     })
     public Response buscarPorNome(
             @Parameter(description = "Nome ou parte do nome do paciente", required = true)
-            @QueryParam("nome") String nome) {
-        List<Paciente> pacientes = pacienteService.buscarPorNome(nome);
-        return Response.ok(pacientes.stream()
-                .map(pacienteService::toDTO)
-                .collect(Collectors.toList())).build();
+            @QueryParam("nome") String nome,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(pacienteService.buscarPorNome(nome, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(pacienteService.buscarPorNome(nome, paginacao.getLimite())).build();
     }
 
+    @RunOnVirtualThread
     @GET
     @Path("/cpf/{cpf}")
     @Operation(summary = "Buscar paciente por CPF", description = "Retorna um paciente específico com base no CPF fornecido")
@@ -93,14 +147,15 @@ public class PacienteController {
     public Response buscarPorCpf(
             @Parameter(description = "CPF do paciente (apenas números)", required = true)
             @PathParam("cpf") String cpf) {
-        Optional<Paciente> paciente = pacienteService.buscarPorCpf(cpf);
+        Optional<PacienteDTO> paciente = pacienteService.buscarPorCpf(cpf);
         if (paciente.isPresent()) {
-            return Response.ok(pacienteService.toDTO(paciente.get())).build();
+            return Response.ok(paciente.get()).build();
         }
         return Response.status(Response.Status.NOT_FOUND)
                 .entity("Paciente com CPF " + cpf + " não encontrado").build();
     }
 
+    @RunOnVirtualThread
     @POST
     @Operation(summary = "Criar paciente", description = "Cria um novo paciente com os dados fornecidos")
     @APIResponses(value = {
@@ -120,6 +175,28 @@ public class PacienteController {
         return Response.created(location).entity(pacienteService.toDTO(paciente)).build();
     }
 
+    @RunOnVirtualThread
+    @POST
+    @Path("/importacao")
+    @Consumes({LeitorImportacao.TEXT_CSV, NdjsonStreaming.APPLICATION_NDJSON})
+    @Operation(summary = "Importar pacientes em lote",
+            description = "Importa pacientes de um arquivo CSV (cabeçalho: nome,cpf,dataNascimento,telefone,email,endereco) ou NDJSON. "
+                    + "As linhas são gravadas em lotes; as rejeitadas são listadas no relatório com o motivo")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Relatório da importação",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RelatorioImportacaoDTO.class))),
+            @APIResponse(responseCode = "400", description = "Formato de arquivo não suportado")
+    })
+    public Response importar(
+            @RequestBody(description = "Arquivo CSV ou NDJSON com um paciente por linha", required = true)
+            InputStream corpo,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType tipo) {
+
+        return Response.ok(pacienteService.importar(leitorImportacao.ler(corpo, tipo, PacienteDTO.class))).build();
+    }
+
+    @RunOnVirtualThread
     @PUT
     @Path("/{id}")
     @Operation(summary = "Atualizar paciente", description = "Atualiza os dados de um paciente existente")
@@ -128,32 +205,39 @@ public class PacienteController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = PacienteDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Paciente não encontrado")
+            @APIResponse(responseCode = "404", description = "Paciente não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID do paciente", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados do paciente", required = true,
                     content = @Content(schema = @Schema(implementation = PacienteDTO.class)))
             @Valid PacienteDTO pacienteDTO) {
 
-        Paciente paciente = pacienteService.atualizar(id, pacienteDTO);
+        Paciente paciente = pacienteService.atualizar(id, pacienteDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(pacienteService.toDTO(paciente)).build();
     }
 
+    @RunOnVirtualThread
     @DELETE
     @Path("/{id}")
     @Operation(summary = "Excluir paciente", description = "Exclui um paciente existente")
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Paciente excluído com sucesso"),
             @APIResponse(responseCode = "404", description = "Paciente não encontrado"),
-            @APIResponse(responseCode = "400", description = "Não é possível excluir o paciente pois ele possui consultas associadas")
+            @APIResponse(responseCode = "400", description = "Não é possível excluir o paciente pois ele possui consultas associadas"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID do paciente", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        pacienteService.excluir(id);
+        pacienteService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 
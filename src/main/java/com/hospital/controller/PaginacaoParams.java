@@ -0,0 +1,63 @@
+package com.hospital.controller;
+
+import com.hospital.dto.PaginaDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.util.Cursor;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+
+import java.net.URI;
+
+/**
+ * Parâmetros da paginação por cursor, compartilhados pelas listagens via {@code @BeanParam}.
+ * Sem {@code limit} nem {@code cursor} a listagem mantém o comportamento antigo (lista completa).
+ */
+public class PaginacaoParams {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    @QueryParam("limit")
+    @Parameter(description = "Quantidade máxima de itens por página (ativa a paginação por cursor)")
+    Integer limit;
+
+    @QueryParam("cursor")
+    @Parameter(description = "Cursor opaco retornado em proximoCursor / no header Link da página anterior")
+    String cursor;
+
+    @Context
+    UriInfo uriInfo;
+
+    public boolean isAtiva() {
+        return limit != null || cursor != null;
+    }
+
+    public int getLimite() {
+        if (limit == null) {
+            return LIMITE_PADRAO;
+        }
+        if (limit < 1) {
+            throw new BusinessException("O parâmetro limit deve ser maior que zero");
+        }
+        return Math.min(limit, LIMITE_MAXIMO);
+    }
+
+    public Cursor getCursor() {
+        return cursor == null || cursor.isBlank() ? null : Cursor.decodificar(cursor);
+    }
+
+    public Response resposta(PaginaDTO<?> pagina) {
+        Response.ResponseBuilder builder = Response.ok(pagina);
+        if (pagina.getProximoCursor() != null) {
+            URI proxima = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("cursor", pagina.getProximoCursor())
+                    .replaceQueryParam("limit", pagina.getLimite())
+                    .build();
+            builder.link(proxima, "next");
+        }
+        return builder.build();
+    }
+}
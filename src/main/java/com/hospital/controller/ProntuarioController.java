@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -20,30 +21,40 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Path("/api/v1/prontuarios")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Prontuário", description = "Operações relacionadas aos prontuários médicos")
 public class ProntuarioController {
 
     @Inject
     ProntuarioService prontuarioService;
 
+    @Inject
+    NdjsonStreaming ndjson;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR, NdjsonStreaming.APPLICATION_NDJSON})
     @Operation(summary = "Listar todos os prontuários", description = "Retorna uma lista de todos os prontuários cadastrados no sistema")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de prontuários",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ProntuarioDTO.class)))
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProntuarioDTO.class)),
+                            @Content(mediaType = NdjsonStreaming.APPLICATION_NDJSON,
+                                    schema = @Schema(implementation = ProntuarioDTO.class))})
     })
-    public Response listarTodos() {
-        List<Prontuario> prontuarios = prontuarioService.listarTodos();
-        return Response.ok(prontuarios.stream()
-                .map(prontuarioService::toDTO)
-                .collect(Collectors.toList())).build();
+    public Response listarTodos(
+            @BeanParam PaginacaoParams paginacao,
+            @BeanParam ExportacaoParams exportacao) {
+        if (exportacao.isAtiva()) {
+            return ndjson.resposta(prontuarioService::exportarTodos);
+        }
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(prontuarioService.listarTodos(paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(prontuarioService.listarTodos()).build();
     }
 
     @GET
@@ -58,8 +69,7 @@ public class ProntuarioController {
     public Response buscarPorId(
             @Parameter(description = "ID do prontuário", required = true)
             @PathParam("id") Long id) {
-        Prontuario prontuario = prontuarioService.buscarPorId(id);
-        return Response.ok(prontuarioService.toDTO(prontuario)).build();
+        return Response.ok(prontuarioService.buscarDTOPorId(id)).build();
     }
 
     @GET
@@ -74,8 +84,7 @@ public class ProntuarioController {
     public Response buscarPorConsulta(
             @Parameter(description = "ID da consulta", required = true)
             @PathParam("consultaId") Long consultaId) {
-        Prontuario prontuario = prontuarioService.buscarPorConsultaId(consultaId);
-        return Response.ok(prontuarioService.toDTO(prontuario)).build();
+        return Response.ok(prontuarioService.buscarPorConsultaId(consultaId)).build();
     }
 
     @GET
@@ -88,11 +97,12 @@ public class ProntuarioController {
     })
     public Response listarPorPaciente(
             @Parameter(description = "ID do paciente", required = true)
-            @PathParam("pacienteId") Long pacienteId) {
-        List<Prontuario> prontuarios = prontuarioService.listarPorPacienteId(pacienteId);
-        return Response.ok(prontuarios.stream()
-                .map(prontuarioService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("pacienteId") Long pacienteId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(prontuarioService.listarPorPacienteId(pacienteId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(prontuarioService.listarPorPacienteId(pacienteId)).build();
     }
 
     @POST
@@ -122,16 +132,19 @@ public class ProntuarioController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ProntuarioDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Prontuário não encontrado")
+            @APIResponse(responseCode = "404", description = "Prontuário não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID do prontuário", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados do prontuário", required = true,
                     content = @Content(schema = @Schema(implementation = ProntuarioDTO.class)))
             @Valid ProntuarioDTO prontuarioDTO) {
 
-        Prontuario prontuario = prontuarioService.atualizar(id, prontuarioDTO);
+        Prontuario prontuario = prontuarioService.atualizar(id, prontuarioDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(prontuarioService.toDTO(prontuario)).build();
     }
 
@@ -140,13 +153,16 @@ public class ProntuarioController {
     @Operation(summary = "Excluir prontuário", description = "Exclui um prontuário existente")
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Prontuário excluído com sucesso"),
-            @APIResponse(responseCode = "404", description = "Prontuário não encontrado")
+            @APIResponse(responseCode = "404", description = "Prontuário não encontrado"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID do prontuário", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        prontuarioService.excluir(id);
+        prontuarioService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 }
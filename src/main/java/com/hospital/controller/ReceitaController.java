@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -20,30 +21,40 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Path("/api/v1/receitas")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR})
 @Tag(name = "Receita", description = "Operações relacionadas às receitas médicas")
 public class ReceitaController {
 
     @Inject
     ReceitaService receitaService;
 
+    @Inject
+    NdjsonStreaming ndjson;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, CorpoCbor.APPLICATION_CBOR, NdjsonStreaming.APPLICATION_NDJSON})
     @Operation(summary = "Listar todas as receitas", description = "Retorna uma lista de todas as receitas cadastradas no sistema")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de receitas",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ReceitaDTO.class)))
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ReceitaDTO.class)),
+                            @Content(mediaType = NdjsonStreaming.APPLICATION_NDJSON,
+                                    schema = @Schema(implementation = ReceitaDTO.class))})
     })
-    public Response listarTodas() {
-        List<Receita> receitas = receitaService.listarTodas();
-        return Response.ok(receitas.stream()
-                .map(receitaService::toDTO)
-                .collect(Collectors.toList())).build();
+    public Response listarTodas(
+            @BeanParam PaginacaoParams paginacao,
+            @BeanParam ExportacaoParams exportacao) {
+        if (exportacao.isAtiva()) {
+            return ndjson.resposta(receitaService::exportarTodas);
+        }
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(receitaService.listarTodas(paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(receitaService.listarTodas()).build();
     }
 
     @GET
@@ -58,8 +69,7 @@ public class ReceitaController {
     public Response buscarPorId(
             @Parameter(description = "ID da receita", required = true)
             @PathParam("id") Long id) {
-        Receita receita = receitaService.buscarPorId(id);
-        return Response.ok(receitaService.toDTO(receita)).build();
+        return Response.ok(receitaService.buscarDTOPorId(id)).build();
     }
 
     @GET
@@ -72,11 +82,12 @@ public class ReceitaController {
     })
     public Response listarPorConsulta(
             @Parameter(description = "ID da consulta", required = true)
-            @PathParam("consultaId") Long consultaId) {
-        List<Receita> receitas = receitaService.listarPorConsulta(consultaId);
-        return Response.ok(receitas.stream()
-                .map(receitaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("consultaId") Long consultaId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(receitaService.listarPorConsulta(consultaId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(receitaService.listarPorConsulta(consultaId)).build();
     }
 
     @GET
@@ -89,28 +100,31 @@ public class ReceitaController {
     })
     public Response listarPorPaciente(
             @Parameter(description = "ID do paciente", required = true)
-            @PathParam("pacienteId") Long pacienteId) {
-        List<Receita> receitas = receitaService.listarPorPaciente(pacienteId);
-        return Response.ok(receitas.stream()
-                .map(receitaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @PathParam("pacienteId") Long pacienteId,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(receitaService.listarPorPaciente(pacienteId, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(receitaService.listarPorPaciente(pacienteId)).build();
     }
 
     @GET
     @Path("/medicamento")
-    @Operation(summary = "Buscar receitas por medicamento", description = "Retorna uma lista de receitas que contêm o medicamento especificado")
+    @Operation(summary = "Buscar receitas por medicamento", description = "Retorna as receitas de medicamentos cujo nome contenha o termo especificado (sem diferenciar acentos e maiúsculas), em ordem de emissão")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "Lista de receitas",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ReceitaDTO.class)))
+                            schema = @Schema(implementation = ReceitaDTO.class))),
+            @APIResponse(responseCode = "400", description = "Termo com menos de 3 caracteres")
     })
     public Response buscarPorMedicamento(
-            @Parameter(description = "Nome ou parte do nome do medicamento", required = true)
-            @QueryParam("nome") String nome) {
-        List<Receita> receitas = receitaService.listarPorMedicamento(nome);
-        return Response.ok(receitas.stream()
-                .map(receitaService::toDTO)
-                .collect(Collectors.toList())).build();
+            @Parameter(description = "Nome ou parte do nome do medicamento, com ao menos 3 caracteres", required = true)
+            @QueryParam("nome") String nome,
+            @BeanParam PaginacaoParams paginacao) {
+        if (paginacao.isAtiva()) {
+            return paginacao.resposta(receitaService.listarPorMedicamento(nome, paginacao.getCursor(), paginacao.getLimite()));
+        }
+        return Response.ok(receitaService.listarPorMedicamento(nome)).build();
     }
 
     @POST
@@ -140,16 +154,19 @@ public class ReceitaController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ReceitaDTO.class))),
             @APIResponse(responseCode = "400", description = "Dados inválidos"),
-            @APIResponse(responseCode = "404", description = "Receita não encontrada")
+            @APIResponse(responseCode = "404", description = "Receita não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response atualizar(
             @Parameter(description = "ID da receita", required = true)
             @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @RequestBody(description = "Dados atualizados da receita", required = true,
                     content = @Content(schema = @Schema(implementation = ReceitaDTO.class)))
             @Valid ReceitaDTO receitaDTO) {
 
-        Receita receita = receitaService.atualizar(id, receitaDTO);
+        Receita receita = receitaService.atualizar(id, receitaDTO, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.ok(receitaService.toDTO(receita)).build();
     }
 
@@ -158,13 +175,16 @@ public class ReceitaController {
     @Operation(summary = "Excluir receita", description = "Exclui uma receita existente")
     @APIResponses(value = {
             @APIResponse(responseCode = "204", description = "Receita excluída com sucesso"),
-            @APIResponse(responseCode = "404", description = "Receita não encontrada")
+            @APIResponse(responseCode = "404", description = "Receita não encontrada"),
+            @APIResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
     public Response excluir(
             @Parameter(description = "ID da receita", required = true)
-            @PathParam("id") Long id) {
+            @PathParam("id") Long id,
+            @Parameter(description = "ETag da versão lida; se não for mais a atual, nada é gravado")
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
 
-        receitaService.excluir(id);
+        receitaService.excluir(id, EtagsVersao.versaoEsperada(ifMatch, id));
         return Response.noContent().build();
     }
 }
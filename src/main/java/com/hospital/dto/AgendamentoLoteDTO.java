@@ -0,0 +1,64 @@
+package com.hospital.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pedido de agendamento de várias consultas de uma vez (por exemplo, as sessões de um plano de
+ * tratamento). Cada consulta é validada individualmente; o {@link Modo} decide o que acontece com as
+ * demais quando alguma é recusada.
+ */
+public class AgendamentoLoteDTO implements Serializable {
+
+    public enum Modo {
+        /** Grava todas as consultas ou nenhuma. */
+        TUDO_OU_NADA,
+        /** Grava as consultas aceitas e informa o motivo das recusadas. */
+        MELHOR_ESFORCO
+    }
+
+    @NotNull(message = "O modo do agendamento em lote é obrigatório")
+    private final Modo modo;
+    @NotEmpty(message = "Informe ao menos uma consulta")
+    @Size(message = "O lote deve ter no máximo 50 consultas", max = 50)
+    private final List<ConsultaDTO> consultas;
+
+    public AgendamentoLoteDTO(Modo modo, List<ConsultaDTO> consultas) {
+        this.modo = modo;
+        this.consultas = consultas;
+    }
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public List<ConsultaDTO> getConsultas() {
+        return consultas;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AgendamentoLoteDTO entity = (AgendamentoLoteDTO) o;
+        return Objects.equals(this.modo, entity.modo) &&
+                Objects.equals(this.consultas, entity.consultas);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(modo, consultas);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "modo = " + modo + ", " +
+                "consultas = " + consultas + ")";
+    }
+}
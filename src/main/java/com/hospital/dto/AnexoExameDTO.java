@@ -0,0 +1,99 @@
+package com.hospital.dto;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * DTO for {@link com.hospital.model.AnexoExame}
+ */
+public class AnexoExameDTO implements Serializable, Versionado {
+    private final Long id;
+    private final Long exameId;
+    private final String nome;
+    private final String tipoConteudo;
+    private final Long tamanho;
+    private final String sha256;
+    private final LocalDateTime dataEnvio;
+    private final Long versao;
+
+    public AnexoExameDTO(Long id, @ProjectedFieldName("exame.id") Long exameId, String nome, String tipoConteudo, Long tamanho, String sha256, LocalDateTime dataEnvio, Long versao) {
+        this.id = id;
+        this.exameId = exameId;
+        this.nome = nome;
+        this.tipoConteudo = tipoConteudo;
+        this.tamanho = tamanho;
+        this.sha256 = sha256;
+        this.dataEnvio = dataEnvio;
+        this.versao = versao;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public Long getExameId() {
+        return exameId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public Long getTamanho() {
+        return tamanho;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public LocalDateTime getDataEnvio() {
+        return dataEnvio;
+    }
+
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnexoExameDTO entity = (AnexoExameDTO) o;
+        return Objects.equals(this.id, entity.id) &&
+                Objects.equals(this.exameId, entity.exameId) &&
+                Objects.equals(this.nome, entity.nome) &&
+                Objects.equals(this.tipoConteudo, entity.tipoConteudo) &&
+                Objects.equals(this.tamanho, entity.tamanho) &&
+                Objects.equals(this.sha256, entity.sha256) &&
+                Objects.equals(this.dataEnvio, entity.dataEnvio) &&
+                Objects.equals(this.versao, entity.versao);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, exameId, nome, tipoConteudo, tamanho, sha256, dataEnvio, versao);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "exameId = " + exameId + ", " +
+                "nome = " + nome + ", " +
+                "tipoConteudo = " + tipoConteudo + ", " +
+                "tamanho = " + tamanho + ", " +
+                "sha256 = " + sha256 + ", " +
+                "dataEnvio = " + dataEnvio + ", " +
+                "versao = " + versao + ")";
+    }
+}
@@ -1,6 +1,7 @@
 package com.hospital.dto;
 
 import com.hospital.model.enums.StatusConsulta;
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -12,7 +13,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Consulta}
  */
-public class ConsultaDTO implements Serializable {
+public class ConsultaDTO implements Serializable, Versionado {
     private final Long id;
     @NotNull(message = "A data e hora da consulta são obrigatórias")
     @Future(message = "A data da consulta deve ser no futuro")
@@ -23,16 +24,20 @@ public class ConsultaDTO implements Serializable {
     private final Long pacienteId;
     @Size(message = "A observação deve ter no máximo 500 caracteres", max = 500)
     private final String observacao;
+    private final Long versao;
 
-    public ConsultaDTO(Long id, LocalDateTime dataHora, StatusConsulta status, Long medicoId, Long pacienteId, String observacao) {
+    public ConsultaDTO(Long id, LocalDateTime dataHora, StatusConsulta status, @ProjectedFieldName("medico.id") Long medicoId,
+                       @ProjectedFieldName("paciente.id") Long pacienteId, String observacao, Long versao) {
         this.id = id;
         this.dataHora = dataHora;
         this.status = status;
         this.medicoId = medicoId;
         this.pacienteId = pacienteId;
         this.observacao = observacao;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -57,6 +62,11 @@ public class ConsultaDTO implements Serializable {
         return observacao;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -67,12 +77,13 @@ public class ConsultaDTO implements Serializable {
                 Objects.equals(this.status, entity.status) &&
                 Objects.equals(this.medicoId, entity.medicoId) &&
                 Objects.equals(this.pacienteId, entity.pacienteId) &&
-                Objects.equals(this.observacao, entity.observacao);
+                Objects.equals(this.observacao, entity.observacao) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, dataHora, status, medicoId, pacienteId, observacao);
+        return Objects.hash(id, dataHora, status, medicoId, pacienteId, observacao, versao);
     }
 
     @Override
@@ -83,6 +94,7 @@ public class ConsultaDTO implements Serializable {
                 "status = " + status + ", " +
                 "medicoId = " + medicoId + ", " +
                 "pacienteId = " + pacienteId + ", " +
-                "observacao = " + observacao + ")";
+                "observacao = " + observacao + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
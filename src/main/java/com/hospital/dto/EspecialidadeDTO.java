@@ -9,7 +9,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Especialidade}
  */
-public class EspecialidadeDTO implements Serializable {
+public class EspecialidadeDTO implements Serializable, Versionado {
     private final Long id;
     @Size(message = "O nome da especialidade deve ter no máximo 100 caracteres.", max = 100)
     @NotBlank(message = "O nome da especialidade é obrigatório.")
@@ -17,13 +17,16 @@ public class EspecialidadeDTO implements Serializable {
     @Size(message = "A descrição deve ter no máximo 500 caracteres", max = 500)
     @NotBlank(message = "A descrição da especialidade é obrigatória")
     private final String descricao;
+    private final Long versao;
 
-    public EspecialidadeDTO(Long id, String nome, String descricao) {
+    public EspecialidadeDTO(Long id, String nome, String descricao, Long versao) {
         this.id = id;
         this.nome = nome;
         this.descricao = descricao;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -36,6 +39,11 @@ public class EspecialidadeDTO implements Serializable {
         return descricao;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -43,12 +51,13 @@ public class EspecialidadeDTO implements Serializable {
         EspecialidadeDTO entity = (EspecialidadeDTO) o;
         return Objects.equals(this.id, entity.id) &&
                 Objects.equals(this.nome, entity.nome) &&
-                Objects.equals(this.descricao, entity.descricao);
+                Objects.equals(this.descricao, entity.descricao) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, nome, descricao);
+        return Objects.hash(id, nome, descricao, versao);
     }
 
     @Override
@@ -56,6 +65,7 @@ public class EspecialidadeDTO implements Serializable {
         return getClass().getSimpleName() + "(" +
                 "id = " + id + ", " +
                 "nome = " + nome + ", " +
-                "descricao = " + descricao + ")";
+                "descricao = " + descricao + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
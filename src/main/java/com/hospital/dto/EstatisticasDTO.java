@@ -0,0 +1,92 @@
+package com.hospital.dto;
+
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.model.enums.TipoExame;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Contagens para os painéis de gestão: consultas do dia por status, exames sem resultado por tipo e
+ * consultas não canceladas por especialidade e por médico (IDs como chave).
+ */
+public class EstatisticasDTO implements Serializable {
+    private final LocalDate data;
+    private final Map<StatusConsulta, Integer> consultasPorStatus;
+    private final Map<TipoExame, Integer> examesPendentesPorTipo;
+    private final Map<Long, Integer> consultasPorEspecialidade;
+    private final Map<Long, Integer> consultasPorMedico;
+    private final LocalDateTime reconciliadoEm;
+
+    public EstatisticasDTO(LocalDate data, Map<StatusConsulta, Integer> consultasPorStatus,
+                           Map<TipoExame, Integer> examesPendentesPorTipo, Map<Long, Integer> consultasPorEspecialidade,
+                           Map<Long, Integer> consultasPorMedico, LocalDateTime reconciliadoEm) {
+        this.data = data;
+        this.consultasPorStatus = consultasPorStatus;
+        this.examesPendentesPorTipo = examesPendentesPorTipo;
+        this.consultasPorEspecialidade = consultasPorEspecialidade;
+        this.consultasPorMedico = consultasPorMedico;
+        this.reconciliadoEm = reconciliadoEm;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public Map<StatusConsulta, Integer> getConsultasPorStatus() {
+        return consultasPorStatus;
+    }
+
+    public Map<TipoExame, Integer> getExamesPendentesPorTipo() {
+        return examesPendentesPorTipo;
+    }
+
+    public Map<Long, Integer> getConsultasPorEspecialidade() {
+        return consultasPorEspecialidade;
+    }
+
+    public Map<Long, Integer> getConsultasPorMedico() {
+        return consultasPorMedico;
+    }
+
+    /**
+     * Quando a instância que respondeu conferiu os contadores com as tabelas pela última vez; {@code null}
+     * antes da primeira conferência.
+     */
+    public LocalDateTime getReconciliadoEm() {
+        return reconciliadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EstatisticasDTO entity = (EstatisticasDTO) o;
+        return Objects.equals(this.data, entity.data) &&
+                Objects.equals(this.consultasPorStatus, entity.consultasPorStatus) &&
+                Objects.equals(this.examesPendentesPorTipo, entity.examesPendentesPorTipo) &&
+                Objects.equals(this.consultasPorEspecialidade, entity.consultasPorEspecialidade) &&
+                Objects.equals(this.consultasPorMedico, entity.consultasPorMedico) &&
+                Objects.equals(this.reconciliadoEm, entity.reconciliadoEm);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(data, consultasPorStatus, examesPendentesPorTipo, consultasPorEspecialidade,
+                consultasPorMedico, reconciliadoEm);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "data = " + data + ", " +
+                "consultasPorStatus = " + consultasPorStatus + ", " +
+                "examesPendentesPorTipo = " + examesPendentesPorTipo + ", " +
+                "consultasPorEspecialidade = " + consultasPorEspecialidade + ", " +
+                "consultasPorMedico = " + consultasPorMedico + ", " +
+                "reconciliadoEm = " + reconciliadoEm + ")";
+    }
+}
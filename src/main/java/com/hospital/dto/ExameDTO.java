@@ -1,6 +1,10 @@
 package com.hospital.dto;
 
+import com.hospital.model.enums.StatusExame;
 import com.hospital.model.enums.TipoExame;
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -12,7 +16,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Exame}
  */
-public class ExameDTO implements Serializable {
+public class ExameDTO implements Serializable, Versionado {
     private final Long id;
     private final Long consultaId;
     @Size(message = "O nome do exame deve ter entre 3 e 100 caracteres", min = 3, max = 100)
@@ -27,8 +31,15 @@ public class ExameDTO implements Serializable {
     private final LocalDateTime dataResultado;
     @Size(message = "O resultado deve ter no máximo 1000 caracteres", max = 1000)
     private final String resultado;
+    private final StatusExame status;
+    @Min(message = "A prioridade deve estar entre 0 e 9", value = 0)
+    @Max(message = "A prioridade deve estar entre 0 e 9", value = 9)
+    private final Integer prioridade;
+    private final String responsavel;
+    private final LocalDateTime reservadoAte;
+    private final Long versao;
 
-    public ExameDTO(Long id, Long consultaId, String nome, TipoExame tipo, String instrucoes, LocalDateTime dataSolicitacao, LocalDateTime dataResultado, String resultado) {
+    public ExameDTO(Long id, @ProjectedFieldName("consulta.id") Long consultaId, String nome, TipoExame tipo, String instrucoes, LocalDateTime dataSolicitacao, LocalDateTime dataResultado, String resultado, StatusExame status, Integer prioridade, String responsavel, LocalDateTime reservadoAte, Long versao) {
         this.id = id;
         this.consultaId = consultaId;
         this.nome = nome;
@@ -37,8 +48,14 @@ public class ExameDTO implements Serializable {
         this.dataSolicitacao = dataSolicitacao;
         this.dataResultado = dataResultado;
         this.resultado = resultado;
+        this.status = status;
+        this.prioridade = prioridade;
+        this.responsavel = responsavel;
+        this.reservadoAte = reservadoAte;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -71,6 +88,27 @@ public class ExameDTO implements Serializable {
         return resultado;
     }
 
+    public StatusExame getStatus() {
+        return status;
+    }
+
+    public Integer getPrioridade() {
+        return prioridade;
+    }
+
+    public String getResponsavel() {
+        return responsavel;
+    }
+
+    public LocalDateTime getReservadoAte() {
+        return reservadoAte;
+    }
+
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -83,12 +121,17 @@ public class ExameDTO implements Serializable {
                 Objects.equals(this.instrucoes, entity.instrucoes) &&
                 Objects.equals(this.dataSolicitacao, entity.dataSolicitacao) &&
                 Objects.equals(this.dataResultado, entity.dataResultado) &&
-                Objects.equals(this.resultado, entity.resultado);
+                Objects.equals(this.resultado, entity.resultado) &&
+                Objects.equals(this.status, entity.status) &&
+                Objects.equals(this.prioridade, entity.prioridade) &&
+                Objects.equals(this.responsavel, entity.responsavel) &&
+                Objects.equals(this.reservadoAte, entity.reservadoAte) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, consultaId, nome, tipo, instrucoes, dataSolicitacao, dataResultado, resultado);
+        return Objects.hash(id, consultaId, nome, tipo, instrucoes, dataSolicitacao, dataResultado, resultado, status, prioridade, responsavel, reservadoAte, versao);
     }
 
     @Override
@@ -101,6 +144,11 @@ public class ExameDTO implements Serializable {
                 "instrucoes = " + instrucoes + ", " +
                 "dataSolicitacao = " + dataSolicitacao + ", " +
                 "dataResultado = " + dataResultado + ", " +
-                "resultado = " + resultado + ")";
+                "resultado = " + resultado + ", " +
+                "status = " + status + ", " +
+                "prioridade = " + prioridade + ", " +
+                "responsavel = " + responsavel + ", " +
+                "reservadoAte = " + reservadoAte + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
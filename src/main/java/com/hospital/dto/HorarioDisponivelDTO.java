@@ -0,0 +1,63 @@
+package com.hospital.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Intervalo livre na agenda de um dos médicos de uma especialidade.
+ */
+public class HorarioDisponivelDTO implements Serializable {
+    private final Long medicoId;
+    private final String medicoNome;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+
+    public HorarioDisponivelDTO(Long medicoId, String medicoNome, LocalDateTime inicio, LocalDateTime fim) {
+        this.medicoId = medicoId;
+        this.medicoNome = medicoNome;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    public Long getMedicoId() {
+        return medicoId;
+    }
+
+    public String getMedicoNome() {
+        return medicoNome;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HorarioDisponivelDTO entity = (HorarioDisponivelDTO) o;
+        return Objects.equals(this.medicoId, entity.medicoId) &&
+                Objects.equals(this.medicoNome, entity.medicoNome) &&
+                Objects.equals(this.inicio, entity.inicio) &&
+                Objects.equals(this.fim, entity.fim);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(medicoId, medicoNome, inicio, fim);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "medicoId = " + medicoId + ", " +
+                "medicoNome = " + medicoNome + ", " +
+                "inicio = " + inicio + ", " +
+                "fim = " + fim + ")";
+    }
+}
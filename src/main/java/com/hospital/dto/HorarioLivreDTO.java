@@ -0,0 +1,47 @@
+package com.hospital.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Intervalo livre na agenda de um médico, com a duração de uma consulta.
+ */
+public class HorarioLivreDTO implements Serializable {
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+
+    public HorarioLivreDTO(LocalDateTime inicio, LocalDateTime fim) {
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HorarioLivreDTO entity = (HorarioLivreDTO) o;
+        return Objects.equals(this.inicio, entity.inicio) &&
+                Objects.equals(this.fim, entity.fim);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(inicio, fim);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "inicio = " + inicio + ", " +
+                "fim = " + fim + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Um evento do histórico clínico do paciente: uma consulta (pela data e hora), um prontuário (pela
+ * criação), uma receita (pela emissão) ou um exame (pela solicitação), com o DTO completo em
+ * {@code detalhes}.
+ */
+public class ItemLinhaDoTempoDTO implements Serializable {
+
+    /**
+     * Tipos de evento; num mesmo instante a linha do tempo (do mais recente ao mais antigo) lista
+     * primeiro os declarados por último.
+     */
+    public enum Tipo {
+        CONSULTA,
+        PRONTUARIO,
+        RECEITA,
+        EXAME
+    }
+
+    private final Tipo tipo;
+    private final Long id;
+    private final LocalDateTime data;
+    private final Long consultaId;
+    @Schema(oneOf = {ConsultaDTO.class, ProntuarioDTO.class, ReceitaDTO.class, ExameDTO.class})
+    private final Object detalhes;
+
+    public ItemLinhaDoTempoDTO(Tipo tipo, Long id, LocalDateTime data, Long consultaId, Object detalhes) {
+        this.tipo = tipo;
+        this.id = id;
+        this.data = data;
+        this.consultaId = consultaId;
+        this.detalhes = detalhes;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getData() {
+        return data;
+    }
+
+    public Long getConsultaId() {
+        return consultaId;
+    }
+
+    public Object getDetalhes() {
+        return detalhes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ItemLinhaDoTempoDTO entity = (ItemLinhaDoTempoDTO) o;
+        return Objects.equals(this.tipo, entity.tipo) &&
+                Objects.equals(this.id, entity.id) &&
+                Objects.equals(this.data, entity.data) &&
+                Objects.equals(this.consultaId, entity.consultaId) &&
+                Objects.equals(this.detalhes, entity.detalhes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tipo, id, data, consultaId, detalhes);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "tipo = " + tipo + ", " +
+                "id = " + id + ", " +
+                "data = " + data + ", " +
+                "consultaId = " + consultaId + ", " +
+                "detalhes = " + detalhes + ")";
+    }
+}
@@ -12,7 +12,7 @@ import java.util.Set;
 /**
  * DTO for {@link com.hospital.model.Medico}
  */
-public class MedicoDTO implements Serializable {
+public class MedicoDTO implements Serializable, Versionado {
     private final Long id;
     @Size(message = "O nome deve ter entre 3 e 100 caracteres", min = 3, max = 100)
     @NotBlank(message = "O nome do médico é obrigatório")
@@ -27,18 +27,21 @@ public class MedicoDTO implements Serializable {
     @NotBlank(message = "O telefone é obrigatório")
     private final String telefone;
     private final Set<Long> especialidadeIds;
+    private final Long versao;
 
-    public MedicoDTO(Long id, String nome, String crm, String email, String telefone, Set<Long> especialidadeIds) {
+    public MedicoDTO(Long id, String nome, String crm, String email, String telefone, Set<Long> especialidadeIds, Long versao) {
         this.id = id;
         this.nome = nome;
         this.crm = crm;
         this.email = email;
         this.telefone = telefone;
         this.especialidadeIds = especialidadeIds;
+        this.versao = versao;
     }
 
 
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -63,6 +66,11 @@ public class MedicoDTO implements Serializable {
         return especialidadeIds;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -73,12 +81,13 @@ public class MedicoDTO implements Serializable {
                 Objects.equals(this.crm, entity.crm) &&
                 Objects.equals(this.email, entity.email) &&
                 Objects.equals(this.telefone, entity.telefone) &&
-                Objects.equals(this.especialidadeIds, entity.especialidadeIds);
+                Objects.equals(this.especialidadeIds, entity.especialidadeIds) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, nome, crm, email, telefone, especialidadeIds);
+        return Objects.hash(id, nome, crm, email, telefone, especialidadeIds, versao);
     }
 
     @Override
@@ -89,6 +98,7 @@ public class MedicoDTO implements Serializable {
                 "crm = " + crm + ", " +
                 "email = " + email + ", " +
                 "telefone = " + telefone + ", " +
-                "especialidadeIds = " + especialidadeIds + ")";
+                "especialidadeIds = " + especialidadeIds + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
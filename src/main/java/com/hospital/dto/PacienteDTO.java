@@ -9,7 +9,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Paciente}
  */
-public class PacienteDTO implements Serializable {
+public class PacienteDTO implements Serializable, Versionado {
     private final Long id;
     @Size(message = "O nome deve ter entre 3 e 100 caracteres", min = 3, max = 100)
     @NotBlank(message = "O nome do paciente é obrigatório")
@@ -29,8 +29,9 @@ public class PacienteDTO implements Serializable {
     @Size(message = "O endereço deve ter no máximo 200 caracteres", max = 200)
     @NotBlank(message = "O endereço é obrigatório")
     private final String endereco;
+    private final Long versao;
 
-    public PacienteDTO(Long id, String nome, String cpf, LocalDate dataNascimento, String email, String telefone, String endereco) {
+    public PacienteDTO(Long id, String nome, String cpf, LocalDate dataNascimento, String email, String telefone, String endereco, Long versao) {
         this.id = id;
         this.nome = nome;
         this.cpf = cpf;
@@ -38,8 +39,10 @@ public class PacienteDTO implements Serializable {
         this.email = email;
         this.telefone = telefone;
         this.endereco = endereco;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -68,6 +71,11 @@ public class PacienteDTO implements Serializable {
         return endereco;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -79,12 +87,13 @@ public class PacienteDTO implements Serializable {
                 Objects.equals(this.dataNascimento, entity.dataNascimento) &&
                 Objects.equals(this.email, entity.email) &&
                 Objects.equals(this.telefone, entity.telefone) &&
-                Objects.equals(this.endereco, entity.endereco);
+                Objects.equals(this.endereco, entity.endereco) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, nome, cpf, dataNascimento, email, telefone, endereco);
+        return Objects.hash(id, nome, cpf, dataNascimento, email, telefone, endereco, versao);
     }
 
     @Override
@@ -96,6 +105,7 @@ public class PacienteDTO implements Serializable {
                 "dataNascimento = " + dataNascimento + ", " +
                 "email = " + email + ", " +
                 "telefone = " + telefone + ", " +
-                "endereco = " + endereco + ")";
+                "endereco = " + endereco + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
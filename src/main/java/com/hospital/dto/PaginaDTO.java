@@ -0,0 +1,75 @@
+package com.hospital.dto;
+
+import com.hospital.util.Cursor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Página de resultados da paginação por cursor.
+ * {@code proximoCursor} é nulo quando não há mais itens.
+ */
+public class PaginaDTO<T> implements Serializable {
+    private final List<T> itens;
+    private final int limite;
+    private final String proximoCursor;
+
+    public PaginaDTO(List<T> itens, int limite, String proximoCursor) {
+        this.itens = itens;
+        this.limite = limite;
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1} registros:
+     * o registro excedente indica que existe uma próxima página.
+     */
+    public static <T> PaginaDTO<T> de(List<T> resultados, int limite, Function<T, Cursor> cursorDe) {
+        if (resultados.size() <= limite) {
+            return new PaginaDTO<>(resultados, limite, null);
+        }
+        List<T> itens = resultados.subList(0, limite);
+        return new PaginaDTO<>(itens, limite, cursorDe.apply(itens.get(limite - 1)).codificar());
+    }
+
+    public <R> PaginaDTO<R> map(Function<T, R> mapeador) {
+        return new PaginaDTO<>(itens.stream().map(mapeador).toList(), limite, proximoCursor);
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PaginaDTO<?> entity = (PaginaDTO<?>) o;
+        return this.limite == entity.limite &&
+                Objects.equals(this.itens, entity.itens) &&
+                Objects.equals(this.proximoCursor, entity.proximoCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(itens, limite, proximoCursor);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "itens = " + itens + ", " +
+                "limite = " + limite + ", " +
+                "proximoCursor = " + proximoCursor + ")";
+    }
+}
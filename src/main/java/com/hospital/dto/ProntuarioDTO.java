@@ -1,5 +1,6 @@
 package com.hospital.dto;
 
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -11,7 +12,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Prontuario}
  */
-public class ProntuarioDTO implements Serializable {
+public class ProntuarioDTO implements Serializable, Versionado {
     private final Long id;
     private final Long consultaId;
     @Size(message = "A anamnese deve ter entre 10 e 2000 caracteres", min = 10, max = 2000)
@@ -24,8 +25,9 @@ public class ProntuarioDTO implements Serializable {
     @NotNull(message = "A data de criação é obrigatória")
     private final LocalDateTime dataCriacao;
     private final LocalDateTime dataAtualizacao;
+    private final Long versao;
 
-    public ProntuarioDTO(Long id, Long consultaId, String anamnese, String diagnostico, String planoTratamento, LocalDateTime dataCriacao, LocalDateTime dataAtualizacao) {
+    public ProntuarioDTO(Long id, @ProjectedFieldName("consulta.id") Long consultaId, String anamnese, String diagnostico, String planoTratamento, LocalDateTime dataCriacao, LocalDateTime dataAtualizacao, Long versao) {
         this.id = id;
         this.consultaId = consultaId;
         this.anamnese = anamnese;
@@ -33,8 +35,10 @@ public class ProntuarioDTO implements Serializable {
         this.planoTratamento = planoTratamento;
         this.dataCriacao = dataCriacao;
         this.dataAtualizacao = dataAtualizacao;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -63,6 +67,11 @@ public class ProntuarioDTO implements Serializable {
         return dataAtualizacao;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -74,12 +83,13 @@ public class ProntuarioDTO implements Serializable {
                 Objects.equals(this.diagnostico, entity.diagnostico) &&
                 Objects.equals(this.planoTratamento, entity.planoTratamento) &&
                 Objects.equals(this.dataCriacao, entity.dataCriacao) &&
-                Objects.equals(this.dataAtualizacao, entity.dataAtualizacao);
+                Objects.equals(this.dataAtualizacao, entity.dataAtualizacao) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, consultaId, anamnese, diagnostico, planoTratamento, dataCriacao, dataAtualizacao);
+        return Objects.hash(id, consultaId, anamnese, diagnostico, planoTratamento, dataCriacao, dataAtualizacao, versao);
     }
 
     @Override
@@ -91,6 +101,7 @@ public class ProntuarioDTO implements Serializable {
                 "diagnostico = " + diagnostico + ", " +
                 "planoTratamento = " + planoTratamento + ", " +
                 "dataCriacao = " + dataCriacao + ", " +
-                "dataAtualizacao = " + dataAtualizacao + ")";
+                "dataAtualizacao = " + dataAtualizacao + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
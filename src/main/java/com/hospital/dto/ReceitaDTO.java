@@ -1,5 +1,6 @@
 package com.hospital.dto;
 
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,7 @@ import java.util.Objects;
 /**
  * DTO for {@link com.hospital.model.Receita}
  */
-public class ReceitaDTO implements Serializable {
+public class ReceitaDTO implements Serializable, Versionado {
     private final Long id;
     private final Long consultaId;
     @Size(message = "O nome do medicamento deve ter entre 3 e 100 caracteres", min = 3, max = 100)
@@ -28,8 +29,9 @@ public class ReceitaDTO implements Serializable {
     @NotNull(message = "A data de validade é obrigatória")
     @Future(message = "A data de validade deve ser no futuro")
     private final LocalDateTime dataValidade;
+    private final Long versao;
 
-    public ReceitaDTO(Long id, Long consultaId, String medicamento, String posologia, String observacoes, LocalDateTime dataEmissao, LocalDateTime dataValidade) {
+    public ReceitaDTO(Long id, @ProjectedFieldName("consulta.id") Long consultaId, String medicamento, String posologia, String observacoes, LocalDateTime dataEmissao, LocalDateTime dataValidade, Long versao) {
         this.id = id;
         this.consultaId = consultaId;
         this.medicamento = medicamento;
@@ -37,8 +39,10 @@ public class ReceitaDTO implements Serializable {
         this.observacoes = observacoes;
         this.dataEmissao = dataEmissao;
         this.dataValidade = dataValidade;
+        this.versao = versao;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -67,6 +71,11 @@ public class ReceitaDTO implements Serializable {
         return dataValidade;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -78,12 +87,13 @@ public class ReceitaDTO implements Serializable {
                 Objects.equals(this.posologia, entity.posologia) &&
                 Objects.equals(this.observacoes, entity.observacoes) &&
                 Objects.equals(this.dataEmissao, entity.dataEmissao) &&
-                Objects.equals(this.dataValidade, entity.dataValidade);
+                Objects.equals(this.dataValidade, entity.dataValidade) &&
+                Objects.equals(this.versao, entity.versao);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, consultaId, medicamento, posologia, observacoes, dataEmissao, dataValidade);
+        return Objects.hash(id, consultaId, medicamento, posologia, observacoes, dataEmissao, dataValidade, versao);
     }
 
     @Override
@@ -95,6 +105,7 @@ public class ReceitaDTO implements Serializable {
                 "posologia = " + posologia + ", " +
                 "observacoes = " + observacoes + ", " +
                 "dataEmissao = " + dataEmissao + ", " +
-                "dataValidade = " + dataValidade + ")";
+                "dataValidade = " + dataValidade + ", " +
+                "versao = " + versao + ")";
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.hospital.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resultado de uma importação em lote: quantas linhas foram lidas, quantas gravadas
+ * e o motivo de cada linha rejeitada.
+ */
+public class RelatorioImportacaoDTO implements Serializable {
+    private final int total;
+    private final int importados;
+    private final List<Erro> erros;
+
+    public RelatorioImportacaoDTO(int total, int importados, List<Erro> erros) {
+        this.total = total;
+        this.importados = importados;
+        this.erros = erros;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getImportados() {
+        return importados;
+    }
+
+    public List<Erro> getErros() {
+        return erros;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RelatorioImportacaoDTO entity = (RelatorioImportacaoDTO) o;
+        return this.total == entity.total &&
+                this.importados == entity.importados &&
+                Objects.equals(this.erros, entity.erros);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, importados, erros);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "total = " + total + ", " +
+                "importados = " + importados + ", " +
+                "erros = " + erros + ")";
+    }
+
+    public static class Erro implements Serializable {
+        private final int linha;
+        private final String mensagem;
+
+        public Erro(int linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Erro entity = (Erro) o;
+            return this.linha == entity.linha &&
+                    Objects.equals(this.mensagem, entity.mensagem);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(linha, mensagem);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" +
+                    "linha = " + linha + ", " +
+                    "mensagem = " + mensagem + ")";
+        }
+    }
+}
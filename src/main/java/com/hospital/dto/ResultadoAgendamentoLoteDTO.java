@@ -0,0 +1,107 @@
+package com.hospital.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resultado de um agendamento em lote: quantas consultas foram pedidas, quantas agendadas e, para
+ * cada uma, na ordem do pedido, o ID gravado ou o motivo da recusa.
+ */
+public class ResultadoAgendamentoLoteDTO implements Serializable {
+    private final int total;
+    private final int agendadas;
+    private final List<Item> itens;
+
+    public ResultadoAgendamentoLoteDTO(int total, int agendadas, List<Item> itens) {
+        this.total = total;
+        this.agendadas = agendadas;
+        this.itens = itens;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getAgendadas() {
+        return agendadas;
+    }
+
+    public List<Item> getItens() {
+        return itens;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ResultadoAgendamentoLoteDTO entity = (ResultadoAgendamentoLoteDTO) o;
+        return this.total == entity.total &&
+                this.agendadas == entity.agendadas &&
+                Objects.equals(this.itens, entity.itens);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, agendadas, itens);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "total = " + total + ", " +
+                "agendadas = " + agendadas + ", " +
+                "itens = " + itens + ")";
+    }
+
+    /**
+     * Uma consulta do lote: {@code consultaId} se foi agendada, {@code mensagem} se não foi.
+     * {@code indice} é a posição dela no pedido, a partir de zero.
+     */
+    public static class Item implements Serializable {
+        private final int indice;
+        private final Long consultaId;
+        private final String mensagem;
+
+        public Item(int indice, Long consultaId, String mensagem) {
+            this.indice = indice;
+            this.consultaId = consultaId;
+            this.mensagem = mensagem;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public Long getConsultaId() {
+            return consultaId;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Item entity = (Item) o;
+            return this.indice == entity.indice &&
+                    Objects.equals(this.consultaId, entity.consultaId) &&
+                    Objects.equals(this.mensagem, entity.mensagem);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(indice, consultaId, mensagem);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" +
+                    "indice = " + indice + ", " +
+                    "consultaId = " + consultaId + ", " +
+                    "mensagem = " + mensagem + ")";
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.hospital.dto;
+
+/**
+ * DTO de uma entidade versionada: {@code id} e {@code versao} identificam a representação, então
+ * bastam para calcular o ETag sem serializar o corpo.
+ */
+public interface Versionado {
+
+    Long getId();
+
+    Long getVersao();
+}
@@ -0,0 +1,59 @@
+package com.hospital.event;
+
+import com.hospital.dto.ConsultaDTO;
+
+/**
+ * Disparado quando uma consulta é criada, atualizada (inclusive cancelada ou realizada) ou excluída.
+ * Observadores que mantêm cópias da agenda devem usar {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)};
+ * os que gravam junto com a consulta, como os contadores das estatísticas, observam dentro da transação.
+ */
+public final class ConsultaAlterada {
+
+    private final Long id;
+    private final ConsultaDTO anterior;
+    private final ConsultaDTO atual;
+
+    private ConsultaAlterada(Long id, ConsultaDTO anterior, ConsultaDTO atual) {
+        this.id = id;
+        this.anterior = anterior;
+        this.atual = atual;
+    }
+
+    public static ConsultaAlterada criada(ConsultaDTO atual) {
+        return new ConsultaAlterada(atual.getId(), null, atual);
+    }
+
+    public static ConsultaAlterada alterada(ConsultaDTO anterior, ConsultaDTO atual) {
+        return new ConsultaAlterada(atual.getId(), anterior, atual);
+    }
+
+    public static ConsultaAlterada excluida(ConsultaDTO anterior) {
+        return new ConsultaAlterada(anterior.getId(), anterior, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /** Dados antes da alteração; {@code null} quando a consulta acabou de ser criada. */
+    public ConsultaDTO getAnterior() {
+        return anterior;
+    }
+
+    /** Dados depois da alteração; {@code null} quando a consulta foi excluída. */
+    public ConsultaDTO getAtual() {
+        return atual;
+    }
+
+    public boolean isExclusao() {
+        return atual == null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "anterior = " + anterior + ", " +
+                "atual = " + atual + ")";
+    }
+}
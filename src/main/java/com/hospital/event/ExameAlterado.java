@@ -0,0 +1,59 @@
+package com.hospital.event;
+
+import com.hospital.dto.ExameDTO;
+
+/**
+ * Disparado quando um exame é solicitado, atualizado (inclusive ao receber resultado) ou excluído.
+ * Observadores que mantêm cópias devem usar {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)};
+ * os que gravam junto com o exame, como os contadores das estatísticas, observam dentro da transação.
+ */
+public final class ExameAlterado {
+
+    private final Long id;
+    private final ExameDTO anterior;
+    private final ExameDTO atual;
+
+    private ExameAlterado(Long id, ExameDTO anterior, ExameDTO atual) {
+        this.id = id;
+        this.anterior = anterior;
+        this.atual = atual;
+    }
+
+    public static ExameAlterado solicitado(ExameDTO atual) {
+        return new ExameAlterado(atual.getId(), null, atual);
+    }
+
+    public static ExameAlterado alterado(ExameDTO anterior, ExameDTO atual) {
+        return new ExameAlterado(atual.getId(), anterior, atual);
+    }
+
+    public static ExameAlterado excluido(ExameDTO anterior) {
+        return new ExameAlterado(anterior.getId(), anterior, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /** Dados antes da alteração; {@code null} quando o exame acabou de ser solicitado. */
+    public ExameDTO getAnterior() {
+        return anterior;
+    }
+
+    /** Dados depois da alteração; {@code null} quando o exame foi excluído. */
+    public ExameDTO getAtual() {
+        return atual;
+    }
+
+    public boolean isExclusao() {
+        return atual == null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "anterior = " + anterior + ", " +
+                "atual = " + atual + ")";
+    }
+}
@@ -0,0 +1,30 @@
+package com.hospital.event;
+
+/**
+ * Disparado quando uma receita prescreve um medicamento que ainda não estava no dicionário.
+ */
+public final class MedicamentoCadastrado {
+
+    private final Long id;
+    private final String nome;
+
+    public MedicamentoCadastrado(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "nome = " + nome + ")";
+    }
+}
@@ -0,0 +1,69 @@
+package com.hospital.event;
+
+import com.hospital.dto.MedicoDTO;
+
+import java.util.Set;
+
+/**
+ * Disparado quando um médico é criado, atualizado ou excluído. Observadores que mantêm cópias dos
+ * dados (caches, índices) devem usar {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} para só
+ * reagir depois do commit; os que gravam junto com o médico observam dentro da transação.
+ */
+public final class MedicoAlterado {
+
+    private final Long id;
+    private final String crmAnterior;
+    private final Set<Long> especialidadeIdsAnteriores;
+    private final MedicoDTO atual;
+
+    private MedicoAlterado(Long id, String crmAnterior, Set<Long> especialidadeIdsAnteriores, MedicoDTO atual) {
+        this.id = id;
+        this.crmAnterior = crmAnterior;
+        this.especialidadeIdsAnteriores = especialidadeIdsAnteriores;
+        this.atual = atual;
+    }
+
+    public static MedicoAlterado criado(MedicoDTO atual) {
+        return new MedicoAlterado(atual.getId(), null, Set.of(), atual);
+    }
+
+    public static MedicoAlterado atualizado(String crmAnterior, Set<Long> especialidadeIdsAnteriores, MedicoDTO atual) {
+        return new MedicoAlterado(atual.getId(), crmAnterior, Set.copyOf(especialidadeIdsAnteriores), atual);
+    }
+
+    public static MedicoAlterado excluido(Long id, String crm) {
+        return new MedicoAlterado(id, crm, Set.of(), null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /** CRM antes da alteração; {@code null} quando o médico acabou de ser criado. */
+    public String getCrmAnterior() {
+        return crmAnterior;
+    }
+
+    /** Especialidades antes da atualização; vazio na criação e na exclusão. */
+    public Set<Long> getEspecialidadeIdsAnteriores() {
+        return especialidadeIdsAnteriores;
+    }
+
+    /** Dados depois da alteração; {@code null} quando o médico foi excluído. */
+    public MedicoDTO getAtual() {
+        return atual;
+    }
+
+    public boolean isExclusao() {
+        return atual == null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "crmAnterior = " + crmAnterior + ", " +
+                "especialidadeIdsAnteriores = " + especialidadeIdsAnteriores + ", " +
+                "atual = " + atual + ")";
+    }
+}
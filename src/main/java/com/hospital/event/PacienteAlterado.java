@@ -0,0 +1,59 @@
+package com.hospital.event;
+
+import com.hospital.dto.PacienteDTO;
+
+/**
+ * Disparado quando um paciente é criado, atualizado ou excluído. Observadores que mantêm cópias dos
+ * dados (caches, índices) devem usar {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} para só
+ * reagir depois do commit.
+ */
+public final class PacienteAlterado {
+
+    private final Long id;
+    private final String cpfAnterior;
+    private final PacienteDTO atual;
+
+    private PacienteAlterado(Long id, String cpfAnterior, PacienteDTO atual) {
+        this.id = id;
+        this.cpfAnterior = cpfAnterior;
+        this.atual = atual;
+    }
+
+    public static PacienteAlterado criado(PacienteDTO atual) {
+        return new PacienteAlterado(atual.getId(), null, atual);
+    }
+
+    public static PacienteAlterado atualizado(String cpfAnterior, PacienteDTO atual) {
+        return new PacienteAlterado(atual.getId(), cpfAnterior, atual);
+    }
+
+    public static PacienteAlterado excluido(Long id, String cpf) {
+        return new PacienteAlterado(id, cpf, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /** CPF antes da alteração; {@code null} quando o paciente acabou de ser criado. */
+    public String getCpfAnterior() {
+        return cpfAnterior;
+    }
+
+    /** Dados depois da alteração; {@code null} quando o paciente foi excluído. */
+    public PacienteDTO getAtual() {
+        return atual;
+    }
+
+    public boolean isExclusao() {
+        return atual == null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id = " + id + ", " +
+                "cpfAnterior = " + cpfAnterior + ", " +
+                "atual = " + atual + ")";
+    }
+}
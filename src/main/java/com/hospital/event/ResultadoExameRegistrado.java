@@ -0,0 +1,34 @@
+package com.hospital.event;
+
+import com.hospital.dto.ExameDTO;
+
+/**
+ * Disparado quando um exame recebe resultado: ao registrá-lo, ao alterá-lo numa atualização ou ao
+ * solicitar um exame já com resultado. Quem avisa terceiros deve usar
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} para não anunciar resultados desfeitos.
+ */
+public final class ResultadoExameRegistrado {
+
+    private final ExameDTO exame;
+    private final Long pacienteId;
+
+    public ResultadoExameRegistrado(ExameDTO exame, Long pacienteId) {
+        this.exame = exame;
+        this.pacienteId = pacienteId;
+    }
+
+    public ExameDTO getExame() {
+        return exame;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "exame = " + exame + ", " +
+                "pacienteId = " + pacienteId + ")";
+    }
+}
@@ -1,5 +1,6 @@
 package com.hospital.exception;
 
+import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.ws.rs.WebApplicationException;
@@ -8,6 +9,7 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import org.hibernate.StaleStateException;
 
 @Provider
 public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
@@ -31,6 +33,20 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
             return Response.status(Response.Status.BAD_REQUEST).entity(apiError).build();
         }
 
+        if (exception instanceof VersaoDivergenteException) {
+            apiError = new ApiError(Response.Status.PRECONDITION_FAILED.getStatusCode(),
+                    exception.getMessage(), uriInfo.getPath());
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(apiError).build();
+        }
+
+        // Outra transação gravou o mesmo registro entre a leitura e o commit (coluna versao)
+        if (alteradoConcorrentemente(exception)) {
+            apiError = new ApiError(Response.Status.CONFLICT.getStatusCode(),
+                    "O registro foi alterado por outra requisição; leia-o novamente e repita a operação",
+                    uriInfo.getPath());
+            return Response.status(Response.Status.CONFLICT).entity(apiError).build();
+        }
+
         if (exception instanceof ConstraintViolationException) {
             ConstraintViolationException constraintViolation = (ConstraintViolationException) exception;
             apiError = new ApiError(Response.Status.BAD_REQUEST.getStatusCode(),
@@ -43,7 +59,10 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
         }
 
         if (exception instanceof WebApplicationException) {
-            WebApplicationException webAppException = (WebApplicationException) exception;
+            WebApplicationException webAppException = corpoExcedido(exception);
+            if (webAppException == null) {
+                webAppException = (WebApplicationException) exception;
+            }
             apiError = new ApiError(webAppException.getResponse().getStatus(),
                     webAppException.getMessage(), uriInfo.getPath());
             return Response.status(webAppException.getResponse().getStatus()).entity(apiError).build();
@@ -55,4 +74,26 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
         apiError.addError(exception.getMessage());
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(apiError).build();
     }
-}
\ No newline at end of file
+
+    private static boolean alteradoConcorrentemente(Throwable exception) {
+        for (Throwable causa = exception; causa != null; causa = causa.getCause()) {
+            if (causa instanceof OptimisticLockException || causa instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O leitor JSON embrulha o 413 de {@code LimiteCorpo} num 400 quando o limite estoura no meio do corpo.
+     */
+    private static WebApplicationException corpoExcedido(Throwable exception) {
+        for (Throwable causa = exception; causa != null; causa = causa.getCause()) {
+            if (causa instanceof WebApplicationException web
+                    && web.getResponse().getStatus() == Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode()) {
+                return web;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hospital.exception;
+
+/**
+ * A versão informada em {@code If-Match} não é mais a versão atual do registro: outra requisição o
+ * alterou desde que o cliente o leu.
+ */
+public class VersaoDivergenteException extends RuntimeException {
+
+    public VersaoDivergenteException(String message) {
+        super(message);
+    }
+
+    public VersaoDivergenteException(String entityName, Long id, Long versaoAtual) {
+        super(entityName + " com ID " + id + " foi alterado(a) por outra requisição; versão atual: " + versaoAtual);
+    }
+}
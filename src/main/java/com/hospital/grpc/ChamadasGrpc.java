@@ -0,0 +1,163 @@
+package com.hospital.grpc;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Execução das chamadas gRPC que não cabem no {@code @Blocking} de uma chamada unária: as gravações
+ * client-streaming, que consomem as mensagens à medida que chegam, e as listagens completas, que
+ * enviam cada registro à medida que é lido do banco, no ritmo em que o cliente os lê.
+ * <p>
+ * Ambas rodam no pool de workers, num contexto de requisição próprio (a sessão do Hibernate vive nele).
+ */
+final class ChamadasGrpc {
+
+    private ChamadasGrpc() {
+    }
+
+    /** Executa a tarefa fora do event loop e entrega o resultado. */
+    static <T> Uni<T> bloqueante(Supplier<T> tarefa) {
+        return Uni.createFrom().item(() -> comContexto(tarefa))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Transmite os registros que a exportação entrega ao consumidor, na transação dela, sem montar a
+     * lista em memória: a exportação só avança quando o assinante pediu mais registros e a chamada gRPC
+     * aceita mais mensagens (veja {@link ControleFluxoGrpc}). Enquanto o cliente não lê, a thread da
+     * exportação espera com o cursor e a transação abertos, em vez de acumular o que já leu. Se o cliente
+     * cancela a chamada, a exportação é interrompida no próximo registro.
+     */
+    static <T> Multi<T> transmitir(Consumer<Consumer<T>> exportacao) {
+        return transmitir(exportacao, ControleFluxoGrpc.atual());
+    }
+
+    static <T> Multi<T> transmitir(Consumer<Consumer<T>> exportacao, ControleFluxoGrpc.Prontidao prontidao) {
+        Vazao vazao = new Vazao(prontidao);
+        return Multi.createFrom().<T>emitter(emissor -> {
+            try {
+                comContexto(() -> {
+                    exportacao.accept(item -> {
+                        if (!vazao.aguardar()) {
+                            throw new CancellationException();
+                        }
+                        emissor.emit(item);
+                    });
+                    return null;
+                });
+                emissor.complete();
+            } catch (CancellationException e) {
+                // O cliente desistiu; não há a quem avisar
+            } catch (RuntimeException e) {
+                emissor.fail(e);
+            }
+        })
+                .onRequest().invoke(vazao::pedir)
+                .onCancellation().invoke(vazao::cancelar)
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Quantos registros ainda podem sair: os pedidos pelo assinante e ainda não emitidos, desde que a
+     * chamada gRPC, se houver, aceite mais mensagens. O pedido é contado antes de chegar ao emissor,
+     * então um registro pode esperar um instante no buffer dele, mas nunca além do que foi pedido.
+     */
+    private static final class Vazao {
+
+        private final ControleFluxoGrpc.Prontidao prontidao;
+        private final ReentrantLock trava = new ReentrantLock();
+        private final Condition mudou = trava.newCondition();
+        private long pedidos;
+        private boolean cancelada;
+
+        Vazao(ControleFluxoGrpc.Prontidao prontidao) {
+            this.prontidao = prontidao;
+            if (prontidao != null) {
+                prontidao.aoFicarPronta(this::avisar);
+            }
+        }
+
+        void pedir(long quantidade) {
+            trava.lock();
+            try {
+                pedidos = pedidos + quantidade < 0 ? Long.MAX_VALUE : pedidos + quantidade;
+                mudou.signal();
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        void cancelar() {
+            trava.lock();
+            try {
+                cancelada = true;
+                mudou.signal();
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        private void avisar() {
+            trava.lock();
+            try {
+                mudou.signal();
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        /** Espera poder emitir um registro e o desconta; {@code false} se o assinante cancelou. */
+        boolean aguardar() {
+            trava.lock();
+            try {
+                while (!cancelada && (pedidos == 0 || (prontidao != null && !prontidao.pronta()))) {
+                    mudou.awaitUninterruptibly();
+                }
+                if (cancelada) {
+                    return false;
+                }
+                if (pedidos != Long.MAX_VALUE) {
+                    pedidos--;
+                }
+                return true;
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    /** O DTO, se passar nas validações declaradas nele, como o {@code @Valid} dos controllers. */
+    static <T> T validado(Validator validator, T dto) {
+        Set<ConstraintViolation<T>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            throw new ConstraintViolationException(violacoes);
+        }
+        return dto;
+    }
+
+    private static <T> T comContexto(Supplier<T> tarefa) {
+        ManagedContext requisicao = Arc.container().requestContext();
+        if (requisicao.isActive()) {
+            return tarefa.get();
+        }
+        requisicao.activate();
+        try {
+            return tarefa.get();
+        } finally {
+            requisicao.terminate();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.hospital.grpc;
+
+import com.google.protobuf.Empty;
+import com.hospital.grpc.proto.Alteracao;
+import com.hospital.grpc.proto.AtualizacaoConsulta;
+import com.hospital.grpc.proto.Consulta;
+import com.hospital.grpc.proto.Consultas;
+import com.hospital.grpc.proto.Id;
+import com.hospital.grpc.proto.PorMedico;
+import com.hospital.grpc.proto.PorPaciente;
+import com.hospital.grpc.proto.ResultadoLote;
+import com.hospital.service.ConsultaService;
+import io.quarkus.grpc.GrpcService;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+
+/**
+ * Serviço gRPC {@code hospital.v1.Consultas}, sobre o mesmo {@link ConsultaService} da API REST.
+ */
+@GrpcService
+public class ConsultaGrpcService implements Consultas {
+
+    @Inject
+    ConsultaService consultaService;
+
+    @Inject
+    Validator validator;
+
+    @Override
+    @Blocking
+    public Uni<Consulta> buscar(Id requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.consulta(consultaService.buscarDTOPorId(requisicao.getId())));
+    }
+
+    @Override
+    public Multi<Consulta> listar(Empty requisicao) {
+        return ChamadasGrpc.transmitir(consultaService::exportarTodas).map(ConversoesGrpc::consulta);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Consulta> listarPorMedico(PorMedico requisicao) {
+        return Multi.createFrom().iterable(consultaService.listarPorMedico(requisicao.getMedicoId()))
+                .map(ConversoesGrpc::consulta);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Consulta> listarPorPaciente(PorPaciente requisicao) {
+        return Multi.createFrom().iterable(consultaService.listarPorPaciente(requisicao.getPacienteId()))
+                .map(ConversoesGrpc::consulta);
+    }
+
+    @Override
+    @Blocking
+    public Uni<Consulta> agendar(Consulta requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.consulta(consultaService.toDTO(
+                consultaService.criar(ChamadasGrpc.validado(validator, ConversoesGrpc.consulta(requisicao))))));
+    }
+
+    @Override
+    public Uni<ResultadoLote> agendarEmLote(Multi<Consulta> requisicoes) {
+        return ChamadasGrpc.bloqueante(() -> ConversoesGrpc.resultado(consultaService.importar(
+                ConversoesGrpc.linhas(requisicoes.subscribe().asIterable().iterator(), ConversoesGrpc::consulta))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Consulta> atualizar(AtualizacaoConsulta requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.consulta(consultaService.toDTO(consultaService.atualizar(
+                requisicao.getId(),
+                ChamadasGrpc.validado(validator, ConversoesGrpc.consulta(requisicao.getConsulta())),
+                requisicao.hasVersaoEsperada() ? requisicao.getVersaoEsperada() : null))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Consulta> cancelar(Alteracao requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.consulta(consultaService.toDTO(
+                consultaService.cancelarConsulta(requisicao.getId(), ConversoesGrpc.versaoEsperada(requisicao)))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Consulta> realizar(Alteracao requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.consulta(consultaService.toDTO(
+                consultaService.realizarConsulta(requisicao.getId(), ConversoesGrpc.versaoEsperada(requisicao)))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Empty> excluir(Alteracao requisicao) {
+        return Uni.createFrom().item(() -> {
+            consultaService.excluir(requisicao.getId(), ConversoesGrpc.versaoEsperada(requisicao));
+            return Empty.getDefaultInstance();
+        });
+    }
+}
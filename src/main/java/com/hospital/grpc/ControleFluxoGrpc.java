@@ -0,0 +1,68 @@
+package com.hospital.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.quarkus.grpc.GlobalInterceptor;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Expõe às listagens por streaming o controle de fluxo da chamada gRPC. O servidor assina o
+ * {@code Multi} de uma listagem pedindo todos os itens de uma vez e escreve cada um na chamada, que os
+ * acumula na memória enquanto o cliente não os lê; a {@link Prontidao} da chamada diz se ela aceita mais
+ * mensagens e avisa quando volta a aceitar, para que {@link ChamadasGrpc#transmitir} espere o cliente.
+ */
+@ApplicationScoped
+@GlobalInterceptor
+public class ControleFluxoGrpc implements ServerInterceptor {
+
+    private static final Context.Key<Prontidao> PRONTIDAO = Context.key("prontidao");
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> chamada, Metadata metadados,
+                                                                 ServerCallHandler<ReqT, RespT> proximo) {
+        Prontidao prontidao = new Prontidao(chamada);
+        ServerCall.Listener<ReqT> ouvinte = Contexts.interceptCall(Context.current().withValue(PRONTIDAO, prontidao),
+                chamada, metadados, proximo);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(ouvinte) {
+            @Override
+            public void onReady() {
+                prontidao.avisar();
+                super.onReady();
+            }
+        };
+    }
+
+    /** Prontidão da chamada gRPC em andamento nesta thread; {@code null} fora de uma chamada. */
+    static Prontidao atual() {
+        return PRONTIDAO.get();
+    }
+
+    /** Se a chamada aceita mais mensagens sem acumulá-las, e quem avisar quando voltar a aceitar. */
+    static final class Prontidao {
+
+        private final ServerCall<?, ?> chamada;
+        private volatile Runnable aoFicarPronta = () -> {
+        };
+
+        Prontidao(ServerCall<?, ?> chamada) {
+            this.chamada = chamada;
+        }
+
+        boolean pronta() {
+            return chamada.isReady();
+        }
+
+        void aoFicarPronta(Runnable aviso) {
+            aoFicarPronta = aviso;
+        }
+
+        void avisar() {
+            aoFicarPronta.run();
+        }
+    }
+}
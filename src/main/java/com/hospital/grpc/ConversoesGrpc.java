@@ -0,0 +1,196 @@
+package com.hospital.grpc;
+
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.ExameDTO;
+import com.hospital.dto.ReceitaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.grpc.proto.Alteracao;
+import com.hospital.grpc.proto.Consulta;
+import com.hospital.grpc.proto.Exame;
+import com.hospital.grpc.proto.Receita;
+import com.hospital.grpc.proto.ResultadoLote;
+import com.hospital.grpc.proto.StatusConsulta;
+import com.hospital.grpc.proto.StatusExame;
+import com.hospital.grpc.proto.TipoExame;
+import com.hospital.service.LinhaImportacao;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Conversão entre as mensagens do {@code hospital.proto} e os DTOs da camada de serviço.
+ * <p>
+ * Campos {@code optional} ausentes viram {@code null}; datas vão em ISO-8601 sem fuso, como no JSON.
+ * Status não informado vale {@code AGENDADA} e as datas de solicitação/emissão, que o serviço
+ * preenche ao gravar, podem ser omitidas.
+ */
+final class ConversoesGrpc {
+
+    private ConversoesGrpc() {
+    }
+
+    static ConsultaDTO consulta(Consulta consulta) {
+        return new ConsultaDTO(
+                consulta.hasId() ? consulta.getId() : null,
+                data("data_hora", consulta.getDataHora()),
+                consulta.getStatus() == StatusConsulta.STATUS_CONSULTA_NAO_INFORMADO
+                        ? com.hospital.model.enums.StatusConsulta.AGENDADA
+                        : enumeracao(com.hospital.model.enums.StatusConsulta.class, consulta.getStatus()),
+                consulta.getMedicoId(),
+                consulta.getPacienteId(),
+                consulta.hasObservacao() ? consulta.getObservacao() : null,
+                consulta.hasVersao() ? consulta.getVersao() : null);
+    }
+
+    static Consulta consulta(ConsultaDTO consulta) {
+        Consulta.Builder mensagem = Consulta.newBuilder()
+                .setId(consulta.getId())
+                .setDataHora(consulta.getDataHora().toString())
+                .setStatus(StatusConsulta.valueOf(consulta.getStatus().name()))
+                .setMedicoId(consulta.getMedicoId())
+                .setPacienteId(consulta.getPacienteId());
+        if (consulta.getObservacao() != null) {
+            mensagem.setObservacao(consulta.getObservacao());
+        }
+        if (consulta.getVersao() != null) {
+            mensagem.setVersao(consulta.getVersao());
+        }
+        return mensagem.build();
+    }
+
+    static ExameDTO exame(Exame exame) {
+        return new ExameDTO(
+                exame.hasId() ? exame.getId() : null,
+                exame.getConsultaId(),
+                exame.getNome(),
+                exame.getTipo() == TipoExame.TIPO_EXAME_NAO_INFORMADO
+                        ? null
+                        : enumeracao(com.hospital.model.enums.TipoExame.class, exame.getTipo()),
+                exame.hasInstrucoes() ? exame.getInstrucoes() : null,
+                exame.hasDataSolicitacao() ? data("data_solicitacao", exame.getDataSolicitacao()) : LocalDateTime.now(),
+                exame.hasDataResultado() ? data("data_resultado", exame.getDataResultado()) : null,
+                exame.hasResultado() ? exame.getResultado() : null,
+                null,
+                exame.hasPrioridade() ? exame.getPrioridade() : null,
+                null,
+                null,
+                exame.hasVersao() ? exame.getVersao() : null);
+    }
+
+    static Exame exame(ExameDTO exame) {
+        Exame.Builder mensagem = Exame.newBuilder()
+                .setId(exame.getId())
+                .setConsultaId(exame.getConsultaId())
+                .setNome(exame.getNome())
+                .setTipo(TipoExame.valueOf(exame.getTipo().name()))
+                .setDataSolicitacao(exame.getDataSolicitacao().toString())
+                .setPrioridade(exame.getPrioridade())
+                .setStatus(StatusExame.valueOf(exame.getStatus().name()));
+        if (exame.getInstrucoes() != null) {
+            mensagem.setInstrucoes(exame.getInstrucoes());
+        }
+        if (exame.getDataResultado() != null) {
+            mensagem.setDataResultado(exame.getDataResultado().toString());
+        }
+        if (exame.getResultado() != null) {
+            mensagem.setResultado(exame.getResultado());
+        }
+        if (exame.getVersao() != null) {
+            mensagem.setVersao(exame.getVersao());
+        }
+        return mensagem.build();
+    }
+
+    static ReceitaDTO receita(Receita receita) {
+        return new ReceitaDTO(
+                receita.hasId() ? receita.getId() : null,
+                receita.getConsultaId(),
+                receita.getMedicamento(),
+                receita.getPosologia(),
+                receita.hasObservacoes() ? receita.getObservacoes() : null,
+                receita.hasDataEmissao() ? data("data_emissao", receita.getDataEmissao()) : LocalDateTime.now(),
+                data("data_validade", receita.getDataValidade()),
+                receita.hasVersao() ? receita.getVersao() : null);
+    }
+
+    static Receita receita(ReceitaDTO receita) {
+        Receita.Builder mensagem = Receita.newBuilder()
+                .setId(receita.getId())
+                .setConsultaId(receita.getConsultaId())
+                .setMedicamento(receita.getMedicamento())
+                .setPosologia(receita.getPosologia())
+                .setDataEmissao(receita.getDataEmissao().toString())
+                .setDataValidade(receita.getDataValidade().toString());
+        if (receita.getObservacoes() != null) {
+            mensagem.setObservacoes(receita.getObservacoes());
+        }
+        if (receita.getVersao() != null) {
+            mensagem.setVersao(receita.getVersao());
+        }
+        return mensagem.build();
+    }
+
+    static Long versaoEsperada(Alteracao alteracao) {
+        return alteracao.hasVersaoEsperada() ? alteracao.getVersaoEsperada() : null;
+    }
+
+    static ResultadoLote resultado(RelatorioImportacaoDTO relatorio) {
+        ResultadoLote.Builder resultado = ResultadoLote.newBuilder()
+                .setTotal(relatorio.getTotal())
+                .setGravados(relatorio.getImportados());
+        for (RelatorioImportacaoDTO.Erro erro : relatorio.getErros()) {
+            resultado.addErros(ResultadoLote.Erro.newBuilder()
+                    .setPosicao(erro.getLinha())
+                    .setMensagem(erro.getMensagem()));
+        }
+        return resultado.build();
+    }
+
+    /**
+     * Numera as mensagens recebidas a partir de 1 e converte cada uma; uma mensagem que não converte
+     * vira uma linha inválida, com o motivo, em vez de interromper o lote.
+     */
+    static <M, D> Iterator<LinhaImportacao<D>> linhas(Iterator<M> mensagens, Function<M, D> conversao) {
+        return new Iterator<>() {
+            private int posicao;
+
+            @Override
+            public boolean hasNext() {
+                return mensagens.hasNext();
+            }
+
+            @Override
+            public LinhaImportacao<D> next() {
+                M mensagem = mensagens.next();
+                posicao++;
+                try {
+                    return LinhaImportacao.valida(posicao, conversao.apply(mensagem));
+                } catch (BusinessException e) {
+                    return LinhaImportacao.invalida(posicao, e.getMessage());
+                }
+            }
+        };
+    }
+
+    private static LocalDateTime data(String campo, String valor) {
+        if (valor.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Valor inválido para o campo " + campo + ": " + valor);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumeracao(Class<E> tipo, Enum<?> valor) {
+        try {
+            return Enum.valueOf(tipo, valor.name());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Valor desconhecido para " + tipo.getSimpleName() + ": " + valor);
+        }
+    }
+}
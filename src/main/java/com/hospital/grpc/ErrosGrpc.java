@@ -0,0 +1,78 @@
+package com.hospital.grpc;
+
+import com.hospital.exception.BusinessException;
+import com.hospital.exception.EntityNotFoundException;
+import com.hospital.exception.VersaoDivergenteException;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+import io.quarkus.grpc.ExceptionHandler;
+import io.quarkus.grpc.ExceptionHandlerProvider;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import org.hibernate.StaleStateException;
+import org.jboss.logging.Logger;
+
+import java.util.stream.Collectors;
+
+/**
+ * Traduz as exceções da camada de serviço em status gRPC, com as mesmas regras do
+ * {@link com.hospital.exception.GlobalExceptionHandler} da API REST.
+ */
+@ApplicationScoped
+public class ErrosGrpc implements ExceptionHandlerProvider {
+
+    private static final Logger LOG = Logger.getLogger(ErrosGrpc.class);
+
+    @Override
+    public <ReqT, RespT> ExceptionHandler<ReqT, RespT> createHandler(ServerCall.Listener<ReqT> listener,
+                                                                     ServerCall<ReqT, RespT> call, Metadata metadata) {
+        return new ExceptionHandler<>(listener, call, metadata) {
+            @Override
+            protected void handleException(Throwable erro, ServerCall<ReqT, RespT> chamada, Metadata metadados) {
+                chamada.close(status(erro), metadados);
+            }
+        };
+    }
+
+    @Override
+    public Throwable transform(Throwable erro) {
+        return new StatusException(status(erro));
+    }
+
+    static Status status(Throwable erro) {
+        if (erro instanceof StatusException statusException) {
+            return statusException.getStatus();
+        }
+        if (erro instanceof StatusRuntimeException statusException) {
+            return statusException.getStatus();
+        }
+        if (erro instanceof EntityNotFoundException) {
+            return Status.NOT_FOUND.withDescription(erro.getMessage());
+        }
+        if (erro instanceof BusinessException) {
+            return Status.INVALID_ARGUMENT.withDescription(erro.getMessage());
+        }
+        if (erro instanceof ConstraintViolationException violacoes) {
+            return Status.INVALID_ARGUMENT.withDescription(violacoes.getConstraintViolations().stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (erro instanceof VersaoDivergenteException) {
+            return Status.FAILED_PRECONDITION.withDescription(erro.getMessage());
+        }
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof OptimisticLockException || causa instanceof StaleStateException) {
+                return Status.ABORTED.withDescription(
+                        "O registro foi alterado por outra requisição; leia-o novamente e repita a operação");
+            }
+        }
+        LOG.error("Erro não tratado em chamada gRPC", erro);
+        return Status.INTERNAL.withDescription("Erro interno do servidor");
+    }
+}
@@ -0,0 +1,103 @@
+package com.hospital.grpc;
+
+import com.google.protobuf.Empty;
+import com.hospital.grpc.proto.Alteracao;
+import com.hospital.grpc.proto.AtualizacaoExame;
+import com.hospital.grpc.proto.Exame;
+import com.hospital.grpc.proto.Exames;
+import com.hospital.grpc.proto.Id;
+import com.hospital.grpc.proto.PorConsulta;
+import com.hospital.grpc.proto.PorPaciente;
+import com.hospital.grpc.proto.ResultadoExame;
+import com.hospital.grpc.proto.ResultadoLote;
+import com.hospital.service.ExameService;
+import io.quarkus.grpc.GrpcService;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+
+/**
+ * Serviço gRPC {@code hospital.v1.Exames}, sobre o mesmo {@link ExameService} da API REST.
+ */
+@GrpcService
+public class ExameGrpcService implements Exames {
+
+    @Inject
+    ExameService exameService;
+
+    @Inject
+    Validator validator;
+
+    @Override
+    @Blocking
+    public Uni<Exame> buscar(Id requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.exame(exameService.buscarDTOPorId(requisicao.getId())));
+    }
+
+    @Override
+    public Multi<Exame> listar(Empty requisicao) {
+        return ChamadasGrpc.transmitir(exameService::exportarTodos).map(ConversoesGrpc::exame);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Exame> listarPorConsulta(PorConsulta requisicao) {
+        return Multi.createFrom().iterable(exameService.listarPorConsulta(requisicao.getConsultaId()))
+                .map(ConversoesGrpc::exame);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Exame> listarPorPaciente(PorPaciente requisicao) {
+        return Multi.createFrom().iterable(exameService.listarPorPaciente(requisicao.getPacienteId()))
+                .map(ConversoesGrpc::exame);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Exame> listarPendentes(Empty requisicao) {
+        return Multi.createFrom().iterable(exameService.listarSemResultado()).map(ConversoesGrpc::exame);
+    }
+
+    @Override
+    @Blocking
+    public Uni<Exame> solicitar(Exame requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.exame(exameService.toDTO(
+                exameService.criar(ChamadasGrpc.validado(validator, ConversoesGrpc.exame(requisicao))))));
+    }
+
+    @Override
+    public Uni<ResultadoLote> solicitarEmLote(Multi<Exame> requisicoes) {
+        return ChamadasGrpc.bloqueante(() -> ConversoesGrpc.resultado(exameService.importar(
+                ConversoesGrpc.linhas(requisicoes.subscribe().asIterable().iterator(), ConversoesGrpc::exame))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Exame> atualizar(AtualizacaoExame requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.exame(exameService.toDTO(exameService.atualizar(
+                requisicao.getId(),
+                ChamadasGrpc.validado(validator, ConversoesGrpc.exame(requisicao.getExame())),
+                requisicao.hasVersaoEsperada() ? requisicao.getVersaoEsperada() : null))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Exame> registrarResultado(ResultadoExame requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.exame(exameService.toDTO(exameService.registrarResultado(
+                requisicao.getId(),
+                requisicao.getResultado(),
+                requisicao.hasVersaoEsperada() ? requisicao.getVersaoEsperada() : null))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Empty> excluir(Alteracao requisicao) {
+        return Uni.createFrom().item(() -> {
+            exameService.excluir(requisicao.getId(), ConversoesGrpc.versaoEsperada(requisicao));
+            return Empty.getDefaultInstance();
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.hospital.grpc;
+
+import com.google.protobuf.Empty;
+import com.hospital.grpc.proto.Alteracao;
+import com.hospital.grpc.proto.AtualizacaoReceita;
+import com.hospital.grpc.proto.Id;
+import com.hospital.grpc.proto.PorConsulta;
+import com.hospital.grpc.proto.PorPaciente;
+import com.hospital.grpc.proto.Receita;
+import com.hospital.grpc.proto.Receitas;
+import com.hospital.grpc.proto.ResultadoLote;
+import com.hospital.service.ReceitaService;
+import io.quarkus.grpc.GrpcService;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+
+/**
+ * Serviço gRPC {@code hospital.v1.Receitas}, sobre o mesmo {@link ReceitaService} da API REST.
+ */
+@GrpcService
+public class ReceitaGrpcService implements Receitas {
+
+    @Inject
+    ReceitaService receitaService;
+
+    @Inject
+    Validator validator;
+
+    @Override
+    @Blocking
+    public Uni<Receita> buscar(Id requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.receita(receitaService.buscarDTOPorId(requisicao.getId())));
+    }
+
+    @Override
+    public Multi<Receita> listar(Empty requisicao) {
+        return ChamadasGrpc.transmitir(receitaService::exportarTodas).map(ConversoesGrpc::receita);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Receita> listarPorConsulta(PorConsulta requisicao) {
+        return Multi.createFrom().iterable(receitaService.listarPorConsulta(requisicao.getConsultaId()))
+                .map(ConversoesGrpc::receita);
+    }
+
+    @Override
+    @Blocking
+    public Multi<Receita> listarPorPaciente(PorPaciente requisicao) {
+        return Multi.createFrom().iterable(receitaService.listarPorPaciente(requisicao.getPacienteId()))
+                .map(ConversoesGrpc::receita);
+    }
+
+    @Override
+    @Blocking
+    public Uni<Receita> emitir(Receita requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.receita(receitaService.toDTO(
+                receitaService.criar(ChamadasGrpc.validado(validator, ConversoesGrpc.receita(requisicao))))));
+    }
+
+    @Override
+    public Uni<ResultadoLote> emitirEmLote(Multi<Receita> requisicoes) {
+        return ChamadasGrpc.bloqueante(() -> ConversoesGrpc.resultado(receitaService.importar(
+                ConversoesGrpc.linhas(requisicoes.subscribe().asIterable().iterator(), ConversoesGrpc::receita))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Receita> atualizar(AtualizacaoReceita requisicao) {
+        return Uni.createFrom().item(() -> ConversoesGrpc.receita(receitaService.toDTO(receitaService.atualizar(
+                requisicao.getId(),
+                ChamadasGrpc.validado(validator, ConversoesGrpc.receita(requisicao.getReceita())),
+                requisicao.hasVersaoEsperada() ? requisicao.getVersaoEsperada() : null))));
+    }
+
+    @Override
+    @Blocking
+    public Uni<Empty> excluir(Alteracao requisicao) {
+        return Uni.createFrom().item(() -> {
+            receitaService.excluir(requisicao.getId(), ConversoesGrpc.versaoEsperada(requisicao));
+            return Empty.getDefaultInstance();
+        });
+    }
+}
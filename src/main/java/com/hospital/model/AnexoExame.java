@@ -0,0 +1,98 @@
+package com.hospital.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Arquivo anexado a um exame. O conteúdo fica no armazenamento de arquivos, identificado pelo SHA-256;
+ * anexos com o mesmo conteúdo apontam para o mesmo arquivo.
+ */
+@Entity
+@Table(name = "anexos_exame")
+@Schema(description = "Representa um arquivo anexado a um exame")
+public class AnexoExame extends EntidadeVersionada {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exame_id")
+    @NotNull(message = "O exame é obrigatório")
+    @Schema(description = "Exame ao qual o arquivo pertence")
+    private Exame exame;
+
+    @NotBlank(message = "O nome do arquivo é obrigatório")
+    @Size(max = 255, message = "O nome do arquivo deve ter no máximo 255 caracteres")
+    @Schema(description = "Nome do arquivo enviado")
+    private String nome;
+
+    @NotBlank(message = "O tipo de conteúdo é obrigatório")
+    @Size(max = 255, message = "O tipo de conteúdo deve ter no máximo 255 caracteres")
+    @Schema(description = "Tipo de conteúdo (media type) do arquivo")
+    private String tipoConteudo;
+
+    @Schema(description = "Tamanho do arquivo em bytes")
+    private long tamanho;
+
+    @NotNull(message = "O SHA-256 do conteúdo é obrigatório")
+    @Schema(description = "SHA-256 do conteúdo, em hexadecimal")
+    private String sha256;
+
+    @NotNull(message = "A data de envio é obrigatória")
+    @Schema(description = "Data de envio do arquivo")
+    private LocalDateTime dataEnvio = LocalDateTime.now();
+
+    public Exame getExame() {
+        return exame;
+    }
+
+    public void setExame(Exame exame) {
+        this.exame = exame;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public void setTipoConteudo(String tipoConteudo) {
+        this.tipoConteudo = tipoConteudo;
+    }
+
+    public long getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(long tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public LocalDateTime getDataEnvio() {
+        return dataEnvio;
+    }
+
+    public void setDataEnvio(LocalDateTime dataEnvio) {
+        this.dataEnvio = dataEnvio;
+    }
+}
@@ -1,7 +1,6 @@
 package com.hospital.model;
 
 import com.hospital.model.enums.StatusConsulta;
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
@@ -18,7 +17,7 @@ import java.util.List;
         description = "Representa uma consulta médica.",
         title = "Consulta",
         oneOf = {Consulta.class})
-public class Consulta extends PanacheEntity {
+public class Consulta extends EntidadeVersionada {
 
     @NotNull(message = "A data e hora da consulta são obrigatórias")
     @Future(message = "A data da consulta deve ser no futuro")
@@ -30,13 +29,13 @@ public class Consulta extends PanacheEntity {
     @Schema(description = "Status atual da consulta")
     private StatusConsulta status = StatusConsulta.AGENDADA;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medico_id")
     @NotNull(message = "O médico é obrigatório")
     @Schema(description = "Médico responsável pela consulta")
     private Medico medico;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paciente_id")
     @NotNull(message = "O paciente é obrigatório")
     @Schema(description = "Paciente que está realizando a consulta")
@@ -46,7 +45,7 @@ public class Consulta extends PanacheEntity {
     @Schema(description = "Observações adicionais sobre a consulta")
     private String observacao;
 
-    @OneToOne(mappedBy = "consulta", cascade = CascadeType.ALL)
+    @OneToOne(mappedBy = "consulta", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Schema(description = "Prontuário médico associado à consulta")
     private Prontuario prontuario;
 
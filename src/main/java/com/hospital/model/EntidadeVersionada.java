@@ -0,0 +1,25 @@
+package com.hospital.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Base das entidades com controle otimista de concorrência: o Hibernate incrementa {@code versao} a
+ * cada alteração (inclusive das coleções que a entidade mantém) e recusa gravar sobre uma versão que
+ * mudou desde a leitura. A versão também identifica a representação da entidade nos ETags da API.
+ */
+@MappedSuperclass
+public abstract class EntidadeVersionada extends PanacheEntity {
+
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Versão do registro, incrementada a cada alteração")
+    private Long versao;
+
+    public Long getVersao() {
+        return versao;
+    }
+}
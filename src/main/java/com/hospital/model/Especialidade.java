@@ -1,25 +1,45 @@
 package com.hospital.model;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Dado de referência que quase nunca muda: a entidade e as consultas nomeadas abaixo ficam no cache de
+ * segundo nível (regiões configuradas em {@code application.properties}).
+ */
 @Entity
+@Cacheable
 @Table(name = "especialidades")
+@NamedQueries({
+        @NamedQuery(name = "Especialidade.listarTodas",
+                query = "FROM Especialidade ORDER BY nome",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+        @NamedQuery(name = "Especialidade.buscarPorNome",
+                query = "FROM Especialidade WHERE nome = :nome",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+        @NamedQuery(name = "Especialidade.listarPorMedico",
+                query = "SELECT e FROM Especialidade e JOIN e.medicos m WHERE m.id = :medicoId ORDER BY e.nome",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+})
 @Schema(
         description = "Representa uma especialidade médica.",
         title = "Especialidade",
         oneOf = {Especialidade.class}
 )
-public class Especialidade extends PanacheEntity {
+public class Especialidade extends EntidadeVersionada {
 
     @NotBlank(message = "O nome da especialidade é obrigatório.")
     @Size(max = 100, message = "O nome da especialidade deve ter no máximo 100 caracteres.")
@@ -1,8 +1,10 @@
 package com.hospital.model;
 
+import com.hospital.model.enums.StatusExame;
 import com.hospital.model.enums.TipoExame;
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -12,9 +14,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Schema(description = "Representa um exame médico")
-public class Exame extends PanacheEntity {
+public class Exame extends EntidadeVersionada {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "consulta_id")
     @NotNull(message = "A consulta é obrigatória")
     @Schema(description = "Consulta associada ao exame")
@@ -45,6 +47,23 @@ public class Exame extends PanacheEntity {
     @Schema(description = "Resultado do exame")
     private String resultado;
 
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "O status do exame é obrigatório")
+    @Schema(description = "Situação do exame na fila da bancada")
+    private StatusExame status = StatusExame.SOLICITADO;
+
+    @Min(value = 0, message = "A prioridade deve estar entre 0 e 9")
+    @Max(value = 9, message = "A prioridade deve estar entre 0 e 9")
+    @Schema(description = "Prioridade na fila, de 0 (rotina) a 9 (mais urgente)")
+    private int prioridade;
+
+    @Size(max = 100, message = "O responsável deve ter no máximo 100 caracteres")
+    @Schema(description = "Bancada ou técnico que reservou o exame")
+    private String responsavel;
+
+    @Schema(description = "Fim da reserva; depois dele o exame volta para a fila")
+    private LocalDateTime reservadoAte;
+
     // Getters e Setters
     public Consulta getConsulta() {
         return consulta;
@@ -101,4 +120,36 @@ public class Exame extends PanacheEntity {
     public void setResultado(String resultado) {
         this.resultado = resultado;
     }
+
+    public StatusExame getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusExame status) {
+        this.status = status;
+    }
+
+    public int getPrioridade() {
+        return prioridade;
+    }
+
+    public void setPrioridade(int prioridade) {
+        this.prioridade = prioridade;
+    }
+
+    public String getResponsavel() {
+        return responsavel;
+    }
+
+    public void setResponsavel(String responsavel) {
+        this.responsavel = responsavel;
+    }
+
+    public LocalDateTime getReservadoAte() {
+        return reservadoAte;
+    }
+
+    public void setReservadoAte(LocalDateTime reservadoAte) {
+        this.reservadoAte = reservadoAte;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.hospital.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Entrada do dicionário de medicamentos. Receitas com o mesmo nome normalizado
+ * (sem acentos, minúsculas, espaços simples) apontam para a mesma entrada.
+ */
+@Entity
+@Table(name = "medicamentos")
+@Schema(
+        description = "Representa um medicamento do dicionário de medicamentos prescritos.",
+        title = "Medicamento",
+        oneOf = {Medicamento.class}
+)
+public class Medicamento extends EntidadeVersionada {
+
+    @Schema(description = "Nome do medicamento, na grafia da primeira receita que o prescreveu")
+    private String nome;
+
+    @Column(unique = true)
+    @Schema(description = "Nome normalizado, usado para agrupar grafias diferentes do mesmo medicamento")
+    private String nomeNormalizado;
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNomeNormalizado() {
+        return nomeNormalizado;
+    }
+
+    public void setNomeNormalizado(String nomeNormalizado) {
+        this.nomeNormalizado = nomeNormalizado;
+    }
+}
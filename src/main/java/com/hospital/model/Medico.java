@@ -1,12 +1,14 @@
 package com.hospital.model;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -14,14 +16,23 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@Cacheable
 @Table(name = "medicos")
+@NamedQueries({
+        @NamedQuery(name = "Medico.buscarPorCrm",
+                query = "FROM Medico WHERE crm = :crm",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+        @NamedQuery(name = "Medico.listarPorEspecialidade",
+                query = "SELECT m FROM Medico m JOIN m.especialidades e WHERE e.id = :especialidadeId ORDER BY m.nome",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+})
 @Schema(
         description = "Representa um médico.",
         title = "Médico",
         oneOf = {Medico.class
         }
 )
-public class Medico extends PanacheEntity {
+public class Medico extends EntidadeVersionada {
 
     @NotBlank(message = "O nome do médico é obrigatório")
     @Size(min = 3, max = 100, message = "O nome deve ter entre 3 e 100 caracteres")
@@ -43,6 +54,7 @@ public class Medico extends PanacheEntity {
 
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "medico_especialidade",
             joinColumns = @JoinColumn(name = "medico_id"),
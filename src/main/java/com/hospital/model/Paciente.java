@@ -1,6 +1,5 @@
 package com.hospital.model;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
@@ -19,7 +18,7 @@ import java.util.List;
         title = "Paciente",
         oneOf = {Paciente.class}
 )
-public class Paciente extends PanacheEntity {
+public class Paciente extends EntidadeVersionada {
 
     @NotBlank(message = "O nome do paciente é obrigatório")
     @Size(min = 3, max = 100, message = "O nome deve ter entre 3 e 100 caracteres")
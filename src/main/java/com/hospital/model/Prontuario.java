@@ -1,7 +1,6 @@
 package com.hospital.model;
 
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -16,9 +15,9 @@ import java.time.LocalDateTime;
         description = "Representa um prontuário médico.",
         title = "Prontuário",
         oneOf = {Prontuario.class})
-public class Prontuario extends PanacheEntity {
+public class Prontuario extends EntidadeVersionada {
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "consulta_id")
     @NotNull(message = "A consulta é obrigatória")
     @Schema(description = "Consulta associada ao prontuário")
@@ -1,7 +1,7 @@
 package com.hospital.model;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -20,9 +20,9 @@ import java.time.LocalDateTime;
         title = "Receita",
         oneOf = {Receita.class}
 )
-public class Receita extends PanacheEntity {
+public class Receita extends EntidadeVersionada {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "consulta_id")
     @NotNull(message = "A consulta é obrigatória")
     @Schema(description = "Consulta associada à receita")
@@ -33,6 +33,11 @@ public class Receita extends PanacheEntity {
     @Schema(description = "Nome do medicamento prescrito")
     private String medicamento;
 
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "medicamento_id")
+    @Schema(description = "Entrada do dicionário de medicamentos correspondente ao medicamento prescrito")
+    private Medicamento medicamentoCatalogo;
+
     @NotBlank(message = "A posologia é obrigatória")
     @Size(min = 5, max = 500, message = "A posologia deve ter entre 5 e 500 caracteres")
     @Schema(description = "Posologia do medicamento prescrito")
@@ -68,6 +73,14 @@ public class Receita extends PanacheEntity {
         this.medicamento = medicamento;
     }
 
+    public Medicamento getMedicamentoCatalogo() {
+        return medicamentoCatalogo;
+    }
+
+    public void setMedicamentoCatalogo(Medicamento medicamentoCatalogo) {
+        this.medicamentoCatalogo = medicamentoCatalogo;
+    }
+
     public String getPosologia() {
         return posologia;
     }
@@ -0,0 +1,35 @@
+package com.hospital.repository;
+
+import com.hospital.dto.AnexoExameDTO;
+import com.hospital.model.AnexoExame;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+import java.util.Optional;
+
+@ApplicationScoped
+public class AnexoExameRepository implements PanacheRepository<AnexoExame> {
+
+    public List<AnexoExameDTO> listarPorExame(Long exameId) {
+        return find("exame.id = ?1", Sort.ascending("dataEnvio", "id"), exameId).project(AnexoExameDTO.class).list();
+    }
+
+    public Optional<AnexoExameDTO> buscarDTO(Long exameId, Long id) {
+        return find("id = ?1 AND exame.id = ?2", id, exameId).project(AnexoExameDTO.class).firstResultOptional();
+    }
+
+    public Optional<AnexoExame> buscar(Long exameId, Long id) {
+        return find("id = ?1 AND exame.id = ?2", id, exameId).firstResultOptional();
+    }
+
+    /** Se algum anexo ainda aponta para o conteúdo. */
+    public boolean referenciado(String sha256) {
+        return count("sha256", sha256) > 0;
+    }
+
+    public long excluirPorExame(Long exameId) {
+        return delete("exame.id", exameId);
+    }
+}
@@ -1,35 +1,145 @@
 package com.hospital.repository;
 
+import com.hospital.dto.ConsultaDTO;
 import com.hospital.model.Consulta;
 import com.hospital.model.enums.StatusConsulta;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ConsultaRepository implements PanacheRepository<Consulta> {
 
-    public List<Consulta> listarPorMedico(Long medicoId) {
-        return list("medico.id = ?1", Sort.by("dataHora"), medicoId);
+    public Optional<ConsultaDTO> buscarDTOPorId(Long id) {
+        return find("id = ?1", id).project(ConsultaDTO.class).firstResultOptional();
     }
 
-    public List<Consulta> listarPorPaciente(Long pacienteId) {
-        return list("paciente.id = ?1", Sort.by("dataHora"), pacienteId);
+    public List<ConsultaDTO> listarTodas() {
+        return findAll().project(ConsultaDTO.class).list();
     }
 
-    public List<Consulta> listarPorIntervaloData(LocalDateTime dataInicio, LocalDateTime dataFim) {
-        return list("dataHora >= ?1 AND dataHora <= ?2", Sort.by("dataHora"), dataInicio, dataFim);
+    public List<ConsultaDTO> listarPorMedico(Long medicoId) {
+        return find("medico.id = ?1", Sort.by("dataHora"), medicoId).project(ConsultaDTO.class).list();
     }
 
-   public List<Consulta> listarPorStatus(StatusConsulta status) {
-       return list("status = ?1", Sort.by("dataHora"), status);
-   }
+    public List<ConsultaDTO> listarPorPaciente(Long pacienteId) {
+        return find("paciente.id = ?1", Sort.by("dataHora"), pacienteId).project(ConsultaDTO.class).list();
+    }
+
+    public List<ConsultaDTO> listarPorIntervaloData(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        return find("dataHora >= ?1 AND dataHora <= ?2", Sort.by("dataHora"), dataInicio, dataFim)
+                .project(ConsultaDTO.class).list();
+    }
+
+    public List<ConsultaDTO> listarPorStatus(StatusConsulta status) {
+        return find("status = ?1", Sort.by("dataHora"), status).project(ConsultaDTO.class).list();
+    }
+
+    public List<ConsultaDTO> listarTodas(Cursor cursor, int limite) {
+        return listarPagina(null, new Parameters(), cursor, limite);
+    }
+
+    public List<ConsultaDTO> listarPorMedico(Long medicoId, Cursor cursor, int limite) {
+        return listarPagina("medico.id = :medicoId", Parameters.with("medicoId", medicoId), cursor, limite);
+    }
+
+    public List<ConsultaDTO> listarPorPaciente(Long pacienteId, Cursor cursor, int limite) {
+        return listarPagina("paciente.id = :pacienteId", Parameters.with("pacienteId", pacienteId), cursor, limite);
+    }
+
+    public List<ConsultaDTO> listarPorIntervaloData(LocalDateTime dataInicio, LocalDateTime dataFim, Cursor cursor, int limite) {
+        return listarPagina("dataHora >= :inicio AND dataHora <= :fim",
+                Parameters.with("inicio", dataInicio).and("fim", dataFim), cursor, limite);
+    }
+
+    public List<ConsultaDTO> listarPorStatus(StatusConsulta status, Cursor cursor, int limite) {
+        return listarPagina("status = :status", Parameters.with("status", status), cursor, limite);
+    }
+
+    /**
+     * Consultas do paciente da mais recente para a mais antiga, para a linha do tempo.
+     */
+    public List<ConsultaDTO> listarPorPacienteMaisRecentes(Long pacienteId, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ConsultaDTO.class, "paciente.id = :pacienteId", Parameters.with("pacienteId", pacienteId),
+                "dataHora", LocalDateTime::parse, Sort.Direction.Descending, cursor, limite);
+    }
+
+    private List<ConsultaDTO> listarPagina(String filtro, Parameters parametros, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ConsultaDTO.class, filtro, parametros, "dataHora", LocalDateTime::parse,
+                Sort.Direction.Ascending, cursor, limite);
+    }
+
+    /**
+     * Status da consulta sem carregá-la; vazio se a consulta não existir.
+     * Usado por quem só precisa validar a consulta antes de associar algo a ela.
+     */
+    public Optional<StatusConsulta> buscarStatus(Long id) {
+        return getEntityManager()
+                .createQuery("SELECT c.status FROM Consulta c WHERE c.id = :id", StatusConsulta.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Status das consultas da lista que existem, por ID, em uma única consulta.
+     */
+    public Map<Long, StatusConsulta> listarStatus(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, StatusConsulta> status = new HashMap<>();
+        getEntityManager()
+                .createQuery("SELECT c.id, c.status FROM Consulta c WHERE c.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(linha -> status.put((Long) linha[0], (StatusConsulta) linha[1]));
+        return status;
+    }
+
+    /**
+     * ID do paciente de cada consulta da lista, por ID da consulta, em uma única consulta que lê só a
+     * chave estrangeira.
+     */
+    public Map<Long, Long> listarPacienteIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> pacienteIds = new HashMap<>();
+        getEntityManager()
+                .createQuery("SELECT c.id, c.paciente.id FROM Consulta c WHERE c.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(linha -> pacienteIds.put((Long) linha[0], (Long) linha[1]));
+        return pacienteIds;
+    }
+
+    public Consulta referencia(Long id) {
+        return getEntityManager().getReference(Consulta.class, id);
+    }
+
+    public Stream<ConsultaDTO> streamTodas() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")).project(ConsultaDTO.class));
+    }
+
+    /**
+     * Consultas que ocupam a agenda do médico, para carregar e conferir {@code AgendaMedicos}.
+     */
+    public Stream<ConsultaDTO> streamNaoCanceladas() {
+        return Streams.somenteLeitura(find("status <> ?1", StatusConsulta.CANCELADA).project(ConsultaDTO.class));
+    }
 
-   public boolean verificarDisponibilidadeMedico(Long medicoId, LocalDateTime dataHora, LocalDateTime dataHoraFim) {
-       String query = "medico.id = ?1 AND dataHora BETWEEN ?2 AND ?3 AND status != ?4";
-       return count(query, medicoId, dataHora, dataHoraFim, StatusConsulta.CANCELADA) == 0;
-   }
+    public List<ConsultaDTO> listarNaoCanceladasPorIds(Collection<Long> ids) {
+        return find("id IN ?1 AND status <> ?2", ids, StatusConsulta.CANCELADA).project(ConsultaDTO.class).list();
+    }
 }
@@ -1,20 +1,52 @@
 package com.hospital.repository;
 
 import com.hospital.model.Especialidade;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class EspecialidadeRepository implements PanacheRepository<Especialidade> {
 
     public Optional<Especialidade> buscarPorNome(String nome) {
-        return find("nome", nome).firstResultOptional();
+        return find("#Especialidade.buscarPorNome", Parameters.with("nome", nome)).firstResultOptional();
+    }
+
+    public List<Especialidade> listarTodas() {
+        return list("#Especialidade.listarTodas");
     }
 
     public List<Especialidade> listarPorMedico(Long medicoId) {
-        return list("SELECT e FROM Especialidade e JOIN e.medicos m WHERE m.id = ?1 ORDER BY e.nome", medicoId);
+        return list("#Especialidade.listarPorMedico", Parameters.with("medicoId", medicoId));
+    }
+
+    public List<Especialidade> listarTodas(Cursor cursor, int limite) {
+        return Keyset.buscar(this, null, new Parameters(), "nome", String::valueOf, cursor, limite);
+    }
+
+    public List<Especialidade> listarPorMedico(Long medicoId, Cursor cursor, int limite) {
+        return Keyset.buscar(this, "id IN (SELECT e.id FROM Especialidade e JOIN e.medicos m WHERE m.id = :medicoId)",
+                Parameters.with("medicoId", medicoId), "nome", String::valueOf, cursor, limite);
+    }
+
+    public Set<Long> listarIdsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT e.id FROM Especialidade e WHERE e.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    public Especialidade referencia(Long id) {
+        return getEntityManager().getReference(Especialidade.class, id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package com.hospital.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tabelas de contadores das estatísticas (V7 e V8): uma linha por chave com o total, somado com
+ * {@code UPDATE ... SET total = total + :delta} na transação que altera os dados contados.
+ * <p>
+ * As chaves são listas com os valores das colunas da chave, na ordem de {@link Contador}: datas como
+ * {@link LocalDate}, IDs como {@link Long} e enums pelo nome.
+ */
+@ApplicationScoped
+public class EstatisticaRepository {
+
+    /** Cada tabela de contadores, com as colunas da chave e a contagem equivalente sobre as tabelas. */
+    public enum Contador {
+        CONSULTAS_POR_DIA("estatisticas_consultas_dia",
+                "SELECT CAST(dataHora AS DATE) AS dia, CAST(status AS VARCHAR(20)) AS status, COUNT(*) AS total"
+                        + " FROM consultas GROUP BY CAST(dataHora AS DATE), status",
+                "dia", "status"),
+        EXAMES_PENDENTES("estatisticas_exames_pendentes",
+                "SELECT CAST(tipo AS VARCHAR(20)) AS tipo, COUNT(*) AS total FROM Exame"
+                        + " WHERE dataResultado IS NULL GROUP BY tipo",
+                "tipo"),
+        CONSULTAS_POR_MEDICO("estatisticas_consultas_medico",
+                "SELECT medico_id, COUNT(*) AS total FROM consultas WHERE status <> 'CANCELADA' GROUP BY medico_id",
+                "medico_id"),
+        CONSULTAS_POR_ESPECIALIDADE("estatisticas_consultas_especialidade",
+                "SELECT me.especialidade_id, COUNT(*) AS total FROM consultas c"
+                        + " JOIN medico_especialidade me ON me.medico_id = c.medico_id"
+                        + " WHERE c.status <> 'CANCELADA' GROUP BY me.especialidade_id",
+                "especialidade_id");
+
+        private final String tabela;
+        private final String contagem;
+        private final String[] chave;
+
+        Contador(String tabela, String contagem, String... chave) {
+            this.tabela = tabela;
+            this.contagem = contagem;
+            this.chave = chave;
+        }
+
+        private String condicaoJdbc() {
+            return Arrays.stream(chave).map(coluna -> coluna + " = ?").collect(Collectors.joining(" AND "));
+        }
+
+        private String condicao() {
+            return IntStream.range(0, chave.length)
+                    .mapToObj(i -> chave[i] + " = ?" + (i + 1))
+                    .collect(Collectors.joining(" AND "));
+        }
+    }
+
+    /** Chaves comparadas coluna a coluna; cada coluna tem sempre o mesmo tipo (data, ID ou nome de enum). */
+    @SuppressWarnings("unchecked")
+    public static final Comparator<List<Object>> ORDEM_DAS_CHAVES = (a, b) -> {
+        for (int i = 0; i < a.size(); i++) {
+            int comparacao = ((Comparable<Object>) a.get(i)).compareTo(b.get(i));
+            if (comparacao != 0) {
+                return comparacao;
+            }
+        }
+        return 0;
+    };
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Soma os deltas aos totais das chaves, criando as linhas que ainda não existem.
+     * <p>
+     * As linhas são travadas na ordem das chaves ({@link #ORDEM_DAS_CHAVES}); quem grava vários contadores
+     * deve chamar este método na ordem de {@link Contador}. Duas transações que somam nas mesmas linhas as
+     * travam então na mesma ordem, e uma espera a outra em vez de travarem em ciclo.
+     * <p>
+     * Linhas de contador nunca são apagadas. Se falta alguma, a linha da tabela em
+     * {@code estatisticas_criacao} é travada antes de qualquer linha do contador, e só então as que faltam
+     * são inseridas: quem cria chaves num contador espera por quem já está criando, e a inserção não
+     * falha por violação de unicidade, o que no PostgreSQL abortaria a transação inteira. Tudo vai pela
+     * conexão JDBC da transação, sem precisar de uma segunda conexão do pool.
+     */
+    public void somar(Contador contador, Map<List<Object>, Long> deltas) {
+        Map<List<Object>, Long> ordenados = new TreeMap<>(ORDEM_DAS_CHAVES);
+        deltas.forEach((chave, delta) -> {
+            if (delta != 0) {
+                ordenados.put(chave, delta);
+            }
+        });
+        if (ordenados.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            if (!existem(conexao, contador, ordenados.keySet())) {
+                travarCriacao(conexao, contador);
+            }
+            for (Map.Entry<List<Object>, Long> soma : ordenados.entrySet()) {
+                if (atualizar(conexao, contador, soma.getKey(), soma.getValue()) == 0) {
+                    inserir(conexao, contador, soma.getKey(), soma.getValue());
+                }
+            }
+        });
+    }
+
+    private static boolean existem(Connection conexao, Contador contador, Collection<List<Object>> chaves)
+            throws SQLException {
+        try (PreparedStatement select = conexao.prepareStatement("SELECT 1 FROM " + contador.tabela + " WHERE "
+                + contador.condicaoJdbc())) {
+            for (List<Object> chave : chaves) {
+                parametros(select, chave);
+                try (ResultSet linha = select.executeQuery()) {
+                    if (!linha.next()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void travarCriacao(Connection conexao, Contador contador) throws SQLException {
+        try (PreparedStatement select = conexao.prepareStatement(
+                "SELECT tabela FROM estatisticas_criacao WHERE tabela = ? FOR UPDATE")) {
+            select.setString(1, contador.tabela);
+            try (ResultSet linha = select.executeQuery()) {
+                if (!linha.next()) {
+                    throw new IllegalStateException("Tabela de contadores sem linha em estatisticas_criacao: "
+                            + contador.tabela);
+                }
+            }
+        }
+    }
+
+    private static int atualizar(Connection conexao, Contador contador, List<Object> chave, long delta)
+            throws SQLException {
+        try (PreparedStatement update = conexao.prepareStatement("UPDATE " + contador.tabela
+                + " SET total = total + ? WHERE " + contador.condicaoJdbc())) {
+            update.setLong(1, delta);
+            for (int i = 0; i < chave.size(); i++) {
+                update.setObject(i + 2, chave.get(i));
+            }
+            return update.executeUpdate();
+        }
+    }
+
+    private static void inserir(Connection conexao, Contador contador, List<Object> chave, long delta)
+            throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO " + contador.tabela + " ("
+                + String.join(", ", contador.chave) + ", total) VALUES (" + "?, ".repeat(chave.size()) + "?)")) {
+            parametros(insert, chave);
+            insert.setLong(chave.size() + 1, delta);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void parametros(PreparedStatement comando, List<Object> valores) throws SQLException {
+        for (int i = 0; i < valores.size(); i++) {
+            comando.setObject(i + 1, valores.get(i));
+        }
+    }
+
+    /** Total do contador na chave; zero se a linha não existe. */
+    public long total(Contador contador, List<Object> chave) {
+        Query select = entityManager.createNativeQuery("SELECT total FROM " + contador.tabela + " WHERE "
+                + contador.condicao());
+        parametros(select, chave);
+        List<?> linhas = select.getResultList();
+        return linhas.isEmpty() ? 0 : ((Number) linhas.get(0)).longValue();
+    }
+
+    /** Totais diferentes de zero do contador, por chave, filtrados pelas primeiras colunas da chave. */
+    public Map<List<Object>, Long> listar(Contador contador, Object... prefixo) {
+        StringBuilder sql = new StringBuilder("SELECT " + String.join(", ", contador.chave) + ", total FROM "
+                + contador.tabela + " WHERE total <> 0");
+        for (int i = 0; i < prefixo.length; i++) {
+            sql.append(" AND ").append(contador.chave[i]).append(" = ?").append(i + 1);
+        }
+        Query select = entityManager.createNativeQuery(sql.toString());
+        parametros(select, Arrays.asList(prefixo));
+        return totais(select, contador.chave.length);
+    }
+
+    /**
+     * Chaves em que o contador difere da contagem refeita com {@code GROUP BY} nas tabelas, com a
+     * diferença (contagem menos contador). Contagem e contador são lidos no mesmo comando, portanto do
+     * mesmo instante: uma transação que grava uma consulta e soma no contador entra nos dois ou em nenhum.
+     */
+    public Map<List<Object>, Long> listarDivergencias(Contador contador) {
+        String chave = String.join(", ", contador.chave);
+        return totais(entityManager.createNativeQuery("SELECT " + chave + ", SUM(contado) - SUM(gravado) FROM ("
+                + "SELECT " + chave + ", total AS contado, 0 AS gravado FROM (" + contador.contagem + ") contagem"
+                + " UNION ALL SELECT " + chave + ", 0, total FROM " + contador.tabela + ") totais"
+                + " GROUP BY " + chave + " HAVING SUM(contado) <> SUM(gravado)"), contador.chave.length);
+    }
+
+    private static Map<List<Object>, Long> totais(Query query, int colunasChave) {
+        Map<List<Object>, Long> totais = new HashMap<>();
+        for (Object resultado : query.getResultList()) {
+            Object[] linha = (Object[]) resultado;
+            List<Object> chave = new ArrayList<>(colunasChave);
+            for (int i = 0; i < colunasChave; i++) {
+                chave.add(valor(linha[i]));
+            }
+            totais.put(List.copyOf(chave), ((Number) linha[colunasChave]).longValue());
+        }
+        return totais;
+    }
+
+    /** Normaliza o valor lido para o tipo usado nas chaves. */
+    private static Object valor(Object lido) {
+        if (lido instanceof java.sql.Date data) {
+            return data.toLocalDate();
+        }
+        if (lido instanceof Number numero) {
+            return numero.longValue();
+        }
+        return lido instanceof LocalDate ? lido : lido.toString();
+    }
+
+    private static void parametros(Query query, List<Object> valores) {
+        for (int i = 0; i < valores.size(); i++) {
+            query.setParameter(i + 1, valores.get(i));
+        }
+    }
+}
@@ -1,29 +1,144 @@
 package com.hospital.repository;
 
+import com.hospital.dto.ExameDTO;
 import com.hospital.model.Exame;
+import com.hospital.model.enums.StatusExame;
 import com.hospital.model.enums.TipoExame;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ExameRepository implements PanacheRepository<Exame> {
 
-    public List<Exame> listarPorConsultaId(Long consultaId) {
-        return list("consulta.id = ?1", Sort.ascending("dataSolicitacao"), consultaId);
+    public Optional<ExameDTO> buscarDTOPorId(Long id) {
+        return find("id = ?1", id).project(ExameDTO.class).firstResultOptional();
     }
 
-    public List<Exame> listarPorPacienteId(Long pacienteId) {
-        return list("consulta.paciente.id = ?1", Sort.descending("dataSolicitacao"), pacienteId);
+    public List<ExameDTO> listarTodos() {
+        return findAll().project(ExameDTO.class).list();
     }
 
-    public List<Exame> listarPorTipo(TipoExame tipo) {
-        return list("tipo = ?1", Sort.ascending("dataSolicitacao"), tipo);
+    public List<ExameDTO> listarPorConsultaId(Long consultaId) {
+        return find("consulta.id = ?1", Sort.ascending("dataSolicitacao"), consultaId).project(ExameDTO.class).list();
     }
 
-    public List<Exame> listarSemResultado() {
-        return list("resultado IS NULL", Sort.ascending("dataSolicitacao"));
+    public List<ExameDTO> listarPorPacienteId(Long pacienteId) {
+        return find("consulta.paciente.id = ?1", Sort.descending("dataSolicitacao"), pacienteId)
+                .project(ExameDTO.class).list();
     }
-}
\ No newline at end of file
+
+    public List<ExameDTO> listarPorTipo(TipoExame tipo) {
+        return find("tipo = ?1", Sort.ascending("dataSolicitacao"), tipo).project(ExameDTO.class).list();
+    }
+
+    public List<ExameDTO> listarSemResultado() {
+        return find("dataResultado IS NULL", Sort.ascending("dataSolicitacao")).project(ExameDTO.class).list();
+    }
+
+    public List<ExameDTO> listarTodos(Cursor cursor, int limite) {
+        return listarPagina(null, new Parameters(), Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public List<ExameDTO> listarPorConsultaId(Long consultaId, Cursor cursor, int limite) {
+        return listarPagina("consulta.id = :consultaId", Parameters.with("consultaId", consultaId),
+                Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public List<ExameDTO> listarPorPacienteId(Long pacienteId, Cursor cursor, int limite) {
+        return listarPagina("consulta.paciente.id = :pacienteId", Parameters.with("pacienteId", pacienteId),
+                Sort.Direction.Descending, cursor, limite);
+    }
+
+    public List<ExameDTO> listarPorTipo(TipoExame tipo, Cursor cursor, int limite) {
+        return listarPagina("tipo = :tipo", Parameters.with("tipo", tipo), Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public List<ExameDTO> listarSemResultado(Cursor cursor, int limite) {
+        return listarPagina("dataResultado IS NULL", new Parameters(), Sort.Direction.Ascending, cursor, limite);
+    }
+
+    private List<ExameDTO> listarPagina(String filtro, Parameters parametros, Sort.Direction direcao, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ExameDTO.class, filtro, parametros, "dataSolicitacao", LocalDateTime::parse,
+                direcao, cursor, limite);
+    }
+
+    /**
+     * IDs dos primeiros exames na fila do tipo: solicitados, do mais urgente para o menos urgente e, na
+     * mesma prioridade, por ordem de solicitação. Lê só o começo do índice {@code idx_exame_fila}.
+     * <p>
+     * Tipo e status, fixos pelo filtro, também vão no ORDER BY: o H2 só dispensa a ordenação quando ela
+     * repete todas as colunas iniciais do índice, e sem isso ordenaria a fila inteira a cada reserva.
+     */
+    public List<Long> proximosDaFila(TipoExame tipo, int limite) {
+        return getEntityManager()
+                .createQuery("SELECT e.id FROM Exame e WHERE e.tipo = :tipo AND e.status = :status"
+                        + " ORDER BY e.tipo, e.status, e.prioridade DESC, e.dataSolicitacao, e.id", Long.class)
+                .setParameter("tipo", tipo)
+                .setParameter("status", StatusExame.SOLICITADO)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    /**
+     * Reserva o exame se ele ainda estiver na fila; a condição no próprio UPDATE garante que, entre
+     * bancadas concorrentes, só uma consegue.
+     *
+     * @return se a reserva foi feita
+     */
+    public boolean reservar(Long id, String responsavel, LocalDateTime reservadoAte) {
+        return update("status = :reservado, responsavel = :responsavel, reservadoAte = :reservadoAte, versao = versao + 1"
+                        + " WHERE id = :id AND status = :naFila",
+                Parameters.with("reservado", StatusExame.AGENDADO)
+                        .and("responsavel", responsavel)
+                        .and("reservadoAte", reservadoAte)
+                        .and("id", id)
+                        .and("naFila", StatusExame.SOLICITADO)) == 1;
+    }
+
+    /**
+     * Muda a situação de um exame reservado, se a reserva ainda for do responsável; com {@code reservadoAte}
+     * nulo a reserva termina.
+     *
+     * @return se o exame estava reservado para o responsável
+     */
+    public boolean alterarReserva(Long id, String responsavel, StatusExame status, LocalDateTime reservadoAte) {
+        return update("status = :status, responsavel = :novoResponsavel, reservadoAte = :reservadoAte, versao = versao + 1"
+                        + " WHERE id = :id AND status = :reservado AND responsavel = :responsavel",
+                Parameters.with("status", status)
+                        .and("novoResponsavel", reservadoAte == null ? null : responsavel)
+                        .and("reservadoAte", reservadoAte)
+                        .and("id", id)
+                        .and("reservado", StatusExame.AGENDADO)
+                        .and("responsavel", responsavel)) == 1;
+    }
+
+    /**
+     * Devolve à fila os exames do tipo cuja reserva venceu.
+     *
+     * @return quantos exames voltaram para a fila
+     */
+    public int devolverReservasVencidas(TipoExame tipo, LocalDateTime agora) {
+        return update("status = :naFila, responsavel = NULL, reservadoAte = NULL, versao = versao + 1"
+                        + " WHERE status = :reservado AND tipo = :tipo AND reservadoAte < :agora",
+                Parameters.with("naFila", StatusExame.SOLICITADO)
+                        .and("reservado", StatusExame.AGENDADO)
+                        .and("tipo", tipo)
+                        .and("agora", agora));
+    }
+
+    public Exame referencia(Long id) {
+        return getEntityManager().getReference(Exame.class, id);
+    }
+
+    public Stream<ExameDTO> streamTodos() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")).project(ExameDTO.class));
+    }
+}
@@ -0,0 +1,66 @@
+package com.hospital.repository;
+
+import com.hospital.util.Cursor;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consultas paginadas por chave (keyset/seek).
+ * Em vez de OFFSET, filtra os registros posteriores ao cursor usando a coluna de
+ * ordenação com o ID como desempate, então páginas profundas custam o mesmo que a primeira.
+ * Sempre busca {@code limite + 1} registros para que o chamador saiba se há próxima página.
+ */
+public final class Keyset {
+
+    private Keyset() {
+    }
+
+    public static <T> List<T> buscar(PanacheRepository<T> repository, String filtro, Parameters parametros,
+                                     String campo, Function<String, ?> conversorChave,
+                                     Cursor cursor, int limite) {
+        return buscar(repository, filtro, parametros, campo, conversorChave, Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public static <T> List<T> buscar(PanacheRepository<T> repository, String filtro, Parameters parametros,
+                                     String campo, Function<String, ?> conversorChave, Sort.Direction direcao,
+                                     Cursor cursor, int limite) {
+        return consulta(repository, filtro, parametros, campo, conversorChave, direcao, cursor)
+                .page(Page.ofSize(limite + 1))
+                .list();
+    }
+
+    /**
+     * Mesma busca, mas projetada direto no DTO: uma única instrução SQL e nenhuma entidade gerenciada.
+     */
+    public static <T, P> List<P> buscar(PanacheRepository<T> repository, Class<P> projecao, String filtro,
+                                        Parameters parametros, String campo, Function<String, ?> conversorChave,
+                                        Sort.Direction direcao, Cursor cursor, int limite) {
+        return consulta(repository, filtro, parametros, campo, conversorChave, direcao, cursor)
+                .project(projecao)
+                .page(Page.ofSize(limite + 1))
+                .list();
+    }
+
+    private static <T> PanacheQuery<T> consulta(PanacheRepository<T> repository, String filtro, Parameters parametros,
+                                                String campo, Function<String, ?> conversorChave,
+                                                Sort.Direction direcao, Cursor cursor) {
+        String query = filtro == null ? "" : filtro;
+        if (cursor != null) {
+            String operador = direcao == Sort.Direction.Ascending ? ">" : "<";
+            // A faixa redundante (campo >= chave) é o que permite ao banco posicionar o índice no cursor;
+            // só com o OR ele prefere o índice da chave estrangeira e ordena o resultado.
+            String seek = campo + " " + operador + "= :cursorChave AND (" + campo + " " + operador
+                    + " :cursorChave OR (" + campo + " = :cursorChave AND id " + operador + " :cursorId))";
+            query = query.isEmpty() ? seek : "(" + query + ") AND " + seek;
+            parametros.and("cursorChave", cursor.getChave(conversorChave))
+                    .and("cursorId", cursor.getId());
+        }
+        return repository.find(query, Sort.by(campo, direcao).and("id", direcao), parametros);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hospital.repository;
+
+import com.hospital.model.Medicamento;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class MedicamentoRepository implements PanacheRepository<Medicamento> {
+
+    public Optional<Medicamento> buscarPorNomeNormalizado(String nomeNormalizado) {
+        return find("nomeNormalizado", nomeNormalizado).firstResultOptional();
+    }
+
+    public Stream<Medicamento> streamTodos() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")));
+    }
+}
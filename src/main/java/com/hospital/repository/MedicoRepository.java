@@ -1,24 +1,110 @@
 package com.hospital.repository;
 
 import com.hospital.model.Medico;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import io.quarkus.panache.common.Sort;
+import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class MedicoRepository implements PanacheRepository<Medico> {
 
     public List<Medico> listarPorEspecialidade(Long especialidadeId) {
-        return list("SELECT m FROM Medico m JOIN m.especialidades e WHERE e.id = ?1 ORDER BY m.nome", especialidadeId);    }
+        return list("#Medico.listarPorEspecialidade", Parameters.with("especialidadeId", especialidadeId));
+    }
 
     public Optional<Medico> buscarPorCrm(String crm) {
-        return find("crm", crm).firstResultOptional();
+        return find("#Medico.buscarPorCrm", Parameters.with("crm", crm)).firstResultOptional();
+    }
+
+    /**
+     * Referência (proxy) ao médico, sem carregar seus dados, se ele existir.
+     * Basta para associar a outra entidade pela chave estrangeira.
+     */
+    public Optional<Medico> buscarReferencia(Long id) {
+        if (count("id = ?1", id) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(getEntityManager().getReference(Medico.class, id));
+    }
+
+    public List<Medico> listarTodos(Cursor cursor, int limite) {
+        return listarPagina(null, new Parameters(), cursor, limite);
+    }
+
+    public List<Medico> listarPorEspecialidade(Long especialidadeId, Cursor cursor, int limite) {
+        return listarPagina("id IN (SELECT m.id FROM Medico m JOIN m.especialidades e WHERE e.id = :especialidadeId)",
+                Parameters.with("especialidadeId", especialidadeId), cursor, limite);
+    }
+
+    private List<Medico> listarPagina(String filtro, Parameters parametros, Cursor cursor, int limite) {
+        return Keyset.buscar(this, filtro, parametros, "nome", String::valueOf, cursor, limite);
+    }
+
+    /**
+     * IDs das especialidades de cada médico, carregados em uma única consulta sobre a tabela de junção.
+     * Evita inicializar {@code Medico.especialidades} um médico por vez ao montar listagens.
+     */
+    public Map<Long, Set<Long>> listarEspecialidadeIds(Collection<Long> medicoIds) {
+        Map<Long, Set<Long>> especialidadeIds = new HashMap<>();
+        if (medicoIds.isEmpty()) {
+            return especialidadeIds;
+        }
+        getEntityManager()
+                .createQuery("SELECT m.id, e.id FROM Medico m JOIN m.especialidades e WHERE m.id IN :medicoIds",
+                        Object[].class)
+                .setParameter("medicoIds", medicoIds)
+                .getResultList()
+                .forEach(linha -> especialidadeIds
+                        .computeIfAbsent((Long) linha[0], id -> new HashSet<>())
+                        .add((Long) linha[1]));
+        return especialidadeIds;
+    }
+
+    /**
+     * CRMs e emails da lista que já estão em uso, em uma única consulta. Os dois vêm no mesmo
+     * conjunto: um CRM (só dígitos) nunca coincide com um email.
+     */
+    public Set<String> listarCrmsEEmailsExistentes(Collection<String> crms, Collection<String> emails) {
+        Set<String> existentes = new HashSet<>();
+        if (crms.isEmpty() && emails.isEmpty()) {
+            return existentes;
+        }
+        getEntityManager()
+                .createQuery("SELECT m.crm, m.email FROM Medico m WHERE m.crm IN :crms OR m.email IN :emails",
+                        Object[].class)
+                .setParameter("crms", crms)
+                .setParameter("emails", emails)
+                .getResultList()
+                .forEach(linha -> {
+                    existentes.add((String) linha[0]);
+                    existentes.add((String) linha[1]);
+                });
+        return existentes;
+    }
+
+    /**
+     * IDs da lista que pertencem a algum médico, em uma única consulta.
+     */
+    public Set<Long> listarIdsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT m.id FROM Medico m WHERE m.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
     }
 
-    public List<Medico> buscarPorNome(String nome) {
-        return list("nome LIKE ?1", Sort.ascending("nome"), "%" + nome + "%");
+    public Medico referencia(Long id) {
+        return getEntityManager().getReference(Medico.class, id);
     }
 }
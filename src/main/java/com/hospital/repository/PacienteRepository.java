@@ -1,12 +1,19 @@
 package com.hospital.repository;
 
+import com.hospital.dto.PacienteDTO;
 import com.hospital.model.Paciente;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class PacienteRepository implements PanacheRepository<Paciente> {
@@ -15,7 +22,52 @@ public class PacienteRepository implements PanacheRepository<Paciente> {
         return find("cpf", cpf).firstResultOptional();
     }
 
-    public List<Paciente> buscarPorNome(String nome) {
-        return list("nome LIKE ?1", Sort.ascending("nome"), "%" + nome + "%");
+    /**
+     * Referência (proxy) ao paciente, sem carregar seus dados, se ele existir.
+     * Basta para associar a outra entidade pela chave estrangeira.
+     */
+    public Optional<Paciente> buscarReferencia(Long id) {
+        if (count("id = ?1", id) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(getEntityManager().getReference(Paciente.class, id));
+    }
+
+    public List<Paciente> listarTodos(Cursor cursor, int limite) {
+        return Keyset.buscar(this, null, new Parameters(), "nome", String::valueOf, cursor, limite);
+    }
+
+    public Stream<PacienteDTO> streamTodos() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")).project(PacienteDTO.class));
+    }
+
+    /**
+     * CPFs da lista que já pertencem a algum paciente, em uma única consulta.
+     */
+    public Set<String> listarCpfsExistentes(Collection<String> cpfs) {
+        if (cpfs.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT p.cpf FROM Paciente p WHERE p.cpf IN :cpfs", String.class)
+                .setParameter("cpfs", cpfs)
+                .getResultList());
+    }
+
+    /**
+     * IDs da lista que pertencem a algum paciente, em uma única consulta.
+     */
+    public Set<Long> listarIdsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT p.id FROM Paciente p WHERE p.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    public Paciente referencia(Long id) {
+        return getEntityManager().getReference(Paciente.class, id);
     }
 }
@@ -1,22 +1,55 @@
 package com.hospital.repository;
 
+import com.hospital.dto.ProntuarioDTO;
 import com.hospital.model.Prontuario;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 
 @ApplicationScoped
 public class ProntuarioRepository implements PanacheRepository<Prontuario> {
 
-    public Optional<Prontuario> buscarPorConsultaId(Long consultaId) {
-        return find("consulta.id = ?1", consultaId).firstResultOptional();
+    public boolean existePorConsultaId(Long consultaId) {
+        return count("consulta.id = ?1", consultaId) > 0;
     }
 
-    public List<Prontuario> listarPorPacienteId(Long pacienteId) {
-        return list("consulta.paciente.id = ?1", Sort.descending("dataCriacao"), pacienteId);
+    public Optional<ProntuarioDTO> buscarDTOPorId(Long id) {
+        return find("id = ?1", id).project(ProntuarioDTO.class).firstResultOptional();
+    }
+
+    public Optional<ProntuarioDTO> buscarDTOPorConsultaId(Long consultaId) {
+        return find("consulta.id = ?1", consultaId).project(ProntuarioDTO.class).firstResultOptional();
+    }
+
+    public List<ProntuarioDTO> listarTodos() {
+        return findAll().project(ProntuarioDTO.class).list();
+    }
+
+    public List<ProntuarioDTO> listarPorPacienteId(Long pacienteId) {
+        return find("consulta.paciente.id = ?1", Sort.descending("dataCriacao"), pacienteId)
+                .project(ProntuarioDTO.class).list();
+    }
+
+    public List<ProntuarioDTO> listarTodos(Cursor cursor, int limite) {
+        return Keyset.buscar(this, ProntuarioDTO.class, null, new Parameters(), "dataCriacao", LocalDateTime::parse,
+                Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public List<ProntuarioDTO> listarPorPacienteId(Long pacienteId, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ProntuarioDTO.class, "consulta.paciente.id = :pacienteId",
+                Parameters.with("pacienteId", pacienteId), "dataCriacao", LocalDateTime::parse,
+                Sort.Direction.Descending, cursor, limite);
+    }
+
+    public Stream<ProntuarioDTO> streamTodos() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")).project(ProntuarioDTO.class));
     }
 }
@@ -1,28 +1,81 @@
 package com.hospital.repository;
 
+import com.hospital.dto.ReceitaDTO;
 import com.hospital.model.Receita;
+import com.hospital.util.Cursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ReceitaRepository implements PanacheRepository<Receita> {
 
-    public List<Receita> listarPorConsultaId(Long consultaId) {
-        return list("consulta.id = ?1", consultaId);
+    public Optional<ReceitaDTO> buscarDTOPorId(Long id) {
+        return find("id = ?1", id).project(ReceitaDTO.class).firstResultOptional();
     }
 
-    public List<Receita> listarPorPacienteId(Long pacienteId) {
-        return list("consulta.paciente.id = ?1", pacienteId);
+    public List<ReceitaDTO> listarTodas() {
+        return findAll().project(ReceitaDTO.class).list();
     }
 
-    public List<Receita> listarPorMedicamento(String medicamento) {
-        return list("medicamento LIKE ?1", "%" + medicamento + "%");
+    public List<ReceitaDTO> listarPorConsultaId(Long consultaId) {
+        return find("consulta.id = ?1", consultaId).project(ReceitaDTO.class).list();
     }
 
-}
+    public List<ReceitaDTO> listarPorPacienteId(Long pacienteId) {
+        return find("consulta.paciente.id = ?1", pacienteId).project(ReceitaDTO.class).list();
+    }
+
+    public List<ReceitaDTO> listarPorMedicamentos(Collection<Long> medicamentoIds) {
+        if (medicamentoIds.isEmpty()) {
+            return List.of();
+        }
+        return find("medicamentoCatalogo.id IN ?1", Sort.by("dataEmissao").and("id"), medicamentoIds)
+                .project(ReceitaDTO.class).list();
+    }
 
+    public List<ReceitaDTO> listarTodas(Cursor cursor, int limite) {
+        return listarPagina(null, new Parameters(), cursor, limite);
+    }
 
+    public List<ReceitaDTO> listarPorConsultaId(Long consultaId, Cursor cursor, int limite) {
+        return listarPagina("consulta.id = :consultaId", Parameters.with("consultaId", consultaId), cursor, limite);
+    }
 
+    public List<ReceitaDTO> listarPorPacienteId(Long pacienteId, Cursor cursor, int limite) {
+        return listarPagina("consulta.paciente.id = :pacienteId", Parameters.with("pacienteId", pacienteId), cursor, limite);
+    }
 
+    public List<ReceitaDTO> listarPorMedicamentos(Collection<Long> medicamentoIds, Cursor cursor, int limite) {
+        if (medicamentoIds.isEmpty()) {
+            return List.of();
+        }
+        return listarPagina("medicamentoCatalogo.id IN :medicamentoIds", Parameters.with("medicamentoIds", medicamentoIds),
+                cursor, limite);
+    }
+
+    /**
+     * Receitas do paciente da mais recente para a mais antiga, para a linha do tempo.
+     */
+    public List<ReceitaDTO> listarPorPacienteIdMaisRecentes(Long pacienteId, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ReceitaDTO.class, "consulta.paciente.id = :pacienteId",
+                Parameters.with("pacienteId", pacienteId), "dataEmissao", LocalDateTime::parse,
+                Sort.Direction.Descending, cursor, limite);
+    }
+
+    private List<ReceitaDTO> listarPagina(String filtro, Parameters parametros, Cursor cursor, int limite) {
+        return Keyset.buscar(this, ReceitaDTO.class, filtro, parametros, "dataEmissao", LocalDateTime::parse,
+                Sort.Direction.Ascending, cursor, limite);
+    }
+
+    public Stream<ReceitaDTO> streamTodas() {
+        return Streams.somenteLeitura(findAll(Sort.by("id")).project(ReceitaDTO.class));
+    }
+}
@@ -0,0 +1,24 @@
+package com.hospital.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+/**
+ * Streams usados nas exportações: lidos do JDBC em lotes e sem snapshot para dirty checking.
+ * Precisam ser consumidos dentro de uma transação.
+ */
+final class Streams {
+
+    static final int FETCH_SIZE = 500;
+
+    private Streams() {
+    }
+
+    static <T> Stream<T> somenteLeitura(PanacheQuery<T> query) {
+        return query.withHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .withHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+}
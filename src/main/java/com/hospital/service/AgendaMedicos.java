@@ -0,0 +1,495 @@
+package com.hospital.service;
+
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.HorarioDisponivelDTO;
+import com.hospital.dto.HorarioLivreDTO;
+import com.hospital.event.ConsultaAlterada;
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.repository.ConsultaRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Agenda em memória das consultas não canceladas de cada médico, usada para checar conflitos de
+ * horário e listar horários livres sem consultar o banco.
+ * <p>
+ * Toda consulta dura {@link #DURACAO_CONSULTA}, então o intervalo de cada uma é definido pelo início:
+ * a agenda de um médico é um conjunto ordenado por início, e as consultas que se sobrepõem a
+ * {@code [t, t + duração)} são exatamente as que começam em {@code (t - duração, t + duração)}, uma
+ * busca O(log n) no conjunto. É carregada na subida, atualizada pelos eventos de consulta depois do
+ * commit e conferida periodicamente com a tabela.
+ * <p>
+ * Para dois agendamentos simultâneos não passarem ambos pela verificação, {@link #reservar} verifica e
+ * ocupa o horário sob a trava da agenda do médico, e a reserva vale até o fim da transação. As trocas
+ * confirmadas são atômicas por consulta ({@link ConcurrentHashMap#compute}) e só travam a agenda dos
+ * médicos envolvidos: médicos diferentes não disputam trava nenhuma. A garantia vale para uma única
+ * instância da aplicação.
+ * <p>
+ * Cada agenda mantém também a ocupação de cada dia num {@link BitSet} com um bit por intervalo de
+ * {@link #INTERVALO_OCUPACAO} (288 bits por dia), usado para achar horários livres de vários médicos
+ * com uma varredura de bits.
+ */
+@ApplicationScoped
+public class AgendaMedicos {
+
+    public static final Duration DURACAO_CONSULTA = Duration.ofMinutes(30);
+    static final Duration PERIODO_MAXIMO_HORARIOS_LIVRES = Duration.ofDays(31);
+    public static final Duration INTERVALO_OCUPACAO = Duration.ofMinutes(5);
+    private static final int SEGUNDOS_POR_INTERVALO = (int) INTERVALO_OCUPACAO.toSeconds();
+    private static final int INTERVALOS_POR_DIA = 24 * 60 * 60 / SEGUNDOS_POR_INTERVALO;
+
+    private static final Logger LOG = Logger.getLogger(AgendaMedicos.class);
+
+    @Inject
+    ConsultaRepository consultaRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private final Map<Long, Agenda> agendas = new ConcurrentHashMap<>();
+    /** Horário confirmado de cada consulta; as trocas passam por {@code compute}, atômico por consulta. */
+    private final ConcurrentHashMap<Long, Horario> horariosPorConsulta = new ConcurrentHashMap<>();
+
+    void carregarAoIniciar(@Observes StartupEvent evento) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            try (Stream<ConsultaDTO> consultas = consultaRepository.streamNaoCanceladas()) {
+                consultas.forEach(consulta -> salvar(consulta.getId(), consulta.getMedicoId(), consulta.getDataHora()));
+            }
+        });
+    }
+
+    /**
+     * Se o horário está livre neste momento, sem reservá-lo; serve para recusar cedo um agendamento que
+     * certamente conflita, antes de qualquer acesso ao banco.
+     */
+    public boolean estaLivre(Long medicoId, LocalDateTime inicio, Long consultaIgnorada) {
+        Agenda agenda = agendas.get(medicoId);
+        return agenda == null || agenda.conflito(inicio, consultaIgnorada).isEmpty();
+    }
+
+    /**
+     * Ocupa o horário da consulta na agenda do médico se ele estiver livre, numa única operação atômica
+     * por médico. Deve ser chamado dentro da transação que grava a consulta: se ela for desfeita, a
+     * reserva é liberada; se for confirmada, o evento {@link ConsultaAlterada} a torna definitiva.
+     *
+     * @return {@code false} se o horário conflita com outra consulta, confirmada ou reservada
+     */
+    public boolean reservar(Long consultaId, Long medicoId, LocalDateTime inicio) {
+        Agenda agenda = agendas.computeIfAbsent(medicoId, id -> new Agenda());
+        Horario reserva = new Horario(consultaId, medicoId, inicio);
+        if (!agenda.reservar(reserva)) {
+            return false;
+        }
+        transacoes.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    horariosPorConsulta.compute(consultaId, (id, atual) -> {
+                        if (!reserva.equals(atual)) {
+                            agenda.remover(reserva);
+                        }
+                        return atual;
+                    });
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Horários em {@code [inicio, fim]} em que cabe uma consulta, em sequência a partir de {@code inicio}
+     * e recomeçando logo após o fim de cada consulta existente.
+     */
+    public List<HorarioLivreDTO> listarHorariosLivres(Long medicoId, LocalDateTime inicio, LocalDateTime fim) {
+        Agenda agenda = agendas.get(medicoId);
+        return agenda == null ? new Agenda().livres(inicio, fim) : agenda.livres(inicio, fim);
+    }
+
+    /**
+     * Primeiros {@code quantidade} horários de {@code duracao} livres em {@code [inicio, fim]} na agenda
+     * de algum dos {@code medicos} (ID e nome), em ordem de início e, no mesmo início, de médico.
+     * <p>
+     * Os horários começam em múltiplos de {@link #INTERVALO_OCUPACAO} e não atravessam a meia-noite;
+     * dentro de um intervalo livre eles se sucedem sem sobreposição, a partir do início do intervalo.
+     * {@code duracao} deve ser múltipla de {@link #INTERVALO_OCUPACAO}.
+     */
+    public List<HorarioDisponivelDTO> buscarHorariosLivres(Map<Long, String> medicos, LocalDateTime inicio,
+                                                           LocalDateTime fim, Duration duracao, int quantidade) {
+        int tamanho = (int) (duracao.toSeconds() / SEGUNDOS_POR_INTERVALO);
+        List<HorarioDisponivelDTO> horarios = new ArrayList<>();
+        for (LocalDate dia = inicio.toLocalDate(); !dia.isAfter(fim.toLocalDate()) && horarios.size() < quantidade;
+             dia = dia.plusDays(1)) {
+            int de = dia.equals(inicio.toLocalDate()) ? intervaloSeguinte(inicio) : 0;
+            int ate = dia.equals(fim.toLocalDate()) ? intervaloAnterior(fim) : INTERVALOS_POR_DIA;
+            List<HorarioDisponivelDTO> doDia = new ArrayList<>();
+            for (Map.Entry<Long, String> medico : medicos.entrySet()) {
+                Agenda agenda = agendas.get(medico.getKey());
+                BitSet ocupacao = agenda == null ? new BitSet() : agenda.ocupacao(dia);
+                for (int livre : livres(ocupacao, de, ate, tamanho)) {
+                    LocalDateTime horario = dia.atStartOfDay().plusSeconds((long) livre * SEGUNDOS_POR_INTERVALO);
+                    doDia.add(new HorarioDisponivelDTO(medico.getKey(), medico.getValue(), horario, horario.plus(duracao)));
+                }
+            }
+            doDia.sort(Comparator.comparing(HorarioDisponivelDTO::getInicio).thenComparing(HorarioDisponivelDTO::getMedicoId));
+            doDia.stream().limit(quantidade - horarios.size()).forEach(horarios::add);
+        }
+        return horarios;
+    }
+
+    /**
+     * Inícios (em intervalos desde a meia-noite) de blocos de {@code tamanho} intervalos livres em
+     * {@code [de, ate)}, consecutivos dentro de cada trecho livre.
+     */
+    private static List<Integer> livres(BitSet ocupacao, int de, int ate, int tamanho) {
+        List<Integer> inicios = new ArrayList<>();
+        int atual = de;
+        while (atual + tamanho <= ate) {
+            int livre = ocupacao.nextClearBit(atual);
+            int proximoOcupado = ocupacao.nextSetBit(livre);
+            int fimLivre = proximoOcupado < 0 ? ate : Math.min(proximoOcupado, ate);
+            for (int inicio = livre; inicio + tamanho <= fimLivre; inicio += tamanho) {
+                inicios.add(inicio);
+            }
+            if (fimLivre >= ate) {
+                break;
+            }
+            atual = fimLivre;
+        }
+        return inicios;
+    }
+
+    private static int intervaloSeguinte(LocalDateTime horario) {
+        int segundos = horario.toLocalTime().toSecondOfDay();
+        return (segundos + SEGUNDOS_POR_INTERVALO - 1) / SEGUNDOS_POR_INTERVALO;
+    }
+
+    private static int intervaloAnterior(LocalDateTime horario) {
+        return horario.toLocalTime().toSecondOfDay() / SEGUNDOS_POR_INTERVALO;
+    }
+
+    void aoAlterarConsulta(@Observes(during = TransactionPhase.AFTER_SUCCESS) ConsultaAlterada evento) {
+        ConsultaDTO atual = evento.getAtual();
+        if (evento.isExclusao() || atual.getStatus() == StatusConsulta.CANCELADA) {
+            remover(evento.getId());
+        } else {
+            salvar(atual.getId(), atual.getMedicoId(), atual.getDataHora());
+        }
+    }
+
+    @Scheduled(every = "${agenda.verificacao.intervalo}", delayed = "${agenda.verificacao.intervalo}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void verificarConsistenciaPeriodicamente() {
+        verificarConsistencia();
+    }
+
+    /**
+     * Compara a agenda com as consultas não canceladas da tabela e corrige as divergências, relendo do
+     * banco só as consultas divergentes. A correção de cada consulta só é aplicada se o horário dela na
+     * agenda ainda é o visto na comparação: o que mudou depois disso chegou por um evento, mais recente
+     * que a releitura.
+     *
+     * @return quantas consultas estavam divergentes
+     */
+    public int verificarConsistencia() {
+        Map<Long, Horario> tabela = QuarkusTransaction.requiringNew().call(() -> {
+            try (Stream<ConsultaDTO> consultas = consultaRepository.streamNaoCanceladas()) {
+                Map<Long, Horario> horarios = new HashMap<>();
+                consultas.forEach(consulta -> horarios.put(consulta.getId(),
+                        new Horario(consulta.getId(), consulta.getMedicoId(), consulta.getDataHora())));
+                return horarios;
+            }
+        });
+        // Horário de cada consulta divergente na agenda no momento da comparação (null se ausente)
+        Map<Long, Horario> vistos = new HashMap<>();
+        tabela.forEach((id, horario) -> {
+            Horario visto = horariosPorConsulta.get(id);
+            if (!horario.equals(visto)) {
+                vistos.put(id, visto);
+            }
+        });
+        horariosPorConsulta.forEach((id, visto) -> {
+            if (!tabela.containsKey(id)) {
+                vistos.put(id, visto);
+            }
+        });
+        if (vistos.isEmpty()) {
+            return 0;
+        }
+
+        LOG.warnf("Agenda em memória divergente da tabela em %d consulta(s); recarregando: %s",
+                vistos.size(), vistos.keySet());
+        Map<Long, Horario> atuais = new HashMap<>();
+        QuarkusTransaction.requiringNew()
+                .call(() -> consultaRepository.listarNaoCanceladasPorIds(vistos.keySet()))
+                .forEach(consulta -> atuais.put(consulta.getId(),
+                        new Horario(consulta.getId(), consulta.getMedicoId(), consulta.getDataHora())));
+        vistos.forEach((id, visto) -> {
+            if (!trocar(id, visto, atuais.get(id))) {
+                LOG.debugf("Consulta %d alterada durante a verificação da agenda; mantido o horário do evento", id);
+            }
+        });
+        return vistos.size();
+    }
+
+    private void salvar(Long consultaId, Long medicoId, LocalDateTime inicio) {
+        Horario novo = new Horario(consultaId, medicoId, inicio);
+        horariosPorConsulta.compute(consultaId, (id, atual) -> mover(atual, novo));
+    }
+
+    private void remover(Long consultaId) {
+        horariosPorConsulta.computeIfPresent(consultaId, (id, atual) -> mover(atual, null));
+    }
+
+    /**
+     * Troca o horário da consulta de {@code esperado} para {@code novo} ({@code null}: fora da agenda), se
+     * ele ainda for {@code esperado}.
+     *
+     * @return {@code false} se o horário da consulta já não era {@code esperado}
+     */
+    private boolean trocar(Long consultaId, Horario esperado, Horario novo) {
+        boolean[] trocado = {false};
+        horariosPorConsulta.compute(consultaId, (id, atual) -> {
+            if (!Objects.equals(atual, esperado)) {
+                return atual;
+            }
+            trocado[0] = true;
+            return mover(atual, novo);
+        });
+        return trocado[0];
+    }
+
+    /**
+     * Passa a consulta de {@code anterior} para {@code novo} nas agendas dos médicos e devolve {@code novo}.
+     * Chamado dentro do {@code compute} da consulta. O novo horário entra antes de o anterior sair, e no
+     * mesmo médico as duas coisas acontecem sob a trava da agenda: a consulta nunca fica sem horário
+     * ocupado, o que deixaria um {@link #reservar} concorrente marcar outra consulta por cima dela.
+     */
+    private Horario mover(Horario anterior, Horario novo) {
+        if (anterior != null && novo != null && anterior.medicoId.equals(novo.medicoId)) {
+            agendas.get(novo.medicoId).trocar(anterior, novo);
+            return novo;
+        }
+        if (novo != null) {
+            agendas.computeIfAbsent(novo.medicoId, id -> new Agenda()).incluir(novo);
+        }
+        if (anterior != null) {
+            agendas.get(anterior.medicoId).remover(anterior);
+        }
+        return novo;
+    }
+
+    /**
+     * Consultas de um médico, ordenadas por início e ID, e a ocupação dos dias em que há consultas.
+     */
+    private static final class Agenda {
+
+        private final NavigableSet<Horario> horarios = new TreeSet<>();
+        private final Map<LocalDate, BitSet> ocupacaoPorDia = new HashMap<>();
+        /** {@link ReentrantLock} para não fixar a thread virtual que espera. */
+        private final ReentrantLock trava = new ReentrantLock();
+
+        void incluir(Horario horario) {
+            trava.lock();
+            try {
+                horarios.add(horario);
+                atualizarOcupacao(horario);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        void remover(Horario horario) {
+            trava.lock();
+            try {
+                horarios.remove(horario);
+                atualizarOcupacao(horario);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        /** Inclui {@code novo} e tira {@code anterior} numa única operação. */
+        void trocar(Horario anterior, Horario novo) {
+            trava.lock();
+            try {
+                horarios.add(novo);
+                if (!anterior.equals(novo)) {
+                    horarios.remove(anterior);
+                    atualizarOcupacao(anterior);
+                }
+                atualizarOcupacao(novo);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        boolean reservar(Horario horario) {
+            trava.lock();
+            try {
+                if (conflito(horario.inicio, horario.consultaId).isPresent()) {
+                    return false;
+                }
+                horarios.add(horario);
+                atualizarOcupacao(horario);
+                return true;
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        /** Cópia da ocupação do dia; vazia se não há consultas nele. */
+        BitSet ocupacao(LocalDate dia) {
+            trava.lock();
+            try {
+                BitSet ocupacao = ocupacaoPorDia.get(dia);
+                return ocupacao == null ? new BitSet() : (BitSet) ocupacao.clone();
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        /**
+         * Recalcula os dias tocados pela consulta a partir do conjunto: um intervalo pode ser ocupado
+         * por duas consultas vizinhas que não começam em múltiplos de 5 minutos, então remover uma não
+         * pode simplesmente zerar seus bits.
+         */
+        private void atualizarOcupacao(Horario horario) {
+            LocalDate primeiroDia = horario.inicio.toLocalDate();
+            LocalDate ultimoDia = horario.fim().minusNanos(1).toLocalDate();
+            for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                recalcularOcupacao(dia);
+            }
+        }
+
+        private void recalcularOcupacao(LocalDate dia) {
+            LocalDateTime inicioDia = dia.atStartOfDay();
+            BitSet ocupacao = new BitSet(INTERVALOS_POR_DIA);
+            for (Horario horario : horarios.subSet(Horario.limite(inicioDia.minus(DURACAO_CONSULTA), Long.MAX_VALUE), false,
+                    Horario.limite(inicioDia.plusDays(1), Long.MIN_VALUE), false)) {
+                long inicio = Duration.between(inicioDia, horario.inicio).toSeconds();
+                long fim = Duration.between(inicioDia, horario.fim()).toSeconds();
+                ocupacao.set((int) Math.max(0, Math.floorDiv(inicio, SEGUNDOS_POR_INTERVALO)),
+                        (int) Math.min(INTERVALOS_POR_DIA, Math.ceilDiv(fim, SEGUNDOS_POR_INTERVALO)));
+            }
+            if (ocupacao.isEmpty()) {
+                ocupacaoPorDia.remove(dia);
+            } else {
+                ocupacaoPorDia.put(dia, ocupacao);
+            }
+        }
+
+        Optional<Long> conflito(LocalDateTime inicio, Long consultaIgnorada) {
+            trava.lock();
+            try {
+                return horarios.subSet(Horario.limite(inicio.minus(DURACAO_CONSULTA), Long.MAX_VALUE), false,
+                                Horario.limite(inicio.plus(DURACAO_CONSULTA), Long.MIN_VALUE), false)
+                        .stream()
+                        .map(horario -> horario.consultaId)
+                        .filter(id -> !id.equals(consultaIgnorada))
+                        .findFirst();
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        List<HorarioLivreDTO> livres(LocalDateTime inicio, LocalDateTime fim) {
+            trava.lock();
+            try {
+                List<HorarioLivreDTO> livres = new ArrayList<>();
+                Iterator<Horario> seguintes = horarios
+                        .tailSet(Horario.limite(inicio.minus(DURACAO_CONSULTA), Long.MAX_VALUE), false)
+                        .iterator();
+                Horario proxima = seguintes.hasNext() ? seguintes.next() : null;
+                LocalDateTime candidato = inicio;
+                while (!candidato.plus(DURACAO_CONSULTA).isAfter(fim)) {
+                    while (proxima != null && !proxima.fim().isAfter(candidato)) {
+                        proxima = seguintes.hasNext() ? seguintes.next() : null;
+                    }
+                    if (proxima != null && proxima.inicio.isBefore(candidato.plus(DURACAO_CONSULTA))) {
+                        candidato = proxima.fim();
+                    } else {
+                        livres.add(new HorarioLivreDTO(candidato, candidato.plus(DURACAO_CONSULTA)));
+                        candidato = candidato.plus(DURACAO_CONSULTA);
+                    }
+                }
+                return livres;
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    private static final class Horario implements Comparable<Horario> {
+
+        private final Long consultaId;
+        private final Long medicoId;
+        private final LocalDateTime inicio;
+
+        private Horario(Long consultaId, Long medicoId, LocalDateTime inicio) {
+            this.consultaId = consultaId;
+            this.medicoId = medicoId;
+            this.inicio = inicio;
+        }
+
+        /** Marcador para delimitar buscas no conjunto ordenado. */
+        static Horario limite(LocalDateTime inicio, Long consultaId) {
+            return new Horario(consultaId, null, inicio);
+        }
+
+        LocalDateTime fim() {
+            return inicio.plus(DURACAO_CONSULTA);
+        }
+
+        @Override
+        public int compareTo(Horario outro) {
+            int porInicio = inicio.compareTo(outro.inicio);
+            return porInicio != 0 ? porInicio : consultaId.compareTo(outro.consultaId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Horario outro = (Horario) o;
+            return Objects.equals(consultaId, outro.consultaId) &&
+                    Objects.equals(medicoId, outro.medicoId) &&
+                    Objects.equals(inicio, outro.inicio);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(consultaId, medicoId, inicio);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.hospital.service;
+
+import com.hospital.dto.AnexoExameDTO;
+import com.hospital.exception.EntityNotFoundException;
+import com.hospital.model.AnexoExame;
+import com.hospital.repository.AnexoExameRepository;
+import com.hospital.repository.ExameRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Arquivos anexados aos exames: os metadados ficam na tabela {@code anexos_exame} e o conteúdo no
+ * {@link ArmazenamentoArquivos}, compartilhado entre anexos iguais.
+ * <p>
+ * Excluir um anexo não apaga o conteúdo na hora, porque outro upload do mesmo conteúdo pode estar entre
+ * guardá-lo e gravar o anexo. A coleta periódica apaga os conteúdos sem anexo que não foram gravados nem
+ * reaproveitados há mais de {@code anexos.coleta.carencia}.
+ */
+@ApplicationScoped
+public class AnexoExameService {
+
+    private static final Logger LOG = Logger.getLogger(AnexoExameService.class);
+
+    @Inject
+    AnexoExameRepository anexoExameRepository;
+
+    @Inject
+    ExameRepository exameRepository;
+
+    @Inject
+    ArmazenamentoArquivos armazenamento;
+
+    @ConfigProperty(name = "anexos.coleta.carencia")
+    Duration carencia;
+
+    public List<AnexoExameDTO> listarPorExame(Long exameId) {
+        return anexoExameRepository.listarPorExame(exameId);
+    }
+
+    public AnexoExameDTO buscar(Long exameId, Long id) {
+        return anexoExameRepository.buscarDTO(exameId, id)
+                .orElseThrow(() -> new EntityNotFoundException("Anexo", id));
+    }
+
+    /**
+     * Anexa ao exame o arquivo já recebido em disco, guardando o conteúdo antes de gravar o anexo.
+     */
+    public AnexoExameDTO anexar(Long exameId, String nome, String tipoConteudo, Path recebido) {
+        if (exameRepository.count("id", exameId) == 0) {
+            throw new EntityNotFoundException("Exame", exameId);
+        }
+        ArmazenamentoArquivos.Conteudo conteudo = armazenamento.guardar(recebido);
+        return QuarkusTransaction.requiringNew().call(() -> {
+            AnexoExame anexo = new AnexoExame();
+            anexo.setExame(exameRepository.referencia(exameId));
+            anexo.setNome(nome);
+            anexo.setTipoConteudo(tipoConteudo);
+            anexo.setTamanho(conteudo.getTamanho());
+            anexo.setSha256(conteudo.getSha256());
+            anexo.setDataEnvio(LocalDateTime.now());
+            anexoExameRepository.persistAndFlush(anexo);
+            return toDTO(anexo, exameId);
+        });
+    }
+
+    /** Arquivo com o conteúdo do anexo. */
+    public Path arquivo(AnexoExameDTO anexo) {
+        Path arquivo = armazenamento.caminho(anexo.getSha256());
+        if (!Files.isRegularFile(arquivo)) {
+            throw new IllegalStateException("Conteúdo do anexo " + anexo.getId() + " ausente do armazenamento: " + arquivo);
+        }
+        return arquivo;
+    }
+
+    @Transactional
+    public void excluir(Long exameId, Long id, Long versaoEsperada) {
+        AnexoExame anexo = anexoExameRepository.buscar(exameId, id)
+                .orElseThrow(() -> new EntityNotFoundException("Anexo", id));
+        Versoes.verificar("Anexo", anexo, versaoEsperada);
+        anexoExameRepository.delete(anexo);
+    }
+
+    @Scheduled(every = "${anexos.coleta.intervalo}", delayed = "${anexos.coleta.intervalo}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void coletarPeriodicamente() {
+        coletar(carencia);
+    }
+
+    /**
+     * Apaga os conteúdos guardados sem nenhum anexo que não foram gravados nem reaproveitados no último
+     * {@code carencia}.
+     *
+     * @return quantos conteúdos foram apagados
+     */
+    public int coletar(Duration carencia) {
+        int apagados = 0;
+        for (String sha256 : armazenamento.semUsoHa(carencia)) {
+            // A data e a referência são conferidas de novo sob a trava do conteúdo, logo antes de apagar
+            if (armazenamento.removerSemUso(sha256, carencia,
+                    () -> QuarkusTransaction.requiringNew().call(() -> anexoExameRepository.referenciado(sha256)))) {
+                apagados++;
+            }
+        }
+        if (apagados > 0) {
+            LOG.infof("Conteúdos de anexos sem referência apagados: %d", apagados);
+        }
+        return apagados;
+    }
+
+    private static AnexoExameDTO toDTO(AnexoExame anexo, Long exameId) {
+        return new AnexoExameDTO(
+                anexo.id,
+                exameId,
+                anexo.getNome(),
+                anexo.getTipoConteudo(),
+                anexo.getTamanho(),
+                anexo.getSha256(),
+                anexo.getDataEnvio(),
+                anexo.getVersao()
+        );
+    }
+}
@@ -0,0 +1,195 @@
+package com.hospital.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento em disco endereçado pelo conteúdo: cada arquivo fica em
+ * {@code <anexos.diretorio>/<2 primeiros dígitos do SHA-256>/<SHA-256>}, então conteúdos iguais são
+ * guardados uma vez só e um arquivo guardado nunca muda.
+ * <p>
+ * Os uploads multipart são gravados pelo servidor HTTP em {@code <anexos.diretorio>/recebendo}, no mesmo
+ * sistema de arquivos: guardar um arquivo é calcular o SHA-256 lendo-o uma vez e renomeá-lo, sem cópia.
+ * <p>
+ * Guardar e apagar um conteúdo acontecem sob a trava do subdiretório dele (os dois primeiros dígitos do
+ * SHA-256), para a coleta não apagar um conteúdo que um novo upload acabou de reaproveitar.
+ */
+@ApplicationScoped
+public class ArmazenamentoArquivos {
+
+    public static final String RECEBENDO = "recebendo";
+
+    private static final int BLOCO = 64 * 1024;
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    @ConfigProperty(name = "anexos.diretorio")
+    String diretorioConfigurado;
+
+    private Path diretorio;
+    /** Uma trava por subdiretório; {@link ReentrantLock} para não fixar a thread virtual que espera. */
+    private final ReentrantLock[] travas = new ReentrantLock[256];
+
+    /** Conteúdo guardado: o SHA-256 em hexadecimal, que o identifica, e o tamanho em bytes. */
+    public static final class Conteudo {
+
+        private final String sha256;
+        private final long tamanho;
+
+        Conteudo(String sha256, long tamanho) {
+            this.sha256 = sha256;
+            this.tamanho = tamanho;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getTamanho() {
+            return tamanho;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" +
+                    "sha256 = " + sha256 + ", " +
+                    "tamanho = " + tamanho + ")";
+        }
+    }
+
+    @PostConstruct
+    void preparar() {
+        diretorio = Path.of(diretorioConfigurado).toAbsolutePath();
+        Arrays.setAll(travas, i -> new ReentrantLock());
+        try {
+            Files.createDirectories(diretorio.resolve(RECEBENDO));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Guarda o arquivo recebido sob o SHA-256 do conteúdo, movendo-o para o armazenamento. Se o conteúdo já
+     * estiver guardado, o recebido fica onde está (quem o recebeu o apaga) e o guardado é reaproveitado.
+     */
+    public Conteudo guardar(Path recebido) {
+        try {
+            Conteudo conteudo = resumir(recebido);
+            Path destino = caminho(conteudo.getSha256());
+            ReentrantLock trava = trava(conteudo.getSha256());
+            trava.lock();
+            try {
+                if (Files.exists(destino)) {
+                    // Adia a coleta: o anexo que vai apontar para ele ainda não foi gravado
+                    Files.setLastModifiedTime(destino, FileTime.from(Instant.now()));
+                    return conteudo;
+                }
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(recebido, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    // Upload em outro sistema de arquivos: copia para perto do destino e renomeia
+                    Path copia = Files.createTempFile(diretorio.resolve(RECEBENDO), conteudo.getSha256(), ".tmp");
+                    Files.copy(recebido, copia, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(copia, destino, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                trava.unlock();
+            }
+            return conteudo;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Conteudo resumir(Path arquivo) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer bloco = ByteBuffer.allocateDirect(BLOCO);
+            while (canal.read(bloco) >= 0) {
+                bloco.flip();
+                sha256.update(bloco);
+                bloco.clear();
+            }
+            return new Conteudo(HexFormat.of().formatHex(sha256.digest()), canal.size());
+        }
+    }
+
+    /** Caminho do conteúdo com o SHA-256 informado, exista ele ou não. */
+    public Path caminho(String sha256) {
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("SHA-256 inválido: " + sha256);
+        }
+        return diretorio.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /**
+     * Apaga o conteúdo se ele continua sem ser gravado nem reaproveitado no último {@code intervalo} e
+     * {@code referenciado} responde que nenhum anexo aponta para ele. As duas verificações e a remoção
+     * acontecem sob a trava de {@link #guardar}: um upload do mesmo conteúdo ou termina antes, e renova a
+     * data do arquivo, ou espera a remoção e guarda o conteúdo de novo.
+     *
+     * @return se o conteúdo foi apagado
+     */
+    public boolean removerSemUso(String sha256, Duration intervalo, BooleanSupplier referenciado) {
+        Path arquivo = caminho(sha256);
+        ReentrantLock trava = trava(sha256);
+        trava.lock();
+        try {
+            if (!Files.exists(arquivo)
+                    || !Files.getLastModifiedTime(arquivo).toInstant().isBefore(Instant.now().minus(intervalo))
+                    || referenciado.getAsBoolean()) {
+                return false;
+            }
+            return Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private ReentrantLock trava(String sha256) {
+        return travas[Integer.parseInt(sha256, 0, 2, 16)];
+    }
+
+    /** SHA-256 dos conteúdos guardados que não foram gravados nem reaproveitados no último {@code intervalo}. */
+    public List<String> semUsoHa(Duration intervalo) {
+        Instant limite = Instant.now().minus(intervalo);
+        try (Stream<Path> arquivos = Files.find(diretorio, 2, (arquivo, atributos) -> atributos.isRegularFile()
+                && SHA256.matcher(arquivo.getFileName().toString()).matches()
+                && !arquivo.getParent().equals(diretorio.resolve(RECEBENDO))
+                && atributos.lastModifiedTime().toInstant().isBefore(limite))) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital.service;
+
+import com.hospital.dto.MedicoDTO;
+import com.hospital.dto.PacienteDTO;
+import com.hospital.event.MedicoAlterado;
+import com.hospital.event.PacienteAlterado;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache das buscas de paciente por CPF e de médico por CRM (balcão e totens de check-in).
+ * <p>
+ * Cada busca é carregada uma vez por chave, com {@link Cache#get(Object, Function)}: leituras
+ * simultâneas do mesmo documento esperam a mesma carga, e uma invalidação que chega durante a carga a
+ * descarta, em vez de o resultado antigo ser gravado depois dela. Buscas sem resultado também ficam no
+ * cache, porque cadastros, atualizações e exclusões invalidam a chave antiga e a nova depois do commit.
+ * Tamanho máximo e expiração de cada cache ficam em {@code application.properties}.
+ */
+@ApplicationScoped
+public class CacheBuscaPorDocumento {
+
+    static final String PACIENTES_POR_CPF = "pacientes-por-cpf";
+    static final String MEDICOS_POR_CRM = "medicos-por-crm";
+
+    @Inject
+    @CacheName(PACIENTES_POR_CPF)
+    Cache pacientesPorCpf;
+
+    @Inject
+    @CacheName(MEDICOS_POR_CRM)
+    Cache medicosPorCrm;
+
+    public Optional<PacienteDTO> paciente(String cpf, Function<String, Optional<PacienteDTO>> busca) {
+        return buscar(pacientesPorCpf, cpf, busca);
+    }
+
+    public Optional<MedicoDTO> medico(String crm, Function<String, Optional<MedicoDTO>> busca) {
+        return buscar(medicosPorCrm, crm, busca);
+    }
+
+    void aoAlterarPaciente(@Observes(during = TransactionPhase.AFTER_SUCCESS) PacienteAlterado evento) {
+        invalidar(pacientesPorCpf, evento.getCpfAnterior());
+        if (!evento.isExclusao()) {
+            invalidar(pacientesPorCpf, evento.getAtual().getCpf());
+        }
+    }
+
+    void aoAlterarMedico(@Observes(during = TransactionPhase.AFTER_SUCCESS) MedicoAlterado evento) {
+        invalidar(medicosPorCrm, evento.getCrmAnterior());
+        if (!evento.isExclusao()) {
+            invalidar(medicosPorCrm, evento.getAtual().getCrm());
+        }
+    }
+
+    private static <V> Optional<V> buscar(Cache cache, String chave, Function<String, Optional<V>> busca) {
+        return cache.get(chave, busca).await().indefinitely();
+    }
+
+    private static void invalidar(Cache cache, String chave) {
+        if (chave != null) {
+            cache.invalidate(chave).await().indefinitely();
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.hospital.service;
 
+import com.hospital.dto.AgendamentoLoteDTO;
 import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.HorarioDisponivelDTO;
+import com.hospital.dto.HorarioLivreDTO;
+import com.hospital.dto.PaginaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
+import com.hospital.dto.ResultadoAgendamentoLoteDTO;
+import com.hospital.event.ConsultaAlterada;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
 import com.hospital.model.Consulta;
@@ -8,19 +15,39 @@ import com.hospital.model.Medico;
 import com.hospital.model.Paciente;
 import com.hospital.model.enums.StatusConsulta;
 import com.hospital.repository.ConsultaRepository;
+import com.hospital.repository.EspecialidadeRepository;
 import com.hospital.repository.MedicoRepository;
 import com.hospital.repository.PacienteRepository;
+import com.hospital.util.Cursor;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ConsultaService {
 
+    private static final String HORARIO_OCUPADO = "O médico já possui uma consulta agendada neste horário";
+    private static final Duration DURACAO_MAXIMA_HORARIO_LIVRE = Duration.ofHours(8);
+    private static final int QUANTIDADE_MAXIMA_HORARIOS_LIVRES = 100;
+
     @Inject
     ConsultaRepository consultaRepository;
 
@@ -30,8 +57,20 @@ public class ConsultaService {
     @Inject
     PacienteRepository pacienteRepository;
 
-    public List<Consulta> listarTodas() {
-        return consultaRepository.listAll();
+    @Inject
+    EspecialidadeRepository especialidadeRepository;
+
+    @Inject
+    AgendaMedicos agendaMedicos;
+
+    @Inject
+    Event<ConsultaAlterada> consultaAlterada;
+
+    @Inject
+    Validator validator;
+
+    public List<ConsultaDTO> listarTodas() {
+        return consultaRepository.listarTodas();
     }
 
     public Consulta buscarPorId(Long id) {
@@ -39,30 +78,116 @@ public class ConsultaService {
                 .orElseThrow(() -> new EntityNotFoundException("Consulta", id));
     }
 
-    public List<Consulta> listarPorMedico(Long medicoId) {
+    public ConsultaDTO buscarDTOPorId(Long id) {
+        return consultaRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Consulta", id));
+    }
+
+    public List<ConsultaDTO> listarPorMedico(Long medicoId) {
         return consultaRepository.listarPorMedico(medicoId);
     }
 
-    public List<Consulta> listarPorPaciente(Long pacienteId) {
+    public List<ConsultaDTO> listarPorPaciente(Long pacienteId) {
         return consultaRepository.listarPorPaciente(pacienteId);
     }
 
-    public List<Consulta> listarPorStatus(StatusConsulta status) {
+    public List<ConsultaDTO> listarPorStatus(StatusConsulta status) {
         return consultaRepository.listarPorStatus(status);
     }
 
-    public List<Consulta> listarPorIntervaloData(LocalDateTime inicio, LocalDateTime fim) {
+    public List<ConsultaDTO> listarPorIntervaloData(LocalDateTime inicio, LocalDateTime fim) {
         return consultaRepository.listarPorIntervaloData(inicio, fim);
     }
 
+    public PaginaDTO<ConsultaDTO> listarTodas(Cursor cursor, int limite) {
+        return pagina(consultaRepository.listarTodas(cursor, limite), limite);
+    }
+
+    public PaginaDTO<ConsultaDTO> listarPorMedico(Long medicoId, Cursor cursor, int limite) {
+        return pagina(consultaRepository.listarPorMedico(medicoId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ConsultaDTO> listarPorPaciente(Long pacienteId, Cursor cursor, int limite) {
+        return pagina(consultaRepository.listarPorPaciente(pacienteId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ConsultaDTO> listarPorStatus(StatusConsulta status, Cursor cursor, int limite) {
+        return pagina(consultaRepository.listarPorStatus(status, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ConsultaDTO> listarPorIntervaloData(LocalDateTime inicio, LocalDateTime fim, Cursor cursor, int limite) {
+        return pagina(consultaRepository.listarPorIntervaloData(inicio, fim, cursor, limite), limite);
+    }
+
+    /**
+     * Horários livres do médico no período, calculados pela agenda em memória.
+     */
+    public List<HorarioLivreDTO> listarHorariosLivres(Long medicoId, LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodoHorariosLivres(inicio, fim);
+        return agendaMedicos.listarHorariosLivres(medicoId, inicio, fim);
+    }
+
+    /**
+     * Primeiros horários livres entre todos os médicos da especialidade, pela ocupação em memória das
+     * agendas; o banco só é consultado (pelo cache de segundo nível) para achar os médicos.
+     */
+    public List<HorarioDisponivelDTO> listarHorariosLivresPorEspecialidade(Long especialidadeId, LocalDateTime inicio,
+                                                                          LocalDateTime fim, int duracaoMinutos, int quantidade) {
+        validarPeriodoHorariosLivres(inicio, fim);
+        Duration duracao = Duration.ofMinutes(duracaoMinutos);
+        if (duracao.compareTo(AgendaMedicos.DURACAO_CONSULTA) < 0 || duracao.compareTo(DURACAO_MAXIMA_HORARIO_LIVRE) > 0
+                || duracao.toMinutes() % AgendaMedicos.INTERVALO_OCUPACAO.toMinutes() != 0) {
+            throw new BusinessException("A duração deve ser múltipla de " + AgendaMedicos.INTERVALO_OCUPACAO.toMinutes()
+                    + " minutos, entre " + AgendaMedicos.DURACAO_CONSULTA.toMinutes() + " e "
+                    + DURACAO_MAXIMA_HORARIO_LIVRE.toMinutes() + " minutos");
+        }
+        if (quantidade < 1 || quantidade > QUANTIDADE_MAXIMA_HORARIOS_LIVRES) {
+            throw new BusinessException("A quantidade deve estar entre 1 e " + QUANTIDADE_MAXIMA_HORARIOS_LIVRES);
+        }
+        especialidadeRepository.findByIdOptional(especialidadeId)
+                .orElseThrow(() -> new EntityNotFoundException("Especialidade", especialidadeId));
+
+        Map<Long, String> medicos = new LinkedHashMap<>();
+        medicoRepository.listarPorEspecialidade(especialidadeId)
+                .forEach(medico -> medicos.put(medico.id, medico.getNome()));
+        return agendaMedicos.buscarHorariosLivres(medicos, inicio, fim, duracao, quantidade);
+    }
+
+    private void validarPeriodoHorariosLivres(LocalDateTime inicio, LocalDateTime fim) {
+        if (!inicio.isBefore(fim)) {
+            throw new BusinessException("A data de início deve ser anterior à data de fim");
+        }
+        if (inicio.plus(AgendaMedicos.PERIODO_MAXIMO_HORARIOS_LIVRES).isBefore(fim)) {
+            throw new BusinessException("O período de busca de horários livres não pode passar de "
+                    + AgendaMedicos.PERIODO_MAXIMO_HORARIOS_LIVRES.toDays() + " dias");
+        }
+    }
+
+    private PaginaDTO<ConsultaDTO> pagina(List<ConsultaDTO> consultas, int limite) {
+        return PaginaDTO.de(consultas, limite, consulta -> Cursor.de(consulta.getDataHora(), consulta.getId()));
+    }
+
+    @Transactional
+    public void exportarTodas(Consumer<ConsultaDTO> consumidor) {
+        try (Stream<ConsultaDTO> consultas = consultaRepository.streamTodas()) {
+            consultas.forEach(consumidor);
+        }
+    }
+
     @Transactional
     public Consulta criar(ConsultaDTO consultaDTO) {
+        // Recusar cedo um horário já ocupado; a reserva abaixo é que garante a exclusividade
+        if (consultaDTO.getStatus() != StatusConsulta.CANCELADA
+                && !agendaMedicos.estaLivre(consultaDTO.getMedicoId(), consultaDTO.getDataHora(), null)) {
+            throw new BusinessException(HORARIO_OCUPADO);
+        }
+
         // Verificar se o médico existe
-        Medico medico = medicoRepository.findByIdOptional(consultaDTO.getMedicoId())
+        Medico medico = medicoRepository.buscarReferencia(consultaDTO.getMedicoId())
                 .orElseThrow(() -> new EntityNotFoundException("Médico", consultaDTO.getMedicoId()));
 
         // Verificar se o paciente existe
-        Paciente paciente = pacienteRepository.findByIdOptional(consultaDTO.getPacienteId())
+        Paciente paciente = pacienteRepository.buscarReferencia(consultaDTO.getPacienteId())
                 .orElseThrow(() -> new EntityNotFoundException("Paciente", consultaDTO.getPacienteId()));
 
         // Validar data da consulta
@@ -70,43 +195,253 @@ public class ConsultaService {
             throw new BusinessException("A data da consulta não pode ser no passado");
         }
 
-        // Verificar disponibilidade do médico (considerando uma consulta de 30 minutos)
-        LocalDateTime fimConsulta = consultaDTO.getDataHora().plusMinutes(30);
-        if (!consultaRepository.verificarDisponibilidadeMedico(
-                consultaDTO.getMedicoId(), consultaDTO.getDataHora(), fimConsulta)) {
-            throw new BusinessException("O médico já possui uma consulta agendada neste horário");
+        Consulta consulta = novaConsulta(consultaDTO, medico, paciente);
+        consultaRepository.persist(consulta);
+
+        // Reservar o horário na agenda do médico (o ID já foi gerado pelo persist)
+        if (consulta.getStatus() != StatusConsulta.CANCELADA) {
+            reservarHorario(consulta.id, consultaDTO.getMedicoId(), consultaDTO.getDataHora());
+        }
+        consultaAlterada.fire(ConsultaAlterada.criada(toDTO(consulta)));
+        return consulta;
+    }
+
+    /**
+     * Agenda as consultas do lote numa única transação. Cada consulta é validada e conferida com a
+     * agenda em memória e com as anteriores do próprio lote sem acessar o banco; a existência dos
+     * médicos e pacientes é conferida com uma consulta para cada entidade, e os INSERTs vão em lotes
+     * JDBC no commit.
+     * <p>
+     * Em {@link AgendamentoLoteDTO.Modo#TUDO_OU_NADA} qualquer recusa deixa o lote inteiro sem gravar;
+     * em {@link AgendamentoLoteDTO.Modo#MELHOR_ESFORCO} só as consultas recusadas ficam de fora. Se a
+     * transação do lote falha em melhor esforço (um médico excluído depois da conferência, por exemplo),
+     * as consultas são gravadas de novo uma por transação, e só as que falham de novo são recusadas.
+     */
+    public ResultadoAgendamentoLoteDTO agendarEmLote(AgendamentoLoteDTO lote) {
+        List<ConsultaDTO> consultas = lote.getConsultas();
+        boolean tudoOuNada = lote.getModo() == AgendamentoLoteDTO.Modo.TUDO_OU_NADA;
+        String[] erros = new String[consultas.size()];
+        Long[] ids = new Long[consultas.size()];
+
+        Map<Long, List<LocalDateTime>> horariosDoLote = new HashMap<>();
+        for (int i = 0; i < consultas.size(); i++) {
+            erros[i] = validarConsultaDoLote(consultas.get(i), horariosDoLote);
+        }
+        if (!tudoOuNada || Arrays.stream(erros).allMatch(Objects::isNull)) {
+            String[] recusas = erros.clone();
+            try {
+                QuarkusTransaction.requiringNew().run(() -> gravarLote(consultas, tudoOuNada, erros, ids));
+            } catch (RuntimeException e) {
+                // Nada foi gravado; em tudo ou nada, a recusa que desfez o lote já está em erros
+                Arrays.fill(ids, null);
+                if (!tudoOuNada) {
+                    gravarUmaPorVez(consultas, recusas, erros, ids);
+                } else if (!(e instanceof BusinessException)) {
+                    String mensagem = ImportacaoEmLotes.motivo(e);
+                    for (int i = 0; i < erros.length; i++) {
+                        erros[i] = erros[i] != null ? erros[i] : mensagem;
+                    }
+                }
+            }
+        }
+
+        List<ResultadoAgendamentoLoteDTO.Item> itens = new ArrayList<>();
+        int agendadas = 0;
+        for (int i = 0; i < consultas.size(); i++) {
+            if (ids[i] != null) {
+                agendadas++;
+                itens.add(new ResultadoAgendamentoLoteDTO.Item(i, ids[i], null));
+            } else {
+                itens.add(new ResultadoAgendamentoLoteDTO.Item(i, null,
+                        erros[i] != null ? erros[i] : "Não agendada: outra consulta do lote foi recusada"));
+            }
         }
+        return new ResultadoAgendamentoLoteDTO(consultas.size(), agendadas, itens);
+    }
+
+    /**
+     * Agenda as consultas lidas em lotes de {@link ImportacaoEmLotes#TAMANHO_LOTE}, cada um gravado como
+     * um {@link #agendarEmLote lote} em melhor esforço: só as consultas recusadas ficam de fora, com o
+     * motivo no relatório.
+     */
+    public RelatorioImportacaoDTO importar(Iterator<LinhaImportacao<ConsultaDTO>> linhas) {
+        int total = 0;
+        int importados = 0;
+        List<RelatorioImportacaoDTO.Erro> erros = new ArrayList<>();
+
+        while (linhas.hasNext()) {
+            List<LinhaImportacao<ConsultaDTO>> lote = new ArrayList<>();
+            for (int i = 0; i < ImportacaoEmLotes.TAMANHO_LOTE && linhas.hasNext(); i++) {
+                LinhaImportacao<ConsultaDTO> linha = linhas.next();
+                total++;
+                if (linha.getErro() != null) {
+                    erros.add(new RelatorioImportacaoDTO.Erro(linha.getNumero(), linha.getErro()));
+                } else {
+                    lote.add(linha);
+                }
+            }
+            if (lote.isEmpty()) {
+                continue;
+            }
 
+            ResultadoAgendamentoLoteDTO resultado = agendarEmLote(new AgendamentoLoteDTO(
+                    AgendamentoLoteDTO.Modo.MELHOR_ESFORCO, lote.stream().map(LinhaImportacao::getDto).toList()));
+            importados += resultado.getAgendadas();
+            for (ResultadoAgendamentoLoteDTO.Item item : resultado.getItens()) {
+                if (item.getConsultaId() == null) {
+                    erros.add(new RelatorioImportacaoDTO.Erro(lote.get(item.getIndice()).getNumero(), item.getMensagem()));
+                }
+            }
+        }
+
+        erros.sort(Comparator.comparingInt(RelatorioImportacaoDTO.Erro::getLinha));
+        return new RelatorioImportacaoDTO(total, importados, erros);
+    }
+
+    /**
+     * Motivo da recusa da consulta sem acessar o banco, ou {@code null} se ela pode seguir. Um horário
+     * aceito é guardado em {@code horariosDoLote} para as consultas seguintes do lote não o ocuparem.
+     */
+    private String validarConsultaDoLote(ConsultaDTO consultaDTO, Map<Long, List<LocalDateTime>> horariosDoLote) {
+        if (consultaDTO == null) {
+            return "Consulta não informada";
+        }
+        String violacoes = ImportacaoEmLotes.violacoes(validator, consultaDTO);
+        if (violacoes != null) {
+            return violacoes;
+        }
+        if (consultaDTO.getMedicoId() == null) {
+            return "O médico é obrigatório";
+        }
+        if (consultaDTO.getPacienteId() == null) {
+            return "O paciente é obrigatório";
+        }
+        if (consultaDTO.getStatus() == StatusConsulta.CANCELADA) {
+            return null;
+        }
+
+        List<LocalDateTime> horarios = horariosDoLote.computeIfAbsent(consultaDTO.getMedicoId(), id -> new ArrayList<>());
+        boolean conflitaNoLote = horarios.stream().anyMatch(horario ->
+                Duration.between(horario, consultaDTO.getDataHora()).abs().compareTo(AgendaMedicos.DURACAO_CONSULTA) < 0);
+        if (conflitaNoLote) {
+            return "O horário conflita com outra consulta do lote para o mesmo médico";
+        }
+        if (!agendaMedicos.estaLivre(consultaDTO.getMedicoId(), consultaDTO.getDataHora(), null)) {
+            return HORARIO_OCUPADO;
+        }
+        horarios.add(consultaDTO.getDataHora());
+        return null;
+    }
+
+    /**
+     * Grava cada consulta sem recusa da validação numa transação própria, depois que a transação do lote
+     * inteiro falhou. {@code erros} volta às recusas da validação antes de receber as da gravação.
+     */
+    private void gravarUmaPorVez(List<ConsultaDTO> consultas, String[] recusas, String[] erros, Long[] ids) {
+        System.arraycopy(recusas, 0, erros, 0, erros.length);
+        for (int i = 0; i < consultas.size(); i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            List<ConsultaDTO> consulta = List.of(consultas.get(i));
+            String[] erro = new String[1];
+            Long[] id = new Long[1];
+            try {
+                QuarkusTransaction.requiringNew().run(() -> gravarLote(consulta, false, erro, id));
+                erros[i] = erro[0];
+                ids[i] = id[0];
+            } catch (RuntimeException e) {
+                erros[i] = ImportacaoEmLotes.motivo(e);
+            }
+        }
+    }
+
+    /**
+     * Grava, na transação corrente, as consultas do lote ainda sem erro, preenchendo {@code ids} com as
+     * gravadas e {@code erros} com as recusadas. Em tudo ou nada, um horário tomado por outra transação
+     * depois da validação lança {@link BusinessException} para desfazer o lote.
+     */
+    private void gravarLote(List<ConsultaDTO> consultas, boolean tudoOuNada, String[] erros, Long[] ids) {
+        List<Integer> pendentes = new ArrayList<>();
+        for (int i = 0; i < consultas.size(); i++) {
+            if (erros[i] == null) {
+                pendentes.add(i);
+            }
+        }
+        Set<Long> medicos = medicoRepository.listarIdsExistentes(
+                pendentes.stream().map(i -> consultas.get(i).getMedicoId()).distinct().toList());
+        Set<Long> pacientes = pacienteRepository.listarIdsExistentes(
+                pendentes.stream().map(i -> consultas.get(i).getPacienteId()).distinct().toList());
+        for (int i : pendentes) {
+            ConsultaDTO consultaDTO = consultas.get(i);
+            if (!medicos.contains(consultaDTO.getMedicoId())) {
+                erros[i] = new EntityNotFoundException("Médico", consultaDTO.getMedicoId()).getMessage();
+            } else if (!pacientes.contains(consultaDTO.getPacienteId())) {
+                erros[i] = new EntityNotFoundException("Paciente", consultaDTO.getPacienteId()).getMessage();
+            }
+        }
+        if (tudoOuNada && Arrays.stream(erros).anyMatch(Objects::nonNull)) {
+            return;
+        }
+
+        for (int i : pendentes) {
+            ConsultaDTO consultaDTO = consultas.get(i);
+            if (erros[i] != null) {
+                continue;
+            }
+            Consulta consulta = novaConsulta(consultaDTO, medicoRepository.referencia(consultaDTO.getMedicoId()),
+                    pacienteRepository.referencia(consultaDTO.getPacienteId()));
+            consultaRepository.persist(consulta);
+            if (consulta.getStatus() != StatusConsulta.CANCELADA
+                    && !agendaMedicos.reservar(consulta.id, consultaDTO.getMedicoId(), consultaDTO.getDataHora())) {
+                erros[i] = HORARIO_OCUPADO;
+                if (tudoOuNada) {
+                    throw new BusinessException(HORARIO_OCUPADO);
+                }
+                // Desfazer a inclusão desta consulta; as demais do lote seguem na mesma transação
+                consultaRepository.delete(consulta);
+                continue;
+            }
+            ids[i] = consulta.id;
+            consultaAlterada.fire(ConsultaAlterada.criada(toDTO(consulta)));
+        }
+    }
+
+    private Consulta novaConsulta(ConsultaDTO consultaDTO, Medico medico, Paciente paciente) {
         Consulta consulta = new Consulta();
         consulta.setMedico(medico);
         consulta.setPaciente(paciente);
         consulta.setDataHora(consultaDTO.getDataHora());
         consulta.setStatus(consultaDTO.getStatus() != null ? consultaDTO.getStatus() : StatusConsulta.AGENDADA);
         consulta.setObservacao(consultaDTO.getObservacao());
-
-        consultaRepository.persist(consulta);
         return consulta;
     }
 
     @Transactional
-    public Consulta atualizar(Long id, ConsultaDTO consultaDTO) {
+    public Consulta atualizar(Long id, ConsultaDTO consultaDTO, Long versaoEsperada) {
         Consulta consulta = buscarPorId(id);
+        Versoes.verificar("Consulta", consulta, versaoEsperada);
+        ConsultaDTO anterior = toDTO(consulta);
 
         // Não permitir alteração se a consulta já foi realizada ou cancelada
         if (consulta.getStatus() == StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível alterar uma consulta que já foi realizada");
         }
 
+        boolean ocupavaAgenda = consulta.getStatus() != StatusConsulta.CANCELADA;
+        boolean mudouHorario = !consulta.getMedico().id.equals(consultaDTO.getMedicoId())
+                || !consulta.getDataHora().equals(consultaDTO.getDataHora());
+
         // Verificar se o médico existe
         if (!consulta.getMedico().id.equals(consultaDTO.getMedicoId())) {
-            Medico medico = medicoRepository.findByIdOptional(consultaDTO.getMedicoId())
+            Medico medico = medicoRepository.buscarReferencia(consultaDTO.getMedicoId())
                     .orElseThrow(() -> new EntityNotFoundException("Médico", consultaDTO.getMedicoId()));
             consulta.setMedico(medico);
         }
 
         // Verificar se o paciente existe
         if (!consulta.getPaciente().id.equals(consultaDTO.getPacienteId())) {
-            Paciente paciente = pacienteRepository.findByIdOptional(consultaDTO.getPacienteId())
+            Paciente paciente = pacienteRepository.buscarReferencia(consultaDTO.getPacienteId())
                     .orElseThrow(() -> new EntityNotFoundException("Paciente", consultaDTO.getPacienteId()));
             consulta.setPaciente(paciente);
         }
@@ -116,25 +451,23 @@ public class ConsultaService {
             throw new BusinessException("A data da consulta não pode ser no passado");
         }
 
-        // Verificar disponibilidade do médico (considerando uma consulta de 30 minutos)
-        if (!consulta.getDataHora().equals(consultaDTO.getDataHora())) {
-            LocalDateTime fimConsulta = consultaDTO.getDataHora().plus(30, ChronoUnit.MINUTES);
-            if (!consultaRepository.verificarDisponibilidadeMedico(
-                    consultaDTO.getMedicoId(), consultaDTO.getDataHora(), fimConsulta)) {
-                throw new BusinessException("O médico já possui uma consulta agendada neste horário");
-            }
+        // Reservar o horário na agenda do médico se a consulta passa a ocupar um horário novo
+        if (consultaDTO.getStatus() != StatusConsulta.CANCELADA && (mudouHorario || !ocupavaAgenda)) {
+            reservarHorario(id, consultaDTO.getMedicoId(), consultaDTO.getDataHora());
         }
 
         consulta.setDataHora(consultaDTO.getDataHora());
         consulta.setStatus(consultaDTO.getStatus());
         consulta.setObservacao(consultaDTO.getObservacao());
 
+        avisarAlteracao(anterior, consulta);
         return consulta;
     }
 
     @Transactional
-    public Consulta cancelarConsulta(Long id) {
+    public Consulta cancelarConsulta(Long id, Long versaoEsperada) {
         Consulta consulta = buscarPorId(id);
+        Versoes.verificar("Consulta", consulta, versaoEsperada);
 
         if (consulta.getStatus() == StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível cancelar uma consulta que já foi realizada");
@@ -144,13 +477,16 @@ public class ConsultaService {
             throw new BusinessException("Esta consulta já está cancelada");
         }
 
+        ConsultaDTO anterior = toDTO(consulta);
         consulta.setStatus(StatusConsulta.CANCELADA);
+        avisarAlteracao(anterior, consulta);
         return consulta;
     }
 
     @Transactional
-    public Consulta realizarConsulta(Long id) {
+    public Consulta realizarConsulta(Long id, Long versaoEsperada) {
         Consulta consulta = buscarPorId(id);
+        Versoes.verificar("Consulta", consulta, versaoEsperada);
 
         if (consulta.getStatus() == StatusConsulta.CANCELADA) {
             throw new BusinessException("Não é possível realizar uma consulta cancelada");
@@ -160,13 +496,25 @@ public class ConsultaService {
             throw new BusinessException("Esta consulta já foi realizada");
         }
 
+        ConsultaDTO anterior = toDTO(consulta);
         consulta.setStatus(StatusConsulta.REALIZADA);
+        avisarAlteracao(anterior, consulta);
         return consulta;
     }
 
+    /**
+     * Dispara {@link ConsultaAlterada} depois de gravar a alteração: o Hibernate só incrementa a versão
+     * no flush, e os observadores guardam o DTO do evento.
+     */
+    private void avisarAlteracao(ConsultaDTO anterior, Consulta consulta) {
+        consultaRepository.flush();
+        consultaAlterada.fire(ConsultaAlterada.alterada(anterior, toDTO(consulta)));
+    }
+
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Consulta consulta = buscarPorId(id);
+        Versoes.verificar("Consulta", consulta, versaoEsperada);
 
         if (consulta.getStatus() == StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível excluir uma consulta que já foi realizada");
@@ -184,7 +532,20 @@ public class ConsultaService {
             throw new BusinessException("Não é possível excluir a consulta pois ela possui exames associados");
         }
 
+        ConsultaDTO anterior = toDTO(consulta);
         consultaRepository.delete(consulta);
+        consultaAlterada.fire(ConsultaAlterada.excluida(anterior));
+    }
+
+    /**
+     * Uma consulta de {@link AgendaMedicos#DURACAO_CONSULTA} em {@code dataHora} conflita com qualquer
+     * consulta não cancelada do médico que comece menos de uma duração antes ou depois dela, inclusive
+     * as que ainda estão sendo gravadas por outra transação.
+     */
+    private void reservarHorario(Long consultaId, Long medicoId, LocalDateTime dataHora) {
+        if (!agendaMedicos.reservar(consultaId, medicoId, dataHora)) {
+            throw new BusinessException(HORARIO_OCUPADO);
+        }
     }
 
     public ConsultaDTO toDTO(Consulta consulta) {
@@ -192,9 +553,10 @@ public class ConsultaService {
                 consulta.id,
                 consulta.getDataHora(),
                 consulta.getStatus(),
-                consulta.id,
-                consulta.id,
-                consulta.getObservacao()
+                consulta.getMedico().id,
+                consulta.getPaciente().id,
+                consulta.getObservacao(),
+                consulta.getVersao()
         );
     }
 
@@ -1,10 +1,12 @@
 package com.hospital.service;
 
 import com.hospital.dto.EspecialidadeDTO;
+import com.hospital.dto.PaginaDTO;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
 import com.hospital.model.Especialidade;
 import com.hospital.repository.EspecialidadeRepository;
+import com.hospital.util.Cursor;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -19,7 +21,7 @@ public class EspecialidadeService {
     EspecialidadeRepository especialidadeRepository;
 
     public List<Especialidade> listarTodas() {
-        return especialidadeRepository.listAll();
+        return especialidadeRepository.listarTodas();
     }
 
     public Especialidade buscarPorId(Long id) {
@@ -35,6 +37,18 @@ public class EspecialidadeService {
         return especialidadeRepository.listarPorMedico(medicoId);
     }
 
+    public PaginaDTO<Especialidade> listarTodas(Cursor cursor, int limite) {
+        return pagina(especialidadeRepository.listarTodas(cursor, limite), limite);
+    }
+
+    public PaginaDTO<Especialidade> listarPorMedico(Long medicoId, Cursor cursor, int limite) {
+        return pagina(especialidadeRepository.listarPorMedico(medicoId, cursor, limite), limite);
+    }
+
+    private PaginaDTO<Especialidade> pagina(List<Especialidade> especialidades, int limite) {
+        return PaginaDTO.de(especialidades, limite, especialidade -> Cursor.de(especialidade.getNome(), especialidade.id));
+    }
+
     @Transactional
     public Especialidade criar(EspecialidadeDTO especialidadeDTO) {
         // Verificar se já existe especialidade com o mesmo nome
@@ -52,8 +66,9 @@ public class EspecialidadeService {
     }
 
     @Transactional
-    public Especialidade atualizar(Long id, EspecialidadeDTO especialidadeDTO) {
+    public Especialidade atualizar(Long id, EspecialidadeDTO especialidadeDTO, Long versaoEsperada) {
         Especialidade especialidade = buscarPorId(id);
+        Versoes.verificar("Especialidade", especialidade, versaoEsperada);
 
         // Verificar se o nome já está em uso por outra especialidade
         if (!especialidade.getNome().equals(especialidadeDTO.getNome())) {
@@ -70,8 +85,9 @@ public class EspecialidadeService {
     }
 
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Especialidade especialidade = buscarPorId(id);
+        Versoes.verificar("Especialidade", especialidade, versaoEsperada);
         if (!especialidade.getMedicos().isEmpty()) {
             throw new BusinessException("Não é possível excluir a especialidade pois ela está associada a médicos");
         }
@@ -82,7 +98,8 @@ public class EspecialidadeService {
         return new EspecialidadeDTO(
                 especialidade.id,
                 especialidade.getNome(),
-                especialidade.getDescricao()
+                especialidade.getDescricao(),
+                especialidade.getVersao()
         );
     }
 
@@ -0,0 +1,225 @@
+package com.hospital.service;
+
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.EstatisticasDTO;
+import com.hospital.dto.ExameDTO;
+import com.hospital.event.ConsultaAlterada;
+import com.hospital.event.ExameAlterado;
+import com.hospital.event.MedicoAlterado;
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.model.enums.TipoExame;
+import com.hospital.repository.EstatisticaRepository;
+import com.hospital.repository.EstatisticaRepository.Contador;
+import com.hospital.repository.MedicoRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contagens para os painéis de gestão, guardadas nas tabelas de contadores (V7) e somadas na mesma
+ * transação que grava a consulta, o exame ou o médico: uma transação desfeita não altera nenhuma
+ * contagem, e todas as instâncias da aplicação leem os mesmos totais, inclusive depois de reiniciar.
+ * <p>
+ * Os eventos são observados dentro da transação, com o estado anterior e o atual do registro, e as somas
+ * de todos eles acumuladas até o fim dela: antes de confirmar, cada contador cuja chave mudou é gravado
+ * uma única vez, sempre na ordem do contador e da chave. Duas transações que somam nas mesmas linhas as
+ * travam na mesma ordem, então uma espera a outra em vez de travarem em ciclo. Periodicamente as
+ * contagens são refeitas com {@code GROUP BY} nas tabelas e os contadores divergentes corrigidos.
+ */
+@ApplicationScoped
+public class Estatisticas {
+
+    private static final Logger LOG = Logger.getLogger(Estatisticas.class);
+
+    @Inject
+    EstatisticaRepository estatisticaRepository;
+
+    @Inject
+    MedicoRepository medicoRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private volatile LocalDateTime reconciliadoEm;
+
+    void aoAlterarConsulta(@Observes ConsultaAlterada evento) {
+        Somas somas = somasDaTransacao();
+        contar(somas, evento.getAnterior(), -1);
+        contar(somas, evento.getAtual(), 1);
+    }
+
+    private void contar(Somas somas, ConsultaDTO consulta, long delta) {
+        if (consulta == null) {
+            return;
+        }
+        somas.somar(Contador.CONSULTAS_POR_DIA, delta, consulta.getDataHora().toLocalDate(), consulta.getStatus().name());
+        if (consulta.getStatus() != StatusConsulta.CANCELADA) {
+            somas.somar(Contador.CONSULTAS_POR_MEDICO, delta, consulta.getMedicoId());
+            for (Long especialidadeId : especialidadeIds(consulta.getMedicoId())) {
+                somas.somar(Contador.CONSULTAS_POR_ESPECIALIDADE, delta, especialidadeId);
+            }
+        }
+    }
+
+    /** Especialidades do médico pela entidade, que costuma já estar carregada na transação ou no cache. */
+    private Set<Long> especialidadeIds(Long medicoId) {
+        Set<Long> ids = new HashSet<>();
+        medicoRepository.findByIdOptional(medicoId)
+                .ifPresent(medico -> medico.getEspecialidades().forEach(especialidade -> ids.add(especialidade.id)));
+        return ids;
+    }
+
+    /** Só exames sem resultado contam: um exame com resultado deixa de ser pendente. */
+    void aoAlterarExame(@Observes ExameAlterado evento) {
+        Somas somas = somasDaTransacao();
+        contar(somas, evento.getAnterior(), -1);
+        contar(somas, evento.getAtual(), 1);
+    }
+
+    private static void contar(Somas somas, ExameDTO exame, long delta) {
+        if (exame != null && exame.getDataResultado() == null) {
+            somas.somar(Contador.EXAMES_PENDENTES, delta, exame.getTipo().name());
+        }
+    }
+
+    /** Move as consultas do médico das especialidades que ele deixou para as que ganhou. */
+    void aoAlterarMedico(@Observes MedicoAlterado evento) {
+        if (evento.isExclusao() || evento.getCrmAnterior() == null) {
+            // Médicos só são excluídos sem consultas, e um médico recém-criado ainda não tem nenhuma
+            return;
+        }
+        Set<Long> anteriores = evento.getEspecialidadeIdsAnteriores();
+        Set<Long> atuais = evento.getAtual().getEspecialidadeIds();
+        if (anteriores.equals(atuais)) {
+            return;
+        }
+        Somas somas = somasDaTransacao();
+        // Inclui as consultas do médico somadas nesta transação e ainda não gravadas
+        long consultas = estatisticaRepository.total(Contador.CONSULTAS_POR_MEDICO, List.of(evento.getId()))
+                + somas.pendente(Contador.CONSULTAS_POR_MEDICO, evento.getId());
+        anteriores.forEach(especialidadeId -> somas.somar(Contador.CONSULTAS_POR_ESPECIALIDADE, -consultas, especialidadeId));
+        atuais.forEach(especialidadeId -> somas.somar(Contador.CONSULTAS_POR_ESPECIALIDADE, consultas, especialidadeId));
+    }
+
+    /**
+     * Somas da transação atual, criadas no primeiro evento dela e gravadas antes de confirmá-la. Uma
+     * transação desfeita não chega ao {@code beforeCompletion}, e as somas somem com ela.
+     */
+    private Somas somasDaTransacao() {
+        Somas somas = (Somas) transacoes.getResource(Somas.class);
+        if (somas == null) {
+            Somas novas = new Somas();
+            transacoes.putResource(Somas.class, novas);
+            transacoes.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    novas.gravar();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                }
+            });
+            somas = novas;
+        }
+        return somas;
+    }
+
+    /** Contagens atuais, com as consultas por status do dia {@code data}. */
+    @Transactional
+    public EstatisticasDTO consultar(LocalDate data) {
+        Map<StatusConsulta, Integer> porStatus = new EnumMap<>(StatusConsulta.class);
+        for (StatusConsulta status : StatusConsulta.values()) {
+            porStatus.put(status, 0);
+        }
+        estatisticaRepository.listar(Contador.CONSULTAS_POR_DIA, data)
+                .forEach((chave, total) -> porStatus.put(StatusConsulta.valueOf((String) chave.get(1)), total.intValue()));
+
+        Map<TipoExame, Integer> pendentes = new EnumMap<>(TipoExame.class);
+        for (TipoExame tipo : TipoExame.values()) {
+            pendentes.put(tipo, 0);
+        }
+        estatisticaRepository.listar(Contador.EXAMES_PENDENTES)
+                .forEach((chave, total) -> pendentes.put(TipoExame.valueOf((String) chave.get(0)), total.intValue()));
+
+        return new EstatisticasDTO(data, porStatus, pendentes,
+                porId(estatisticaRepository.listar(Contador.CONSULTAS_POR_ESPECIALIDADE)),
+                porId(estatisticaRepository.listar(Contador.CONSULTAS_POR_MEDICO)),
+                reconciliadoEm);
+    }
+
+    private static Map<Long, Integer> porId(Map<List<Object>, Long> totais) {
+        Map<Long, Integer> porId = new HashMap<>();
+        totais.forEach((chave, total) -> porId.put((Long) chave.get(0), total.intValue()));
+        return porId;
+    }
+
+    @Scheduled(every = "${estatisticas.reconciliacao.intervalo}", delayed = "${estatisticas.reconciliacao.intervalo}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconciliarPeriodicamente() {
+        reconciliar();
+    }
+
+    /**
+     * Refaz as contagens com {@code GROUP BY} nas tabelas e corrige os contadores divergentes, registrando
+     * no log quais estavam diferentes. A correção é somada, como as demais alterações, em vez de
+     * sobrescrever o total: o que outras transações somarem depois da comparação não se perde.
+     *
+     * @return se havia divergência entre os contadores e as tabelas
+     */
+    public boolean reconciliar() {
+        boolean divergente = false;
+        for (Contador contador : Contador.values()) {
+            divergente |= QuarkusTransaction.requiringNew().call(() -> reconciliar(contador));
+        }
+        reconciliadoEm = LocalDateTime.now();
+        return divergente;
+    }
+
+    private boolean reconciliar(Contador contador) {
+        Map<List<Object>, Long> diferencas = estatisticaRepository.listarDivergencias(contador);
+        if (diferencas.isEmpty()) {
+            return false;
+        }
+        LOG.warnf("Contador %s divergente das tabelas em %d chave(s); corrigido: %s", contador, diferencas.size(), diferencas);
+        estatisticaRepository.somar(contador, diferencas);
+        return true;
+    }
+
+    /**
+     * Somas de uma transação, agrupadas por contador e chave antes de gravar: o que um evento desconta e
+     * outro conta de volta na mesma chave não chega ao banco.
+     */
+    private final class Somas {
+
+        private final Map<Contador, Map<List<Object>, Long>> porContador = new EnumMap<>(Contador.class);
+
+        void somar(Contador contador, long delta, Object... chave) {
+            porContador.computeIfAbsent(contador, c -> new HashMap<>()).merge(List.of(chave), delta, Long::sum);
+        }
+
+        long pendente(Contador contador, Object... chave) {
+            return porContador.getOrDefault(contador, Map.of()).getOrDefault(List.of(chave), 0L);
+        }
+
+        /** Grava na ordem de {@link Contador}, como {@link EstatisticaRepository#somar(Contador, Map)} pede. */
+        void gravar() {
+            porContador.forEach(estatisticaRepository::somar);
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.hospital.service;
 
 import com.hospital.dto.ExameDTO;
+import com.hospital.dto.PaginaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
+import com.hospital.event.ExameAlterado;
+import com.hospital.event.ResultadoExameRegistrado;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
 import com.hospital.model.Consulta;
 import com.hospital.model.Exame;
 import com.hospital.model.enums.StatusConsulta;
+import com.hospital.model.enums.StatusExame;
 import com.hospital.model.enums.TipoExame;
+import com.hospital.repository.AnexoExameRepository;
 import com.hospital.repository.ConsultaRepository;
 import com.hospital.repository.ExameRepository;
+import com.hospital.util.Cursor;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ExameService {
@@ -25,8 +38,20 @@ public class ExameService {
     @Inject
     ConsultaRepository consultaRepository;
 
-    public List<Exame> listarTodos() {
-        return exameRepository.listAll();
+    @Inject
+    AnexoExameRepository anexoExameRepository;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Event<ResultadoExameRegistrado> resultadoRegistrado;
+
+    @Inject
+    Event<ExameAlterado> exameAlterado;
+
+    public List<ExameDTO> listarTodos() {
+        return exameRepository.listarTodos();
     }
 
     public Exame buscarPorId(Long id) {
@@ -34,93 +59,209 @@ public class ExameService {
                 .orElseThrow(() -> new EntityNotFoundException("Exame", id));
     }
 
-    public List<Exame> listarPorConsulta(Long consultaId) {
+    public ExameDTO buscarDTOPorId(Long id) {
+        return exameRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Exame", id));
+    }
+
+    public List<ExameDTO> listarPorConsulta(Long consultaId) {
         return exameRepository.listarPorConsultaId(consultaId);
     }
 
-    public List<Exame> listarPorPaciente(Long pacienteId) {
+    public List<ExameDTO> listarPorPaciente(Long pacienteId) {
         return exameRepository.listarPorPacienteId(pacienteId);
     }
 
-    public List<Exame> listarPorTipo(TipoExame tipo) {
+    public List<ExameDTO> listarPorTipo(TipoExame tipo) {
         return exameRepository.listarPorTipo(tipo);
     }
 
-    public List<Exame> listarSemResultado() {
+    public List<ExameDTO> listarSemResultado() {
         return exameRepository.listarSemResultado();
     }
 
+    public PaginaDTO<ExameDTO> listarTodos(Cursor cursor, int limite) {
+        return pagina(exameRepository.listarTodos(cursor, limite), limite);
+    }
+
+    public PaginaDTO<ExameDTO> listarPorConsulta(Long consultaId, Cursor cursor, int limite) {
+        return pagina(exameRepository.listarPorConsultaId(consultaId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ExameDTO> listarPorPaciente(Long pacienteId, Cursor cursor, int limite) {
+        return pagina(exameRepository.listarPorPacienteId(pacienteId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ExameDTO> listarPorTipo(TipoExame tipo, Cursor cursor, int limite) {
+        return pagina(exameRepository.listarPorTipo(tipo, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ExameDTO> listarSemResultado(Cursor cursor, int limite) {
+        return pagina(exameRepository.listarSemResultado(cursor, limite), limite);
+    }
+
+    private PaginaDTO<ExameDTO> pagina(List<ExameDTO> exames, int limite) {
+        return PaginaDTO.de(exames, limite, exame -> Cursor.de(exame.getDataSolicitacao(), exame.getId()));
+    }
+
+    @Transactional
+    public void exportarTodos(Consumer<ExameDTO> consumidor) {
+        try (Stream<ExameDTO> exames = exameRepository.streamTodos()) {
+            exames.forEach(consumidor);
+        }
+    }
+
     @Transactional
     public Exame criar(ExameDTO exameDTO) {
         // Verificar se a consulta existe
-        Consulta consulta = consultaRepository.findByIdOptional(exameDTO.getConsultaId())
+        StatusConsulta statusConsulta = consultaRepository.buscarStatus(exameDTO.getConsultaId())
                 .orElseThrow(() -> new EntityNotFoundException("Consulta", exameDTO.getConsultaId()));
 
         // Verificar se a consulta foi realizada
-        if (consulta.getStatus() != StatusConsulta.REALIZADA) {
+        if (statusConsulta != StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível solicitar exame para uma consulta não realizada");
         }
 
+        Exame exame = novoExame(exameDTO);
+        exameRepository.persist(exame);
+        avisarAlteracao(null, exame, exame.getResultado() != null, null);
+        return exame;
+    }
+
+    /**
+     * Solicita os exames lidos em lotes, uma transação por lote. Exames de consultas inexistentes ou
+     * ainda não realizadas ficam de fora, com o motivo no relatório.
+     */
+    public RelatorioImportacaoDTO importar(Iterator<LinhaImportacao<ExameDTO>> linhas) {
+        return ImportacaoEmLotes.executar(linhas, validator,
+                lote -> ImportacaoEmLotes.consultasNaoRealizadas(lote, ExameDTO::getConsultaId, consultaRepository,
+                        "Não é possível solicitar exame para uma consulta não realizada"),
+                this::gravarLote);
+    }
+
+    private void gravarLote(List<ExameDTO> exames) {
+        // Pacientes dos exames que já chegam com resultado, numa consulta para o lote inteiro
+        Map<Long, Long> pacienteIds = consultaRepository.listarPacienteIds(exames.stream()
+                .filter(exameDTO -> exameDTO.getResultado() != null && !exameDTO.getResultado().isEmpty())
+                .map(ExameDTO::getConsultaId)
+                .distinct()
+                .toList());
+        for (ExameDTO exameDTO : exames) {
+            Exame exame = novoExame(exameDTO);
+            exameRepository.persist(exame);
+            avisarAlteracao(null, exame, exame.getResultado() != null, pacienteIds.get(exameDTO.getConsultaId()));
+        }
+    }
+
+    private Exame novoExame(ExameDTO exameDTO) {
         Exame exame = new Exame();
-        exame.setConsulta(consulta);
+        exame.setConsulta(consultaRepository.referencia(exameDTO.getConsultaId()));
         exame.setNome(exameDTO.getNome());
         exame.setTipo(exameDTO.getTipo());
         exame.setInstrucoes(exameDTO.getInstrucoes());
         exame.setDataSolicitacao(LocalDateTime.now());
+        if (exameDTO.getPrioridade() != null) {
+            exame.setPrioridade(exameDTO.getPrioridade());
+        }
 
         // Resultado opcional no momento da criação (pode ser adicionado depois)
         if (exameDTO.getResultado() != null && !exameDTO.getResultado().isEmpty()) {
             exame.setResultado(exameDTO.getResultado());
             exame.setDataResultado(LocalDateTime.now());
+            exame.setStatus(StatusExame.RESULTADO_DISPONIVEL);
         }
-
-        exameRepository.persist(exame);
         return exame;
     }
 
     @Transactional
-    public Exame atualizar(Long id, ExameDTO exameDTO) {
+    public Exame atualizar(Long id, ExameDTO exameDTO, Long versaoEsperada) {
         Exame exame = buscarPorId(id);
+        Versoes.verificar("Exame", exame, versaoEsperada);
 
         // Não permite alterar a consulta associada
         if (!exame.getConsulta().id.equals(exameDTO.getConsultaId())) {
             throw new BusinessException("Não é possível alterar a consulta associada ao exame");
         }
+        ExameDTO anterior = toDTO(exame);
 
         exame.setNome(exameDTO.getNome());
         exame.setTipo(exameDTO.getTipo());
         exame.setInstrucoes(exameDTO.getInstrucoes());
+        if (exameDTO.getPrioridade() != null) {
+            exame.setPrioridade(exameDTO.getPrioridade());
+        }
 
         // Atualizar resultado se fornecido
-        if (exameDTO.getResultado() != null && !exameDTO.getResultado().isEmpty()) {
+        boolean novoResultado = exameDTO.getResultado() != null && !exameDTO.getResultado().isEmpty()
+                && !exameDTO.getResultado().equals(exame.getResultado());
+        if (novoResultado) {
             exame.setResultado(exameDTO.getResultado());
             // Se está adicionando resultado pela primeira vez
             if (exame.getDataResultado() == null) {
                 exame.setDataResultado(LocalDateTime.now());
             }
+            disponibilizarResultado(exame);
         }
 
+        exameRepository.flush();
+        avisarAlteracao(anterior, exame, novoResultado, null);
         return exame;
     }
 
     @Transactional
-    public Exame registrarResultado(Long id, String resultado) {
+    public Exame registrarResultado(Long id, String resultado, Long versaoEsperada) {
         Exame exame = buscarPorId(id);
+        Versoes.verificar("Exame", exame, versaoEsperada);
 
         if (resultado == null || resultado.isEmpty()) {
             throw new BusinessException("O resultado do exame não pode estar vazio");
         }
 
+        ExameDTO anterior = toDTO(exame);
         exame.setResultado(resultado);
         exame.setDataResultado(LocalDateTime.now());
+        disponibilizarResultado(exame);
 
+        exameRepository.flush();
+        avisarAlteracao(anterior, exame, true, null);
         return exame;
     }
 
+    /** Tira o exame da fila das bancadas, encerrando a reserva se houver. */
+    private void disponibilizarResultado(Exame exame) {
+        exame.setStatus(StatusExame.RESULTADO_DISPONIVEL);
+        exame.setResponsavel(null);
+        exame.setReservadoAte(null);
+    }
+
+    /**
+     * Dispara {@link ExameAlterado} e, se o resultado acabou de ser gravado, {@link ResultadoExameRegistrado}.
+     * Numa alteração o chamador grava antes (flush), pois o Hibernate só incrementa a versão ao gravar; na
+     * criação o persist já inicia a versão.
+     *
+     * @param anterior   dados antes da alteração; {@code null} na solicitação
+     * @param pacienteId paciente da consulta do exame, se já conhecido; senão é lido do banco quando preciso
+     */
+    private void avisarAlteracao(ExameDTO anterior, Exame exame, boolean novoResultado, Long pacienteId) {
+        ExameDTO exameDTO = toDTO(exame);
+        if (novoResultado) {
+            Long consultaId = exameDTO.getConsultaId();
+            Long paciente = pacienteId != null ? pacienteId
+                    : consultaRepository.listarPacienteIds(List.of(consultaId)).get(consultaId);
+            resultadoRegistrado.fire(new ResultadoExameRegistrado(exameDTO, paciente));
+        }
+        exameAlterado.fire(anterior == null ? ExameAlterado.solicitado(exameDTO) : ExameAlterado.alterado(anterior, exameDTO));
+    }
+
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Exame exame = buscarPorId(id);
+        Versoes.verificar("Exame", exame, versaoEsperada);
+        ExameDTO anterior = toDTO(exame);
+        // O conteúdo dos anexos fica para a coleta do AnexoExameService
+        anexoExameRepository.excluirPorExame(id);
         exameRepository.delete(exame);
+        exameAlterado.fire(ExameAlterado.excluido(anterior));
     }
 
     public ExameDTO toDTO(Exame exame) {
@@ -132,7 +273,12 @@ public class ExameService {
                 exame.getInstrucoes(),
                 exame.getDataSolicitacao(),
                 exame.getDataResultado(),
-                exame.getResultado()
+                exame.getResultado(),
+                exame.getStatus(),
+                exame.getPrioridade(),
+                exame.getResponsavel(),
+                exame.getReservadoAte(),
+                exame.getVersao()
         );
     }
 
@@ -0,0 +1,209 @@
+package com.hospital.service;
+
+import com.hospital.dto.ExameDTO;
+import com.hospital.event.ResultadoExameRegistrado;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Distribui aos assinantes, em memória, os resultados de exames gravados, com os filtros por paciente e
+ * por consulta aplicados antes de enfileirar.
+ * <p>
+ * Os últimos {@code resultados-exames.historico} resultados ficam guardados para que um assinante que
+ * reconecta informando o ID do último evento recebido receba o que perdeu. Os IDs têm a forma
+ * {@code <geração>-<sequência>}: a geração muda a cada inicialização, e um ID de outra geração, ou
+ * anterior ao histórico guardado, é respondido com {@link Tipo#RESSINCRONIZAR} — o cliente relê os
+ * exames pela API e continua a partir do ID desse evento.
+ * <p>
+ * Cada assinante tem uma fila de no máximo {@code resultados-exames.buffer-assinante} eventos; se o
+ * cliente não consome e a fila enche, a assinatura termina em vez de acumular memória, e o cliente
+ * reconecta a partir do último ID recebido. O término remove o assinante na hora, dentro do
+ * {@code emit}: por isso a entrega percorre uma cópia do conjunto de assinantes.
+ */
+@ApplicationScoped
+public class FeedResultadosExames {
+
+    private static final Logger LOG = Logger.getLogger(FeedResultadosExames.class);
+
+    public enum Tipo {
+        RESULTADO, RESSINCRONIZAR, PULSO
+    }
+
+    /**
+     * Evento entregue a um assinante; só {@link Tipo#RESULTADO} traz exame.
+     */
+    public static final class Entrega {
+
+        private final Tipo tipo;
+        private final String id;
+        private final ExameDTO exame;
+        private final Long pacienteId;
+
+        private Entrega(Tipo tipo, String id, ExameDTO exame, Long pacienteId) {
+            this.tipo = tipo;
+            this.id = id;
+            this.exame = exame;
+            this.pacienteId = pacienteId;
+        }
+
+        public Tipo getTipo() {
+            return tipo;
+        }
+
+        /** ID a informar ao reconectar; {@code null} nos pulsos. */
+        public String getId() {
+            return id;
+        }
+
+        public ExameDTO getExame() {
+            return exame;
+        }
+
+        public Long getPacienteId() {
+            return pacienteId;
+        }
+
+        boolean atende(Long pacienteId, Long consultaId) {
+            return (pacienteId == null || pacienteId.equals(this.pacienteId))
+                    && (consultaId == null || consultaId.equals(exame.getConsultaId()));
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" +
+                    "tipo = " + tipo + ", " +
+                    "id = " + id + ", " +
+                    "exame = " + exame + ", " +
+                    "pacienteId = " + pacienteId + ")";
+        }
+    }
+
+    private static final Entrega PULSO = new Entrega(Tipo.PULSO, null, null, null);
+
+    private static final class Assinante {
+
+        final Long pacienteId;
+        final Long consultaId;
+        final MultiEmitter<? super Entrega> emitter;
+
+        Assinante(Long pacienteId, Long consultaId, MultiEmitter<? super Entrega> emitter) {
+            this.pacienteId = pacienteId;
+            this.consultaId = consultaId;
+            this.emitter = emitter;
+        }
+    }
+
+    @ConfigProperty(name = "resultados-exames.historico")
+    int historico;
+
+    @ConfigProperty(name = "resultados-exames.buffer-assinante")
+    int bufferAssinante;
+
+    private final String geracao = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<Entrega> recentes = new ArrayDeque<>();
+    private final Set<Assinante> assinantes = new LinkedHashSet<>();
+    private long sequencia;
+
+    void aoRegistrarResultado(@Observes(during = TransactionPhase.AFTER_SUCCESS) ResultadoExameRegistrado evento) {
+        publicar(evento.getExame(), evento.getPacienteId());
+    }
+
+    @Scheduled(every = "${resultados-exames.heartbeat}", delayed = "${resultados-exames.heartbeat}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void pulsar() {
+        List.copyOf(assinantes).forEach(assinante -> assinante.emitter.emit(PULSO));
+    }
+
+    synchronized void publicar(ExameDTO exame, Long pacienteId) {
+        Entrega entrega = new Entrega(Tipo.RESULTADO, geracao + "-" + (++sequencia), exame, pacienteId);
+        recentes.addLast(entrega);
+        if (recentes.size() > historico) {
+            recentes.removeFirst();
+        }
+        for (Assinante assinante : List.copyOf(assinantes)) {
+            if (entrega.atende(assinante.pacienteId, assinante.consultaId)) {
+                assinante.emitter.emit(entrega);
+            }
+        }
+    }
+
+    /**
+     * Resultados gravados a partir de agora, filtrados por paciente e/ou consulta ({@code null} não
+     * filtra), precedidos dos que foram gravados depois de {@code ultimoId}, quando informado.
+     */
+    public Multi<Entrega> assinar(Long pacienteId, Long consultaId, String ultimoId) {
+        return Multi.createFrom().<Entrega>emitter(emitter -> {
+            Assinante assinante = new Assinante(pacienteId, consultaId, emitter);
+            synchronized (this) {
+                perdidos(assinante, ultimoId).forEach(emitter::emit);
+                assinantes.add(assinante);
+            }
+            emitter.onTermination(() -> remover(assinante));
+        }, BackPressureStrategy.ERROR)
+                // O buffer do próprio emitter só sinaliza o estouro depois de esvaziado, o que nunca acontece
+                // se o cliente parou de ler; este cancela o emitter, e com ele a assinatura, na hora
+                .onOverflow().buffer(bufferAssinante)
+                .onFailure().invoke(e -> LOG.infof("Assinatura de resultados de exames encerrada (paciente %s, consulta %s): %s",
+                        pacienteId, consultaId, e.getMessage()))
+                .onFailure().recoverWithCompletion();
+    }
+
+    private List<Entrega> perdidos(Assinante assinante, String ultimoId) {
+        if (ultimoId == null || ultimoId.isBlank()) {
+            return List.of();
+        }
+        Long ultimaSequencia = sequenciaDe(ultimoId.trim());
+        Entrega primeira = recentes.peekFirst();
+        long primeiraGuardada = primeira == null ? sequencia + 1 : sequenciaDe(primeira.id);
+        if (ultimaSequencia == null || ultimaSequencia > sequencia || ultimaSequencia < primeiraGuardada - 1) {
+            return List.of(ressincronizar());
+        }
+        List<Entrega> perdidos = new ArrayList<>();
+        for (Entrega entrega : recentes) {
+            if (sequenciaDe(entrega.id) > ultimaSequencia && entrega.atende(assinante.pacienteId, assinante.consultaId)) {
+                perdidos.add(entrega);
+            }
+        }
+        // Mais do que cabe na fila do assinante: melhor reler pela API do que cair logo ao conectar
+        return perdidos.size() > bufferAssinante ? List.of(ressincronizar()) : perdidos;
+    }
+
+    private Entrega ressincronizar() {
+        return new Entrega(Tipo.RESSINCRONIZAR, geracao + "-" + sequencia, null, null);
+    }
+
+    private Long sequenciaDe(String id) {
+        int separador = id.lastIndexOf('-');
+        if (separador < 0 || !id.substring(0, separador).equals(geracao)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private synchronized void remover(Assinante assinante) {
+        assinantes.remove(assinante);
+    }
+
+    /** Quantos clientes estão conectados ao feed. */
+    public synchronized int getAssinantes() {
+        return assinantes.size();
+    }
+}
@@ -0,0 +1,90 @@
+package com.hospital.service;
+
+import com.hospital.dto.ExameDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.model.enums.StatusExame;
+import com.hospital.model.enums.TipoExame;
+import com.hospital.repository.ExameRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fila de trabalho das bancadas, uma por {@link TipoExame}: cada bancada reserva o próximo exame
+ * solicitado, do mais urgente para o menos urgente, e o tem só para si até concluir, liberar ou deixar a
+ * reserva vencer ({@code fila-exames.reserva}).
+ * <p>
+ * A reserva é um UPDATE condicionado à situação {@link StatusExame#SOLICITADO}: bancadas concorrentes
+ * podem escolher o mesmo exame, mas só uma o leva, e a outra tenta o seguinte entre os primeiros da fila.
+ * Reservas vencidas voltam para a fila na próxima reserva do mesmo tipo.
+ */
+@ApplicationScoped
+public class FilaExames {
+
+    /** Exames lidos do começo da fila a cada tentativa; as bancadas que perdem um seguem para o próximo. */
+    private static final int CANDIDATOS = 8;
+    private static final int TENTATIVAS = 3;
+
+    @Inject
+    ExameRepository exameRepository;
+
+    @Inject
+    ExameService exameService;
+
+    @ConfigProperty(name = "fila-exames.reserva")
+    Duration duracaoReserva;
+
+    /**
+     * Reserva para o responsável o próximo exame do tipo; vazio se a fila estiver vazia.
+     */
+    @Transactional
+    public Optional<ExameDTO> reservar(TipoExame tipo, String responsavel) {
+        LocalDateTime agora = LocalDateTime.now();
+        exameRepository.devolverReservasVencidas(tipo, agora);
+        for (int tentativa = 0; tentativa < TENTATIVAS; tentativa++) {
+            List<Long> candidatos = exameRepository.proximosDaFila(tipo, CANDIDATOS);
+            if (candidatos.isEmpty()) {
+                return Optional.empty();
+            }
+            for (Long id : candidatos) {
+                if (exameRepository.reservar(id, responsavel, agora.plus(duracaoReserva))) {
+                    return Optional.of(exameService.buscarDTOPorId(id));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Estende a reserva por mais {@code fila-exames.reserva} a partir de agora. */
+    @Transactional
+    public ExameDTO renovar(Long id, String responsavel) {
+        return alterarReserva(id, responsavel, StatusExame.AGENDADO, LocalDateTime.now().plus(duracaoReserva));
+    }
+
+    /** Devolve o exame à fila, na mesma posição de antes. */
+    @Transactional
+    public ExameDTO liberar(Long id, String responsavel) {
+        return alterarReserva(id, responsavel, StatusExame.SOLICITADO, null);
+    }
+
+    /** Marca o exame como realizado, aguardando resultado, e encerra a reserva. */
+    @Transactional
+    public ExameDTO concluir(Long id, String responsavel) {
+        return alterarReserva(id, responsavel, StatusExame.REALIZADO, null);
+    }
+
+    private ExameDTO alterarReserva(Long id, String responsavel, StatusExame status, LocalDateTime reservadoAte) {
+        boolean alterado = exameRepository.alterarReserva(id, responsavel, status, reservadoAte);
+        ExameDTO exame = exameService.buscarDTOPorId(id);
+        if (!alterado) {
+            throw new BusinessException("O exame " + id + " não está reservado para " + responsavel);
+        }
+        return exame;
+    }
+}
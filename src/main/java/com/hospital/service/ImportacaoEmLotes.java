@@ -0,0 +1,168 @@
+package com.hospital.service;
+
+import com.hospital.dto.RelatorioImportacaoDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.exception.EntityNotFoundException;
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.repository.ConsultaRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em lotes: lê {@link #TAMANHO_LOTE} linhas por vez, valida cada uma, pergunta ao chamador
+ * quais conflitam com o banco (uma consulta por lote) e grava as restantes em uma transação por lote.
+ * Um lote que falha na gravação (um CPF cadastrado por outra requisição depois da conferência, por
+ * exemplo) não desfaz os anteriores: suas linhas são gravadas de novo uma por transação, e só as que
+ * falham de novo entram no relatório de erros, com o motivo da conferência de conflitos.
+ */
+final class ImportacaoEmLotes {
+
+    static final int TAMANHO_LOTE = 500;
+
+    private static final Logger LOG = Logger.getLogger(ImportacaoEmLotes.class);
+
+    private ImportacaoEmLotes() {
+    }
+
+    /**
+     * @param conflitos recebe as linhas válidas do lote e devolve, por número da linha, o motivo
+     *                  das que já existem no banco ou se repetem no próprio arquivo
+     * @param gravacao  persiste os DTOs aceitos do lote, dentro de uma transação nova
+     */
+    static <D> RelatorioImportacaoDTO executar(Iterator<LinhaImportacao<D>> linhas, Validator validator,
+                                               Function<List<LinhaImportacao<D>>, Map<Integer, String>> conflitos,
+                                               Consumer<List<D>> gravacao) {
+        int total = 0;
+        int importados = 0;
+        List<RelatorioImportacaoDTO.Erro> erros = new ArrayList<>();
+
+        while (linhas.hasNext()) {
+            List<LinhaImportacao<D>> validas = new ArrayList<>();
+            for (int i = 0; i < TAMANHO_LOTE && linhas.hasNext(); i++) {
+                LinhaImportacao<D> linha = linhas.next();
+                total++;
+                String erro = linha.getErro() != null ? linha.getErro() : violacoes(validator, linha.getDto());
+                if (erro == null) {
+                    validas.add(linha);
+                } else {
+                    erros.add(new RelatorioImportacaoDTO.Erro(linha.getNumero(), erro));
+                }
+            }
+            if (validas.isEmpty()) {
+                continue;
+            }
+
+            Map<Integer, String> conflitantes = conflitos.apply(validas);
+            conflitantes.forEach((numero, mensagem) -> erros.add(new RelatorioImportacaoDTO.Erro(numero, mensagem)));
+            List<LinhaImportacao<D>> aceitas = validas.stream()
+                    .filter(linha -> !conflitantes.containsKey(linha.getNumero()))
+                    .toList();
+            if (aceitas.isEmpty()) {
+                continue;
+            }
+
+            try {
+                QuarkusTransaction.requiringNew()
+                        .run(() -> gravacao.accept(aceitas.stream().map(LinhaImportacao::getDto).toList()));
+                importados += aceitas.size();
+            } catch (RuntimeException e) {
+                LOG.debugf(e, "Lote de %d linha(s) não gravado; gravando uma linha por vez", aceitas.size());
+                for (LinhaImportacao<D> linha : aceitas) {
+                    String erro = gravarLinha(linha, conflitos, gravacao);
+                    if (erro == null) {
+                        importados++;
+                    } else {
+                        erros.add(new RelatorioImportacaoDTO.Erro(linha.getNumero(), erro));
+                    }
+                }
+            }
+        }
+
+        erros.sort(Comparator.comparingInt(RelatorioImportacaoDTO.Erro::getLinha));
+        return new RelatorioImportacaoDTO(total, importados, erros);
+    }
+
+    /**
+     * Grava a linha sozinha, numa transação nova.
+     *
+     * @return {@code null} se a linha foi gravada, senão o motivo: o da conferência de conflitos, se ela
+     * agora acusa a linha, ou {@link #motivo} da falha
+     */
+    private static <D> String gravarLinha(LinhaImportacao<D> linha,
+                                          Function<List<LinhaImportacao<D>>, Map<Integer, String>> conflitos,
+                                          Consumer<List<D>> gravacao) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> gravacao.accept(List.of(linha.getDto())));
+            return null;
+        } catch (RuntimeException e) {
+            String conflito = conflitos.apply(List.of(linha)).get(linha.getNumero());
+            return conflito != null ? conflito : motivo(e);
+        }
+    }
+
+    /**
+     * Motivo de uma falha de gravação para o cliente, sem o texto do driver JDBC (nome da constraint, SQL):
+     * a mensagem das exceções de domínio, uma mensagem fixa para violações de constraint do banco e, para
+     * o resto, uma mensagem genérica, com a exceção no log.
+     */
+    static String motivo(RuntimeException erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof BusinessException || causa instanceof EntityNotFoundException) {
+                return causa.getMessage();
+            }
+            if (causa instanceof ConstraintViolationException) {
+                return "O registro conflita com outro gravado ao mesmo tempo";
+            }
+        }
+        LOG.warn("Falha ao gravar registro importado", erro);
+        return "Não foi possível gravar o registro";
+    }
+
+    /**
+     * Conflitos das linhas que só podem ser gravadas para uma consulta realizada (exames e receitas):
+     * por número da linha, o motivo das que citam uma consulta inexistente ou ainda não realizada, com
+     * uma consulta ao banco para o lote inteiro.
+     */
+    static <D> Map<Integer, String> consultasNaoRealizadas(List<LinhaImportacao<D>> linhas, Function<D, Long> consultaId,
+                                                           ConsultaRepository consultaRepository, String naoRealizada) {
+        Map<Long, StatusConsulta> status = consultaRepository.listarStatus(linhas.stream()
+                .map(linha -> consultaId.apply(linha.getDto()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+        Map<Integer, String> conflitos = new HashMap<>();
+        for (LinhaImportacao<D> linha : linhas) {
+            Long id = consultaId.apply(linha.getDto());
+            if (id == null) {
+                conflitos.put(linha.getNumero(), "A consulta é obrigatória");
+            } else if (!status.containsKey(id)) {
+                conflitos.put(linha.getNumero(), new EntityNotFoundException("Consulta", id).getMessage());
+            } else if (status.get(id) != StatusConsulta.REALIZADA) {
+                conflitos.put(linha.getNumero(), naoRealizada);
+            }
+        }
+        return conflitos;
+    }
+
+    static <D> String violacoes(Validator validator, D dto) {
+        String mensagens = validator.validate(dto).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return mensagens.isEmpty() ? null : mensagens;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hospital.service;
+
+import com.hospital.dto.MedicoDTO;
+import com.hospital.dto.PacienteDTO;
+import com.hospital.event.MedicoAlterado;
+import com.hospital.event.PacienteAlterado;
+import com.hospital.exception.BusinessException;
+import com.hospital.util.Cursor;
+import com.hospital.util.IndiceTrigramas;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Índices de trigramas dos nomes de pacientes e médicos, usados pelas buscas {@code /busca}.
+ * <p>
+ * Carregados pelos serviços na subida da aplicação e mantidos pelos eventos de alteração depois do
+ * commit, então uma busca nunca vê um cadastro que acabou sendo desfeito. Eventos de transações diferentes
+ * podem chegar fora de ordem: o índice guarda a versão de cada cadastro e ignora versões mais antigas e
+ * alterações de cadastros já excluídos.
+ */
+@ApplicationScoped
+public class IndiceBuscaPorNome {
+
+    private final IndiceTrigramas<PacienteDTO> pacientes = new IndiceTrigramas<>();
+    private final IndiceTrigramas<MedicoDTO> medicos = new IndiceTrigramas<>();
+
+    public List<IndiceTrigramas.Acerto<PacienteDTO>> buscarPacientes(String nome, Cursor apos, int quantidade) {
+        return pacientes.buscar(termo(nome), apos, quantidade);
+    }
+
+    public List<IndiceTrigramas.Acerto<MedicoDTO>> buscarMedicos(String nome, Cursor apos, int quantidade) {
+        return medicos.buscar(termo(nome), apos, quantidade);
+    }
+
+    /** Um termo em branco casaria com todos os nomes do índice. */
+    private static String termo(String nome) {
+        if (IndiceTrigramas.normalizar(nome).isEmpty()) {
+            throw new BusinessException("O nome para a busca é obrigatório");
+        }
+        return nome;
+    }
+
+    void indexarPacientes(Stream<PacienteDTO> todos) {
+        todos.forEach(paciente -> pacientes.indexar(paciente.getId(), paciente.getVersao(), paciente.getNome(), paciente));
+    }
+
+    void indexarMedicos(Stream<MedicoDTO> todos) {
+        todos.forEach(medico -> medicos.indexar(medico.getId(), medico.getVersao(), medico.getNome(), medico));
+    }
+
+    void aoAlterarPaciente(@Observes(during = TransactionPhase.AFTER_SUCCESS) PacienteAlterado evento) {
+        if (evento.isExclusao()) {
+            pacientes.remover(evento.getId());
+        } else {
+            PacienteDTO paciente = evento.getAtual();
+            pacientes.indexar(paciente.getId(), paciente.getVersao(), paciente.getNome(), paciente);
+        }
+    }
+
+    void aoAlterarMedico(@Observes(during = TransactionPhase.AFTER_SUCCESS) MedicoAlterado evento) {
+        if (evento.isExclusao()) {
+            medicos.remover(evento.getId());
+        } else {
+            MedicoDTO medico = evento.getAtual();
+            medicos.indexar(medico.getId(), medico.getVersao(), medico.getNome(), medico);
+        }
+    }
+}
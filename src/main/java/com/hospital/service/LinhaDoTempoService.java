@@ -0,0 +1,130 @@
+package com.hospital.service;
+
+import com.hospital.dto.ItemLinhaDoTempoDTO;
+import com.hospital.dto.ItemLinhaDoTempoDTO.Tipo;
+import com.hospital.dto.PaginaDTO;
+import com.hospital.exception.EntityNotFoundException;
+import com.hospital.repository.ConsultaRepository;
+import com.hospital.repository.ExameRepository;
+import com.hospital.repository.PacienteRepository;
+import com.hospital.repository.ProntuarioRepository;
+import com.hospital.repository.ReceitaRepository;
+import com.hospital.util.Cursor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Linha do tempo do paciente: consultas, prontuários, receitas e exames numa única lista, do mais
+ * recente ao mais antigo, paginada por cursor.
+ * <p>
+ * Cada tipo é lido por uma consulta paginada por chave que traz no máximo {@code limite + 1} registros
+ * projetados direto no DTO, então uma página custa sempre as mesmas quatro consultas (mais a que
+ * confirma o paciente), independentes entre si e que podem rodar em paralelo. A ordem é
+ * {@code (data, tipo, id)} decrescente; o cursor guarda as três partes, e cada tipo só precisa de um
+ * cursor próprio de {@code (data, id)} ajustado pela posição do seu tipo em relação ao do cursor.
+ */
+@ApplicationScoped
+public class LinhaDoTempoService {
+
+    private static final Comparator<ItemLinhaDoTempoDTO> MAIS_RECENTE_PRIMEIRO =
+            Comparator.comparing(ItemLinhaDoTempoDTO::getData)
+                    .thenComparing(ItemLinhaDoTempoDTO::getTipo)
+                    .thenComparing(ItemLinhaDoTempoDTO::getId)
+                    .reversed();
+
+    @Inject
+    PacienteRepository pacienteRepository;
+
+    @Inject
+    ConsultaRepository consultaRepository;
+
+    @Inject
+    ProntuarioRepository prontuarioRepository;
+
+    @Inject
+    ReceitaRepository receitaRepository;
+
+    @Inject
+    ExameRepository exameRepository;
+
+    public void verificarPaciente(Long pacienteId) {
+        if (pacienteRepository.count("id = ?1", pacienteId) == 0) {
+            throw new EntityNotFoundException("Paciente", pacienteId);
+        }
+    }
+
+    public List<ItemLinhaDoTempoDTO> listarConsultas(Long pacienteId, Cursor cursor, int limite) {
+        return consultaRepository.listarPorPacienteMaisRecentes(pacienteId, cursorDoTipo(cursor, Tipo.CONSULTA), limite)
+                .stream()
+                .map(consulta -> new ItemLinhaDoTempoDTO(Tipo.CONSULTA, consulta.getId(), consulta.getDataHora(),
+                        consulta.getId(), consulta))
+                .toList();
+    }
+
+    public List<ItemLinhaDoTempoDTO> listarProntuarios(Long pacienteId, Cursor cursor, int limite) {
+        return prontuarioRepository.listarPorPacienteId(pacienteId, cursorDoTipo(cursor, Tipo.PRONTUARIO), limite)
+                .stream()
+                .map(prontuario -> new ItemLinhaDoTempoDTO(Tipo.PRONTUARIO, prontuario.getId(),
+                        prontuario.getDataCriacao(), prontuario.getConsultaId(), prontuario))
+                .toList();
+    }
+
+    public List<ItemLinhaDoTempoDTO> listarReceitas(Long pacienteId, Cursor cursor, int limite) {
+        return receitaRepository.listarPorPacienteIdMaisRecentes(pacienteId, cursorDoTipo(cursor, Tipo.RECEITA), limite)
+                .stream()
+                .map(receita -> new ItemLinhaDoTempoDTO(Tipo.RECEITA, receita.getId(), receita.getDataEmissao(),
+                        receita.getConsultaId(), receita))
+                .toList();
+    }
+
+    public List<ItemLinhaDoTempoDTO> listarExames(Long pacienteId, Cursor cursor, int limite) {
+        return exameRepository.listarPorPacienteId(pacienteId, cursorDoTipo(cursor, Tipo.EXAME), limite)
+                .stream()
+                .map(exame -> new ItemLinhaDoTempoDTO(Tipo.EXAME, exame.getId(), exame.getDataSolicitacao(),
+                        exame.getConsultaId(), exame))
+                .toList();
+    }
+
+    /**
+     * Junta as listas de cada tipo (cada uma com até {@code limite + 1} itens, já depois do cursor) numa
+     * página: os {@code limite + 1} mais recentes do conjunto estão necessariamente entre eles.
+     */
+    public PaginaDTO<ItemLinhaDoTempoDTO> juntar(Collection<List<ItemLinhaDoTempoDTO>> porTipo, int limite) {
+        List<ItemLinhaDoTempoDTO> itens = porTipo.stream()
+                .flatMap(List::stream)
+                .sorted(MAIS_RECENTE_PRIMEIRO)
+                .limit(limite + 1L)
+                .toList();
+        return PaginaDTO.de(itens, limite, item -> new Cursor(item.getTipo() + "/" + item.getData(), item.getId()));
+    }
+
+    /**
+     * Cursor de {@code (data, id)} para as consultas de um tipo: no mesmo instante do cursor da linha
+     * do tempo vêm depois dele todos os itens dos tipos anteriores, nenhum dos posteriores e, do
+     * próprio tipo, os de ID menor.
+     */
+    private static Cursor cursorDoTipo(Cursor cursor, Tipo tipo) {
+        if (cursor == null) {
+            return null;
+        }
+        Tipo tipoDoCursor = cursor.getChave(chave -> Tipo.valueOf(parteDaChave(chave, 0)));
+        LocalDateTime data = cursor.getChave(chave -> LocalDateTime.parse(parteDaChave(chave, 1)));
+        int comparacao = tipo.compareTo(tipoDoCursor);
+        Long id = comparacao < 0 ? Long.MAX_VALUE : comparacao > 0 ? Long.MIN_VALUE : cursor.getId();
+        return Cursor.de(data, id);
+    }
+
+    /** Tipo (0) ou data (1) da chave {@code TIPO/data} do cursor da linha do tempo. */
+    private static String parteDaChave(String chave, int parte) {
+        String[] partes = chave.split("/", 2);
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Cursor da linha do tempo sem tipo: " + chave);
+        }
+        return partes[parte];
+    }
+}
@@ -0,0 +1,38 @@
+package com.hospital.service;
+
+/**
+ * Uma linha lida do arquivo de importação: o DTO convertido ou o erro de leitura/conversão.
+ * {@code numero} é a linha no arquivo original, usada no relatório de erros.
+ */
+public final class LinhaImportacao<T> {
+
+    private final int numero;
+    private final T dto;
+    private final String erro;
+
+    private LinhaImportacao(int numero, T dto, String erro) {
+        this.numero = numero;
+        this.dto = dto;
+        this.erro = erro;
+    }
+
+    public static <T> LinhaImportacao<T> valida(int numero, T dto) {
+        return new LinhaImportacao<>(numero, dto, null);
+    }
+
+    public static <T> LinhaImportacao<T> invalida(int numero, String erro) {
+        return new LinhaImportacao<>(numero, null, erro);
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    public T getDto() {
+        return dto;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+}
@@ -0,0 +1,108 @@
+package com.hospital.service;
+
+import com.hospital.event.MedicamentoCadastrado;
+import com.hospital.exception.BusinessException;
+import com.hospital.model.Medicamento;
+import com.hospital.repository.MedicamentoRepository;
+import com.hospital.util.IndiceTrigramas;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Dicionário de medicamentos prescritos e seu índice de trigramas em memória, que resolve um trecho
+ * de nome para os IDs dos medicamentos antes de consultar as receitas.
+ */
+@ApplicationScoped
+public class MedicamentoService {
+
+    static final int TAMANHO_MINIMO_TERMO = 3;
+    static final int MAXIMO_MEDICAMENTOS = 1000;
+
+    @Inject
+    MedicamentoRepository medicamentoRepository;
+
+    @Inject
+    Event<MedicamentoCadastrado> medicamentoCadastrado;
+
+    private final IndiceTrigramas<String> indice = new IndiceTrigramas<>();
+
+    void indexarAoIniciar(@Observes StartupEvent evento) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            try (Stream<Medicamento> medicamentos = medicamentoRepository.streamTodos()) {
+                medicamentos.forEach(medicamento -> indice.indexar(medicamento.id, medicamento.getNome(), medicamento.getNome()));
+            }
+        });
+    }
+
+    /**
+     * Entrada do dicionário para o nome prescrito, criada na primeira receita que o usa.
+     * <p>
+     * A entrada nova é gravada numa transação própria: se duas receitas com o mesmo nome inédito forem
+     * emitidas ao mesmo tempo, a que perder a corrida viola {@code uk_medicamentos_nome_normalizado} só
+     * nessa transação e relê a entrada gravada pela outra, sem desfazer a receita.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Medicamento resolver(String nome) {
+        String nomeNormalizado = IndiceTrigramas.normalizar(nome);
+        Optional<Medicamento> existente = medicamentoRepository.buscarPorNomeNormalizado(nomeNormalizado);
+        if (existente.isPresent()) {
+            return existente.get();
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                Medicamento medicamento = new Medicamento();
+                medicamento.setNome(nome.trim());
+                medicamento.setNomeNormalizado(nomeNormalizado);
+                medicamentoRepository.persist(medicamento);
+                medicamentoRepository.flush();
+                medicamentoCadastrado.fire(new MedicamentoCadastrado(medicamento.id, medicamento.getNome()));
+            });
+        } catch (RuntimeException e) {
+            if (!violouUnicidade(e)) {
+                throw e;
+            }
+        }
+        return medicamentoRepository.buscarPorNomeNormalizado(nomeNormalizado)
+                .orElseThrow(() -> new IllegalStateException("Medicamento não encontrado após o cadastro: " + nomeNormalizado));
+    }
+
+    private static boolean violouUnicidade(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * IDs dos medicamentos cujo nome contém o termo, ignorando acentos e maiúsculas, sem consultar o banco.
+     * O termo precisa de ao menos {@value #TAMANHO_MINIMO_TERMO} caracteres, para usar os trigramas em vez
+     * de percorrer o dicionário inteiro, e só os {@value #MAXIMO_MEDICAMENTOS} mais relevantes entram na
+     * consulta das receitas.
+     */
+    public List<Long> buscarIds(String termo) {
+        if (IndiceTrigramas.normalizar(termo).length() < TAMANHO_MINIMO_TERMO) {
+            throw new BusinessException("O nome do medicamento para a busca deve ter ao menos "
+                    + TAMANHO_MINIMO_TERMO + " caracteres");
+        }
+        return indice.buscar(termo, null, MAXIMO_MEDICAMENTOS).stream()
+                .map(IndiceTrigramas.Acerto::getId)
+                .toList();
+    }
+
+    void aoCadastrar(@Observes(during = TransactionPhase.AFTER_SUCCESS) MedicamentoCadastrado evento) {
+        indice.indexar(evento.getId(), evento.getNome(), evento.getNome());
+    }
+}
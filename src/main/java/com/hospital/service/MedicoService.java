@@ -1,18 +1,31 @@
 package com.hospital.service;
 
 import com.hospital.dto.MedicoDTO;
+import com.hospital.dto.PaginaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
+import com.hospital.event.MedicoAlterado;
 import com.hospital.model.Especialidade;
 import com.hospital.model.Medico;
 import com.hospital.repository.EspecialidadeRepository;
 import com.hospital.repository.MedicoRepository;
+import com.hospital.util.Cursor;
+import com.hospital.util.IndiceTrigramas;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -26,8 +39,25 @@ public class MedicoService {
     @Inject
     EspecialidadeRepository especialidadeRepository;
 
-    public List<Medico> listarTodos() {
-        return medicoRepository.listAll();
+    @Inject
+    Validator validator;
+
+    @Inject
+    CacheBuscaPorDocumento cacheBuscaPorDocumento;
+
+    @Inject
+    IndiceBuscaPorNome indiceBuscaPorNome;
+
+    @Inject
+    Event<MedicoAlterado> medicoAlterado;
+
+    void indexarAoIniciar(@Observes StartupEvent evento) {
+        QuarkusTransaction.requiringNew()
+                .run(() -> indiceBuscaPorNome.indexarMedicos(toDTOList(medicoRepository.listAll()).stream()));
+    }
+
+    public List<MedicoDTO> listarTodos() {
+        return toDTOList(medicoRepository.listAll());
     }
 
     public Medico buscarPorId(Long id) {
@@ -35,12 +65,40 @@ public class MedicoService {
                 .orElseThrow(() -> new EntityNotFoundException("Médico", id));
     }
 
-    public List<Medico> buscarPorNome(String nome) {
-        return medicoRepository.buscarPorNome(nome);
+    public Optional<MedicoDTO> buscarPorCrm(String crm) {
+        return cacheBuscaPorDocumento.medico(crm, chave -> medicoRepository.buscarPorCrm(chave).map(this::toDTO));
+    }
+
+    /**
+     * Os {@code limite} médicos mais relevantes cujo nome contém o termo, ignorando acentos e
+     * maiúsculas. Respondida pelo índice em memória, sem consultar o banco.
+     */
+    public List<MedicoDTO> buscarPorNome(String nome, int limite) {
+        return indiceBuscaPorNome.buscarMedicos(nome, null, limite).stream()
+                .map(IndiceTrigramas.Acerto::getValor)
+                .toList();
     }
 
-    public List<Medico> listarPorEspecialidade(Long idEspecialidade) {
-        return medicoRepository.listarPorEspecialidade(idEspecialidade);
+    public List<MedicoDTO> listarPorEspecialidade(Long idEspecialidade) {
+        return toDTOList(medicoRepository.listarPorEspecialidade(idEspecialidade));
+    }
+
+    public PaginaDTO<MedicoDTO> listarTodos(Cursor cursor, int limite) {
+        return pagina(medicoRepository.listarTodos(cursor, limite), limite);
+    }
+
+    public PaginaDTO<MedicoDTO> buscarPorNome(String nome, Cursor cursor, int limite) {
+        return PaginaDTO.de(indiceBuscaPorNome.buscarMedicos(nome, cursor, limite + 1), limite,
+                        IndiceTrigramas.Acerto::getCursor)
+                .map(IndiceTrigramas.Acerto::getValor);
+    }
+
+    public PaginaDTO<MedicoDTO> listarPorEspecialidade(Long idEspecialidade, Cursor cursor, int limite) {
+        return pagina(medicoRepository.listarPorEspecialidade(idEspecialidade, cursor, limite), limite);
+    }
+
+    private PaginaDTO<MedicoDTO> pagina(List<Medico> medicos, int limite) {
+        return PaginaDTO.de(toDTOList(medicos), limite, medico -> Cursor.de(medico.getNome(), medico.getId()));
     }
 
     @Transactional
@@ -50,27 +108,88 @@ public class MedicoService {
             throw new BusinessException("Médico já cadastrado com o CRM: " + medicoDTO.getCrm());
         }
 
-        Medico medico = new Medico();
-        medico.setNome(medicoDTO.getNome());
-        medico.setCrm(medicoDTO.getCrm());
-        medico.setEmail(medicoDTO.getEmail());
-        medico.setTelefone(medicoDTO.getTelefone());
-
         Set<Especialidade> especialidades = new HashSet<>();
         for (Long especialidadeId : medicoDTO.getEspecialidadeIds()) {
             Especialidade especialidade = especialidadeRepository.findByIdOptional(especialidadeId)
                     .orElseThrow(() -> new EntityNotFoundException("Especialidade", especialidadeId));
             especialidades.add(especialidade);
         }
-        medico.setEspecialidades(especialidades);
 
+        Medico medico = novoMedico(medicoDTO, especialidades);
         medicoRepository.persist(medico);
+        medicoAlterado.fire(MedicoAlterado.criado(toDTO(medico)));
+        return medico;
+    }
+
+    /**
+     * Importa médicos em lotes. Linhas inválidas, com CRM ou email já em uso (no banco ou antes no
+     * próprio arquivo) ou com especialidade inexistente são rejeitadas individualmente; as demais são
+     * gravadas em lote, um commit por lote.
+     */
+    public RelatorioImportacaoDTO importar(Iterator<LinhaImportacao<MedicoDTO>> linhas) {
+        return ImportacaoEmLotes.executar(linhas, validator, this::conflitos,
+                medicos -> medicos.forEach(medicoDTO -> {
+                    Medico medico = novoMedico(medicoDTO, especialidadeIds(medicoDTO).stream()
+                            .map(especialidadeRepository::referencia)
+                            .collect(Collectors.toSet()));
+                    medicoRepository.persist(medico);
+                    medicoAlterado.fire(MedicoAlterado.criado(toDTO(medico)));
+                }));
+    }
+
+    private Map<Integer, String> conflitos(List<LinhaImportacao<MedicoDTO>> linhas) {
+        Set<String> emUso = medicoRepository.listarCrmsEEmailsExistentes(
+                linhas.stream().map(linha -> linha.getDto().getCrm()).toList(),
+                linhas.stream().map(linha -> linha.getDto().getEmail()).toList());
+        Set<Long> especialidadesExistentes = especialidadeRepository.listarIdsExistentes(linhas.stream()
+                .flatMap(linha -> especialidadeIds(linha.getDto()).stream())
+                .collect(Collectors.toSet()));
+
+        Set<String> noArquivo = new HashSet<>();
+        Map<Integer, String> conflitos = new HashMap<>();
+        for (LinhaImportacao<MedicoDTO> linha : linhas) {
+            MedicoDTO medicoDTO = linha.getDto();
+            Long especialidadeInexistente = especialidadeIds(medicoDTO).stream()
+                    .filter(id -> !especialidadesExistentes.contains(id))
+                    .findFirst()
+                    .orElse(null);
+            if (emUso.contains(medicoDTO.getCrm())) {
+                conflitos.put(linha.getNumero(), "Médico já cadastrado com o CRM: " + medicoDTO.getCrm());
+            } else if (emUso.contains(medicoDTO.getEmail())) {
+                conflitos.put(linha.getNumero(), "Médico já cadastrado com o email: " + medicoDTO.getEmail());
+            } else if (especialidadeInexistente != null) {
+                conflitos.put(linha.getNumero(), "Especialidade não encontrado(a) com ID: " + especialidadeInexistente);
+            } else if (!noArquivo.add(medicoDTO.getCrm())) {
+                conflitos.put(linha.getNumero(), "CRM repetido no arquivo: " + medicoDTO.getCrm());
+            } else if (!noArquivo.add(medicoDTO.getEmail())) {
+                conflitos.put(linha.getNumero(), "Email repetido no arquivo: " + medicoDTO.getEmail());
+            }
+        }
+        return conflitos;
+    }
+
+    private static Set<Long> especialidadeIds(MedicoDTO medicoDTO) {
+        return medicoDTO.getEspecialidadeIds() != null ? medicoDTO.getEspecialidadeIds() : Set.of();
+    }
+
+    private Medico novoMedico(MedicoDTO medicoDTO, Set<Especialidade> especialidades) {
+        Medico medico = new Medico();
+        medico.setNome(medicoDTO.getNome());
+        medico.setCrm(medicoDTO.getCrm());
+        medico.setEmail(medicoDTO.getEmail());
+        medico.setTelefone(medicoDTO.getTelefone());
+        medico.setEspecialidades(especialidades);
         return medico;
     }
 
     @Transactional
-    public Medico atualizar(Long id, MedicoDTO medicoDTO) {
+    public Medico atualizar(Long id, MedicoDTO medicoDTO, Long versaoEsperada) {
         Medico medico = buscarPorId(id);
+        Versoes.verificar("Médico", medico, versaoEsperada);
+        String crmAnterior = medico.getCrm();
+        Set<Long> especialidadeIdsAnteriores = medico.getEspecialidades().stream()
+                .map(especialidade -> especialidade.id)
+                .collect(Collectors.toSet());
 
         if (!medico.getCrm().equals(medicoDTO.getCrm())) {
             Optional<Medico> existingMedico = medicoRepository.buscarPorCrm(medicoDTO.getCrm());
@@ -93,16 +212,21 @@ public class MedicoService {
         }
         medico.setEspecialidades(especialidades);
 
+        // O Hibernate só incrementa a versão no flush; o DTO do evento é guardado pelo índice de busca
+        medicoRepository.flush();
+        medicoAlterado.fire(MedicoAlterado.atualizado(crmAnterior, especialidadeIdsAnteriores, toDTO(medico)));
         return medico;
     }
 
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Medico medico = buscarPorId(id);
+        Versoes.verificar("Médico", medico, versaoEsperada);
         if (!medico.getConsultas().isEmpty()) {
             throw new BusinessException("Não é possível excluir o médico pois ele possui consultas associadas");
         }
         medicoRepository.delete(medico);
+        medicoAlterado.fire(MedicoAlterado.excluido(medico.id, medico.getCrm()));
     }
 
     // Métodos auxiliares
@@ -116,7 +240,27 @@ public class MedicoService {
                 medico.getTelefone(),
                 medico.getEspecialidades().stream()
                         .map(e -> e.id)
-                        .collect(Collectors.toSet())
+                        .collect(Collectors.toSet()),
+                medico.getVersao()
         );
     }
+
+    /**
+     * Converte uma listagem inteira buscando as especialidades de todos os médicos de uma vez,
+     * então o número de instruções SQL não depende de quantos médicos são retornados.
+     */
+    public List<MedicoDTO> toDTOList(List<Medico> medicos) {
+        Map<Long, Set<Long>> especialidadeIds = medicoRepository.listarEspecialidadeIds(
+                medicos.stream().map(medico -> medico.id).toList());
+        return medicos.stream()
+                .map(medico -> new MedicoDTO(
+                        medico.id,
+                        medico.getNome(),
+                        medico.getCrm(),
+                        medico.getEmail(),
+                        medico.getTelefone(),
+                        especialidadeIds.getOrDefault(medico.id, Set.of()),
+                        medico.getVersao()))
+                .toList();
+    }
 }
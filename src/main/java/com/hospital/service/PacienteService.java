@@ -1,16 +1,32 @@
 package com.hospital.service;
 
 import com.hospital.dto.PacienteDTO;
+import com.hospital.dto.PaginaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
+import com.hospital.event.PacienteAlterado;
 import com.hospital.model.Paciente;
 import com.hospital.repository.PacienteRepository;
+import com.hospital.util.Cursor;
+import com.hospital.util.IndiceTrigramas;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class PacienteService {
@@ -18,6 +34,26 @@ public class PacienteService {
     @Inject
     PacienteRepository pacienteRepository;
 
+    @Inject
+    Validator validator;
+
+    @Inject
+    CacheBuscaPorDocumento cacheBuscaPorDocumento;
+
+    @Inject
+    IndiceBuscaPorNome indiceBuscaPorNome;
+
+    @Inject
+    Event<PacienteAlterado> pacienteAlterado;
+
+    void indexarAoIniciar(@Observes StartupEvent evento) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            try (Stream<PacienteDTO> pacientes = pacienteRepository.streamTodos()) {
+                indiceBuscaPorNome.indexarPacientes(pacientes);
+            }
+        });
+    }
+
     public List<Paciente> listarTodos() {
         return pacienteRepository.listAll();
     }
@@ -27,12 +63,32 @@ public class PacienteService {
                 .orElseThrow(() -> new EntityNotFoundException("Paciente", id));
     }
 
-    public List<Paciente> buscarPorNome(String nome) {
-        return pacienteRepository.buscarPorNome(nome);
+    /**
+     * Os {@code limite} pacientes mais relevantes cujo nome contém o termo, ignorando acentos e
+     * maiúsculas. Respondida pelo índice em memória, sem consultar o banco.
+     */
+    public List<PacienteDTO> buscarPorNome(String nome, int limite) {
+        return indiceBuscaPorNome.buscarPacientes(nome, null, limite).stream()
+                .map(IndiceTrigramas.Acerto::getValor)
+                .toList();
+    }
+
+    public PaginaDTO<Paciente> listarTodos(Cursor cursor, int limite) {
+        return pagina(pacienteRepository.listarTodos(cursor, limite), limite);
+    }
+
+    public PaginaDTO<PacienteDTO> buscarPorNome(String nome, Cursor cursor, int limite) {
+        return PaginaDTO.de(indiceBuscaPorNome.buscarPacientes(nome, cursor, limite + 1), limite,
+                        IndiceTrigramas.Acerto::getCursor)
+                .map(IndiceTrigramas.Acerto::getValor);
     }
 
-    public Optional<Paciente> buscarPorCpf(String cpf) {
-        return pacienteRepository.buscarPorCpf(cpf);
+    private PaginaDTO<Paciente> pagina(List<Paciente> pacientes, int limite) {
+        return PaginaDTO.de(pacientes, limite, paciente -> Cursor.de(paciente.getNome(), paciente.id));
+    }
+
+    public Optional<PacienteDTO> buscarPorCpf(String cpf) {
+        return cacheBuscaPorDocumento.paciente(cpf, chave -> pacienteRepository.buscarPorCpf(chave).map(this::toDTO));
     }
 
     @Transactional
@@ -42,6 +98,42 @@ public class PacienteService {
             throw new EntityNotFoundException("Paciente já cadastrado com o CPF: " + pacienteDTO.getCpf());
         }
 
+        Paciente paciente = novoPaciente(pacienteDTO);
+        pacienteRepository.persist(paciente);
+        pacienteAlterado.fire(PacienteAlterado.criado(toDTO(paciente)));
+        return paciente;
+    }
+
+    /**
+     * Importa pacientes em lotes. Linhas inválidas ou com CPF já cadastrado (no banco ou antes no
+     * próprio arquivo) são rejeitadas individualmente; as demais são gravadas em lote, um commit por lote.
+     */
+    public RelatorioImportacaoDTO importar(Iterator<LinhaImportacao<PacienteDTO>> linhas) {
+        return ImportacaoEmLotes.executar(linhas, validator, this::conflitosDeCpf,
+                pacientes -> pacientes.forEach(pacienteDTO -> {
+                    Paciente paciente = novoPaciente(pacienteDTO);
+                    pacienteRepository.persist(paciente);
+                    pacienteAlterado.fire(PacienteAlterado.criado(toDTO(paciente)));
+                }));
+    }
+
+    private Map<Integer, String> conflitosDeCpf(List<LinhaImportacao<PacienteDTO>> linhas) {
+        Set<String> existentes = pacienteRepository.listarCpfsExistentes(
+                linhas.stream().map(linha -> linha.getDto().getCpf()).toList());
+        Set<String> noArquivo = new HashSet<>();
+        Map<Integer, String> conflitos = new HashMap<>();
+        for (LinhaImportacao<PacienteDTO> linha : linhas) {
+            String cpf = linha.getDto().getCpf();
+            if (existentes.contains(cpf)) {
+                conflitos.put(linha.getNumero(), "Paciente já cadastrado com o CPF: " + cpf);
+            } else if (!noArquivo.add(cpf)) {
+                conflitos.put(linha.getNumero(), "CPF repetido no arquivo: " + cpf);
+            }
+        }
+        return conflitos;
+    }
+
+    private Paciente novoPaciente(PacienteDTO pacienteDTO) {
         Paciente paciente = new Paciente();
         paciente.setNome(pacienteDTO.getNome());
         paciente.setCpf(pacienteDTO.getCpf());
@@ -49,15 +141,14 @@ public class PacienteService {
         paciente.setTelefone(pacienteDTO.getTelefone());
         paciente.setDataNascimento(pacienteDTO.getDataNascimento());
         paciente.setEndereco(pacienteDTO.getEndereco());
-
-
-        pacienteRepository.persist(paciente);
         return paciente;
     }
 
     @Transactional
-    public Paciente atualizar(Long id, PacienteDTO pacienteDTO) {
+    public Paciente atualizar(Long id, PacienteDTO pacienteDTO, Long versaoEsperada) {
         Paciente paciente = buscarPorId(id);
+        Versoes.verificar("Paciente", paciente, versaoEsperada);
+        String cpfAnterior = paciente.getCpf();
 
         if (!paciente.getCpf().equals(pacienteDTO.getCpf())) {
             Optional<Paciente> existingPaciente = pacienteRepository.buscarPorCpf(pacienteDTO.getCpf());
@@ -73,16 +164,21 @@ public class PacienteService {
         paciente.setTelefone(pacienteDTO.getTelefone());
         paciente.setEndereco(pacienteDTO.getEndereco());
 
+        // O Hibernate só incrementa a versão no flush; o DTO do evento é guardado pelo índice de busca
+        pacienteRepository.flush();
+        pacienteAlterado.fire(PacienteAlterado.atualizado(cpfAnterior, toDTO(paciente)));
         return paciente;
     }
 
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Paciente paciente = buscarPorId(id);
+        Versoes.verificar("Paciente", paciente, versaoEsperada);
         if (!paciente.getConsultas().isEmpty()) {
             throw new BusinessException("Não é possível excluir o paciente pois ele possui consultas associadas");
         }
         pacienteRepository.delete(paciente);
+        pacienteAlterado.fire(PacienteAlterado.excluido(paciente.id, paciente.getCpf()));
     }
 
     public PacienteDTO toDTO(Paciente paciente) {
@@ -93,7 +189,8 @@ public class PacienteService {
                 paciente.getDataNascimento(),
                 paciente.getEmail(),
                 paciente.getTelefone(),
-                paciente.getEndereco()
+                paciente.getEndereco(),
+                paciente.getVersao()
         );
     }
 
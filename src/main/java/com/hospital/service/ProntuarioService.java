@@ -1,5 +1,6 @@
 package com.hospital.service;
 
+import com.hospital.dto.PaginaDTO;
 import com.hospital.dto.ProntuarioDTO;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
@@ -8,13 +9,16 @@ import com.hospital.model.Prontuario;
 import com.hospital.model.enums.StatusConsulta;
 import com.hospital.repository.ConsultaRepository;
 import com.hospital.repository.ProntuarioRepository;
+import com.hospital.util.Cursor;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ProntuarioService {
@@ -25,8 +29,8 @@ public class ProntuarioService {
     @Inject
     ConsultaRepository consultaRepository;
 
-    public List<Prontuario> listarTodos() {
-        return prontuarioRepository.listAll();
+    public List<ProntuarioDTO> listarTodos() {
+        return prontuarioRepository.listarTodos();
     }
 
     public Prontuario buscarPorId(Long id) {
@@ -34,31 +38,54 @@ public class ProntuarioService {
                 .orElseThrow(() -> new EntityNotFoundException("Prontuário", id));
     }
 
-    public Prontuario buscarPorConsultaId(Long consultaId) {
-        return prontuarioRepository.buscarPorConsultaId(consultaId)
+    public ProntuarioDTO buscarDTOPorId(Long id) {
+        return prontuarioRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Prontuário", id));
+    }
+
+    public ProntuarioDTO buscarPorConsultaId(Long consultaId) {
+        return prontuarioRepository.buscarDTOPorConsultaId(consultaId)
                 .orElseThrow(() -> new EntityNotFoundException("Prontuário para a consulta com ID: " + consultaId));
     }
 
-    public List<Prontuario> listarPorPacienteId(Long pacienteId) {
+    public List<ProntuarioDTO> listarPorPacienteId(Long pacienteId) {
         return prontuarioRepository.listarPorPacienteId(pacienteId);
     }
 
+    public PaginaDTO<ProntuarioDTO> listarTodos(Cursor cursor, int limite) {
+        return pagina(prontuarioRepository.listarTodos(cursor, limite), limite);
+    }
+
+    public PaginaDTO<ProntuarioDTO> listarPorPacienteId(Long pacienteId, Cursor cursor, int limite) {
+        return pagina(prontuarioRepository.listarPorPacienteId(pacienteId, cursor, limite), limite);
+    }
+
+    private PaginaDTO<ProntuarioDTO> pagina(List<ProntuarioDTO> prontuarios, int limite) {
+        return PaginaDTO.de(prontuarios, limite, prontuario -> Cursor.de(prontuario.getDataCriacao(), prontuario.getId()));
+    }
+
+    @Transactional
+    public void exportarTodos(Consumer<ProntuarioDTO> consumidor) {
+        try (Stream<ProntuarioDTO> prontuarios = prontuarioRepository.streamTodos()) {
+            prontuarios.forEach(consumidor);
+        }
+    }
+
     @Transactional
     public Prontuario criar(ProntuarioDTO prontuarioDTO) {
-        Consulta consulta = consultaRepository.findByIdOptional(prontuarioDTO.getConsultaId())
+        StatusConsulta statusConsulta = consultaRepository.buscarStatus(prontuarioDTO.getConsultaId())
                 .orElseThrow(() -> new EntityNotFoundException("Consulta", prontuarioDTO.getConsultaId()));
 
-        if (consulta.getStatus() != StatusConsulta.REALIZADA) {
+        if (statusConsulta != StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível criar um prontuário para uma consulta não realizada");
         }
 
-        Optional<Prontuario> existingProntuario = prontuarioRepository.buscarPorConsultaId(prontuarioDTO.getConsultaId());
-        if (existingProntuario.isPresent()) {
+        if (prontuarioRepository.existePorConsultaId(prontuarioDTO.getConsultaId())) {
             throw new BusinessException("Já existe um prontuário para esta consulta");
         }
 
         Prontuario prontuario = new Prontuario();
-        prontuario.setConsulta(consulta);
+        prontuario.setConsulta(consultaRepository.referencia(prontuarioDTO.getConsultaId()));
         prontuario.setAnamnese(prontuarioDTO.getAnamnese());
         prontuario.setDiagnostico(prontuarioDTO.getDiagnostico());
         prontuario.setPlanoTratamento(prontuarioDTO.getPlanoTratamento());
@@ -69,8 +96,9 @@ public class ProntuarioService {
     }
 
     @Transactional
-    public Prontuario atualizar(Long id, ProntuarioDTO prontuarioDTO) {
+    public Prontuario atualizar(Long id, ProntuarioDTO prontuarioDTO, Long versaoEsperada) {
         Prontuario prontuario = buscarPorId(id);
+        Versoes.verificar("Prontuário", prontuario, versaoEsperada);
 
         // Não permite alterar a consulta associada
         if (!prontuario.getConsulta().id.equals(prontuarioDTO.getConsultaId())) {
@@ -86,8 +114,9 @@ public class ProntuarioService {
     }
 
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Prontuario prontuario = buscarPorId(id);
+        Versoes.verificar("Prontuário", prontuario, versaoEsperada);
         prontuarioRepository.delete(prontuario);
     }
 
@@ -99,7 +128,8 @@ public class ProntuarioService {
                 prontuario.getDiagnostico(),
                 prontuario.getPlanoTratamento(),
                 prontuario.getDataCriacao(),
-                prontuario.getDataAtualizacao()
+                prontuario.getDataAtualizacao(),
+                prontuario.getVersao()
         );
     }
 
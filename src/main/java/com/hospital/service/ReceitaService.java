@@ -1,6 +1,8 @@
 package com.hospital.service;
 
+import com.hospital.dto.PaginaDTO;
 import com.hospital.dto.ReceitaDTO;
+import com.hospital.dto.RelatorioImportacaoDTO;
 import com.hospital.exception.BusinessException;
 import com.hospital.exception.EntityNotFoundException;
 import com.hospital.model.Consulta;
@@ -8,12 +10,17 @@ import com.hospital.model.Receita;
 import com.hospital.model.enums.StatusConsulta;
 import com.hospital.repository.ConsultaRepository;
 import com.hospital.repository.ReceitaRepository;
+import com.hospital.util.Cursor;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ReceitaService {
@@ -24,8 +31,14 @@ public class ReceitaService {
     @Inject
     ConsultaRepository consultaRepository;
 
-    public List<Receita> listarTodas() {
-        return receitaRepository.listAll();
+    @Inject
+    MedicamentoService medicamentoService;
+
+    @Inject
+    Validator validator;
+
+    public List<ReceitaDTO> listarTodas() {
+        return receitaRepository.listarTodas();
     }
 
     public Receita buscarPorId(Long id) {
@@ -33,44 +46,98 @@ public class ReceitaService {
                 .orElseThrow(() -> new EntityNotFoundException("Receita", id));
     }
 
-    public List<Receita> listarPorConsulta(Long consultaId) {
+    public ReceitaDTO buscarDTOPorId(Long id) {
+        return receitaRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Receita", id));
+    }
+
+    public List<ReceitaDTO> listarPorConsulta(Long consultaId) {
         return receitaRepository.listarPorConsultaId(consultaId);
     }
 
-    public List<Receita> listarPorPaciente(Long pacienteId) {
+    public List<ReceitaDTO> listarPorPaciente(Long pacienteId) {
         return receitaRepository.listarPorPacienteId(pacienteId);
     }
 
-    public List<Receita> listarPorMedicamento(String medicamento) {
-        return receitaRepository.listarPorMedicamento(medicamento);
+    /**
+     * Receitas de qualquer medicamento do dicionário cujo nome contém o termo: o índice em memória
+     * resolve o termo para IDs e as receitas vêm de um join pelo índice (medicamento_id, dataEmissao).
+     */
+    public List<ReceitaDTO> listarPorMedicamento(String medicamento) {
+        return receitaRepository.listarPorMedicamentos(medicamentoService.buscarIds(medicamento));
+    }
+
+    public PaginaDTO<ReceitaDTO> listarTodas(Cursor cursor, int limite) {
+        return pagina(receitaRepository.listarTodas(cursor, limite), limite);
+    }
+
+    public PaginaDTO<ReceitaDTO> listarPorConsulta(Long consultaId, Cursor cursor, int limite) {
+        return pagina(receitaRepository.listarPorConsultaId(consultaId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ReceitaDTO> listarPorPaciente(Long pacienteId, Cursor cursor, int limite) {
+        return pagina(receitaRepository.listarPorPacienteId(pacienteId, cursor, limite), limite);
+    }
+
+    public PaginaDTO<ReceitaDTO> listarPorMedicamento(String medicamento, Cursor cursor, int limite) {
+        return pagina(receitaRepository.listarPorMedicamentos(medicamentoService.buscarIds(medicamento), cursor, limite),
+                limite);
+    }
+
+    private PaginaDTO<ReceitaDTO> pagina(List<ReceitaDTO> receitas, int limite) {
+        return PaginaDTO.de(receitas, limite, receita -> Cursor.de(receita.getDataEmissao(), receita.getId()));
+    }
+
+    @Transactional
+    public void exportarTodas(Consumer<ReceitaDTO> consumidor) {
+        try (Stream<ReceitaDTO> receitas = receitaRepository.streamTodas()) {
+            receitas.forEach(consumidor);
+        }
     }
 
     @Transactional
     public Receita criar(ReceitaDTO receitaDTO) {
         // Verificar se a consulta existe
-        Consulta consulta = consultaRepository.findByIdOptional(receitaDTO.getConsultaId())
+        StatusConsulta statusConsulta = consultaRepository.buscarStatus(receitaDTO.getConsultaId())
                 .orElseThrow(() -> new EntityNotFoundException("Consulta", receitaDTO.getConsultaId()));
 
         // Verificar se a consulta foi realizada
-        if (consulta.getStatus() != StatusConsulta.REALIZADA) {
+        if (statusConsulta != StatusConsulta.REALIZADA) {
             throw new BusinessException("Não é possível criar uma receita para uma consulta não realizada");
         }
 
+        Receita receita = novaReceita(receitaDTO);
+        receitaRepository.persist(receita);
+        return receita;
+    }
+
+    /**
+     * Emite as receitas lidas em lotes, uma transação por lote. Receitas de consultas inexistentes ou
+     * ainda não realizadas ficam de fora, com o motivo no relatório.
+     */
+    public RelatorioImportacaoDTO importar(Iterator<LinhaImportacao<ReceitaDTO>> linhas) {
+        return ImportacaoEmLotes.executar(linhas, validator,
+                lote -> ImportacaoEmLotes.consultasNaoRealizadas(lote, ReceitaDTO::getConsultaId, consultaRepository,
+                        "Não é possível criar uma receita para uma consulta não realizada"),
+                receitas -> receitas.forEach(receitaDTO -> receitaRepository.persist(novaReceita(receitaDTO))));
+    }
+
+    private Receita novaReceita(ReceitaDTO receitaDTO) {
         Receita receita = new Receita();
-        receita.setConsulta(consulta);
+        receita.setConsulta(consultaRepository.referencia(receitaDTO.getConsultaId()));
         receita.setMedicamento(receitaDTO.getMedicamento());
+        receita.setMedicamentoCatalogo(medicamentoService.resolver(receitaDTO.getMedicamento()));
         receita.setPosologia(receitaDTO.getPosologia());
         receita.setObservacoes(receitaDTO.getObservacoes());
         receita.setDataEmissao(LocalDateTime.now());
         receita.setDataValidade(receitaDTO.getDataValidade());
-
-        receitaRepository.persist(receita);
         return receita;
     }
 
     @Transactional
-    public Receita atualizar(Long id, ReceitaDTO receitaDTO) {
+    public Receita atualizar(Long id, ReceitaDTO receitaDTO, Long versaoEsperada) {
         Receita receita = buscarPorId(id);
+        Versoes.verificar("Receita", receita, versaoEsperada);
 
         // Não permite alterar a consulta associada
         if (!receita.getConsulta().id.equals(receitaDTO.getConsultaId())) {
@@ -78,6 +145,7 @@ public class ReceitaService {
         }
 
         receita.setMedicamento(receitaDTO.getMedicamento());
+        receita.setMedicamentoCatalogo(medicamentoService.resolver(receitaDTO.getMedicamento()));
         receita.setPosologia(receitaDTO.getPosologia());
         receita.setObservacoes(receitaDTO.getObservacoes());
         receita.setDataValidade(receitaDTO.getDataValidade());
@@ -86,8 +154,9 @@ public class ReceitaService {
     }
 
     @Transactional
-    public void excluir(Long id) {
+    public void excluir(Long id, Long versaoEsperada) {
         Receita receita = buscarPorId(id);
+        Versoes.verificar("Receita", receita, versaoEsperada);
         receitaRepository.delete(receita);
     }
 
@@ -99,7 +168,8 @@ public class ReceitaService {
                 receita.getPosologia(),
                 receita.getObservacoes(),
                 receita.getDataEmissao(),
-                receita.getDataValidade()
+                receita.getDataValidade(),
+                receita.getVersao()
         );
     }
 
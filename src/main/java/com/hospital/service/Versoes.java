@@ -0,0 +1,24 @@
+package com.hospital.service;
+
+import com.hospital.exception.VersaoDivergenteException;
+import com.hospital.model.EntidadeVersionada;
+
+/**
+ * Pré-condição de versão das escritas ({@code If-Match}). A comparação é feita com a versão lida na
+ * transação; se outra transação gravar depois da leitura, o {@code @Version} do Hibernate recusa a
+ * gravação no commit.
+ */
+final class Versoes {
+
+    private Versoes() {
+    }
+
+    /**
+     * @param versaoEsperada versão que o cliente leu, ou {@code null} para gravar sem pré-condição
+     */
+    static void verificar(String entidade, EntidadeVersionada registro, Long versaoEsperada) {
+        if (versaoEsperada != null && !versaoEsperada.equals(registro.getVersao())) {
+            throw new VersaoDivergenteException(entidade, registro.id, registro.getVersao());
+        }
+    }
+}
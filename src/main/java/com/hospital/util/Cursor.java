@@ -0,0 +1,76 @@
+package com.hospital.util;
+
+import com.hospital.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco da paginação por chave (keyset).
+ * Guarda o valor da coluna de ordenação e o ID do último item retornado,
+ * de forma que a próxima página comece exatamente depois dele.
+ */
+public final class Cursor {
+
+    private static final char SEPARADOR = '|';
+
+    private final String chave;
+    private final Long id;
+
+    public Cursor(String chave, Long id) {
+        this.chave = chave;
+        this.id = id;
+    }
+
+    /**
+     * Cursor do item {@code (chave, id)}. A coluna de ordenação precisa ser {@code NOT NULL}: uma chave
+     * nula viraria o texto {@code "null"} e a comparação da próxima página não teria sentido.
+     */
+    public static Cursor de(Object chave, Long id) {
+        if (chave == null) {
+            throw new IllegalArgumentException("Chave nula no cursor do item " + id);
+        }
+        return new Cursor(String.valueOf(chave), id);
+    }
+
+    public static Cursor decodificar(String valor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new BusinessException("Cursor de paginação inválido");
+            }
+            return new Cursor(texto.substring(0, separador), Long.valueOf(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor de paginação inválido");
+        }
+    }
+
+    public String codificar() {
+        String texto = chave + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public <T> T getChave(Function<String, T> conversor) {
+        try {
+            return conversor.apply(chave);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new BusinessException("Cursor de paginação inválido");
+        }
+    }
+
+    public LocalDateTime getChaveComoDataHora() {
+        return getChave(LocalDateTime::parse);
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
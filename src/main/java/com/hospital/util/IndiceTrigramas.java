@@ -0,0 +1,263 @@
+package com.hospital.util;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas para busca por trecho de nome, em memória.
+ * <p>
+ * Os nomes são normalizados (sem acentos, minúsculos, espaços simples) e cada trigrama aponta para os
+ * IDs que o contêm. Uma busca intersecciona as listas dos trigramas do termo e confirma o trecho nos
+ * candidatos; termos com menos de três caracteres percorrem todos os nomes. Os acertos são ordenados
+ * por relevância (nome começa com o termo, alguma palavra começa com o termo, trecho no meio), depois
+ * por nome e ID, e essa ordem é a chave do {@link Cursor} de cada acerto.
+ * <p>
+ * Quem mantém o índice por eventos depois do commit pode recebê-los fora de ordem. Por isso cada entrada
+ * guarda a versão do registro, e {@link #indexar(Long, Long, String, Object)} ignora versões que não são
+ * mais novas que a guardada. Os IDs removidos ficam marcados e não voltam a ser indexados: IDs não são
+ * reaproveitados, então qualquer versão que chegue depois da remoção é anterior a ela. Um evento
+ * atrasado chega logo depois do commit da sua transação, então a marca só é guardada por
+ * {@link #RETENCAO_REMOVIDOS} (ou o tempo passado no construtor); as vencidas são descartadas a cada
+ * alteração do índice, e as marcas nunca passam das remoções feitas nesse intervalo.
+ */
+public final class IndiceTrigramas<T> {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Comparator<Acerto<?>> ORDEM = Comparator
+            .<Acerto<?>, String>comparing(Acerto::getChave)
+            .thenComparing(Acerto::getId);
+
+    /** Por quanto tempo um ID removido continua marcado, por padrão. */
+    public static final Duration RETENCAO_REMOVIDOS = Duration.ofMinutes(1);
+
+    private final Map<Long, Entrada<T>> entradas = new HashMap<>();
+    private final Map<String, Set<Long>> ids = new HashMap<>();
+    /** IDs removidos e o {@link System#nanoTime()} da remoção, na ordem em que foram removidos. */
+    private final LinkedHashMap<Long, Long> removidos = new LinkedHashMap<>();
+    private final long retencaoRemovidos;
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    public IndiceTrigramas() {
+        this(RETENCAO_REMOVIDOS);
+    }
+
+    public IndiceTrigramas(Duration retencaoRemovidos) {
+        this.retencaoRemovidos = retencaoRemovidos.toNanos();
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Inclui o registro ou substitui o anterior com o mesmo ID, para registros sem versão.
+     */
+    public void indexar(Long id, String nome, T valor) {
+        indexar(id, null, nome, valor);
+    }
+
+    /**
+     * Inclui o registro ou substitui a versão anterior com o mesmo ID. Não faz nada se o ID foi removido
+     * ou se a versão guardada é igual ou mais nova que {@code versao}.
+     */
+    public void indexar(Long id, Long versao, String nome, T valor) {
+        Entrada<T> entrada = new Entrada<>(normalizar(nome), versao, valor);
+        trava.writeLock().lock();
+        try {
+            descartarRemovidosVencidos();
+            Entrada<T> atual = entradas.get(id);
+            if (removidos.containsKey(id)
+                    || atual != null && atual.versao != null && versao != null && atual.versao >= versao) {
+                return;
+            }
+            removerSemTrava(id);
+            entradas.put(id, entrada);
+            for (String trigrama : trigramas(entrada.nome)) {
+                ids.computeIfAbsent(trigrama, chave -> new HashSet<>()).add(id);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tira o registro do índice de vez: versões dele que cheguem depois, dentro da retenção das marcas de
+     * remoção, são ignoradas.
+     */
+    public void remover(Long id) {
+        trava.writeLock().lock();
+        try {
+            descartarRemovidosVencidos();
+            removidos.remove(id);
+            removidos.put(id, System.nanoTime());
+            removerSemTrava(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return entradas.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Até {@code quantidade} acertos, em ordem de relevância, que vêm depois de {@code apos}
+     * (ou desde o início, se for nulo).
+     */
+    public List<Acerto<T>> buscar(String termo, Cursor apos, int quantidade) {
+        String trecho = normalizar(termo);
+        Acerto<T> anterior = apos == null ? null : new Acerto<>(apos.getId(), apos.getChave(), null);
+        PriorityQueue<Acerto<T>> melhores = new PriorityQueue<>(ORDEM.reversed());
+        trava.readLock().lock();
+        try {
+            for (Long id : candidatos(trecho)) {
+                Entrada<T> entrada = entradas.get(id);
+                int posicao = entrada.nome.indexOf(trecho);
+                if (posicao < 0) {
+                    continue;
+                }
+                Acerto<T> acerto = new Acerto<>(id, relevancia(entrada.nome, trecho, posicao) + entrada.nome, entrada.valor);
+                if (anterior != null && ORDEM.compare(acerto, anterior) <= 0) {
+                    continue;
+                }
+                melhores.add(acerto);
+                if (melhores.size() > quantidade) {
+                    melhores.poll();
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        List<Acerto<T>> acertos = new ArrayList<>(melhores);
+        acertos.sort(ORDEM);
+        return acertos;
+    }
+
+    private Collection<Long> candidatos(String trecho) {
+        if (trecho.length() < 3) {
+            return entradas.keySet();
+        }
+        List<Set<Long>> listas = new ArrayList<>();
+        for (String trigrama : trigramas(trecho)) {
+            Set<Long> lista = ids.get(trigrama);
+            if (lista == null) {
+                return List.of();
+            }
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+        List<Long> candidatos = new ArrayList<>();
+        for (Long id : listas.get(0)) {
+            if (listas.stream().skip(1).allMatch(lista -> lista.contains(id))) {
+                candidatos.add(id);
+            }
+        }
+        return candidatos;
+    }
+
+    private void descartarRemovidosVencidos() {
+        long agora = System.nanoTime();
+        Iterator<Long> removidosEm = removidos.values().iterator();
+        while (removidosEm.hasNext() && agora - removidosEm.next() >= retencaoRemovidos) {
+            removidosEm.remove();
+        }
+    }
+
+    private void removerSemTrava(Long id) {
+        Entrada<T> anterior = entradas.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String trigrama : trigramas(anterior.nome)) {
+            Set<Long> lista = ids.get(trigrama);
+            if (lista != null && lista.remove(id) && lista.isEmpty()) {
+                ids.remove(trigrama);
+            }
+        }
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(texto.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    private static char relevancia(String nome, String trecho, int posicao) {
+        if (posicao == 0) {
+            return '0';
+        }
+        return nome.contains(" " + trecho) ? '1' : '2';
+    }
+
+    private static final class Entrada<T> {
+
+        private final String nome;
+        private final Long versao;
+        private final T valor;
+
+        private Entrada(String nome, Long versao, T valor) {
+            this.nome = nome;
+            this.versao = versao;
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Um registro encontrado e sua posição na ordem da busca.
+     */
+    public static final class Acerto<T> {
+
+        private final Long id;
+        private final String chave;
+        private final T valor;
+
+        private Acerto(Long id, String chave, T valor) {
+            this.id = id;
+            this.chave = chave;
+            this.valor = valor;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getChave() {
+            return chave;
+        }
+
+        public T getValor() {
+            return valor;
+        }
+
+        public Cursor getCursor() {
+            return new Cursor(chave, id);
+        }
+    }
+}
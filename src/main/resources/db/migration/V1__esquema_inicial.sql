@@ -0,0 +1,98 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com drop-and-create.
+
+create sequence consultas_SEQ start with 1 increment by 50;
+create sequence especialidades_SEQ start with 1 increment by 50;
+create sequence Exame_SEQ start with 1 increment by 50;
+create sequence medicos_SEQ start with 1 increment by 50;
+create sequence pacientes_SEQ start with 1 increment by 50;
+create sequence prontuarios_SEQ start with 1 increment by 50;
+create sequence receitas_SEQ start with 1 increment by 50;
+
+create table especialidades (
+    id bigint not null,
+    nome varchar(100) not null,
+    descricao varchar(500) not null,
+    primary key (id),
+    constraint uk_especialidades_nome unique (nome)
+);
+
+create table medicos (
+    id bigint not null,
+    nome varchar(100) not null,
+    crm varchar(255) not null,
+    email varchar(255) not null,
+    telefone varchar(255) not null,
+    primary key (id),
+    constraint uk_medicos_crm unique (crm),
+    constraint uk_medicos_email unique (email)
+);
+
+create table medico_especialidade (
+    especialidade_id bigint not null,
+    medico_id bigint not null,
+    primary key (especialidade_id, medico_id),
+    constraint fk_medico_especialidade_especialidade foreign key (especialidade_id) references especialidades,
+    constraint fk_medico_especialidade_medico foreign key (medico_id) references medicos
+);
+
+create table pacientes (
+    id bigint not null,
+    nome varchar(100) not null,
+    cpf varchar(255) not null,
+    dataNascimento date not null,
+    email varchar(255) not null,
+    telefone varchar(255) not null,
+    endereco varchar(200) not null,
+    primary key (id),
+    constraint uk_pacientes_cpf unique (cpf)
+);
+
+create table consultas (
+    id bigint not null,
+    dataHora timestamp(6) not null,
+    status enum ('AGENDADA','CANCELADA','REALIZADA') not null,
+    medico_id bigint not null,
+    paciente_id bigint not null,
+    observacao varchar(500),
+    primary key (id),
+    constraint fk_consultas_medico foreign key (medico_id) references medicos,
+    constraint fk_consultas_paciente foreign key (paciente_id) references pacientes
+);
+
+create table prontuarios (
+    id bigint not null,
+    consulta_id bigint not null,
+    anamnese varchar(2000) not null,
+    diagnostico varchar(500),
+    planoTratamento varchar(1000),
+    dataCriacao timestamp(6) not null,
+    dataAtualizacao timestamp(6),
+    primary key (id),
+    constraint uk_prontuarios_consulta unique (consulta_id),
+    constraint fk_prontuarios_consulta foreign key (consulta_id) references consultas
+);
+
+create table receitas (
+    id bigint not null,
+    consulta_id bigint not null,
+    medicamento varchar(100) not null,
+    posologia varchar(500) not null,
+    observacoes varchar(500),
+    dataEmissao timestamp(6) not null,
+    dataValidade timestamp(6) not null,
+    primary key (id),
+    constraint fk_receitas_consulta foreign key (consulta_id) references consultas
+);
+
+create table Exame (
+    id bigint not null,
+    consulta_id bigint not null,
+    nome varchar(100) not null,
+    tipo enum ('IMAGEM','LABORATORIAL','OUTROS') not null,
+    instrucoes varchar(500),
+    dataSolicitacao timestamp(6) not null,
+    dataResultado timestamp(6),
+    resultado varchar(1000),
+    primary key (id),
+    constraint fk_exame_consulta foreign key (consulta_id) references consultas
+);
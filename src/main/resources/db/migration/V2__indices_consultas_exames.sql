@@ -0,0 +1,24 @@
+-- Índices para as consultas mais frequentes dos repositórios.
+
+-- ConsultaRepository.verificarDisponibilidadeMedico e listarPorMedico
+create index idx_consultas_medico_data_status on consultas (medico_id, dataHora, status);
+
+-- ConsultaRepository.listarPorPaciente
+create index idx_consultas_paciente_data on consultas (paciente_id, dataHora);
+
+-- ConsultaRepository.listarPorStatus
+create index idx_consultas_status_data on consultas (status, dataHora);
+
+-- ConsultaRepository.listarTodas / listarPorIntervaloData (ordenação por dataHora, id)
+create index idx_consultas_data on consultas (dataHora, id);
+
+-- ExameRepository.listarPorConsultaId
+create index idx_exame_consulta_data on Exame (consulta_id, dataSolicitacao);
+
+-- ExameRepository.listarSemResultado. O H2 não tem índice parcial, então os exames
+-- pendentes são localizados pelo prefixo dataResultado IS NULL deste índice composto.
+create index idx_exame_pendentes on Exame (dataResultado, dataSolicitacao);
+
+-- ReceitaRepository.listarPorConsulta
+create index idx_receitas_consulta_data on receitas (consulta_id, dataEmissao);
+
@@ -0,0 +1,37 @@
+-- Dicionário de medicamentos: cada nome prescrito aponta para uma entrada normalizada
+-- (sem acentos, minúsculas, espaços simples), e a busca por medicamento vira um join indexado.
+
+create sequence medicamentos_SEQ start with 1 increment by 50;
+
+create table medicamentos (
+    id bigint not null,
+    nome varchar(100) not null,
+    nomeNormalizado varchar(100) not null,
+    primary key (id),
+    constraint uk_medicamentos_nome_normalizado unique (nomeNormalizado)
+);
+
+-- Receitas já emitidas: uma entrada por nome normalizado, mantendo a primeira grafia encontrada.
+-- A aplicação normaliza com java.text.Normalizer; aqui o TRANSLATE cobre os acentos do português.
+insert into medicamentos (id, nome, nomeNormalizado)
+select next value for medicamentos_SEQ, nome, nomeNormalizado
+from (select min(trim(medicamento)) as nome,
+             regexp_replace(translate(lower(trim(medicamento)),
+                     'áàâãäéèêëíìîïóòôõöúùûüç', 'aaaaaeeeeiiiiooooouuuuc'), '\s+', ' ') as nomeNormalizado
+      from receitas
+      group by nomeNormalizado);
+
+alter table receitas add column medicamento_id bigint;
+
+update receitas r set medicamento_id = (
+    select m.id from medicamentos m
+    where m.nomeNormalizado = regexp_replace(translate(lower(trim(r.medicamento)),
+            'áàâãäéèêëíìîïóòôõöúùûüç', 'aaaaaeeeeiiiiooooouuuuc'), '\s+', ' '));
+
+alter table receitas alter column medicamento_id set not null;
+
+-- ReceitaRepository.listarPorMedicamentos (medicamento_id IN ... ORDER BY dataEmissao, id).
+-- Criado antes da chave estrangeira para o H2 reaproveitá-lo em vez de criar um índice só de medicamento_id.
+create index idx_receitas_medicamento_data on receitas (medicamento_id, dataEmissao, id);
+
+alter table receitas add constraint fk_receitas_medicamento foreign key (medicamento_id) references medicamentos;
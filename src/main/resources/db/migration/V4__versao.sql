@@ -0,0 +1,11 @@
+-- Versão de cada registro para o controle otimista de concorrência (@Version em EntidadeVersionada),
+-- usada também nos ETags e nas condições If-Match/If-None-Match da API. Registros existentes começam em 0.
+
+alter table especialidades add column versao bigint default 0 not null;
+alter table medicos add column versao bigint default 0 not null;
+alter table pacientes add column versao bigint default 0 not null;
+alter table consultas add column versao bigint default 0 not null;
+alter table prontuarios add column versao bigint default 0 not null;
+alter table receitas add column versao bigint default 0 not null;
+alter table Exame add column versao bigint default 0 not null;
+alter table medicamentos add column versao bigint default 0 not null;
@@ -0,0 +1,17 @@
+-- Fila de trabalho das bancadas: situação, prioridade e reserva de cada exame.
+-- Exames que já têm resultado ficam como RESULTADO_DISPONIVEL; os demais entram na fila como SOLICITADO.
+
+alter table Exame add column status enum ('SOLICITADO','AGENDADO','REALIZADO','RESULTADO_DISPONIVEL','CANCELADO')
+    default 'SOLICITADO' not null;
+alter table Exame add column prioridade integer default 0 not null;
+alter table Exame add column responsavel varchar(100);
+alter table Exame add column reservadoAte timestamp(6);
+
+update Exame set status = 'RESULTADO_DISPONIVEL' where dataResultado is not null;
+
+-- ExameRepository.proximosDaFila: o próximo exame de um tipo é a primeira entrada deste índice a partir
+-- de (tipo, 'SOLICITADO'), sem ordenar a tabela
+create index idx_exame_fila on Exame (tipo, status, prioridade desc, dataSolicitacao, id);
+
+-- ExameRepository.devolverReservasVencidas
+create index idx_exame_reservas on Exame (status, tipo, reservadoAte);
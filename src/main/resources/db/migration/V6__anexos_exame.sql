@@ -0,0 +1,23 @@
+-- Arquivos anexados aos exames (imagens, laudos em PDF, DICOM). O conteúdo fica no armazenamento em disco,
+-- endereçado pelo SHA-256; a tabela guarda só os metadados, e anexos com o mesmo conteúdo dividem o arquivo.
+
+create sequence anexos_exame_SEQ start with 1 increment by 50;
+
+create table anexos_exame (
+    id bigint not null,
+    exame_id bigint not null,
+    nome varchar(255) not null,
+    tipoConteudo varchar(255) not null,
+    tamanho bigint not null,
+    sha256 char(64) not null,
+    dataEnvio timestamp(6) not null,
+    versao bigint default 0 not null,
+    primary key (id),
+    constraint fk_anexos_exame_exame foreign key (exame_id) references Exame
+);
+
+-- AnexoExameRepository.listarPorExame
+create index idx_anexos_exame_exame on anexos_exame (exame_id, dataEnvio);
+
+-- AnexoExameRepository.referenciado (coleta dos arquivos sem anexo)
+create index idx_anexos_exame_sha256 on anexos_exame (sha256);
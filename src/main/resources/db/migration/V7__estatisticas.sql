@@ -0,0 +1,45 @@
+-- Contadores dos painéis de gestão (GET /api/v1/estatisticas), somados nas mesmas transações que gravam
+-- consultas, exames e médicos e conferidos periodicamente com as tabelas (Estatisticas.reconciliar).
+
+create table estatisticas_consultas_dia (
+    dia date not null,
+    status varchar(20) not null,
+    total bigint not null,
+    primary key (dia, status)
+);
+
+-- Exames sem resultado
+create table estatisticas_exames_pendentes (
+    tipo varchar(20) not null,
+    total bigint not null,
+    primary key (tipo)
+);
+
+-- Consultas não canceladas
+create table estatisticas_consultas_medico (
+    medico_id bigint not null,
+    total bigint not null,
+    primary key (medico_id)
+);
+
+-- Consultas não canceladas dos médicos de cada especialidade
+create table estatisticas_consultas_especialidade (
+    especialidade_id bigint not null,
+    total bigint not null,
+    primary key (especialidade_id)
+);
+
+insert into estatisticas_consultas_dia (dia, status, total)
+select cast(dataHora as date), status, count(*) from consultas group by cast(dataHora as date), status;
+
+insert into estatisticas_exames_pendentes (tipo, total)
+select tipo, count(*) from Exame where dataResultado is null group by tipo;
+
+insert into estatisticas_consultas_medico (medico_id, total)
+select medico_id, count(*) from consultas where status <> 'CANCELADA' group by medico_id;
+
+insert into estatisticas_consultas_especialidade (especialidade_id, total)
+select me.especialidade_id, count(*)
+from consultas c join medico_especialidade me on me.medico_id = c.medico_id
+where c.status <> 'CANCELADA'
+group by me.especialidade_id;
@@ -0,0 +1,13 @@
+-- Uma linha por tabela de contadores, travada (SELECT ... FOR UPDATE) por quem precisa criar chaves novas
+-- nela: duas transações nunca inserem a mesma chave ao mesmo tempo (EstatisticaRepository.somar).
+
+create table estatisticas_criacao (
+    tabela varchar(60) not null,
+    primary key (tabela)
+);
+
+insert into estatisticas_criacao (tabela) values
+    ('estatisticas_consultas_dia'),
+    ('estatisticas_exames_pendentes'),
+    ('estatisticas_consultas_medico'),
+    ('estatisticas_consultas_especialidade');
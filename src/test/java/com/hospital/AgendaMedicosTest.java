@@ -0,0 +1,117 @@
+package com.hospital;
+
+import com.hospital.service.AgendaMedicos;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A agenda em memória recusa consultas que se sobrepõem (inclusive as que começam antes e terminam
+ * dentro de outra), lista horários livres, libera o horário ao cancelar e se corrige pela conferência
+ * com a tabela. A busca por especialidade combina as agendas de todos os médicos dela.
+ */
+@QuarkusTest
+class AgendaMedicosTest {
+
+    @Inject
+    AgendaMedicos agendaMedicos;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void recusaSobreposicaoELiberaHorarioAoCancelar() {
+        Long medicoId = criarMedico("78001");
+        Long pacienteId = criarPaciente("22233344401");
+
+        Long consultaId = agendar(medicoId, pacienteId, "2031-03-10T10:15:00").statusCode(201)
+                .extract().jsonPath().getLong("id");
+        agendar(medicoId, pacienteId, "2031-03-10T10:00:00").statusCode(400);
+        agendar(medicoId, pacienteId, "2031-03-10T10:30:00").statusCode(400);
+
+        given().when()
+                .get("/api/v1/consultas/medico/" + medicoId + "/horarios-livres"
+                        + "?inicio=2031-03-10T09:00:00&fim=2031-03-10T11:30:00")
+                .then().statusCode(200)
+                .body("inicio", contains("2031-03-10T09:00:00", "2031-03-10T09:30:00",
+                        "2031-03-10T10:45:00"));
+
+        given().when().put("/api/v1/consultas/" + consultaId + "/cancelar").then().statusCode(200);
+        agendar(medicoId, pacienteId, "2031-03-10T10:00:00").statusCode(201);
+    }
+
+    @Test
+    void conferenciaCorrigeConsultaGravadaForaDaAplicacao() throws SQLException {
+        Long medicoId = criarMedico("78002");
+        Long pacienteId = criarPaciente("22233344402");
+        assertEquals(0, agendaMedicos.verificarConsistencia());
+
+        try (Connection conexao = dataSource.getConnection();
+             Statement statement = conexao.createStatement()) {
+            statement.executeUpdate("INSERT INTO consultas (id, dataHora, status, medico_id, paciente_id)"
+                    + " VALUES (9000001, TIMESTAMP '2031-04-01 08:00:00', 'AGENDADA', "
+                    + medicoId + ", " + pacienteId + ")");
+        }
+        agendar(medicoId, pacienteId, "2031-04-01T08:00:00").statusCode(201);
+
+        assertEquals(1, agendaMedicos.verificarConsistencia());
+        agendar(medicoId, pacienteId, "2031-04-01T08:00:00").statusCode(400);
+        assertEquals(0, agendaMedicos.verificarConsistencia());
+    }
+
+    @Test
+    void horariosLivresDaEspecialidadeCombinamOsMedicos() {
+        Long especialidadeId = criarEspecialidade("Dermatologia Agenda");
+        Long primeiro = criarMedico("78003", List.of(especialidadeId));
+        Long segundo = criarMedico("78004", List.of(especialidadeId));
+        Long pacienteId = criarPaciente("22233344403");
+        agendar(primeiro, pacienteId, "2031-05-06T08:10:00").statusCode(201);
+        agendar(segundo, pacienteId, "2031-05-06T08:00:00").statusCode(201);
+
+        String url = "/api/v1/consultas/especialidade/" + especialidadeId + "/horarios-livres"
+                + "?inicio=2031-05-06T08:00:00&fim=2031-05-06T10:00:00&quantidade=4";
+        given().when().get(url)
+                .then().statusCode(200)
+                .body("medicoId", contains(segundo.intValue(), primeiro.intValue(), segundo.intValue(), primeiro.intValue()))
+                .body("inicio", contains("2031-05-06T08:30:00", "2031-05-06T08:40:00",
+                        "2031-05-06T09:00:00", "2031-05-06T09:10:00"));
+
+        given().when().get(url + "&duracao=60")
+                .then().statusCode(200)
+                .body("inicio", contains("2031-05-06T08:30:00", "2031-05-06T08:40:00"));
+    }
+
+    @Test
+    void periodoDeHorariosLivresLimitado() {
+        given().when()
+                .get("/api/v1/consultas/medico/1/horarios-livres?inicio=2031-01-01T00:00:00&fim=2031-03-01T00:00:00")
+                .then().statusCode(400);
+        given().when()
+                .get("/api/v1/consultas/medico/1/horarios-livres?inicio=2031-01-02T00:00:00&fim=2031-01-01T00:00:00")
+                .then().statusCode(400);
+    }
+
+    private ValidatableResponse agendar(Long medicoId, Long pacienteId, String dataHora) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("medicoId", medicoId, "pacienteId", pacienteId, "dataHora", dataHora, "status", "AGENDADA"))
+                .when().post("/api/v1/consultas")
+                .then();
+    }
+}
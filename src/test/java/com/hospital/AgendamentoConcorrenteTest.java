@@ -0,0 +1,103 @@
+package com.hospital;
+
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.exception.BusinessException;
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.service.AgendaMedicos;
+import com.hospital.service.ConsultaService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Várias threads agendando ao mesmo tempo nos mesmos horários de poucos médicos: nenhuma consulta
+ * gravada pode se sobrepor a outra do mesmo médico.
+ */
+@QuarkusTest
+class AgendamentoConcorrenteTest {
+
+    private static final Logger LOG = Logger.getLogger(AgendamentoConcorrenteTest.class);
+
+    private static final int THREADS = 16;
+    private static final int TENTATIVAS_POR_THREAD = 150;
+    private static final int HORARIOS = 48;
+
+    @Inject
+    ConsultaService consultaService;
+
+    @Test
+    void agendamentosSimultaneosNaoSeSobrepoem() throws Exception {
+        List<Long> medicos = List.of(criarMedico("79001"), criarMedico("79002"), criarMedico("79003"),
+                criarMedico("79004"));
+        Long pacienteId = criarPaciente("33344455501");
+        LocalDateTime base = LocalDateTime.of(2032, 5, 3, 7, 0);
+
+        AtomicInteger agendadas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < TENTATIVAS_POR_THREAD; i++) {
+                    Long medicoId = medicos.get(aleatorio.nextInt(medicos.size()));
+                    LocalDateTime dataHora = base.plusMinutes(15L * aleatorio.nextInt(HORARIOS));
+                    try {
+                        consultaService.criar(new ConsultaDTO(null, dataHora, StatusConsulta.AGENDADA,
+                                medicoId, pacienteId, null, null));
+                        agendadas.incrementAndGet();
+                    } catch (BusinessException e) {
+                        recusadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        Duration tempo = Duration.ofNanos(System.nanoTime() - inicio);
+        executor.shutdown();
+
+        int tentativas = THREADS * TENTATIVAS_POR_THREAD;
+        LOG.infof("%d tentativas de agendamento em %d ms (%.0f/s): %d agendadas, %d recusadas",
+                tentativas, tempo.toMillis(), tentativas * 1000.0 / Math.max(1, tempo.toMillis()),
+                agendadas.get(), recusadas.get());
+
+        assertEquals(tentativas, agendadas.get() + recusadas.get());
+        int gravadas = 0;
+        for (Long medicoId : medicos) {
+            List<ConsultaDTO> consultas = consultaService.listarPorMedico(medicoId);
+            gravadas += consultas.size();
+            for (int i = 1; i < consultas.size(); i++) {
+                LocalDateTime anterior = consultas.get(i - 1).getDataHora();
+                LocalDateTime atual = consultas.get(i).getDataHora();
+                assertTrue(!atual.isBefore(anterior.plus(AgendaMedicos.DURACAO_CONSULTA)),
+                        "Consultas sobrepostas do médico " + medicoId + ": " + anterior + " e " + atual);
+            }
+        }
+        assertEquals(agendadas.get(), gravadas);
+        assertTrue(recusadas.get() > 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.consulta;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * O agendamento em lote informa o resultado de cada consulta: no melhor esforço grava as aceitas, em
+ * tudo ou nada uma única recusa deixa o lote inteiro sem gravar.
+ */
+@QuarkusTest
+class AgendamentoLoteTest {
+
+    @Test
+    void melhorEsforcoGravaAsConsultasAceitas() {
+        Long medicoId = criarMedico("78005");
+        Long pacienteId = criarPaciente("22233344404");
+
+        agendarEmLote("MELHOR_ESFORCO", List.of(
+                consulta(medicoId, pacienteId, "2031-05-05T09:00:00"),
+                consulta(medicoId, pacienteId, "2031-05-05T09:15:00"),
+                consulta(medicoId, pacienteId, "2020-05-05T09:00:00"),
+                consulta(999999L, pacienteId, "2031-05-05T09:00:00"),
+                consulta(medicoId, pacienteId, "2031-05-12T09:00:00")))
+                .body("total", equalTo(5))
+                .body("agendadas", equalTo(2))
+                .body("itens.indice", contains(0, 1, 2, 3, 4))
+                .body("itens[0].consultaId", notNullValue())
+                .body("itens[1].mensagem", containsString("conflita com outra consulta do lote"))
+                .body("itens[2].mensagem", containsString("no futuro"))
+                .body("itens[3].mensagem", containsString("Médico não encontrado(a)"))
+                .body("itens[4].consultaId", notNullValue());
+
+        given().when().get("/api/v1/consultas/medico/" + medicoId)
+                .then().statusCode(200)
+                .body("dataHora", contains("2031-05-05T09:00:00", "2031-05-12T09:00:00"));
+        given().when()
+                .get("/api/v1/consultas/medico/" + medicoId + "/horarios-livres"
+                        + "?inicio=2031-05-05T09:00:00&fim=2031-05-05T10:00:00")
+                .then().statusCode(200)
+                .body("inicio", contains("2031-05-05T09:30:00"));
+    }
+
+    @Test
+    void tudoOuNadaNaoGravaNadaSeUmaConsultaForRecusada() {
+        Long medicoId = criarMedico("78006");
+        Long pacienteId = criarPaciente("22233344405");
+        given().contentType(ContentType.JSON)
+                .body(consulta(medicoId, pacienteId, "2031-06-02T14:00:00"))
+                .when().post("/api/v1/consultas")
+                .then().statusCode(201);
+
+        agendarEmLote("TUDO_OU_NADA", List.of(
+                consulta(medicoId, pacienteId, "2031-06-02T13:00:00"),
+                consulta(medicoId, pacienteId, "2031-06-02T14:10:00"),
+                consulta(medicoId, pacienteId, "2031-06-02T15:00:00")))
+                .body("agendadas", equalTo(0))
+                .body("itens.consultaId", everyItem(nullValue()))
+                .body("itens[0].mensagem", containsString("outra consulta do lote foi recusada"))
+                .body("itens[1].mensagem", containsString("já possui uma consulta agendada"));
+
+        agendarEmLote("TUDO_OU_NADA", List.of(
+                consulta(medicoId, pacienteId, "2031-06-02T13:00:00"),
+                consulta(medicoId, pacienteId, "2031-06-02T15:00:00")))
+                .body("agendadas", equalTo(2));
+        given().when().get("/api/v1/consultas/medico/" + medicoId)
+                .then().statusCode(200)
+                .body("dataHora", contains("2031-06-02T13:00:00", "2031-06-02T14:00:00", "2031-06-02T15:00:00"));
+    }
+
+    @Test
+    void loteSemModoOuVazioERecusado() {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("consultas", List.of()))
+                .when().post("/api/v1/consultas/lote")
+                .then().statusCode(400);
+    }
+
+    private ValidatableResponse agendarEmLote(String modo, List<Map<String, Object>> consultas) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("modo", modo, "consultas", consultas))
+                .when().post("/api/v1/consultas/lote")
+                .then().statusCode(200);
+    }
+}
@@ -0,0 +1,207 @@
+package com.hospital;
+
+import com.hospital.service.AnexoExameService;
+import com.hospital.service.ArmazenamentoArquivos;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.cpfLivre;
+import static com.hospital.Cadastros.crmLivre;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arquivos anexados aos exames ficam guardados uma vez por conteúdo e são baixados inteiros ou por
+ * intervalo ({@code Range}).
+ */
+@QuarkusTest
+class AnexosExameTest {
+
+    private static final int TAMANHO = 200_000;
+
+    @Inject
+    AnexoExameService anexoExameService;
+
+    @Inject
+    ArmazenamentoArquivos armazenamento;
+
+    @Test
+    void guardaUmaVezPorConteudoEBaixaPorIntervalo() throws Exception {
+        long consultaId = consultaRealizada(criarMedico("78015"), criarPaciente("22233344416"), "2032-08-01T09:00:00");
+        long tomografia = solicitarExame(consultaId, "Tomografia de crânio", "IMAGEM");
+        long laudo = solicitarExame(consultaId, "Laudo da tomografia", "IMAGEM");
+        byte[] imagem = new byte[TAMANHO];
+        new Random(24).nextBytes(imagem);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(imagem));
+        String conteudo = "/api/v1/exames/" + tomografia + "/anexos/%d/conteudo";
+
+        long anexoId = anexar(tomografia, "cranio 1.dcm", imagem)
+                .then().statusCode(201)
+                .body("tamanho", equalTo(TAMANHO))
+                .body("sha256", equalTo(sha256))
+                .body("tipoConteudo", equalTo("application/dicom"))
+                .extract().jsonPath().getLong("id");
+        long copiaId = anexar(laudo, "copia.dcm", imagem)
+                .then().statusCode(201)
+                .body("sha256", equalTo(sha256))
+                .extract().jsonPath().getLong("id");
+        assertTrue(Files.isRegularFile(armazenamento.caminho(sha256)));
+        given().when().get("/api/v1/exames/" + tomografia + "/anexos")
+                .then().statusCode(200).body("$", hasSize(1)).body("[0].nome", equalTo("cranio 1.dcm"));
+
+        byte[] baixado = given().when().get(conteudo.formatted(anexoId))
+                .then().statusCode(200)
+                .contentType("application/dicom")
+                .header("ETag", "\"" + sha256 + "\"")
+                .header("Accept-Ranges", "bytes")
+                .header("Content-Length", String.valueOf(TAMANHO))
+                .extract().asByteArray();
+        assertArrayEquals(imagem, baixado);
+
+        byte[] trecho = given().header("Range", "bytes=1000-1999")
+                .when().get(conteudo.formatted(anexoId))
+                .then().statusCode(206)
+                .header("Content-Range", "bytes 1000-1999/" + TAMANHO)
+                .extract().asByteArray();
+        assertArrayEquals(Arrays.copyOfRange(imagem, 1000, 2000), trecho);
+        byte[] ultimos = given().header("Range", "bytes=-10")
+                .when().get(conteudo.formatted(anexoId))
+                .then().statusCode(206)
+                .header("Content-Range", "bytes " + (TAMANHO - 10) + "-" + (TAMANHO - 1) + "/" + TAMANHO)
+                .extract().asByteArray();
+        assertArrayEquals(Arrays.copyOfRange(imagem, TAMANHO - 10, TAMANHO), ultimos);
+        given().header("Range", "bytes=" + TAMANHO + "-")
+                .when().get(conteudo.formatted(anexoId))
+                .then().statusCode(416)
+                .header("Content-Range", "bytes */" + TAMANHO);
+        // Posições com sinal não são da gramática do Range: o cabeçalho é ignorado
+        for (String comSinal : new String[]{"bytes=--5", "bytes=-+5", "bytes=+0-9", "bytes=0--9"}) {
+            given().header("Range", comSinal)
+                    .when().get(conteudo.formatted(anexoId))
+                    .then().statusCode(200)
+                    .header("Content-Length", String.valueOf(TAMANHO));
+        }
+        // If-Range de outro conteúdo: o intervalo é ignorado e o arquivo vai inteiro
+        given().header("Range", "bytes=0-9").header("If-Range", "\"outro\"")
+                .when().get(conteudo.formatted(anexoId))
+                .then().statusCode(200)
+                .header("Content-Length", String.valueOf(TAMANHO));
+        given().header("If-None-Match", "\"" + sha256 + "\"")
+                .when().get(conteudo.formatted(anexoId))
+                .then().statusCode(304);
+
+        // O conteúdo só é apagado quando nenhum anexo aponta mais para ele
+        given().when().delete("/api/v1/exames/" + tomografia + "/anexos/" + anexoId).then().statusCode(204);
+        given().when().get(conteudo.formatted(anexoId)).then().statusCode(404);
+        anexoExameService.coletar(Duration.ZERO);
+        assertTrue(Files.isRegularFile(armazenamento.caminho(sha256)));
+        given().when().delete("/api/v1/exames/" + laudo + "/anexos/" + copiaId).then().statusCode(204);
+        anexoExameService.coletar(Duration.ZERO);
+        assertFalse(Files.exists(armazenamento.caminho(sha256)));
+    }
+
+    @Test
+    void coletaNaoApagaConteudoReaproveitadoDuranteAVerificacao() throws Exception {
+        long consultaId = consultaRealizada(criarMedico("78019"), criarPaciente("22233344419"), "2032-08-02T09:00:00");
+        long exameId = solicitarExame(consultaId, "Ressonância", "IMAGEM");
+        byte[] imagem = new byte[4096];
+        new Random(2024).nextBytes(imagem);
+        long primeiro = anexar(exameId, "antes.dcm", imagem).then().statusCode(201).extract().jsonPath().getLong("id");
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(imagem));
+        given().when().delete("/api/v1/exames/" + exameId + "/anexos/" + primeiro).then().statusCode(204);
+
+        // Um novo upload do mesmo conteúdo chega enquanto a coleta confere as referências: ele espera a
+        // remoção e guarda o conteúdo de novo, em vez de apontar para um arquivo que vai ser apagado
+        CompletableFuture<io.restassured.response.Response> reenvio = new CompletableFuture<>();
+        boolean apagado = armazenamento.removerSemUso(sha256, Duration.ZERO, () -> {
+            CompletableFuture.runAsync(() -> reenvio.complete(anexar(exameId, "depois.dcm", imagem)));
+            assertThrows(TimeoutException.class, () -> reenvio.get(500, TimeUnit.MILLISECONDS));
+            return false;
+        });
+        assertTrue(apagado);
+        long segundo = reenvio.get(10, TimeUnit.SECONDS).then().statusCode(201).extract().jsonPath().getLong("id");
+        byte[] baixado = given().when().get("/api/v1/exames/" + exameId + "/anexos/" + segundo + "/conteudo")
+                .then().statusCode(200)
+                .extract().asByteArray();
+        assertArrayEquals(imagem, baixado);
+    }
+
+    @Test
+    void naoComprimeODownloadMesmoDeTiposComprimiveis() {
+        long consultaId = consultaRealizada(criarMedico(crmLivre()), criarPaciente(cpfLivre()), "2032-08-04T09:00:00");
+        long exameId = solicitarExame(consultaId, "Hemograma completo", "LABORATORIAL");
+        String csv = "analito,valor\n".repeat(1000);
+        long anexoId = given()
+                .multiPart("arquivo", "hemograma.csv", csv.getBytes(StandardCharsets.UTF_8), "text/csv")
+                .when().post("/api/v1/exames/" + exameId + "/anexos")
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+        String conteudo = "/api/v1/exames/" + exameId + "/anexos/" + anexoId + "/conteudo";
+
+        // O Content-Range conta bytes do arquivo: um corpo em gzip não casaria com ele
+        given().header("Accept-Encoding", "gzip").header("Range", "bytes=100-1099")
+                .when().get(conteudo)
+                .then().statusCode(206)
+                .header("Content-Encoding", not(equalTo("gzip")))
+                .header("Content-Range", "bytes 100-1099/" + csv.length())
+                .header("Content-Length", "1000")
+                .body(equalTo(csv.substring(100, 1100)));
+        given().header("Accept-Encoding", "gzip")
+                .when().get(conteudo)
+                .then().statusCode(200)
+                .header("Content-Encoding", not(equalTo("gzip")))
+                .header("Content-Length", String.valueOf(csv.length()));
+    }
+
+    @Test
+    void soOUploadDeAnexosPassaDoLimitePadraoDeCorpo() {
+        long consultaId = consultaRealizada(criarMedico("78020"), criarPaciente("22233344420"), "2032-08-03T09:00:00");
+        long exameId = solicitarExame(consultaId, "Angiotomografia", "IMAGEM");
+        byte[] grande = new byte[11 * 1024 * 1024];
+        new Random(11).nextBytes(grande);
+
+        anexar(exameId, "angio.dcm", grande)
+                .then().statusCode(201)
+                .body("tamanho", equalTo(grande.length));
+        given().contentType("application/json").body(grande)
+                .when().post("/api/v1/pacientes")
+                .then().statusCode(413);
+    }
+
+    @Test
+    void recusaUploadSemArquivoOuDeExameInexistente() {
+        given().multiPart("outro", "x")
+                .when().post("/api/v1/exames/1/anexos")
+                .then().statusCode(400);
+        anexar(999999, "nada.pdf", new byte[]{1, 2, 3})
+                .then().statusCode(404);
+    }
+
+    private static io.restassured.response.Response anexar(long exameId, String nome, byte[] conteudo) {
+        return given()
+                .multiPart("arquivo", nome, conteudo, "application/dicom")
+                .when().post("/api/v1/exames/" + exameId + "/anexos");
+    }
+}
@@ -0,0 +1,148 @@
+package com.hospital;
+
+import com.hospital.controller.PaginacaoParams;
+import com.hospital.dto.PacienteDTO;
+import com.hospital.event.PacienteAlterado;
+import com.hospital.util.IndiceTrigramas;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.hospital.Cadastros.crmLivre;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.paciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A busca por nome é respondida pelo índice de trigramas: ignora acentos e maiúsculas, ordena por
+ * relevância, não consulta o banco e acompanha cadastros, alterações e exclusões.
+ */
+@QuarkusTest
+class BuscaPorNomeTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    Event<PacienteAlterado> pacienteAlterado;
+
+    @Test
+    void buscaIgnoraAcentosEOrdenaPorRelevancia() {
+        criarPaciente("Maria Ifigênia Prado", "11122233301");
+        criarPaciente("Ifigenia Couto", "11122233302");
+        criarPaciente("Ana Zifigenia", "11122233303");
+
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given().when().get("/api/v1/pacientes/busca?nome=IFIGÊNIA")
+                .then().statusCode(200)
+                .body("nome", contains("Ifigenia Couto", "Maria Ifigênia Prado", "Ana Zifigenia"));
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+
+        given().when().get("/api/v1/pacientes/busca?nome=ifigenia&limit=1")
+                .then().statusCode(200)
+                .body("itens.nome", contains("Ifigenia Couto"));
+    }
+
+    @Test
+    void indiceAcompanhaAtualizacaoEExclusao() {
+        Long id = criarPaciente("Teodoro Quintanilha", "11122233304");
+        given().when().get("/api/v1/pacientes/busca?nome=quintanilha")
+                .then().statusCode(200).body("nome", contains("Teodoro Quintanilha"));
+
+        given().contentType(ContentType.JSON)
+                .body(paciente("Teodoro Vasconcelos", "11122233304"))
+                .when().put("/api/v1/pacientes/" + id)
+                .then().statusCode(200);
+        given().when().get("/api/v1/pacientes/busca?nome=quintanilha")
+                .then().statusCode(200).body("nome", empty());
+        given().when().get("/api/v1/pacientes/busca?nome=vasconcelos")
+                .then().statusCode(200).body("nome", contains("Teodoro Vasconcelos"));
+
+        given().when().delete("/api/v1/pacientes/" + id).then().statusCode(204);
+        given().when().get("/api/v1/pacientes/busca?nome=vasconcelos")
+                .then().statusCode(200).body("nome", empty());
+    }
+
+    @Test
+    void ignoraEventosQueChegamForaDeOrdem() {
+        Long id = criarPaciente("Leocádia Bittencourt", "11122233305");
+        given().contentType(ContentType.JSON)
+                .body(paciente("Leocádia Fagundes", "11122233305"))
+                .when().put("/api/v1/pacientes/" + id)
+                .then().statusCode(200).body("versao", equalTo(1));
+
+        // O evento do cadastro (versão 0) chega depois do da atualização
+        pacienteAlterado.fire(PacienteAlterado.atualizado("11122233305", new PacienteDTO(id, "Leocádia Bittencourt",
+                "11122233305", LocalDate.of(1980, 1, 1), "leocadia@email.com", "11900000000", "Rua A", 0L)));
+        given().when().get("/api/v1/pacientes/busca?nome=bittencourt")
+                .then().statusCode(200).body("nome", empty());
+        given().when().get("/api/v1/pacientes/busca?nome=fagundes")
+                .then().statusCode(200).body("nome", contains("Leocádia Fagundes"));
+
+        // A atualização chega depois da exclusão
+        given().when().delete("/api/v1/pacientes/" + id).then().statusCode(204);
+        pacienteAlterado.fire(PacienteAlterado.atualizado("11122233305", new PacienteDTO(id, "Leocádia Fagundes",
+                "11122233305", LocalDate.of(1980, 1, 1), "leocadia@email.com", "11900000000", "Rua A", 2L)));
+        given().when().get("/api/v1/pacientes/busca?nome=fagundes")
+                .then().statusCode(200).body("nome", empty());
+    }
+
+    @Test
+    void marcasDeRemocaoVencemDepoisDaRetencao() throws InterruptedException {
+        IndiceTrigramas<String> indice = new IndiceTrigramas<>(Duration.ofMillis(100));
+        indice.indexar(1L, 0L, "Quitéria Ramalho", "primeira");
+        indice.remover(1L);
+        indice.indexar(1L, 0L, "Quitéria Ramalho", "atrasada");
+        assertEquals(0, indice.tamanho());
+
+        Thread.sleep(200);
+        // Vencida, a marca é descartada na próxima alteração e o ID deixa de ser lembrado
+        indice.remover(2L);
+        indice.indexar(1L, 0L, "Quitéria Ramalho", "depois da retenção");
+        assertEquals(1, indice.tamanho());
+    }
+
+    @Test
+    void semLimitRetornaOsMaisRelevantesAteOLimitePadrao() {
+        for (int i = 0; i <= PaginacaoParams.LIMITE_PADRAO; i++) {
+            criarMedico(String.format("Dr. Xisto Limiar %02d", i), crmLivre(), List.of());
+        }
+
+        given().when().get("/api/v1/medicos/busca?nome=xisto limiar")
+                .then().statusCode(200)
+                .body("size()", equalTo(PaginacaoParams.LIMITE_PADRAO))
+                .body("[0].nome", equalTo("Dr. Xisto Limiar 00"));
+        given().when().get("/api/v1/medicos/busca?nome=xisto limiar&limit=" + (PaginacaoParams.LIMITE_PADRAO + 10))
+                .then().statusCode(200)
+                .body("itens.size()", equalTo(PaginacaoParams.LIMITE_PADRAO + 1));
+    }
+
+    @Test
+    void recusaTermoEmBranco() {
+        given().queryParam("nome", "  ").when().get("/api/v1/pacientes/busca").then().statusCode(400);
+        given().when().get("/api/v1/pacientes/busca").then().statusCode(400);
+        given().queryParam("nome", "").queryParam("limit", 5).when().get("/api/v1/medicos/busca").then().statusCode(400);
+    }
+
+    @Test
+    void buscaDeMedicosUsaOIndice() {
+        criarMedico("Dra. Conceição Albuquerque", "66001", List.of());
+
+        given().when().get("/api/v1/medicos/busca?nome=conceicao alb")
+                .then().statusCode(200).body("nome", contains("Dra. Conceição Albuquerque"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.hospital;
+
+import com.hospital.dto.PacienteDTO;
+import com.hospital.service.CacheBuscaPorDocumento;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.medico;
+import static com.hospital.Cadastros.paciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Buscas por CPF e CRM são servidas do cache depois da primeira leitura e deixam de
+ * devolver dados antigos assim que o cadastro é criado, atualizado ou excluído, mesmo que a
+ * invalidação chegue durante a leitura.
+ */
+@QuarkusTest
+class CacheBuscaPorDocumentoTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    CacheBuscaPorDocumento cacheBuscaPorDocumento;
+
+    @Inject
+    @CacheName("pacientes-por-cpf")
+    Cache pacientesPorCpf;
+
+    @Test
+    void buscaPorCpfUsaCacheEEhInvalidadaAoAtualizarEExcluir() {
+        Long id = criarPaciente("Paciente Cache", "98765432100");
+
+        instrucoesPara("/api/v1/pacientes/cpf/98765432100");
+        assertEquals(0, instrucoesPara("/api/v1/pacientes/cpf/98765432100"));
+
+        given().contentType(ContentType.JSON)
+                .body(paciente("Paciente Cache Atualizado", "98765432100"))
+                .when().put("/api/v1/pacientes/" + id)
+                .then().statusCode(200);
+        given().when().get("/api/v1/pacientes/cpf/98765432100")
+                .then().statusCode(200).body("nome", equalTo("Paciente Cache Atualizado"));
+
+        given().when().delete("/api/v1/pacientes/" + id).then().statusCode(204);
+        given().when().get("/api/v1/pacientes/cpf/98765432100").then().statusCode(404);
+    }
+
+    @Test
+    void buscaPorCrmEhInvalidadaQuandoOCrmMuda() {
+        Long id = criarMedico("Dr. Cache", "77001", List.of());
+
+        instrucoesPara("/api/v1/medicos/crm/77001");
+        assertEquals(0, instrucoesPara("/api/v1/medicos/crm/77001"));
+
+        given().contentType(ContentType.JSON)
+                .body(medico("Dr. Cache", "77002", List.of()))
+                .when().put("/api/v1/medicos/" + id)
+                .then().statusCode(200);
+        given().when().get("/api/v1/medicos/crm/77001").then().statusCode(404);
+        given().when().get("/api/v1/medicos/crm/77002").then().statusCode(200).body("id", equalTo(id.intValue()));
+    }
+
+    @Test
+    void buscaSemResultadoEhInvalidadaAoCadastrar() {
+        given().when().get("/api/v1/pacientes/cpf/22233344428").then().statusCode(404);
+        assertEquals(0, instrucoesPara("/api/v1/pacientes/cpf/22233344428", 404));
+
+        criarPaciente("Paciente Cache Novo", "22233344428");
+        given().when().get("/api/v1/pacientes/cpf/22233344428")
+                .then().statusCode(200).body("nome", equalTo("Paciente Cache Novo"));
+    }
+
+    @Test
+    void invalidacaoDuranteACargaDescartaOResultado() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Optional<PacienteDTO>> antiga = executor.submit(() -> cacheBuscaPorDocumento.paciente("22233344429", cpf -> {
+            cargas.incrementAndGet();
+            carregando.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(new PacienteDTO(1L, "Paciente Antigo", cpf, LocalDate.of(1980, 1, 1),
+                    "antigo@paciente.com", "11900000000", "Rua Antiga", 0L));
+        }));
+        assertTrue(carregando.await(10, TimeUnit.SECONDS));
+        pacientesPorCpf.invalidate("22233344429").await().indefinitely();
+        liberar.countDown();
+        assertEquals("Paciente Antigo", antiga.get(10, TimeUnit.SECONDS).orElseThrow().getNome());
+        executor.shutdown();
+
+        Optional<PacienteDTO> atual = cacheBuscaPorDocumento.paciente("22233344429", cpf -> {
+            cargas.incrementAndGet();
+            return Optional.empty();
+        });
+        assertTrue(atual.isEmpty());
+        assertEquals(2, cargas.get());
+    }
+
+    private long instrucoesPara(String caminho) {
+        return instrucoesPara(caminho, 200);
+    }
+
+    private long instrucoesPara(String caminho, int status) {
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given().when().get(caminho).then().statusCode(status);
+        return estatisticas.getPrepareStatementCount();
+    }
+}
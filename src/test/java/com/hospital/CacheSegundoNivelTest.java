@@ -0,0 +1,60 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static com.hospital.Cadastros.criarEspecialidade;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Especialidades são dados de referência: depois da primeira leitura, buscas por ID e a listagem
+ * devem ser servidas pelo cache de segundo nível sem ir ao banco.
+ */
+@QuarkusTest
+class CacheSegundoNivelTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void buscaPorIdDeEspecialidadeUsaCache() {
+        Long id = criarEspecialidade("Dermatologia Cache");
+        String caminho = "/api/v1/especialidades/" + id;
+        instrucoesPara(caminho);
+
+        Statistics estatisticas = sessionFactory.getStatistics();
+        assertEquals(0, instrucoesPara(caminho));
+        assertTrue(estatisticas.getDomainDataRegionStatistics("com.hospital.model.Especialidade").getHitCount() > 0);
+    }
+
+    @Test
+    void listagemDeEspecialidadesUsaCacheDeConsultas() {
+        criarEspecialidade("Reumatologia Cache");
+        instrucoesPara("/api/v1/especialidades");
+
+        Statistics estatisticas = sessionFactory.getStatistics();
+        assertEquals(0, instrucoesPara("/api/v1/especialidades"));
+        assertTrue(estatisticas.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void estatisticasDoCacheSaoExpostasNasMetricas() {
+        given().when().get("/q/metrics")
+                .then().statusCode(200)
+                .body(containsString("hibernate_second_level_cache_requests_total"))
+                .body(containsString("hibernate_cache_query_requests_total"));
+    }
+
+    private long instrucoesPara(String caminho) {
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given().when().get(caminho).then().statusCode(200);
+        return estatisticas.getPrepareStatementCount();
+    }
+}
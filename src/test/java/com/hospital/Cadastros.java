@@ -0,0 +1,121 @@
+package com.hospital;
+
+import io.restassured.http.ContentType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Cadastros feitos pela API REST para preparar os cenários dos testes. Cada teste informa CRMs e CPFs
+ * próprios, para não depender da ordem em que os testes rodam; os testes de carga, que criam registros a
+ * cada execução, usam {@link #crmLivre()} e {@link #cpfLivre()}.
+ */
+final class Cadastros {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private Cadastros() {
+    }
+
+    /** CRM ainda não usado nesta execução dos testes. */
+    static String crmLivre() {
+        return String.valueOf(600000 + SEQUENCIA.incrementAndGet());
+    }
+
+    /** CPF ainda não usado nesta execução dos testes. */
+    static String cpfLivre() {
+        return String.valueOf(88800000000L + SEQUENCIA.incrementAndGet());
+    }
+
+    /** Grava o corpo com POST e devolve o ID do registro criado. */
+    static long criar(String caminho, Object corpo) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(corpo)
+                .when().post(caminho)
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+
+    static long criarEspecialidade(String nome) {
+        return criar("/api/v1/especialidades", Map.of("nome", nome, "descricao", "Especialidade " + nome + " dos testes"));
+    }
+
+    static Map<String, Object> medico(String nome, String crm, List<Long> especialidadeIds) {
+        return Map.of(
+                "nome", nome,
+                "crm", crm,
+                "email", "medico" + crm + "@hospital.com",
+                "telefone", "11900001111",
+                "especialidadeIds", especialidadeIds);
+    }
+
+    static long criarMedico(String crm) {
+        return criarMedico(crm, List.of());
+    }
+
+    static long criarMedico(String crm, List<Long> especialidadeIds) {
+        return criarMedico("Dr. Teste " + crm, crm, especialidadeIds);
+    }
+
+    static long criarMedico(String nome, String crm, List<Long> especialidadeIds) {
+        return criar("/api/v1/medicos", medico(nome, crm, especialidadeIds));
+    }
+
+    static Map<String, Object> paciente(String nome, String cpf) {
+        return Map.of(
+                "nome", nome,
+                "cpf", cpf,
+                "dataNascimento", "1985-02-20",
+                "email", "paciente" + cpf + "@paciente.com",
+                "telefone", "11900002222",
+                "endereco", "Rua dos Testes, 10");
+    }
+
+    static long criarPaciente(String cpf) {
+        return criarPaciente("Paciente " + cpf, cpf);
+    }
+
+    static long criarPaciente(String nome, String cpf) {
+        return criar("/api/v1/pacientes", paciente(nome, cpf));
+    }
+
+    static Map<String, Object> consulta(long medicoId, long pacienteId, String dataHora) {
+        return Map.of(
+                "dataHora", dataHora,
+                "status", "AGENDADA",
+                "medicoId", medicoId,
+                "pacienteId", pacienteId);
+    }
+
+    static long agendar(long medicoId, long pacienteId, String dataHora) {
+        return criar("/api/v1/consultas", consulta(medicoId, pacienteId, dataHora));
+    }
+
+    /** Agenda a consulta e a marca como realizada, o que permite solicitar exames e emitir receitas. */
+    static long consultaRealizada(long medicoId, long pacienteId, String dataHora) {
+        long id = agendar(medicoId, pacienteId, dataHora);
+        given().when().put("/api/v1/consultas/" + id + "/realizar").then().statusCode(200);
+        return id;
+    }
+
+    static long solicitarExame(long consultaId, String nome, String tipo) {
+        return solicitarExame(consultaId, nome, tipo, null);
+    }
+
+    static long solicitarExame(long consultaId, String nome, String tipo, Integer prioridade) {
+        Map<String, Object> exame = new HashMap<>();
+        exame.put("consultaId", consultaId);
+        exame.put("nome", nome);
+        exame.put("tipo", tipo);
+        exame.put("dataSolicitacao", "2024-01-01T00:00:00");
+        if (prioridade != null) {
+            exame.put("prioridade", prioridade);
+        }
+        return criar("/api/v1/exames", exame);
+    }
+}
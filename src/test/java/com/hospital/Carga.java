@@ -0,0 +1,127 @@
+package com.hospital;
+
+import io.restassured.RestAssured;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera carga com muitos clientes simultâneos sobre leituras que usam o banco e mede vazão e latência,
+ * para comparar os modelos de execução dos endpoints: pool de workers, threads virtuais e leituras reativas.
+ * <p>
+ * Clientes e duração vêm de {@code -Dcarga.clientes} (padrão 400) e {@code -Dcarga.duracao}
+ * (padrão PT15S); os primeiros {@code -Dcarga.aquecimento} (padrão PT3S) não entram na medição.
+ */
+final class Carga {
+
+    private static final Logger LOG = Logger.getLogger(Carga.class);
+
+    private Carga() {
+    }
+
+    static Resultado executar(String modelo) throws Exception {
+        int clientes = Integer.getInteger("carga.clientes", 400);
+        Duration duracao = Duration.parse(System.getProperty("carga.duracao", "PT15S"));
+        Duration aquecimento = Duration.parse(System.getProperty("carga.aquecimento", "PT3S"));
+
+        List<URI> alvos = prepararAlvos();
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long inicioMedicao = System.nanoTime() + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+        AtomicInteger erros = new AtomicInteger();
+
+        List<long[]> latenciasPorCliente = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> tarefas = new ArrayList<>();
+            for (int c = 0; c < clientes; c++) {
+                int cliente = c;
+                tarefas.add(executor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int medidas = 0;
+                    for (int i = cliente; System.nanoTime() < fim; i++) {
+                        HttpRequest requisicao = HttpRequest.newBuilder(alvos.get(i % alvos.size())).GET().build();
+                        long inicio = System.nanoTime();
+                        HttpResponse<Void> resposta = http.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                        long latencia = System.nanoTime() - inicio;
+                        if (resposta.statusCode() != 200) {
+                            erros.incrementAndGet();
+                        } else if (inicio >= inicioMedicao) {
+                            if (medidas == latencias.length) {
+                                latencias = Arrays.copyOf(latencias, medidas * 2);
+                            }
+                            latencias[medidas++] = latencia;
+                        }
+                    }
+                    return Arrays.copyOf(latencias, medidas);
+                }));
+            }
+            for (Future<long[]> tarefa : tarefas) {
+                latenciasPorCliente.add(tarefa.get());
+            }
+        }
+
+        long[] todas = latenciasPorCliente.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        Resultado resultado = new Resultado(modelo, clientes, todas.length / (double) duracao.toSeconds(),
+                percentil(todas, 0.50), percentil(todas, 0.99), erros.get());
+        LOG.info(resultado);
+        return resultado;
+    }
+
+    private static List<URI> prepararAlvos() {
+        long medicoId = Cadastros.criarMedico(Cadastros.crmLivre());
+        long pacienteId = Cadastros.criarPaciente(Cadastros.cpfLivre());
+
+        String base = RestAssured.baseURI + ":" + RestAssured.port;
+        return List.of(
+                URI.create(base + "/api/v1/pacientes/" + pacienteId),
+                URI.create(base + "/api/v1/medicos/" + medicoId),
+                URI.create(base + "/api/v1/consultas/medico/" + medicoId + "?limit=20"),
+                URI.create(base + "/api/v1/consultas/paciente/" + pacienteId + "?limit=20"));
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+
+    static final class Resultado {
+
+        final String modelo;
+        final int clientes;
+        final double requisicoesPorSegundo;
+        final double p50Ms;
+        final double p99Ms;
+        final int erros;
+
+        Resultado(String modelo, int clientes, double requisicoesPorSegundo, double p50Ms, double p99Ms, int erros) {
+            this.modelo = modelo;
+            this.clientes = clientes;
+            this.requisicoesPorSegundo = requisicoesPorSegundo;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.erros = erros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Carga [%s] %d clientes: %.0f req/s, p50 %.1f ms, p99 %.1f ms, %d erros",
+                    modelo, clientes, requisicoesPorSegundo, p50Ms, p99Ms, erros);
+        }
+    }
+}
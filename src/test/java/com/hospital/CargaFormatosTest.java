@@ -0,0 +1,143 @@
+package com.hospital;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.model.enums.StatusConsulta;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static com.hospital.Cadastros.cpfLivre;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.crmLivre;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara JSON e CBOR numa listagem grande de consultas: bytes transferidos sem compressão, com gzip e
+ * com brotli, e CPU gasta para serializar (e comprimir com gzip) a mesma lista.
+ * Executado só com {@code mvn test -Pcarga}; o tamanho da lista vem de {@code -Dcarga.consultas}
+ * (padrão 1000).
+ */
+@QuarkusTest
+@Tag("carga")
+class CargaFormatosTest {
+
+    private static final Logger LOG = Logger.getLogger(CargaFormatosTest.class);
+
+    private static final int CONSULTAS_POR_LOTE = 50;
+    private static final int REPETICOES = 200;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    void bytesECpuPorFormato() throws Exception {
+        int quantidade = Integer.getInteger("carga.consultas", 1000);
+        Long medicoId = agendarConsultas(quantidade);
+
+        HttpClient http = HttpClient.newHttpClient();
+        URI uri = URI.create(RestAssured.baseURI + ":" + RestAssured.port + "/api/v1/consultas/medico/" + medicoId);
+        Map<String, Integer> bytes = new LinkedHashMap<>();
+        for (String formato : List.of("application/json", "application/cbor")) {
+            for (String codificacao : List.of("identity", "gzip", "br")) {
+                HttpResponse<byte[]> resposta = http.send(HttpRequest.newBuilder(uri)
+                        .header("Accept", formato)
+                        .header("Accept-Encoding", codificacao)
+                        .GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(200, resposta.statusCode());
+                bytes.put(formato + " " + codificacao, resposta.body().length);
+            }
+        }
+        bytes.forEach((chave, tamanho) -> LOG.infof("Formatos [%d consultas] %s: %d bytes", quantidade, chave, tamanho));
+        assertTrue(bytes.get("application/cbor identity") < bytes.get("application/json identity"));
+        assertTrue(bytes.get("application/json gzip") < bytes.get("application/json identity"));
+
+        List<ConsultaDTO> consultas = consultas(quantidade);
+        medirCpu("application/json", objectMapper.writer(), consultas);
+        medirCpu("application/cbor", objectMapper.copyWith(new CBORFactory()).writer(), consultas);
+    }
+
+    private static void medirCpu(String formato, ObjectWriter writer, List<ConsultaDTO> consultas) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < REPETICOES; i++) {
+            gzip(writer.writeValueAsBytes(consultas));
+        }
+        long serializacao = 0;
+        long compressao = 0;
+        for (int i = 0; i < REPETICOES; i++) {
+            long inicio = threads.getCurrentThreadCpuTime();
+            byte[] corpo = writer.writeValueAsBytes(consultas);
+            long meio = threads.getCurrentThreadCpuTime();
+            gzip(corpo);
+            serializacao += meio - inicio;
+            compressao += threads.getCurrentThreadCpuTime() - meio;
+        }
+        LOG.infof("Formatos [%d consultas] %s: serialização %.0f µs de CPU, gzip %.0f µs de CPU",
+                consultas.size(), formato, serializacao / 1000.0 / REPETICOES, compressao / 1000.0 / REPETICOES);
+    }
+
+    private static byte[] gzip(byte[] corpo) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(corpo);
+        }
+        return saida.toByteArray();
+    }
+
+    private static List<ConsultaDTO> consultas(int quantidade) {
+        LocalDateTime inicio = LocalDateTime.of(2033, 1, 3, 8, 0);
+        List<ConsultaDTO> consultas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            consultas.add(new ConsultaDTO((long) i + 1, inicio.plusHours(i), StatusConsulta.AGENDADA, 1L, 1L + i % 50,
+                    "Retorno para avaliação de exames " + i, 0L));
+        }
+        return consultas;
+    }
+
+    private static Long agendarConsultas(int quantidade) {
+        Long medicoId = criarMedico(crmLivre());
+        Long pacienteId = criarPaciente(cpfLivre());
+
+        for (ConsultaDTO[] lote : lotes(consultas(quantidade), medicoId, pacienteId)) {
+            given().contentType(ContentType.JSON)
+                    .body(Map.of("modo", "TUDO_OU_NADA", "consultas", lote))
+                    .when().post("/api/v1/consultas/lote")
+                    .then().statusCode(200);
+        }
+        return medicoId;
+    }
+
+    private static List<ConsultaDTO[]> lotes(List<ConsultaDTO> modelos, Long medicoId, Long pacienteId) {
+        List<ConsultaDTO[]> lotes = new ArrayList<>();
+        for (int i = 0; i < modelos.size(); i += CONSULTAS_POR_LOTE) {
+            List<ConsultaDTO> parte = modelos.subList(i, Math.min(i + CONSULTAS_POR_LOTE, modelos.size()));
+            lotes.add(parte.stream()
+                    .map(c -> new ConsultaDTO(null, c.getDataHora(), c.getStatus(), medicoId, pacienteId, c.getObservacao(), null))
+                    .toArray(ConsultaDTO[]::new));
+        }
+        return lotes;
+    }
+}
@@ -0,0 +1,147 @@
+package com.hospital;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.grpc.proto.Consulta;
+import com.hospital.grpc.proto.Consultas;
+import com.hospital.grpc.proto.PorMedico;
+import com.hospital.grpc.proto.ResultadoLote;
+import io.quarkus.grpc.GrpcClient;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.cpfLivre;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.crmLivre;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara a integração em lote pela API REST (JSON) e pelo gRPC: agendar {@code -Dcarga.consultas}
+ * consultas (padrão 5000; REST em lotes de 50 por requisição, gRPC num único client-streaming) e
+ * listá-las {@code -Dcarga.leituras} vezes (padrão 20; REST numa lista JSON, gRPC por server-streaming).
+ * Executado só com {@code mvn test -Pcarga}.
+ */
+@QuarkusTest
+@Tag("carga")
+class CargaGrpcTest {
+
+    private static final Logger LOG = Logger.getLogger(CargaGrpcTest.class);
+
+    private static final int CONSULTAS_POR_REQUISICAO = 50;
+    private static final Duration ESPERA = Duration.ofMinutes(5);
+
+    @GrpcClient
+    Consultas consultas;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void restContraGrpc() throws Exception {
+        int quantidade = Integer.getInteger("carga.consultas", 5000);
+        int leituras = Integer.getInteger("carga.leituras", 20);
+        long pacienteId = criarPaciente(cpfLivre());
+
+        // Aquecimento dos dois caminhos, fora da medição
+        agendarPorRest(criarMedico(crmLivre()), pacienteId, 200);
+        agendarPorGrpc(criarMedico(crmLivre()), pacienteId, 200);
+
+        long medicoRest = criarMedico(crmLivre());
+        long inicio = System.nanoTime();
+        agendarPorRest(medicoRest, pacienteId, quantidade);
+        registrar("escrita", "REST", quantidade, System.nanoTime() - inicio);
+
+        long medicoGrpc = criarMedico(crmLivre());
+        inicio = System.nanoTime();
+        agendarPorGrpc(medicoGrpc, pacienteId, quantidade);
+        registrar("escrita", "gRPC", quantidade, System.nanoTime() - inicio);
+
+        long bytesRest = 0;
+        inicio = System.nanoTime();
+        for (int i = 0; i < leituras; i++) {
+            HttpResponse<byte[]> resposta = http.send(HttpRequest.newBuilder(uri("/api/v1/consultas/medico/" + medicoRest))
+                    .header("Accept-Encoding", "identity")
+                    .GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, resposta.statusCode());
+            bytesRest = resposta.body().length;
+            assertEquals(quantidade, objectMapper.readTree(resposta.body()).size());
+        }
+        registrar("leitura", "REST", quantidade * leituras, System.nanoTime() - inicio);
+
+        long bytesGrpc = 0;
+        inicio = System.nanoTime();
+        for (int i = 0; i < leituras; i++) {
+            List<Consulta> lidas = consultas.listarPorMedico(PorMedico.newBuilder().setMedicoId(medicoGrpc).build())
+                    .collect().asList().await().atMost(ESPERA);
+            assertEquals(quantidade, lidas.size());
+            bytesGrpc = lidas.stream().mapToLong(Consulta::getSerializedSize).sum();
+        }
+        registrar("leitura", "gRPC", quantidade * leituras, System.nanoTime() - inicio);
+        LOG.infof("REST x gRPC [%d consultas]: lista com %d bytes em JSON e %d bytes em protobuf",
+                quantidade, bytesRest, bytesGrpc);
+    }
+
+    private void agendarPorRest(long medicoId, long pacienteId, int quantidade) {
+        List<Map<String, Object>> lote = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            lote.add(Map.of(
+                    "dataHora", horario(i).toString(),
+                    "status", "AGENDADA",
+                    "medicoId", medicoId,
+                    "pacienteId", pacienteId,
+                    "observacao", "Consulta de acompanhamento " + i));
+            if (lote.size() == CONSULTAS_POR_REQUISICAO || i == quantidade - 1) {
+                given().contentType(ContentType.JSON)
+                        .body(Map.of("modo", "MELHOR_ESFORCO", "consultas", lote))
+                        .when().post("/api/v1/consultas/lote")
+                        .then().statusCode(200);
+                lote.clear();
+            }
+        }
+    }
+
+    private void agendarPorGrpc(long medicoId, long pacienteId, int quantidade) {
+        ResultadoLote resultado = consultas.agendarEmLote(Multi.createFrom().range(0, quantidade)
+                        .map(i -> Consulta.newBuilder()
+                                .setDataHora(horario(i).toString())
+                                .setMedicoId(medicoId)
+                                .setPacienteId(pacienteId)
+                                .setObservacao("Consulta de acompanhamento " + i)
+                                .build()))
+                .await().atMost(ESPERA);
+        assertEquals(quantidade, resultado.getGravados());
+    }
+
+    private static LocalDateTime horario(int i) {
+        return LocalDateTime.of(2034, 1, 2, 0, 0).plusMinutes(30L * i);
+    }
+
+    private static void registrar(String operacao, String caminho, int registros, long nanos) {
+        double segundos = nanos / 1e9;
+        LOG.infof("REST x gRPC [%s] %s: %d registros em %.2f s (%.0f registros/s)",
+                operacao, caminho, registros, segundos, registros / segundos);
+    }
+
+    private static URI uri(String caminho) {
+        return URI.create(RestAssured.baseURI + ":" + RestAssured.port + caminho);
+    }
+}
@@ -0,0 +1,33 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A mesma carga de {@link CargaPoolWorkersTest} com as leituras reativas habilitadas (perfil
+ * {@code reativo}): conexões no event loop e JDBC num pool fixo do tamanho do pool de conexões.
+ */
+@QuarkusTest
+@TestProfile(CargaLeiturasReativasTest.Perfil.class)
+@Tag("carga")
+class CargaLeiturasReativasTest {
+
+    public static class Perfil implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("leituras-reativas.habilitadas", "true");
+        }
+    }
+
+    @Test
+    void cargaComLeiturasReativas() throws Exception {
+        assertEquals(0, Carga.executar("leituras reativas").erros);
+    }
+}
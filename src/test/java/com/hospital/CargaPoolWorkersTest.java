@@ -0,0 +1,21 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Linha de base da comparação de carga: todos os endpoints no pool de workers.
+ * Executado só com {@code mvn test -Pcarga}; compare com {@link CargaThreadsVirtuaisTest}.
+ */
+@QuarkusTest
+@Tag("carga")
+class CargaPoolWorkersTest {
+
+    @Test
+    void cargaNoPoolDeWorkers() throws Exception {
+        assertEquals(0, Carga.executar("pool de workers").erros);
+    }
+}
@@ -0,0 +1,33 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A mesma carga de {@link CargaPoolWorkersTest} com os controllers exercitados em threads virtuais.
+ * Fixações de thread virtual durante a carga aparecem no log do {@code MonitorFixacaoThreadsVirtuais}.
+ */
+@QuarkusTest
+@TestProfile(CargaThreadsVirtuaisTest.Perfil.class)
+@Tag("carga")
+class CargaThreadsVirtuaisTest {
+
+    public static class Perfil implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.virtual-threads.enabled", "true");
+        }
+    }
+
+    @Test
+    void cargaEmThreadsVirtuais() throws Exception {
+        assertEquals(0, Carga.executar("threads virtuais").erros);
+    }
+}
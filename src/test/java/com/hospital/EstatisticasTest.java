@@ -0,0 +1,138 @@
+package com.hospital;
+
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.repository.ConsultaRepository;
+import com.hospital.service.Estatisticas;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.agroal.api.AgroalDataSource;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.agendar;
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.medico;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * As estatísticas acompanham as operações de consultas, exames e médicos assim que elas são
+ * confirmadas, e a reconciliação corrige o que foi alterado por fora da API.
+ */
+@QuarkusTest
+class EstatisticasTest {
+
+    private static final String DIA = "2032-09-01";
+
+    @Inject
+    Estatisticas estatisticas;
+
+    @Inject
+    ConsultaRepository consultaRepository;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void acompanhaAsOperacoesEReconciliaComAsTabelas() {
+        long especialidadeId = criarEspecialidade("Estatística Clínica");
+        long medicoId = criarMedico("78016", List.of(especialidadeId));
+        long pacienteId = criarPaciente("22233344417");
+        JsonPath inicio = estatisticas();
+        assertEquals(0, inicio.getInt("consultasPorStatus.AGENDADA"));
+        assertNull(porChave(inicio, "consultasPorMedico", medicoId));
+        int laboratoriaisPendentes = inicio.getInt("examesPendentesPorTipo.LABORATORIAL");
+
+        long realizada = agendar(medicoId, pacienteId, DIA + "T09:00:00");
+        long cancelada = agendar(medicoId, pacienteId, DIA + "T10:00:00");
+        long agendada = agendar(medicoId, pacienteId, DIA + "T11:00:00");
+        given().when().put("/api/v1/consultas/" + realizada + "/realizar").then().statusCode(200);
+        given().when().put("/api/v1/consultas/" + cancelada + "/cancelar").then().statusCode(200);
+
+        JsonPath depois = estatisticas();
+        assertEquals(1, depois.getInt("consultasPorStatus.AGENDADA"));
+        assertEquals(1, depois.getInt("consultasPorStatus.REALIZADA"));
+        assertEquals(1, depois.getInt("consultasPorStatus.CANCELADA"));
+        assertEquals(2, porChave(depois, "consultasPorMedico", medicoId));
+        assertEquals(2, porChave(depois, "consultasPorEspecialidade", especialidadeId));
+        // Os totais estão no banco, não na memória da instância
+        assertEquals(2, contador("SELECT total FROM estatisticas_consultas_medico WHERE medico_id = " + medicoId));
+        assertEquals(1, contador("SELECT total FROM estatisticas_consultas_dia WHERE dia = DATE '" + DIA
+                + "' AND status = 'CANCELADA'"));
+
+        long hemograma = solicitarExame(realizada, "Hemograma", "LABORATORIAL");
+        solicitarExame(realizada, "Glicemia", "LABORATORIAL");
+        assertEquals(laboratoriaisPendentes + 2, estatisticas().getInt("examesPendentesPorTipo.LABORATORIAL"));
+        given().queryParam("resultado", "Sem alterações")
+                .when().put("/api/v1/exames/" + hemograma + "/resultado")
+                .then().statusCode(200);
+        assertEquals(laboratoriaisPendentes + 1, estatisticas().getInt("examesPendentesPorTipo.LABORATORIAL"));
+
+        // Sem a especialidade, as consultas do médico deixam de contar para ela
+        atualizarMedico(medicoId, "78016", List.of());
+        assertNull(porChave(estatisticas(), "consultasPorEspecialidade", especialidadeId));
+        atualizarMedico(medicoId, "78016", List.of(especialidadeId));
+        assertEquals(2, porChave(estatisticas(), "consultasPorEspecialidade", especialidadeId));
+
+        // Alteração direta na tabela: só a reconciliação percebe
+        QuarkusTransaction.requiringNew().run(() ->
+                consultaRepository.update("status = ?1 WHERE id = ?2", StatusConsulta.CANCELADA, agendada));
+        assertEquals(1, estatisticas().getInt("consultasPorStatus.AGENDADA"));
+        assertTrue(estatisticas.reconciliar());
+        assertFalse(estatisticas.reconciliar());
+        JsonPath reconciliado = estatisticas();
+        assertNotNull(reconciliado.getString("reconciliadoEm"));
+        assertEquals(0, reconciliado.getInt("consultasPorStatus.AGENDADA"));
+        assertEquals(2, reconciliado.getInt("consultasPorStatus.CANCELADA"));
+        assertEquals(1, porChave(reconciliado, "consultasPorMedico", medicoId));
+        assertEquals(1, porChave(reconciliado, "consultasPorEspecialidade", especialidadeId));
+        assertEquals(laboratoriaisPendentes + 1, reconciliado.getInt("examesPendentesPorTipo.LABORATORIAL"));
+    }
+
+    private long contador(String sql) {
+        try (Connection conexao = dataSource.getConnection();
+             Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(sql)) {
+            assertTrue(resultado.next(), sql);
+            return resultado.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void atualizarMedico(long id, String crm, List<Long> especialidadeIds) {
+        given()
+                .contentType(ContentType.JSON)
+                .body(medico("Dr. Teste " + crm, crm, especialidadeIds))
+                .when().put("/api/v1/medicos/" + id)
+                .then().statusCode(200);
+    }
+
+    private static JsonPath estatisticas() {
+        return given().queryParam("data", DIA)
+                .when().get("/api/v1/estatisticas")
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    private static Integer porChave(JsonPath estatisticas, String contagem, long id) {
+        Map<String, Integer> totais = estatisticas.getMap(contagem, String.class, Integer.class);
+        return totais.get(String.valueOf(id));
+    }
+}
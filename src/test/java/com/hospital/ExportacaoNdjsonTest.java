@@ -0,0 +1,132 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.agendar;
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.criar;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A exportação de consultas, exames, receitas e prontuários é ativada por {@code ?stream=true} ou por
+ * {@code Accept: application/x-ndjson} e transmite todos os registros em NDJSON, um objeto por linha em
+ * ordem de ID, com os mesmos campos da consulta por ID.
+ */
+@QuarkusTest
+class ExportacaoNdjsonTest {
+
+    @Test
+    void exportaConsultas() {
+        long medicoId = criarMedico("78042");
+        long pacienteId = criarPaciente("22233344431");
+        long consultaId = agendar(medicoId, pacienteId, "2033-02-01T09:00:00");
+
+        List<JsonPath> linhas = exportar("/api/v1/consultas");
+
+        assertEquals(given().when().get("/api/v1/consultas").then().statusCode(200)
+                .extract().jsonPath().getList("$").size(), linhas.size());
+        assertEquals(registro("/api/v1/consultas/" + consultaId), doId(linhas, consultaId));
+    }
+
+    @Test
+    void exportaExamesReceitasEProntuarios() {
+        long consultaId = consultaRealizada(criarMedico("78043"), criarPaciente("22233344432"), "2033-02-01T10:00:00");
+        long exameId = solicitarExame(consultaId, "Raio X de Tórax", "IMAGEM");
+        long receitaId = criar("/api/v1/receitas", Map.of(
+                "consultaId", consultaId,
+                "medicamento", "Amoxicilina",
+                "posologia", "1 cápsula a cada 8 horas",
+                "dataEmissao", "2024-01-01T00:00:00",
+                "dataValidade", "2033-12-31T00:00:00"));
+        long prontuarioId = criar("/api/v1/prontuarios", Map.of(
+                "consultaId", consultaId,
+                "anamnese", "Tosse há duas semanas",
+                "dataCriacao", "2024-01-01T00:00:00"));
+
+        assertEquals(registro("/api/v1/exames/" + exameId), doId(exportar("/api/v1/exames"), exameId));
+        assertEquals(registro("/api/v1/receitas/" + receitaId), doId(exportar("/api/v1/receitas"), receitaId));
+        assertEquals(registro("/api/v1/prontuarios/" + prontuarioId),
+                doId(exportar("/api/v1/prontuarios"), prontuarioId));
+    }
+
+    @Test
+    void acceptNdjsonTambemAtivaAExportacao() {
+        Response resposta = given().accept("application/x-ndjson")
+                .when().get("/api/v1/exames");
+        resposta.then().statusCode(200)
+                .contentType(startsWith("application/x-ndjson"));
+        assertEquals(exportar("/api/v1/exames").size(), linhas(resposta.asString()).size());
+    }
+
+    @Test
+    void semStreamNemAcceptNdjsonALista() {
+        for (String accept : List.of("application/json", "*/*")) {
+            given().accept(accept)
+                    .when().get("/api/v1/receitas")
+                    .then().statusCode(200)
+                    .contentType(startsWith("application/json"));
+        }
+        // O pedido de exportação prevalece sobre o de paginação
+        given().queryParam("stream", true)
+                .queryParam("limit", 1)
+                .when().get("/api/v1/receitas")
+                .then().statusCode(200)
+                .contentType(startsWith("application/x-ndjson"));
+    }
+
+    /**
+     * Exporta com {@code ?stream=true} e confere que cada linha do corpo é um objeto JSON e que os IDs vêm
+     * em ordem crescente.
+     */
+    private static List<JsonPath> exportar(String caminho) {
+        String corpo = given().queryParam("stream", true)
+                .when().get(caminho)
+                .then().statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .extract().asString();
+        assertTrue(corpo.endsWith("\n"), caminho);
+        List<JsonPath> objetos = linhas(corpo);
+        for (int i = 1; i < objetos.size(); i++) {
+            assertTrue(objetos.get(i - 1).getLong("id") < objetos.get(i).getLong("id"), caminho + " linha " + i);
+        }
+        return objetos;
+    }
+
+    private static List<JsonPath> linhas(String corpo) {
+        List<JsonPath> objetos = new ArrayList<>();
+        for (String linha : corpo.split("\n")) {
+            assertTrue(linha.startsWith("{") && linha.endsWith("}"), linha);
+            objetos.add(JsonPath.from(linha));
+        }
+        return objetos;
+    }
+
+    private static Map<String, Object> doId(List<JsonPath> linhas, long id) {
+        List<Map<String, Object>> encontradas = linhas.stream()
+                .filter(linha -> linha.getLong("id") == id)
+                .map(linha -> linha.<String, Object>getMap("$"))
+                .toList();
+        assertEquals(1, encontradas.size(), "ID " + id);
+        return encontradas.get(0);
+    }
+
+    private static Map<String, Object> registro(String caminho) {
+        return given().accept("application/json")
+                .when().get(caminho)
+                .then().statusCode(200)
+                .extract().jsonPath().getMap("$");
+    }
+}
@@ -0,0 +1,142 @@
+package com.hospital;
+
+import com.hospital.model.enums.StatusExame;
+import com.hospital.repository.ExameRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bancadas reservam exames da fila do tipo por prioridade; bancadas concorrentes nunca ficam com o mesmo
+ * exame, e uma reserva vencida devolve o exame à fila.
+ */
+@QuarkusTest
+class FilaExamesTest {
+
+    private static final String FILA = "/api/v1/exames/fila/IMAGEM/reservas";
+    private static final int BANCADAS = 8;
+    private static final int EXAMES_CONCORRIDOS = 24;
+
+    @Inject
+    ExameRepository exameRepository;
+
+    @Test
+    void reservaPorPrioridadeEAcompanhaAsSituacoes() {
+        long consultaId = consultaRealizada(criarMedico("78013"), criarPaciente("22233344414"), "2032-07-01T09:00:00");
+        long rotina = solicitarExame(consultaId, "Ultrassom de rotina", "IMAGEM", 0);
+        long urgente = solicitarExame(consultaId, "Tomografia urgente", "IMAGEM", 9);
+        long emSeguida = solicitarExame(consultaId, "Raio-X do tórax", "IMAGEM", 8);
+
+        given().queryParam("responsavel", "bancada-1")
+                .when().post(FILA)
+                .then().statusCode(200)
+                .body("id", equalTo((int) urgente))
+                .body("status", equalTo("AGENDADO"))
+                .body("responsavel", equalTo("bancada-1"))
+                .body("reservadoAte", notNullValue());
+        given().queryParam("responsavel", "bancada-2")
+                .when().post(FILA)
+                .then().statusCode(200)
+                .body("id", equalTo((int) emSeguida));
+
+        // Só quem reservou renova, libera ou conclui
+        given().queryParam("responsavel", "bancada-2")
+                .when().put("/api/v1/exames/" + urgente + "/reserva")
+                .then().statusCode(400);
+        given().queryParam("responsavel", "bancada-1")
+                .when().put("/api/v1/exames/" + urgente + "/reserva")
+                .then().statusCode(200).body("status", equalTo("AGENDADO"));
+        given().queryParam("responsavel", "bancada-1")
+                .when().put("/api/v1/exames/" + urgente + "/realizado")
+                .then().statusCode(200)
+                .body("status", equalTo("REALIZADO"))
+                .body("responsavel", nullValue());
+        given().queryParam("resultado", "Sem achados")
+                .when().put("/api/v1/exames/" + urgente + "/resultado")
+                .then().statusCode(200).body("status", equalTo("RESULTADO_DISPONIVEL"));
+
+        // Liberado, volta para a fila à frente dos exames de rotina
+        given().queryParam("responsavel", "bancada-2")
+                .when().delete("/api/v1/exames/" + emSeguida + "/reserva")
+                .then().statusCode(200).body("status", equalTo("SOLICITADO"));
+        given().queryParam("responsavel", "bancada-3")
+                .when().post(FILA)
+                .then().statusCode(200).body("id", equalTo((int) emSeguida));
+
+        // Reserva vencida: o exame volta para a fila na próxima reserva
+        QuarkusTransaction.requiringNew().run(() -> exameRepository.update(
+                "reservadoAte = :vencida WHERE id = :id",
+                Parameters.with("vencida", LocalDateTime.now().minusMinutes(1)).and("id", emSeguida)));
+        given().queryParam("responsavel", "bancada-4")
+                .when().post(FILA)
+                .then().statusCode(200)
+                .body("id", equalTo((int) emSeguida))
+                .body("responsavel", equalTo("bancada-4"));
+        given().queryParam("responsavel", "bancada-3")
+                .when().put("/api/v1/exames/" + emSeguida + "/realizado")
+                .then().statusCode(400);
+
+        given().when().get("/api/v1/exames/" + rotina)
+                .then().statusCode(200)
+                .body("status", equalTo(StatusExame.SOLICITADO.name()))
+                .body("prioridade", equalTo(0));
+    }
+
+    @Test
+    void bancadasConcorrentesNaoReservamOMesmoExame() throws Exception {
+        long consultaId = consultaRealizada(criarMedico("78014"), criarPaciente("22233344415"), "2032-07-02T09:00:00");
+        Set<Long> solicitados = new HashSet<>();
+        for (int i = 0; i < EXAMES_CONCORRIDOS; i++) {
+            solicitados.add(solicitarExame(consultaId, "Ressonância " + i, "IMAGEM", 7));
+        }
+
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(BANCADAS);
+        List<Future<List<Long>>> bancadas = new ArrayList<>();
+        for (int b = 0; b < BANCADAS; b++) {
+            String responsavel = "concorrente-" + b;
+            bancadas.add(executor.submit(() -> {
+                largada.await();
+                List<Long> reservados = new ArrayList<>();
+                for (int i = 0; i < EXAMES_CONCORRIDOS / BANCADAS; i++) {
+                    Response resposta = given().queryParam("responsavel", responsavel).when().post(FILA);
+                    assertEquals(200, resposta.statusCode());
+                    reservados.add(resposta.jsonPath().getLong("id"));
+                }
+                return reservados;
+            }));
+        }
+        largada.countDown();
+        List<Long> reservados = new ArrayList<>();
+        for (Future<List<Long>> bancada : bancadas) {
+            reservados.addAll(bancada.get());
+        }
+        executor.shutdown();
+
+        assertEquals(EXAMES_CONCORRIDOS, new HashSet<>(reservados).size(), "exame reservado por duas bancadas");
+        assertEquals(solicitados, new HashSet<>(reservados));
+    }
+}
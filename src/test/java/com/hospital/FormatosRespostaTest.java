@@ -0,0 +1,152 @@
+package com.hospital;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.crmLivre;
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.medico;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Os recursos negociam CBOR além de JSON, com os mesmos campos, e as respostas são comprimidas conforme
+ * o {@code Accept-Encoding}, exceto as menores que {@code compressao.tamanho-minimo}. Cada formato tem o
+ * seu ETag, e as respostas declaram que variam com {@code Accept} e {@code Accept-Encoding}.
+ */
+@QuarkusTest
+class FormatosRespostaTest {
+
+    private static final CBORMapper CBOR = new CBORMapper();
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void leEEscreveCbor() throws Exception {
+        byte[] corpo = CBOR.writeValueAsBytes(Map.of(
+                "nome", "Dr. Binário",
+                "crm", "78009",
+                "email", "cbor@hospital.com",
+                "telefone", "11922220000",
+                "especialidadeIds", List.of()));
+        byte[] criado = given()
+                .contentType("application/cbor")
+                .accept("application/cbor")
+                .body(corpo)
+                .when().post("/api/v1/medicos")
+                .then().statusCode(201).contentType("application/cbor")
+                .extract().asByteArray();
+        JsonNode medico = CBOR.readTree(criado);
+        assertEquals("Dr. Binário", medico.get("nome").asText());
+
+        given().accept(ContentType.JSON)
+                .when().get("/api/v1/medicos/" + medico.get("id").asLong())
+                .then().statusCode(200).body("crm", equalTo("78009"));
+
+        byte[] erro = given().accept("application/cbor")
+                .when().get("/api/v1/medicos/999999")
+                .then().statusCode(404).contentType("application/cbor")
+                .extract().asByteArray();
+        assertEquals(404, CBOR.readTree(erro).get("status").asInt());
+    }
+
+    @Test
+    void comprimeSoRespostasGrandes() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            criarEspecialidade("Especialidade Comprimida " + i);
+        }
+
+        HttpResponse<byte[]> lista = get("/api/v1/especialidades", "gzip");
+        assertEquals("gzip", lista.headers().firstValue("Content-Encoding").orElse(null));
+        HttpResponse<byte[]> semCompressao = get("/api/v1/especialidades", "identity");
+        assertTrue(lista.body().length < semCompressao.body().length / 2);
+
+        HttpResponse<byte[]> pequena = get("/api/v1/especialidades/nome/Especialidade%20Comprimida%200", "gzip");
+        assertEquals(200, pequena.statusCode());
+        assertEquals("identity", pequena.headers().firstValue("Content-Encoding").orElse("identity"));
+    }
+
+    @Test
+    void etagEVaryDependemDaRepresentacao() {
+        long id = criarMedico("78029");
+        String json = given().accept(ContentType.JSON)
+                .when().get("/api/v1/medicos/" + id)
+                .then().statusCode(200)
+                .header("Vary", allOf(containsString("Accept"), containsString("Accept-Encoding")))
+                .extract().header("ETag");
+        String cbor = given().accept("application/cbor")
+                .when().get("/api/v1/medicos/" + id)
+                .then().statusCode(200)
+                .extract().header("ETag");
+        assertEquals("W/\"" + id + ".0\"", json);
+        assertEquals("W/\"" + id + ".0-cbor\"", cbor);
+
+        // O ETag do JSON não valida a cópia em CBOR, e vice-versa
+        given().accept("application/cbor").header("If-None-Match", json)
+                .when().get("/api/v1/medicos/" + id)
+                .then().statusCode(200).contentType("application/cbor");
+        given().accept("application/cbor").header("If-None-Match", cbor)
+                .when().get("/api/v1/medicos/" + id)
+                .then().statusCode(304)
+                .header("ETag", cbor)
+                .header("Vary", allOf(containsString("Accept"), containsString("Accept-Encoding")));
+        given().accept(ContentType.JSON).header("If-None-Match", cbor)
+                .when().get("/api/v1/medicos/" + id)
+                .then().statusCode(200);
+
+        given().contentType(ContentType.JSON).header("If-Match", cbor)
+                .body(medico("Dr. Representado", "78029", List.of()))
+                .when().put("/api/v1/medicos/" + id)
+                .then().statusCode(200).header("ETag", "W/\"" + id + ".1\"");
+    }
+
+    @Test
+    void etagFracoQuandoARespostaPodeSairComprimida() throws Exception {
+        long id = criarMedico(crmLivre());
+        String caminho = "/api/v1/medicos/" + id;
+
+        // Só a representação sem compressão tem ETag forte; o gzip tem outros bytes
+        HttpResponse<byte[]> identidade = get(caminho, "identity");
+        assertEquals("\"" + id + ".0\"", identidade.headers().firstValue("ETag").orElse(null));
+        for (String codificacao : List.of("gzip", "br;q=0.5, identity", "*")) {
+            assertEquals("W/\"" + id + ".0\"", get(caminho, codificacao).headers().firstValue("ETag").orElse(null),
+                    codificacao);
+        }
+        assertEquals("\"" + id + ".0\"", get(caminho, "gzip;q=0").headers().firstValue("ETag").orElse(null));
+
+        // If-None-Match compara de forma fraca: qualquer das duas formas valida a cópia do cliente
+        given().header("Accept-Encoding", "gzip").header("If-None-Match", "\"" + id + ".0\"")
+                .when().get(caminho)
+                .then().statusCode(304).header("ETag", "W/\"" + id + ".0\"");
+        HttpRequest semCompressao = HttpRequest.newBuilder(URI.create(RestAssured.baseURI + ":" + RestAssured.port + caminho))
+                .header("Accept-Encoding", "identity")
+                .header("If-None-Match", "W/\"" + id + ".0\"")
+                .GET().build();
+        HttpResponse<Void> naoModificada = http.send(semCompressao, HttpResponse.BodyHandlers.discarding());
+        assertEquals(304, naoModificada.statusCode());
+        assertEquals("\"" + id + ".0\"", naoModificada.headers().firstValue("ETag").orElse(null));
+    }
+
+    private HttpResponse<byte[]> get(String caminho, String codificacao) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(RestAssured.baseURI + ":" + RestAssured.port + caminho))
+                .header("Accept-Encoding", codificacao)
+                .GET().build();
+        return http.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,152 @@
+package com.hospital;
+
+import com.google.protobuf.Empty;
+import com.hospital.grpc.proto.Alteracao;
+import com.hospital.grpc.proto.Consulta;
+import com.hospital.grpc.proto.Consultas;
+import com.hospital.grpc.proto.Exame;
+import com.hospital.grpc.proto.Exames;
+import com.hospital.grpc.proto.Id;
+import com.hospital.grpc.proto.PorConsulta;
+import com.hospital.grpc.proto.PorMedico;
+import com.hospital.grpc.proto.Receita;
+import com.hospital.grpc.proto.Receitas;
+import com.hospital.grpc.proto.ResultadoLote;
+import com.hospital.grpc.proto.TipoExame;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.quarkus.grpc.GrpcClient;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Multi;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Os serviços gRPC aplicam as mesmas regras da API REST: listagens por streaming, gravações em lote
+ * por client-streaming com o motivo de cada registro recusado e erros traduzidos em status gRPC.
+ */
+@QuarkusTest
+class GrpcTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    @GrpcClient
+    Consultas consultas;
+
+    @GrpcClient
+    Exames exames;
+
+    @GrpcClient
+    Receitas receitas;
+
+    @Test
+    void agendaEmLoteEListaPorStreaming() {
+        long medicoId = criarMedico("78010");
+        long pacienteId = criarPaciente("22233344410");
+
+        ResultadoLote resultado = consultas.agendarEmLote(Multi.createFrom().items(
+                consulta(medicoId, pacienteId, "2032-04-05T09:00:00"),
+                consulta(medicoId, pacienteId, "2032-04-05T10:00:00"),
+                consulta(medicoId, pacienteId, "amanhã"),
+                consulta(medicoId, pacienteId, "2032-04-05T10:15:00")))
+                .await().atMost(ESPERA);
+        assertEquals(4, resultado.getTotal());
+        assertEquals(2, resultado.getGravados());
+        assertEquals(List.of(3, 4), resultado.getErrosList().stream().map(ResultadoLote.Erro::getPosicao).toList());
+        assertTrue(resultado.getErros(0).getMensagem().contains("data_hora"));
+
+        List<Consulta> agendadas = consultas.listarPorMedico(PorMedico.newBuilder().setMedicoId(medicoId).build())
+                .collect().asList().await().atMost(ESPERA);
+        assertEquals(List.of("2032-04-05T09:00", "2032-04-05T10:00"),
+                agendadas.stream().map(Consulta::getDataHora).toList());
+
+        StatusRuntimeException naoEncontrada = assertThrows(StatusRuntimeException.class,
+                () -> consultas.buscar(Id.newBuilder().setId(999999).build()).await().atMost(ESPERA));
+        assertEquals(Status.Code.NOT_FOUND, naoEncontrada.getStatus().getCode());
+
+        Alteracao desatualizada = Alteracao.newBuilder()
+                .setId(agendadas.get(1).getId())
+                .setVersaoEsperada(agendadas.get(1).getVersao() + 1)
+                .build();
+        StatusRuntimeException divergente = assertThrows(StatusRuntimeException.class,
+                () -> consultas.cancelar(desatualizada).await().atMost(ESPERA));
+        assertEquals(Status.Code.FAILED_PRECONDITION, divergente.getStatus().getCode());
+    }
+
+    @Test
+    void solicitaExamesEEmiteReceitasDaConsultaRealizada() {
+        long medicoId = criarMedico("78011");
+        long pacienteId = criarPaciente("22233344411");
+        Consulta primeira = consultas.agendar(consulta(medicoId, pacienteId, "2032-05-03T09:00:00"))
+                .await().atMost(ESPERA);
+        Consulta agendada = consultas.agendar(consulta(medicoId, pacienteId, "2032-05-03T10:00:00"))
+                .await().atMost(ESPERA);
+        Consulta realizada = consultas.realizar(Alteracao.newBuilder()
+                        .setId(primeira.getId())
+                        .setVersaoEsperada(primeira.getVersao())
+                        .build())
+                .await().atMost(ESPERA);
+        assertEquals(com.hospital.grpc.proto.StatusConsulta.REALIZADA, realizada.getStatus());
+
+        ResultadoLote resultado = exames.solicitarEmLote(Multi.createFrom().items(
+                exame(realizada.getId(), "Hemograma"),
+                exame(realizada.getId(), "Glicemia"),
+                exame(agendada.getId(), "Ureia"),
+                exame(realizada.getId(), "X")))
+                .await().atMost(ESPERA);
+        assertEquals(2, resultado.getGravados());
+        assertEquals(List.of(3, 4), resultado.getErrosList().stream().map(ResultadoLote.Erro::getPosicao).toList());
+        assertEquals("Não é possível solicitar exame para uma consulta não realizada", resultado.getErros(0).getMensagem());
+
+        List<Exame> daConsulta = exames.listarPorConsulta(PorConsulta.newBuilder().setConsultaId(realizada.getId()).build())
+                .collect().asList().await().atMost(ESPERA);
+        assertEquals(2, daConsulta.size());
+        List<Long> todos = exames.listar(Empty.getDefaultInstance())
+                .map(Exame::getId).collect().asList().await().atMost(ESPERA);
+        assertTrue(todos.containsAll(daConsulta.stream().map(Exame::getId).toList()));
+
+        Receita receita = receitas.emitir(Receita.newBuilder()
+                        .setConsultaId(realizada.getId())
+                        .setMedicamento("Dipirona")
+                        .setPosologia("1 comprimido a cada 6 horas")
+                        .setDataValidade("2032-12-31T00:00:00")
+                        .build())
+                .await().atMost(ESPERA);
+        given().when().get("/api/v1/receitas/" + receita.getId())
+                .then().statusCode(200);
+
+        StatusRuntimeException invalida = assertThrows(StatusRuntimeException.class,
+                () -> receitas.emitir(Receita.newBuilder()
+                        .setConsultaId(realizada.getId())
+                        .setMedicamento("D")
+                        .setPosologia("1 comprimido a cada 6 horas")
+                        .setDataValidade("2032-12-31T00:00:00")
+                        .build()).await().atMost(ESPERA));
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalida.getStatus().getCode());
+    }
+
+    private static Consulta consulta(long medicoId, long pacienteId, String dataHora) {
+        return Consulta.newBuilder()
+                .setMedicoId(medicoId)
+                .setPacienteId(pacienteId)
+                .setDataHora(dataHora)
+                .build();
+    }
+
+    private static Exame exame(long consultaId, String nome) {
+        return Exame.newBuilder()
+                .setConsultaId(consultaId)
+                .setNome(nome)
+                .setTipo(TipoExame.LABORATORIAL)
+                .build();
+    }
+}
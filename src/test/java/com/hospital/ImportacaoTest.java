@@ -0,0 +1,273 @@
+package com.hospital;
+
+import com.hospital.dto.PacienteDTO;
+import com.hospital.event.PacienteAlterado;
+import com.hospital.service.PacienteService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hospital.Cadastros.cpfLivre;
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A importação em lote lê CSV e NDJSON linha a linha, grava as linhas válidas e lista as rejeitadas com o
+ * número da linha no arquivo e o motivo: conteúdo malformado, validação, chave repetida no próprio
+ * arquivo ou já cadastrada no banco.
+ */
+@QuarkusTest
+class ImportacaoTest {
+
+    @Test
+    void importaPacientesDeCsvERelataAsLinhasRejeitadas() {
+        criarPaciente("22233344423");
+        String csv = String.join("\n",
+                "nome,cpf,dataNascimento,email,telefone,endereco",
+                "Ana Importada,22233344421,1980-01-15,ana@importacao.com,11900003333,Rua A 1",
+                "",
+                "\"Bruno \"\"Bê\"\" Importado\",22233344422,1975-07-30,bruno@importacao.com,11900003334,\"Rua B, 20\"",
+                "Ana Repetida,22233344421,1980-01-15,ana2@importacao.com,11900003335,Rua A 2",
+                "Carla Cadastrada,22233344423,1990-03-10,carla@importacao.com,11900003336,Rua C 3",
+                "Linha Curta,22233344424",
+                "Data Errada,22233344425,15/01/1980,data@importacao.com,11900003337,Rua D 4",
+                "CPF Curto,123,1980-01-15,curto@importacao.com,11900003338,Rua E 5");
+
+        JsonPath relatorio = importar("/api/v1/pacientes/importacao", "text/csv", csv);
+
+        assertEquals(7, relatorio.getInt("total"));
+        assertEquals(2, relatorio.getInt("importados"));
+        // Os números contam o cabeçalho e a linha em branco, como no arquivo
+        assertEquals(List.of(5, 6, 7, 8, 9), relatorio.getList("erros.linha", Integer.class));
+        assertEquals(List.of(
+                "CPF repetido no arquivo: 22233344421",
+                "Paciente já cadastrado com o CPF: 22233344423",
+                "A linha tem 2 colunas, mas o cabeçalho tem 6",
+                "Valor inválido para o campo dataNascimento",
+                "CPF deve conter 11 dígitos"), relatorio.getList("erros.mensagem", String.class));
+
+        given().when().get("/api/v1/pacientes/cpf/22233344421")
+                .then().statusCode(200)
+                .body("nome", equalTo("Ana Importada"));
+        given().when().get("/api/v1/pacientes/cpf/22233344422")
+                .then().statusCode(200)
+                .body("nome", equalTo("Bruno \"Bê\" Importado"))
+                .body("endereco", equalTo("Rua B, 20"));
+        given().when().get("/api/v1/pacientes/cpf/22233344423")
+                .then().statusCode(200)
+                .body("nome", equalTo("Paciente 22233344423"));
+    }
+
+    @Test
+    void importaMedicosDeNdjsonERelataAsLinhasRejeitadas() {
+        long especialidadeId = criarEspecialidade("Importação NDJSON");
+        criarMedico("78022");
+        String ndjson = String.join("\n",
+                medico("Dra. Importada", "78021", "importada", "[" + especialidadeId + "]"),
+                medico("Dr. Repetido", "78021", "repetido", "[]"),
+                "{\"nome\": \"Dr. Sem Fim\", \"crm\": ",
+                medico("Dr. Cadastrado", "78022", "cadastrado", "[]"),
+                medico("Dr. Sem Especialidade", "78023", "semespecialidade", "[999999]"),
+                medico("Dr. CRM Curto", "12", "curto", "[]"),
+                medico("Dr. Lista Errada", "78024", "listaerrada", "{\"id\": 1}"),
+                "");
+
+        JsonPath relatorio = importar("/api/v1/medicos/importacao", "application/x-ndjson", ndjson);
+
+        assertEquals(7, relatorio.getInt("total"));
+        assertEquals(1, relatorio.getInt("importados"));
+        assertEquals(List.of(2, 3, 4, 5, 6, 7), relatorio.getList("erros.linha", Integer.class));
+        List<String> mensagens = relatorio.getList("erros.mensagem", String.class);
+        assertEquals("CRM repetido no arquivo: 78021", mensagens.get(0));
+        assertTrue(mensagens.get(1).startsWith("Conteúdo inválido: "), mensagens.get(1));
+        assertEquals("Médico já cadastrado com o CRM: 78022", mensagens.get(2));
+        assertEquals("Especialidade não encontrado(a) com ID: 999999", mensagens.get(3));
+        assertEquals("CRM deve conter entre 4 e 6 dígitos", mensagens.get(4));
+        assertEquals("Valor inválido para o campo especialidadeIds", mensagens.get(5));
+
+        given().when().get("/api/v1/medicos/crm/78021")
+                .then().statusCode(200)
+                .body("nome", equalTo("Dra. Importada"))
+                .body("especialidadeIds", containsInAnyOrder((int) especialidadeId));
+    }
+
+    @Test
+    void csvSeparaOsValoresDasColunasDeLista() {
+        long cardiologia = criarEspecialidade("Importação CSV A");
+        long pediatria = criarEspecialidade("Importação CSV B");
+        String csv = String.join("\n",
+                "crm,nome,email,telefone,especialidadeIds",
+                "78025,Dr. Duas Especialidades,duas@importacao.com,11900004444," + cardiologia + " | " + pediatria,
+                "78026,Dr. Nenhuma Especialidade,nenhuma@importacao.com,11900004445,");
+
+        JsonPath relatorio = importar("/api/v1/medicos/importacao", "text/csv; charset=UTF-8", csv);
+
+        assertEquals(2, relatorio.getInt("total"));
+        assertEquals(2, relatorio.getInt("importados"));
+        assertEquals(List.of(), relatorio.getList("erros"));
+        given().when().get("/api/v1/medicos/crm/78025")
+                .then().statusCode(200)
+                .body("especialidadeIds", containsInAnyOrder((int) cardiologia, (int) pediatria));
+        given().when().get("/api/v1/medicos/crm/78026")
+                .then().statusCode(200)
+                .body("especialidadeIds.size()", equalTo(0));
+    }
+
+    @Test
+    void loteQueFalhaNaGravacaoEGravadoLinhaALinha() {
+        // Ao gravar a primeira linha, outra transação cadastra o CPF da segunda, já conferido
+        CadastroConcorrente.armar("22233344441", "22233344442");
+        String csv = String.join("\n",
+                "nome,cpf,dataNascimento,email,telefone,endereco",
+                "Elis Primeira,22233344441,1981-02-01,elis@importacao.com,11900003340,Rua G 7",
+                "Fabio Concorrente,22233344442,1982-03-02,fabio@importacao.com,11900003341,Rua H 8",
+                "Gil Terceiro,22233344443,1983-04-03,gil@importacao.com,11900003342,Rua I 9");
+
+        JsonPath relatorio = importar("/api/v1/pacientes/importacao", "text/csv", csv);
+
+        assertEquals(3, relatorio.getInt("total"));
+        assertEquals(2, relatorio.getInt("importados"));
+        assertEquals(List.of(3), relatorio.getList("erros.linha", Integer.class));
+        assertEquals(List.of("Paciente já cadastrado com o CPF: 22233344442"),
+                relatorio.getList("erros.mensagem", String.class));
+        given().when().get("/api/v1/pacientes/cpf/22233344441").then().statusCode(200);
+        given().when().get("/api/v1/pacientes/cpf/22233344442")
+                .then().statusCode(200)
+                .body("nome", equalTo("Paciente 22233344442"));
+        given().when().get("/api/v1/pacientes/cpf/22233344443").then().statusCode(200);
+    }
+
+    @Test
+    void rejeitaFormatoNaoSuportado() {
+        given().contentType("application/json")
+                .body("[]")
+                .when().post("/api/v1/pacientes/importacao")
+                .then().statusCode(415);
+    }
+
+    @Test
+    void aceitaCorpoChunkedAteOLimite() throws Exception {
+        String csv = "nome,cpf,dataNascimento,email,telefone,endereco\n"
+                + "Dora Chunked,22233344435,1985-05-05,dora@importacao.com,11900003339,Rua F 6\n";
+        HttpResponse<String> importado = enviarChunked("/api/v1/pacientes/importacao", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        assertEquals(200, importado.statusCode(), importado.body());
+        assertEquals(1, JsonPath.from(importado.body()).getInt("importados"));
+
+        // Sem Content-Length, o limite vale para os bytes lidos: o valor só termina depois do limite
+        byte[] grande = new byte[11 * 1024 * 1024];
+        Arrays.fill(grande, (byte) 'a');
+        byte[] inicio = "{\"nome\": \"".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(inicio, 0, grande, 0, inicio.length);
+        HttpResponse<String> recusado = enviarChunked("/api/v1/pacientes", "application/json", grande);
+        assertEquals(413, recusado.statusCode(), recusado.body());
+        assertTrue(recusado.body().contains("maior que o limite"), recusado.body());
+    }
+
+    @Test
+    void importacaoTemLimiteDeCorpoProprio() throws Exception {
+        // Acima de http.limite-corpo, mas dentro de http.limite-corpo-importacao (16M nos testes)
+        byte[] acimaDoPadrao = ndjsonComLinhaLonga(11 * 1024 * 1024);
+        HttpResponse<String> aceito = enviarChunked("/api/v1/pacientes/importacao", "application/x-ndjson", acimaDoPadrao);
+        assertEquals(200, aceito.statusCode(), aceito.body());
+        assertEquals(1, JsonPath.from(aceito.body()).getInt("importados"));
+        assertEquals(1, JsonPath.from(aceito.body()).getList("erros").size());
+
+        byte[] acimaDaImportacao = ndjsonComLinhaLonga(17 * 1024 * 1024);
+        HttpResponse<String> chunked = enviarChunked("/api/v1/medicos/importacao", "application/x-ndjson", acimaDaImportacao);
+        assertEquals(413, chunked.statusCode(), chunked.body());
+        given().contentType("application/x-ndjson")
+                .body(acimaDaImportacao)
+                .when().post("/api/v1/pacientes/importacao")
+                .then().statusCode(413);
+    }
+
+    /** Uma linha válida seguida de uma linha com um valor que ocupa o resto de {@code tamanho} bytes. */
+    private static byte[] ndjsonComLinhaLonga(int tamanho) {
+        byte[] corpo = new byte[tamanho];
+        Arrays.fill(corpo, (byte) 'a');
+        byte[] inicio = ("{\"nome\": \"Lara Extensa\", \"cpf\": \"" + cpfLivre() + "\", \"dataNascimento\": \"1985-05-05\","
+                + " \"email\": \"lara@importacao.com\", \"telefone\": \"11900003340\", \"endereco\": \"Rua G 7\"}\n"
+                + "{\"nome\": \"").getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(inicio, 0, corpo, 0, inicio.length);
+        corpo[corpo.length - 2] = '"';
+        corpo[corpo.length - 1] = '}';
+        return corpo;
+    }
+
+    private static String medico(String nome, String crm, String email, String especialidadeIds) {
+        return "{\"nome\": \"" + nome + "\", \"crm\": \"" + crm + "\", \"email\": \"" + email
+                + "@importacao.com\", \"telefone\": \"11900005555\", \"especialidadeIds\": " + especialidadeIds + "}";
+    }
+
+    private static JsonPath importar(String caminho, String tipo, String corpo) {
+        return given().contentType(tipo)
+                .body(corpo.getBytes(StandardCharsets.UTF_8))
+                .when().post(caminho)
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    /**
+     * Envia o corpo sem {@code Content-Length}, com {@code Transfer-Encoding: chunked}.
+     */
+    private static HttpResponse<String> enviarChunked(String caminho, String tipo, byte[] corpo) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(RestAssured.baseURI + ":" + RestAssured.port + caminho))
+                .header("Content-Type", tipo)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(corpo)))
+                .build();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            return http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    /**
+     * Quando o paciente com o CPF {@code gatilho} é gravado, cadastra em outra transação o paciente com o
+     * CPF {@code concorrente}, como uma requisição que chega entre a conferência e a gravação do lote.
+     */
+    @ApplicationScoped
+    static class CadastroConcorrente {
+
+        private static final AtomicReference<String[]> ARMADO = new AtomicReference<>();
+
+        @Inject
+        PacienteService pacienteService;
+
+        static void armar(String gatilho, String concorrente) {
+            ARMADO.set(new String[]{gatilho, concorrente});
+        }
+
+        void aoCriarPaciente(@Observes PacienteAlterado evento) {
+            String[] armado = ARMADO.get();
+            if (armado == null || evento.isExclusao() || !armado[0].equals(evento.getAtual().getCpf())
+                    || !ARMADO.compareAndSet(armado, null)) {
+                return;
+            }
+            QuarkusTransaction.requiringNew().run(() -> pacienteService.criar(new PacienteDTO(null,
+                    "Paciente " + armado[1], armado[1], LocalDate.of(1990, 1, 1), "concorrente@importacao.com",
+                    "11900000000", "Rua Concorrente", null)));
+        }
+    }
+}
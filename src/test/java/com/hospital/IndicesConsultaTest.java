@@ -0,0 +1,103 @@
+package com.hospital;
+
+import com.hospital.model.enums.StatusConsulta;
+import com.hospital.repository.ConsultaRepository;
+import com.hospital.repository.ExameRepository;
+import com.hospital.repository.ReceitaRepository;
+import com.hospital.util.Cursor;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Garante que as consultas quentes dos repositórios usam os índices criados pelas migrações em vez de
+ * varrer a tabela inteira. O plano é o do SQL que o Hibernate gera para cada método, capturado por
+ * {@link InstrucoesCapturadas}, e não de uma reescrita à mão que poderia divergir dele.
+ */
+@QuarkusTest
+class IndicesConsultaTest {
+
+    private static final Cursor CURSOR = Cursor.de(LocalDateTime.of(2030, 1, 1, 10, 0), 1L);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ConsultaRepository consultaRepository;
+
+    @Inject
+    ExameRepository exameRepository;
+
+    @Inject
+    ReceitaRepository receitaRepository;
+
+    @Test
+    void consultasDoMedicoUsamIndiceComposto() throws SQLException {
+        assertThat(plano(() -> consultaRepository.listarPorMedico(1L, CURSOR, 10)),
+                containsStringIgnoringCase("IDX_CONSULTAS_MEDICO_DATA_STATUS"));
+    }
+
+    @Test
+    void consultasDoPacienteUsamIndice() throws SQLException {
+        assertThat(plano(() -> consultaRepository.listarPorPaciente(1L, CURSOR, 10)),
+                containsStringIgnoringCase("IDX_CONSULTAS_PACIENTE_DATA"));
+    }
+
+    @Test
+    void consultasPorStatusUsamIndice() throws SQLException {
+        assertThat(plano(() -> consultaRepository.listarPorStatus(StatusConsulta.AGENDADA, CURSOR, 10)),
+                containsStringIgnoringCase("IDX_CONSULTAS_STATUS_DATA"));
+    }
+
+    @Test
+    void examesDaConsultaUsamIndice() throws SQLException {
+        assertThat(plano(() -> exameRepository.listarPorConsultaId(1L, CURSOR, 10)),
+                containsStringIgnoringCase("IDX_EXAME_CONSULTA_DATA"));
+    }
+
+    @Test
+    void examesPendentesUsamIndice() throws SQLException {
+        assertThat(plano(() -> exameRepository.listarSemResultado(CURSOR, 10)),
+                containsStringIgnoringCase("IDX_EXAME_PENDENTES"));
+    }
+
+    @Test
+    void receitasPorMedicamentoUsamIndice() throws SQLException {
+        assertThat(plano(() -> receitaRepository.listarPorMedicamentos(List.of(1L, 51L), CURSOR, 10)),
+                containsStringIgnoringCase("IDX_RECEITAS_MEDICAMENTO_DATA"));
+    }
+
+    /**
+     * Executa a consulta do repositório, exige que ela tenha gerado uma única instrução e devolve o
+     * {@code EXPLAIN} dessa instrução. Os parâmetros não interferem na escolha do índice pelo H2 e vão
+     * nulos.
+     */
+    private String plano(Runnable consulta) throws SQLException {
+        List<String> instrucoes = InstrucoesCapturadas.capturar(() -> QuarkusTransaction.requiringNew().run(consulta));
+        assertEquals(1, instrucoes.size(), instrucoes.toString());
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement explain = conexao.prepareStatement("EXPLAIN " + instrucoes.get(0))) {
+            for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                explain.setNull(i, Types.NULL);
+            }
+            try (ResultSet resultado = explain.executeQuery()) {
+                resultado.next();
+                return resultado.getString(1);
+            }
+        }
+    }
+}
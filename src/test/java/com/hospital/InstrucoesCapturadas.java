@@ -0,0 +1,41 @@
+package com.hospital;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra o SQL que o Hibernate gera na thread atual enquanto {@link #capturar(Runnable)} executa, para
+ * os testes examinarem as instruções que a aplicação realmente envia ao banco. Fora da captura, só
+ * devolve a instrução como veio.
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class InstrucoesCapturadas implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURADAS = new ThreadLocal<>();
+
+    /** Instruções SQL geradas pelo Hibernate durante a ação, na ordem. */
+    static List<String> capturar(Runnable acao) {
+        List<String> instrucoes = new ArrayList<>();
+        CAPTURADAS.set(instrucoes);
+        try {
+            acao.run();
+        } finally {
+            CAPTURADAS.remove();
+        }
+        return instrucoes;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> instrucoes = CAPTURADAS.get();
+        if (instrucoes != null) {
+            instrucoes.add(sql);
+        }
+        return sql;
+    }
+}
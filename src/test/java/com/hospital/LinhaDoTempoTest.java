@@ -0,0 +1,88 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.agendar;
+import static com.hospital.Cadastros.criar;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A linha do tempo junta consultas, prontuários, receitas e exames do paciente, do mais recente ao
+ * mais antigo, pagina sem repetir nem pular itens e custa o mesmo número de instruções SQL por página.
+ */
+@QuarkusTest
+class LinhaDoTempoTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void juntaOsQuatroTiposEmOrdemEPagina() {
+        Long medicoId = criarMedico("78007");
+        Long pacienteId = criarPaciente("22233344406");
+        Long primeira = agendar(medicoId, pacienteId, "2031-07-01T10:00:00");
+        Long segunda = agendar(medicoId, pacienteId, "2031-08-01T10:00:00");
+        given().when().put("/api/v1/consultas/" + primeira + "/realizar").then().statusCode(200);
+        Long prontuarioId = criar("/api/v1/prontuarios", Map.of(
+                "consultaId", primeira,
+                "anamnese", "Paciente relata dores de cabeça frequentes",
+                "dataCriacao", "2024-01-01T00:00:00"));
+        Long receitaId = criar("/api/v1/receitas", Map.of(
+                "consultaId", primeira,
+                "medicamento", "Dipirona",
+                "posologia", "1 comprimido a cada 6 horas",
+                "dataEmissao", "2024-01-01T00:00:00",
+                "dataValidade", "2031-12-31T00:00:00"));
+        Long exameId = criar("/api/v1/exames", Map.of(
+                "consultaId", primeira,
+                "nome", "Hemograma",
+                "tipo", "LABORATORIAL",
+                "dataSolicitacao", "2024-01-01T00:00:00"));
+
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        JsonPath pagina = pagina(pacienteId, null);
+        assertEquals(5, estatisticas.getPrepareStatementCount());
+        assertEquals(List.of("CONSULTA", "CONSULTA"), pagina.getList("itens.tipo"));
+        assertEquals(List.of(segunda, primeira), pagina.getList("itens.id", Long.class));
+
+        pagina = pagina(pacienteId, pagina.getString("proximoCursor"));
+        assertEquals(List.of("EXAME", "RECEITA"), pagina.getList("itens.tipo"));
+        assertEquals(List.of(exameId, receitaId), pagina.getList("itens.id", Long.class));
+        assertEquals(primeira, pagina.getLong("itens[0].consultaId"));
+        assertEquals("Hemograma", pagina.getString("itens[0].detalhes.nome"));
+
+        pagina = pagina(pacienteId, pagina.getString("proximoCursor"));
+        assertEquals(List.of("PRONTUARIO"), pagina.getList("itens.tipo"));
+        assertEquals(List.of(prontuarioId), pagina.getList("itens.id", Long.class));
+        assertNull(pagina.getString("proximoCursor"));
+    }
+
+    @Test
+    void pacienteInexistenteOuCursorInvalido() {
+        given().when().get("/api/v1/pacientes/999999/timeline").then().statusCode(404);
+        Long pacienteId = criarPaciente("22233344407");
+        given().when().get("/api/v1/pacientes/" + pacienteId + "/timeline?cursor=bGl4bw").then().statusCode(400);
+    }
+
+    private JsonPath pagina(Long pacienteId, String cursor) {
+        return given()
+                .queryParam("limit", 2)
+                .queryParams(cursor == null ? Map.of() : Map.of("cursor", cursor))
+                .when().get("/api/v1/pacientes/" + pacienteId + "/timeline")
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+}
@@ -0,0 +1,210 @@
+package com.hospital;
+
+import com.hospital.util.IndiceTrigramas;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.criar;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * O dicionário de medicamentos junta as grafias de um mesmo nome (acentos, maiúsculas e espaços) numa
+ * só entrada, inclusive quando várias receitas com um nome inédito são emitidas ao mesmo tempo, e a
+ * migração V3 agrupa as receitas antigas da mesma forma que a aplicação.
+ */
+@QuarkusTest
+class MedicamentosTest {
+
+    private static final int THREADS = 8;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void grafiasDoMesmoNomeApontamParaAMesmaEntrada() throws SQLException {
+        long consultaId = consultaRealizada(criarMedico("78027"), criarPaciente("22233344426"), "2032-10-01T09:00:00");
+        long primeira = receitar(consultaId, "Cetoprofeno Sódico");
+        long segunda = receitar(consultaId, "  CETOPROFENO   sodico ");
+        long terceira = receitar(consultaId, "cetoprofeno sódico");
+        receitar(consultaId, "Cetirizina");
+
+        try (Connection conexao = dataSource.getConnection()) {
+            Map<Long, Long> medicamentos = medicamentosDasReceitas(conexao, List.of(primeira, segunda, terceira));
+            assertEquals(1, medicamentos.values().stream().distinct().count(), medicamentos.toString());
+            assertEquals(List.of("Cetoprofeno Sódico"), listar(conexao,
+                    "SELECT nome FROM medicamentos WHERE nomeNormalizado = 'cetoprofeno sodico'"));
+        }
+        given().queryParam("nome", "SÓDICO")
+                .when().get("/api/v1/receitas/medicamento")
+                .then().statusCode(200)
+                .body("id", containsInAnyOrder((int) primeira, (int) segunda, (int) terceira));
+        given().queryParam("nome", "cetoprof")
+                .when().get("/api/v1/receitas/medicamento")
+                .then().statusCode(200)
+                .body("medicamento", containsInAnyOrder("Cetoprofeno Sódico", "  CETOPROFENO   sodico ",
+                        "cetoprofeno sódico"));
+    }
+
+    @Test
+    void receitasSimultaneasComNomeNovoCriamUmaEntrada() throws Exception {
+        long consultaId = consultaRealizada(criarMedico("78028"), criarPaciente("22233344427"), "2032-10-01T10:00:00");
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> receitas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String grafia = t % 2 == 0 ? "Losartana Potássica" : "LOSARTANA POTASSICA";
+            receitas.add(executor.submit(() -> {
+                largada.await();
+                return receitar(consultaId, grafia);
+            }));
+        }
+        largada.countDown();
+        List<Long> ids = new ArrayList<>();
+        for (Future<Long> receita : receitas) {
+            ids.add(receita.get());
+        }
+        executor.shutdown();
+
+        try (Connection conexao = dataSource.getConnection()) {
+            assertEquals(1, listar(conexao,
+                    "SELECT id FROM medicamentos WHERE nomeNormalizado = 'losartana potassica'").size());
+            assertEquals(1, medicamentosDasReceitas(conexao, ids).values().stream().distinct().count());
+        }
+        given().queryParam("nome", "losartana")
+                .when().get("/api/v1/receitas/medicamento")
+                .then().statusCode(200)
+                .body("size()", equalTo(THREADS));
+    }
+
+    @Test
+    void buscaExigeTermoDeTresCaracteres() {
+        given().queryParam("nome", " é ")
+                .when().get("/api/v1/receitas/medicamento")
+                .then().statusCode(400);
+        given().queryParam("nome", "ab")
+                .queryParam("limit", 10)
+                .when().get("/api/v1/receitas/medicamento")
+                .then().statusCode(400);
+    }
+
+    /**
+     * Aplica as migrações até a V2 num banco separado, grava receitas com várias grafias e confere que a
+     * V3 cria uma entrada por nome normalizado, igual ao {@link IndiceTrigramas#normalizar(String)}.
+     */
+    @Test
+    void migracaoV3AgrupaAsReceitasExistentesPeloNomeNormalizado() throws SQLException {
+        String url = "jdbc:h2:mem:migracao_v3;DB_CLOSE_DELAY=-1";
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+            migrar(url, "2");
+            executar(conexao, "INSERT INTO medicos (id, nome, crm, email, telefone)"
+                    + " VALUES (1, 'Dr. Migração', '1234', 'migracao@hospital.com', '11900000000')");
+            executar(conexao, "INSERT INTO pacientes (id, nome, cpf, dataNascimento, email, telefone, endereco)"
+                    + " VALUES (1, 'Paciente Migração', '12345678901', DATE '1980-01-01', 'p@hospital.com',"
+                    + " '11900000000', 'Rua')");
+            executar(conexao, "INSERT INTO consultas (id, dataHora, status, medico_id, paciente_id)"
+                    + " VALUES (1, TIMESTAMP '2024-01-01 09:00:00', 'REALIZADA', 1, 1)");
+            List<String> grafias = List.of("Ácido Acetilsalicílico", "acido  acetilsalicilico", " ÁCIDO ACETILSALICÍLICO",
+                    "Amoxicilina", "AMOXICILINA", "Ibuprofeno");
+            try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO receitas (id, consulta_id,"
+                    + " medicamento, posologia, dataEmissao, dataValidade) VALUES (?, 1, ?, '1 ao dia',"
+                    + " TIMESTAMP '2024-01-01 00:00:00', TIMESTAMP '2024-02-01 00:00:00')")) {
+                for (int i = 0; i < grafias.size(); i++) {
+                    insert.setLong(1, i + 1);
+                    insert.setString(2, grafias.get(i));
+                    insert.executeUpdate();
+                }
+            }
+
+            migrar(url, "3");
+
+            assertEquals(List.of("acido acetilsalicilico", "amoxicilina", "ibuprofeno"),
+                    listar(conexao, "SELECT nomeNormalizado FROM medicamentos ORDER BY nomeNormalizado"));
+            try (Statement statement = conexao.createStatement();
+                 ResultSet receitas = statement.executeQuery("SELECT r.medicamento, m.nomeNormalizado FROM receitas r"
+                         + " JOIN medicamentos m ON m.id = r.medicamento_id")) {
+                int total = 0;
+                while (receitas.next()) {
+                    total++;
+                    assertEquals(IndiceTrigramas.normalizar(receitas.getString(1)), receitas.getString(2));
+                }
+                assertEquals(grafias.size(), total);
+            }
+        } finally {
+            try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+                executar(conexao, "DROP ALL OBJECTS");
+            }
+        }
+    }
+
+    private static void migrar(String url, String versao) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(versao)
+                .load()
+                .migrate();
+    }
+
+    private static long receitar(long consultaId, String medicamento) {
+        return criar("/api/v1/receitas", Map.of(
+                "consultaId", consultaId,
+                "medicamento", medicamento,
+                "posologia", "1 comprimido a cada 8 horas",
+                "dataEmissao", "2024-01-01T00:00:00",
+                "dataValidade", "2032-12-31T00:00:00"));
+    }
+
+    private static Map<Long, Long> medicamentosDasReceitas(Connection conexao, List<Long> receitas) throws SQLException {
+        Map<Long, Long> medicamentos = new HashMap<>();
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery("SELECT id, medicamento_id FROM receitas WHERE id IN ("
+                     + String.join(", ", receitas.stream().map(String::valueOf).toList()) + ")")) {
+            while (resultado.next()) {
+                medicamentos.put(resultado.getLong(1), resultado.getLong(2));
+            }
+        }
+        assertEquals(receitas.size(), medicamentos.size());
+        return medicamentos;
+    }
+
+    private static List<String> listar(Connection conexao, String sql) throws SQLException {
+        List<String> valores = new ArrayList<>();
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(sql)) {
+            while (resultado.next()) {
+                valores.add(resultado.getString(1));
+            }
+        }
+        return valores;
+    }
+
+    private static void executar(Connection conexao, String sql) throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
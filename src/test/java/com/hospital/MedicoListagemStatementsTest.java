@@ -0,0 +1,54 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listagens de médicos não podem carregar as especialidades um médico por vez:
+ * o número de instruções SQL por requisição deve ser o mesmo com poucos ou muitos médicos.
+ */
+@QuarkusTest
+class MedicoListagemStatementsTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void quantidadeDeInstrucoesNaoDependeDoNumeroDeMedicos() {
+        Long especialidadeId = criarEspecialidade("Neurologia Statements");
+        String listagemPorEspecialidade = "/api/v1/medicos/especialidade/" + especialidadeId;
+
+        criarMedicos(especialidadeId, 0, 2);
+        long listagemComPoucos = instrucoesPara("/api/v1/medicos");
+        long especialidadeComPoucos = instrucoesPara(listagemPorEspecialidade);
+        long paginaComPoucos = instrucoesPara("/api/v1/medicos?limit=100");
+
+        criarMedicos(especialidadeId, 2, 20);
+        assertEquals(listagemComPoucos, instrucoesPara("/api/v1/medicos"));
+        assertEquals(especialidadeComPoucos, instrucoesPara(listagemPorEspecialidade));
+        assertEquals(paginaComPoucos, instrucoesPara("/api/v1/medicos?limit=100"));
+    }
+
+    private long instrucoesPara(String caminho) {
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given().when().get(caminho).then().statusCode(200);
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private void criarMedicos(Long especialidadeId, int de, int ate) {
+        for (int i = de; i < ate; i++) {
+            criarMedico("Dr. Statements " + i, String.valueOf(90000 + i), List.of(especialidadeId));
+        }
+    }
+}
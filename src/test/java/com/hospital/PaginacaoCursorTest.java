@@ -0,0 +1,132 @@
+package com.hospital;
+
+import com.hospital.util.Cursor;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static com.hospital.Cadastros.agendar;
+import static com.hospital.Cadastros.criarEspecialidade;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A paginação por cursor percorre a listagem inteira sem repetir nem pular itens, inclusive quando vários
+ * têm o mesmo valor na coluna de ordenação, só devolve {@code proximoCursor} quando há mais itens e
+ * recusa cursores que não foram gerados por ela.
+ */
+@QuarkusTest
+class PaginacaoCursorTest {
+
+    @Test
+    void percorreMedicosComNomesIguaisSemRepetirNemPular() {
+        long especialidadeId = criarEspecialidade("Paginação por Cursor");
+        List<Long> esperados = List.of(
+                criarMedico("Dr. Alfa Paginado", "78030", List.of(especialidadeId)),
+                criarMedico("Dr. Empate Paginado", "78031", List.of(especialidadeId)),
+                criarMedico("Dr. Empate Paginado", "78032", List.of(especialidadeId)),
+                criarMedico("Dr. Empate Paginado", "78033", List.of(especialidadeId)),
+                criarMedico("Dr. Zeta Paginado", "78034", List.of(especialidadeId)));
+        String caminho = "/api/v1/medicos/especialidade/" + especialidadeId;
+
+        assertEquals(esperados, percorrer(caminho, 2, List.of(2, 2, 1)));
+        // Os empates no nome são desfeitos pelo ID em qualquer tamanho de página
+        assertEquals(esperados, percorrer(caminho, 1, List.of(1, 1, 1, 1, 1)));
+        assertEquals(esperados, percorrer(caminho, 3, List.of(3, 2)));
+    }
+
+    @Test
+    void paginaCompletaSemMaisItensNaoTemProximoCursor() {
+        long especialidadeId = criarEspecialidade("Paginação Exata");
+        criarMedico("Dr. Exato Um", "78035", List.of(especialidadeId));
+        criarMedico("Dr. Exato Dois", "78036", List.of(especialidadeId));
+
+        // O limite + 1 da consulta não encontra o terceiro item: a página cheia é a última
+        given().queryParam("limit", 2)
+                .when().get("/api/v1/medicos/especialidade/" + especialidadeId)
+                .then().statusCode(200)
+                .header("Link", nullValue())
+                .body("itens.size()", equalTo(2))
+                .body("limite", equalTo(2))
+                .body("proximoCursor", nullValue());
+    }
+
+    @Test
+    void percorreConsultasNoMesmoHorario() {
+        long pacienteId = criarPaciente("22233344430");
+        String horario = "2033-01-10T09:00:00";
+        List<Long> esperados = List.of(
+                agendar(criarMedico("78037"), pacienteId, "2033-01-10T08:00:00"),
+                agendar(criarMedico("78038"), pacienteId, horario),
+                agendar(criarMedico("78039"), pacienteId, horario),
+                agendar(criarMedico("78040"), pacienteId, horario),
+                agendar(criarMedico("78041"), pacienteId, "2033-01-10T10:00:00"));
+
+        assertEquals(esperados, percorrer("/api/v1/consultas/paciente/" + pacienteId, 2, List.of(2, 2, 1)));
+    }
+
+    @Test
+    void recusaCursoresInvalidos() {
+        List<String> cursores = List.of(
+                "%%%",
+                base64("sem separador"),
+                base64("2033-01-10T09:00:00|nao-numero"),
+                base64("nao-e-data|1"));
+        for (String cursor : cursores) {
+            given().queryParam("cursor", cursor)
+                    .when().get("/api/v1/consultas/paciente/1")
+                    .then().statusCode(400);
+        }
+        given().queryParam("limit", 0)
+                .when().get("/api/v1/medicos")
+                .then().statusCode(400);
+    }
+
+    @Test
+    void cursorExigeChave() {
+        Cursor cursor = Cursor.decodificar(Cursor.de("Dr. Empate | Paginado", 7L).codificar());
+        assertEquals("Dr. Empate | Paginado", cursor.getChave());
+        assertEquals(7L, cursor.getId());
+        assertThrows(IllegalArgumentException.class, () -> Cursor.de(null, 7L));
+    }
+
+    /**
+     * Segue {@code proximoCursor} desde a primeira página, conferindo o tamanho de cada uma e o header
+     * {@code Link} das que têm continuação, e devolve os IDs na ordem em que vieram.
+     */
+    private static List<Long> percorrer(String caminho, int limite, List<Integer> tamanhos) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int i = 0; i < tamanhos.size(); i++) {
+            Response resposta = cursor == null
+                    ? given().queryParam("limit", limite).when().get(caminho)
+                    : given().queryParam("limit", limite).queryParam("cursor", cursor).when().get(caminho);
+            resposta.then().statusCode(200);
+            assertEquals(tamanhos.get(i), resposta.jsonPath().getInt("itens.size()"), caminho + " página " + i);
+            ids.addAll(resposta.jsonPath().getList("itens.id", Long.class));
+            cursor = resposta.jsonPath().getString("proximoCursor");
+            if (i < tamanhos.size() - 1) {
+                assertNotNull(cursor, caminho + " página " + i);
+                assertNotNull(resposta.getHeader("Link"));
+            }
+        }
+        assertNull(cursor, caminho);
+        return ids;
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
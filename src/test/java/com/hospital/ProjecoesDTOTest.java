@@ -0,0 +1,141 @@
+package com.hospital;
+
+import com.hospital.dto.ConsultaDTO;
+import com.hospital.dto.ExameDTO;
+import com.hospital.dto.ProntuarioDTO;
+import com.hospital.dto.ReceitaDTO;
+import com.hospital.service.ConsultaService;
+import com.hospital.service.ExameService;
+import com.hospital.service.ProntuarioService;
+import com.hospital.service.ReceitaService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.hospital.Cadastros.consulta;
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.criar;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * As leituras projetadas direto no DTO devolvem o mesmo que o mapeamento da entidade carregada, e as
+ * escritas que associam médico, paciente ou consulta só pela referência continuam respondendo 404 quando
+ * o registro não existe.
+ */
+@QuarkusTest
+class ProjecoesDTOTest {
+
+    private static final long INEXISTENTE = 999999L;
+
+    @Inject
+    ConsultaService consultaService;
+
+    @Inject
+    ExameService exameService;
+
+    @Inject
+    ReceitaService receitaService;
+
+    @Inject
+    ProntuarioService prontuarioService;
+
+    @Test
+    void projecoesIguaisAoMapeamentoDasEntidades() {
+        long medicoId = criarMedico("78044");
+        long pacienteId = criarPaciente("22233344433");
+        long consultaId = consultaRealizada(medicoId, pacienteId, "2033-03-01T09:00:00");
+        long exameId = solicitarExame(consultaId, "Eletrocardiograma", "OUTROS");
+        given().queryParam("resultado", "Ritmo sinusal")
+                .when().put("/api/v1/exames/" + exameId + "/resultado")
+                .then().statusCode(200);
+        long receitaId = criar("/api/v1/receitas", Map.of(
+                "consultaId", consultaId,
+                "medicamento", "Atenolol",
+                "posologia", "1 comprimido ao dia",
+                "dataEmissao", "2024-01-01T00:00:00",
+                "dataValidade", "2033-12-31T00:00:00"));
+        long prontuarioId = criar("/api/v1/prontuarios", Map.of(
+                "consultaId", consultaId,
+                "anamnese", "Palpitações ao esforço",
+                "diagnostico", "Extrassístoles",
+                "dataCriacao", "2024-01-01T00:00:00"));
+
+        ConsultaDTO consulta = consultaService.buscarDTOPorId(consultaId);
+        assertEquals(QuarkusTransaction.requiringNew().call(() ->
+                consultaService.toDTO(consultaService.buscarPorId(consultaId))), consulta);
+        // O toDTO antigo devolvia o ID da consulta como médico e paciente
+        assertEquals(medicoId, consulta.getMedicoId());
+        assertEquals(pacienteId, consulta.getPacienteId());
+
+        ExameDTO exame = exameService.buscarDTOPorId(exameId);
+        assertEquals(QuarkusTransaction.requiringNew().call(() ->
+                exameService.toDTO(exameService.buscarPorId(exameId))), exame);
+        assertEquals(consultaId, exame.getConsultaId());
+
+        ReceitaDTO receita = receitaService.buscarDTOPorId(receitaId);
+        assertEquals(QuarkusTransaction.requiringNew().call(() ->
+                receitaService.toDTO(receitaService.buscarPorId(receitaId))), receita);
+        assertEquals(consultaId, receita.getConsultaId());
+
+        ProntuarioDTO prontuario = prontuarioService.buscarDTOPorId(prontuarioId);
+        assertEquals(QuarkusTransaction.requiringNew().call(() ->
+                prontuarioService.toDTO(prontuarioService.buscarPorId(prontuarioId))), prontuario);
+        assertEquals(consultaId, prontuario.getConsultaId());
+
+        given().when().get("/api/v1/consultas/" + consultaId)
+                .then().statusCode(200)
+                .body("medicoId", equalTo((int) medicoId))
+                .body("pacienteId", equalTo((int) pacienteId));
+    }
+
+    @Test
+    void escritasComReferenciaInexistenteRespondem404() {
+        long medicoId = criarMedico("78045");
+        long pacienteId = criarPaciente("22233344434");
+
+        enviar("POST", "/api/v1/consultas", consulta(INEXISTENTE, pacienteId, "2033-03-02T09:00:00"));
+        enviar("POST", "/api/v1/consultas", consulta(medicoId, INEXISTENTE, "2033-03-02T09:00:00"));
+
+        long consultaId = criar("/api/v1/consultas", consulta(medicoId, pacienteId, "2033-03-02T10:00:00"));
+        enviar("PUT", "/api/v1/consultas/" + consultaId, consulta(INEXISTENTE, pacienteId, "2033-03-02T10:00:00"));
+        enviar("PUT", "/api/v1/consultas/" + consultaId, consulta(medicoId, INEXISTENTE, "2033-03-02T10:00:00"));
+        // As tentativas não alteraram a consulta
+        given().when().get("/api/v1/consultas/" + consultaId)
+                .then().statusCode(200)
+                .body("medicoId", equalTo((int) medicoId))
+                .body("pacienteId", equalTo((int) pacienteId));
+
+        enviar("POST", "/api/v1/exames", Map.of(
+                "consultaId", INEXISTENTE,
+                "nome", "Hemograma",
+                "tipo", "LABORATORIAL",
+                "dataSolicitacao", "2024-01-01T00:00:00"));
+        enviar("POST", "/api/v1/receitas", Map.of(
+                "consultaId", INEXISTENTE,
+                "medicamento", "Dipirona",
+                "posologia", "1 comprimido a cada 6 horas",
+                "dataEmissao", "2024-01-01T00:00:00",
+                "dataValidade", "2033-12-31T00:00:00"));
+        enviar("POST", "/api/v1/prontuarios", Map.of(
+                "consultaId", INEXISTENTE,
+                "anamnese", "Sem consulta",
+                "dataCriacao", "2024-01-01T00:00:00"));
+    }
+
+    private static void enviar(String metodo, String caminho, Object corpo) {
+        given().contentType(ContentType.JSON)
+                .body(corpo)
+                .when().request(metodo, caminho)
+                .then().statusCode(404)
+                .body("status", equalTo(404));
+    }
+}
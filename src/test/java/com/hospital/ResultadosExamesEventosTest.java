@@ -0,0 +1,221 @@
+package com.hospital;
+
+import com.hospital.dto.ExameDTO;
+import com.hospital.event.ResultadoExameRegistrado;
+import com.hospital.model.enums.TipoExame;
+import com.hospital.service.FeedResultadosExames;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.hospital.Cadastros.consultaRealizada;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.solicitarExame;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O fluxo de eventos de resultados entrega só os exames do filtro pedido e, ao reconectar com
+ * {@code Last-Event-ID}, reenvia o que foi gravado enquanto o cliente estava desconectado.
+ */
+@QuarkusTest
+class ResultadosExamesEventosTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    @TestHTTPResource("/api/v1/exames/resultados/eventos")
+    URI eventos;
+
+    @Inject
+    FeedResultadosExames feed;
+
+    @Inject
+    Event<ResultadoExameRegistrado> resultadoRegistrado;
+
+    @ConfigProperty(name = "resultados-exames.buffer-assinante")
+    int bufferAssinante;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void entregaResultadosDoPacienteERetomaDoUltimoId() throws Exception {
+        long medicoId = criarMedico("78012");
+        long pacienteId = criarPaciente("22233344412");
+        long outroPacienteId = criarPaciente("22233344413");
+        long consultaId = consultaRealizada(medicoId, pacienteId, "2032-06-01T09:00:00");
+        long outraConsultaId = consultaRealizada(medicoId, outroPacienteId, "2032-06-01T10:00:00");
+        long hemograma = solicitarExame(consultaId, "Hemograma", "LABORATORIAL");
+        long glicemia = solicitarExame(consultaId, "Glicemia", "LABORATORIAL");
+        long doOutro = solicitarExame(outraConsultaId, "Ureia", "LABORATORIAL");
+
+        Assinatura assinatura = assinar("?pacienteId=" + pacienteId, null);
+        registrarResultado(doOutro, "Normal");
+        int versao = registrarResultado(hemograma, "Sem alterações");
+        Evento recebido = assinatura.proximo();
+        assertEquals("resultado", recebido.nome);
+        assertTrue(recebido.dados.contains("\"id\":" + hemograma), recebido.dados);
+        assertTrue(recebido.dados.contains("Sem alterações"), recebido.dados);
+        // A versão do evento é a gravada, a mesma devolvida pela API
+        assertTrue(recebido.dados.contains("\"versao\":" + versao), recebido.dados);
+        fechar(assinatura);
+
+        // Gravado com o cliente desconectado: chega ao reconectar com o último ID recebido
+        registrarResultado(glicemia, "95 mg/dL");
+        Assinatura retomada = assinar("?consultaId=" + consultaId, recebido.id);
+        Evento perdido = retomada.proximo();
+        assertEquals("resultado", perdido.nome);
+        assertTrue(perdido.dados.contains("\"id\":" + glicemia), perdido.dados);
+        fechar(retomada);
+
+        Assinatura desconhecida = assinar("", "outra-geracao-1");
+        assertEquals("ressincronizar", desconhecida.proximo().nome);
+        fechar(desconhecida);
+    }
+
+    @Test
+    void assinanteQueNaoConsomeCaiSemAtrasarOsDemais() throws Exception {
+        long pacienteId = 990_001L;
+        List<FeedResultadosExames.Entrega> recebidas = new CopyOnWriteArrayList<>();
+        // O primeiro assinante nunca pede itens; o segundo, inscrito depois, consome tudo
+        feed.assinar(pacienteId, null, null).subscribe().withSubscriber(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription assinatura) {
+            }
+
+            @Override
+            public void onNext(FeedResultadosExames.Entrega entrega) {
+            }
+
+            @Override
+            public void onError(Throwable erro) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        Cancellable consumidor = feed.assinar(pacienteId, null, null).subscribe().with(recebidas::add);
+        int antes = feed.getAssinantes();
+
+        for (long i = 1; i <= bufferAssinante + 1; i++) {
+            resultadoRegistrado.fire(new ResultadoExameRegistrado(new ExameDTO(i, null, "Exame " + i, TipoExame.LABORATORIAL,
+                    null, null, null, "Normal", null, 0, null, null, 1L), pacienteId));
+        }
+
+        // Só o que parou de ler sai do feed, e na hora: não espera a fila dele esvaziar
+        assertEquals(antes - 1, feed.getAssinantes());
+        assertEquals(bufferAssinante + 1, recebidas.size());
+        consumidor.cancel();
+    }
+
+    private Assinatura assinar(String filtros, String ultimoId) throws InterruptedException {
+        int antes = feed.getAssinantes();
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(eventos + filtros))
+                .header("Accept", "text/event-stream");
+        if (ultimoId != null) {
+            requisicao.header("Last-Event-ID", ultimoId);
+        }
+        Assinatura assinatura = new Assinatura(cliente.sendAsync(requisicao.build(), HttpResponse.BodyHandlers.ofLines()));
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (feed.getAssinantes() <= antes && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(feed.getAssinantes() > antes, "assinatura não registrada");
+        return assinatura;
+    }
+
+    private void fechar(Assinatura assinatura) throws InterruptedException {
+        int antes = feed.getAssinantes();
+        assinatura.fechar();
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (feed.getAssinantes() >= antes && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(feed.getAssinantes() < antes, "assinatura não encerrada ao desconectar");
+    }
+
+    private static final class Evento {
+
+        String id;
+        String nome;
+        String dados = "";
+    }
+
+    /** Lê o fluxo em segundo plano, separando os eventos pelas linhas em branco. */
+    private static final class Assinatura {
+
+        private final BlockingQueue<Evento> recebidos = new LinkedBlockingQueue<>();
+        private final CompletableFuture<HttpResponse<Stream<String>>> resposta;
+
+        Assinatura(CompletableFuture<HttpResponse<Stream<String>>> resposta) {
+            this.resposta = resposta.thenApply(r -> {
+                assertEquals(200, r.statusCode());
+                Thread leitor = new Thread(() -> ler(r.body()));
+                leitor.setDaemon(true);
+                leitor.start();
+                return r;
+            });
+        }
+
+        private void ler(Stream<String> linhas) {
+            Evento[] atual = {new Evento()};
+            try {
+                linhas.forEach(linha -> {
+                    if (linha.isEmpty()) {
+                        if (atual[0].nome != null) {
+                            recebidos.add(atual[0]);
+                        }
+                        atual[0] = new Evento();
+                    } else if (linha.startsWith("id:")) {
+                        atual[0].id = linha.substring(3).trim();
+                    } else if (linha.startsWith("event:")) {
+                        atual[0].nome = linha.substring(6).trim();
+                    } else if (linha.startsWith("data:")) {
+                        atual[0].dados += linha.substring(5).trim();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // conexão fechada pelo teste
+            }
+        }
+
+        Evento proximo() throws InterruptedException {
+            Evento evento = recebidos.poll(ESPERA.toSeconds(), TimeUnit.SECONDS);
+            assertNotNull(evento, "nenhum evento recebido");
+            return evento;
+        }
+
+        void fechar() {
+            resposta.thenAccept(r -> r.body().close());
+        }
+    }
+
+    /** Registra o resultado e devolve a versão gravada do exame. */
+    private static int registrarResultado(long exameId, String resultado) {
+        return given().queryParam("resultado", resultado)
+                .when().put("/api/v1/exames/" + exameId + "/resultado")
+                .then().statusCode(200)
+                .extract().jsonPath().getInt("versao");
+    }
+}
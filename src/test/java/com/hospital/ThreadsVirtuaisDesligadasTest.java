@@ -0,0 +1,20 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Sem ligar {@code quarkus.virtual-threads.enabled}, os endpoints com {@code @RunOnVirtualThread} rodam
+ * no pool de workers.
+ */
+@QuarkusTest
+class ThreadsVirtuaisDesligadasTest {
+
+    @Test
+    void controllerAnotadoRodaNoPoolDeWorkers() {
+        given().when().get("/teste/thread-virtual").then().statusCode(200).body(equalTo("false"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.hospital.Cadastros.criarPaciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Com as threads virtuais ligadas, só os controllers com {@code @RunOnVirtualThread} rodam nelas, e
+ * transações e tratamento de erros continuam funcionando.
+ */
+@QuarkusTest
+@TestProfile(ThreadsVirtuaisTest.Perfil.class)
+class ThreadsVirtuaisTest {
+
+    public static class Perfil implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.virtual-threads.enabled", "true");
+        }
+    }
+
+    @Path("/teste/thread-virtual")
+    @RunOnVirtualThread
+    public static class ThreadVirtual {
+        @GET
+        public boolean emThreadVirtual() {
+            return Thread.currentThread().isVirtual();
+        }
+    }
+
+    @Path("/teste/thread-worker")
+    public static class ThreadWorker {
+        @GET
+        public boolean emThreadVirtual() {
+            return Thread.currentThread().isVirtual();
+        }
+    }
+
+    @Test
+    void somenteControllersAnotadosRodamEmThreadsVirtuais() {
+        given().when().get("/teste/thread-virtual").then().statusCode(200).body(equalTo("true"));
+        given().when().get("/teste/thread-worker").then().statusCode(200).body(equalTo("false"));
+    }
+
+    @Test
+    void controllerEmThreadVirtualGravaERespondeErros() {
+        criarPaciente("Paciente Virtual", "44455566601");
+
+        given().when().get("/api/v1/pacientes/cpf/44455566601")
+                .then().statusCode(200).body("nome", equalTo("Paciente Virtual"));
+        given().when().delete("/api/v1/pacientes/999999")
+                .then().statusCode(404);
+    }
+}
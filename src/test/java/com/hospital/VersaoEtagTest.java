@@ -0,0 +1,140 @@
+package com.hospital;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hospital.Cadastros.agendar;
+import static com.hospital.Cadastros.criarMedico;
+import static com.hospital.Cadastros.criarPaciente;
+import static com.hospital.Cadastros.medico;
+import static com.hospital.Cadastros.paciente;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Leituras devolvem um ETag calculado pela versão dos registros e respondem {@code 304} quando o
+ * cliente já tem essa versão; escritas com {@code If-Match} só gravam sobre a versão que o cliente leu.
+ */
+@QuarkusTest
+class VersaoEtagTest {
+
+    private static final Map<String, Object> PACIENTE = paciente("Paciente Versionado", "22233344408");
+
+    @Test
+    void leituraCondicionalEEscritaComIfMatch() {
+        Long id = given()
+                .contentType(ContentType.JSON)
+                .body(PACIENTE)
+                .when().post("/api/v1/pacientes")
+                .then().statusCode(201)
+                .body("versao", equalTo(0))
+                .extract().jsonPath().getLong("id");
+        String etag = given().when().get("/api/v1/pacientes/" + id)
+                .then().statusCode(200)
+                .extract().header("ETag");
+        // O RestAssured aceita gzip: o ETag é fraco, já que a resposta pode sair comprimida
+        assertEquals("W/\"" + id + ".0\"", etag);
+
+        given().header("If-None-Match", etag)
+                .when().get("/api/v1/pacientes/" + id)
+                .then().statusCode(304).header("ETag", etag).body(emptyString());
+
+        String novoEtag = given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(comEndereco("Rua da Versão, 9"))
+                .when().put("/api/v1/pacientes/" + id)
+                .then().statusCode(200)
+                .body("versao", equalTo(1))
+                .extract().header("ETag");
+        assertEquals("W/\"" + id + ".1\"", novoEtag);
+
+        // Quem ainda tem a versão 0 não sobrescreve a alteração
+        given().contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(comEndereco("Rua Antiga, 1"))
+                .when().put("/api/v1/pacientes/" + id)
+                .then().statusCode(412);
+        given().header("If-Match", etag)
+                .when().delete("/api/v1/pacientes/" + id)
+                .then().statusCode(412);
+        given().header("If-None-Match", etag)
+                .when().get("/api/v1/pacientes/" + id)
+                .then().statusCode(200).body("endereco", equalTo("Rua da Versão, 9"));
+
+        given().header("If-Match", "\"versao\"")
+                .when().delete("/api/v1/pacientes/" + id)
+                .then().statusCode(400);
+        given().header("If-Match", "\"" + (id + 1) + ".1\"")
+                .when().delete("/api/v1/pacientes/" + id)
+                .then().statusCode(412);
+        given().header("If-Match", novoEtag)
+                .when().delete("/api/v1/pacientes/" + id)
+                .then().statusCode(204);
+    }
+
+    @Test
+    void listaMudaDeEtagQuandoUmItemMuda() {
+        long medicoId = criarMedico("78008");
+        long consultaId = agendar(medicoId, criarPaciente("22233344409"), "2032-03-01T10:00:00");
+
+        String url = "/api/v1/consultas/medico/" + medicoId + "?limit=20";
+        String etag = given().when().get(url)
+                .then().statusCode(200).header("ETag", startsWith("W/\""))
+                .extract().header("ETag");
+        given().header("If-None-Match", "\"outro\", " + etag)
+                .when().get(url)
+                .then().statusCode(304);
+
+        given().when().put("/api/v1/consultas/" + consultaId + "/cancelar").then().statusCode(200);
+        String depois = given().header("If-None-Match", etag)
+                .when().get(url)
+                .then().statusCode(200).body("itens[0].status", equalTo("CANCELADA"))
+                .extract().header("ETag");
+        assertNotEquals(etag, depois);
+    }
+
+    @Test
+    void buscaPorNomeDevolveAVersaoGravada() {
+        Map<String, Object> paciente = paciente("Leocádia Versionada", "22233344418");
+        long pacienteId = criarPaciente("Leocádia Versionada", "22233344418");
+        Map<String, Object> alterado = new HashMap<>(paciente);
+        alterado.put("endereco", "Rua Nova, 18");
+        given().contentType(ContentType.JSON).body(alterado)
+                .when().put("/api/v1/pacientes/" + pacienteId)
+                .then().statusCode(200).body("versao", equalTo(1));
+
+        // O índice de busca guarda o DTO do evento, que precisa trazer a versão gravada
+        int versao = given().when().get("/api/v1/pacientes/busca?nome=leocadia versionada")
+                .then().statusCode(200).body("id", contains((int) pacienteId))
+                .extract().jsonPath().getInt("[0].versao");
+        assertEquals(1, versao);
+        given().contentType(ContentType.JSON).header("If-Match", "\"" + pacienteId + "." + versao + "\"")
+                .body(paciente)
+                .when().put("/api/v1/pacientes/" + pacienteId)
+                .then().statusCode(200).body("versao", equalTo(2));
+
+        long medicoId = criarMedico("Dr. Hermenegildo Versionado", "78017", List.of());
+        given().contentType(ContentType.JSON).body(medico("Dr. Hermenegildo Versionado", "78018", List.of()))
+                .when().put("/api/v1/medicos/" + medicoId)
+                .then().statusCode(200);
+        given().when().get("/api/v1/medicos/busca?nome=hermenegildo")
+                .then().statusCode(200).body("versao", contains(1));
+    }
+
+    private static Map<String, Object> comEndereco(String endereco) {
+        Map<String, Object> corpo = new HashMap<>(PACIENTE);
+        corpo.put("endereco", endereco);
+        return corpo;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hospital.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * As listagens por streaming só leem registros à medida que o assinante os pede e a chamada gRPC aceita
+ * mais mensagens, e param de ler quando o cliente cancela.
+ */
+@QuarkusTest
+class ChamadasGrpcTest {
+
+    private static final int REGISTROS = 1000;
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    @Test
+    void exportacaoAcompanhaOPedidoEAProntidaoDaChamada() throws InterruptedException {
+        AtomicInteger lidos = new AtomicInteger();
+        ChamadaFalsa chamada = new ChamadaFalsa();
+        ControleFluxoGrpc.Prontidao prontidao = new ControleFluxoGrpc.Prontidao(chamada);
+
+        AssertSubscriber<Integer> assinante = ChamadasGrpc.<Integer>transmitir(consumidor -> {
+            for (int i = 0; i < REGISTROS; i++) {
+                lidos.incrementAndGet();
+                consumidor.accept(i);
+            }
+        }, prontidao).subscribe().withSubscriber(AssertSubscriber.create(2));
+
+        assinante.awaitItems(2, ESPERA);
+        Thread.sleep(200);
+        // O terceiro registro já foi lido e espera um novo pedido
+        assertTrue(lidos.get() <= 3, "lidos: " + lidos.get());
+
+        chamada.pronta = false;
+        assinante.request(Long.MAX_VALUE);
+        Thread.sleep(200);
+        assertTrue(lidos.get() <= 4, "lidos: " + lidos.get());
+
+        chamada.pronta = true;
+        prontidao.avisar();
+        assinante.awaitCompletion(ESPERA);
+        assertEquals(REGISTROS, assinante.getItems().size());
+    }
+
+    @Test
+    void cancelamentoInterrompeAExportacao() throws InterruptedException {
+        AtomicInteger lidos = new AtomicInteger();
+        CountDownLatch encerrada = new CountDownLatch(1);
+
+        AssertSubscriber<Integer> assinante = ChamadasGrpc.<Integer>transmitir(consumidor -> {
+            try {
+                for (int i = 0; i < REGISTROS; i++) {
+                    lidos.incrementAndGet();
+                    consumidor.accept(i);
+                }
+            } finally {
+                encerrada.countDown();
+            }
+        }, null).subscribe().withSubscriber(AssertSubscriber.create(1));
+
+        assinante.awaitItems(1, ESPERA);
+        assinante.cancel();
+        assertTrue(encerrada.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        assertTrue(lidos.get() <= 2, "lidos: " + lidos.get());
+    }
+
+    /** Chamada cuja prontidão o teste controla, como a fila de escrita do HTTP/2 cheia ou vazia. */
+    private static final class ChamadaFalsa extends ServerCall<Object, Object> {
+
+        volatile boolean pronta = true;
+
+        @Override
+        public boolean isReady() {
+            return pronta;
+        }
+
+        @Override
+        public void request(int quantidade) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata cabecalhos) {
+        }
+
+        @Override
+        public void sendMessage(Object mensagem) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public MethodDescriptor<Object, Object> getMethodDescriptor() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}